@@ -0,0 +1,126 @@
+package com.github.steveash.jtribespso.jfr;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import jdk.jfr.EventType;
+
+import com.github.steveash.jtribespso.metrics.ISwarmProbe;
+
+/**
+ * Turns the activity of a search space into Java Flight Recorder events so that optimizer phases can be lined up
+ * with GC pauses and CPU samples in the same recording:
+ * <pre>
+ *     space.setProbe(new JfrSwarmProbe());
+ * </pre>
+ * The events are controlled with the standard JFR settings by name.  SwarmIteration and SwarmAdaptation are
+ * enabled by default, ObjectiveEvaluation has to be switched on, e.g.
+ * <pre>
+ *     -XX:StartFlightRecording=settings=profile,+com.github.steveash.jtribespso.ObjectiveEvaluation#enabled=true
+ * </pre>
+ * (or the same setting in a .jfc file or a jdk.jfr.Recording).  Each event type also honours its threshold
+ * setting.  While an event type is disabled its probe method returns null after a single check of the event type,
+ * without allocating anything.
+ * <p/>
+ * On top of the JFR settings, only one in every evaluationSampleInterval evaluations is considered for an event,
+ * because recording millions of cheap evaluations would swamp the recording
+ */
+public class JfrSwarmProbe implements ISwarmProbe {
+
+    public static final int DefaultEvaluationSampleInterval = 1000;
+
+    private static final EventType IterationType = EventType.getEventType(SwarmIterationEvent.class);
+    private static final EventType AdaptationType = EventType.getEventType(SwarmAdaptationEvent.class);
+    private static final EventType EvaluationType = EventType.getEventType(ObjectiveEvaluationEvent.class);
+
+    private final int evaluationSampleInterval;
+
+    public JfrSwarmProbe() {
+        this(DefaultEvaluationSampleInterval);
+    }
+
+    /**
+     * @param evaluationSampleInterval on average one evaluation in this many is recorded.  1 records them all
+     */
+    public JfrSwarmProbe(int evaluationSampleInterval) {
+        if (evaluationSampleInterval < 1) {
+            throw new IllegalArgumentException("the sample interval must be at least 1");
+        }
+        this.evaluationSampleInterval = evaluationSampleInterval;
+    }
+
+    @Override
+    public Object iterationStarted(long iteration) {
+        if (!IterationType.isEnabled()) {
+            return null;
+        }
+        SwarmIterationEvent event = new SwarmIterationEvent();
+        event.iteration = iteration;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void iterationFinished(Object context, int tribeCount, int swarmSize, double bestError, long evaluations) {
+        SwarmIterationEvent event = (SwarmIterationEvent) context;
+        event.end();
+        if (event.shouldCommit()) {
+            event.tribes = tribeCount;
+            event.particles = swarmSize;
+            event.bestError = bestError;
+            event.evaluations = evaluations;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object adaptationStarted(long adaptation) {
+        if (!AdaptationType.isEnabled()) {
+            return null;
+        }
+        SwarmAdaptationEvent event = new SwarmAdaptationEvent();
+        event.adaptation = adaptation;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void adaptationFinished(Object context, int tribesCreated, int tribesRemoved, int particlesCreated,
+            int particlesRemoved, int tribeCount, int swarmSize) {
+
+        SwarmAdaptationEvent event = (SwarmAdaptationEvent) context;
+        event.end();
+        if (event.shouldCommit()) {
+            event.tribesCreated = tribesCreated;
+            event.tribesRemoved = tribesRemoved;
+            event.particlesCreated = particlesCreated;
+            event.particlesRemoved = particlesRemoved;
+            event.tribes = tribeCount;
+            event.particles = swarmSize;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object evaluationStarted() {
+        if (!EvaluationType.isEnabled()) {
+            return null;
+        }
+        if (evaluationSampleInterval > 1 && ThreadLocalRandom.current().nextInt(evaluationSampleInterval) != 0) {
+            return null;
+        }
+        ObjectiveEvaluationEvent event = new ObjectiveEvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void evaluationFinished(Object context, int particleId, double error) {
+        ObjectiveEvaluationEvent event = (ObjectiveEvaluationEvent) context;
+        event.end();
+        if (event.shouldCommit()) {
+            event.particleId = particleId;
+            event.error = error;
+            event.commit();
+        }
+    }
+}
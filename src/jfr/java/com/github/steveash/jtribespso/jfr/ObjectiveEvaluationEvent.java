@@ -0,0 +1,29 @@
+package com.github.steveash.jtribespso.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A sampled evaluation of the objective function at a particle's new position.  Disabled by default because
+ * evaluations are far more frequent than the other events
+ */
+@Name(ObjectiveEvaluationEvent.Name)
+@Label("Objective Function Evaluation")
+@Category({"jTribesPSO"})
+@Description("A sampled IObjectiveFunction.evaluate() call made by a moving particle")
+@Enabled(false)
+@StackTrace(false)
+public class ObjectiveEvaluationEvent extends jdk.jfr.Event {
+
+    public static final String Name = "com.github.steveash.jtribespso.ObjectiveEvaluation";
+
+    @Label("Particle Id")
+    int particleId;
+
+    @Label("Error")
+    double error;
+}
@@ -0,0 +1,41 @@
+package com.github.steveash.jtribespso.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One adaptation of the swarm size
+ */
+@Name(SwarmAdaptationEvent.Name)
+@Label("Swarm Adaptation")
+@Category({"jTribesPSO"})
+@Description("Good tribes lose their worst particle and bad tribes spawn a new tribe")
+@StackTrace(false)
+public class SwarmAdaptationEvent extends jdk.jfr.Event {
+
+    public static final String Name = "com.github.steveash.jtribespso.SwarmAdaptation";
+
+    @Label("Adaptation")
+    long adaptation;
+
+    @Label("Tribes Created")
+    int tribesCreated;
+
+    @Label("Tribes Removed")
+    int tribesRemoved;
+
+    @Label("Particles Created")
+    int particlesCreated;
+
+    @Label("Particles Killed")
+    int particlesRemoved;
+
+    @Label("Tribes")
+    int tribes;
+
+    @Label("Particles")
+    int particles;
+}
@@ -0,0 +1,36 @@
+package com.github.steveash.jtribespso.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to SearchSpace.moveThenAdapt() that moved the swarm, including the adaptation if one was due
+ */
+@Name(SwarmIterationEvent.Name)
+@Label("Swarm Iteration")
+@Category({"jTribesPSO"})
+@Description("A move of the whole swarm followed by an adaptation when one is due")
+@StackTrace(false)
+public class SwarmIterationEvent extends jdk.jfr.Event {
+
+    public static final String Name = "com.github.steveash.jtribespso.SwarmIteration";
+
+    @Label("Iteration")
+    long iteration;
+
+    @Label("Tribes")
+    int tribes;
+
+    @Label("Particles")
+    int particles;
+
+    @Label("Best Error")
+    double bestError;
+
+    @Label("Evaluations")
+    @Description("Objective function evaluations made by the search space so far")
+    long evaluations;
+}
@@ -0,0 +1,103 @@
+package com.github.steveash.jtribespso.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Enabled;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.benchmark.Sphere;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+
+/**
+This is a test class for JfrSwarmProbe and is intended
+to contain all JfrSwarmProbe Unit Tests
+*/
+public class JfrSwarmProbeTest {
+
+	@Test
+	public void recordsEnabledEventsTest() throws IOException {
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Sphere(3));
+		space.setProbe(new JfrSwarmProbe(1));
+
+		List<RecordedEvent> events;
+		try (Recording recording = new Recording()) {
+			recording.enable(SwarmIterationEvent.Name);
+			recording.enable(SwarmAdaptationEvent.Name);
+			recording.enable(ObjectiveEvaluationEvent.Name);
+			recording.start();
+			for (int n = 0; n < 41; n++) {
+				space.moveThenAdapt();
+			}
+			recording.stop();
+			events = readEvents(recording);
+		}
+
+		assertEquals(40, count(events, SwarmIterationEvent.Name));
+		assertEquals(space.adaptationCount(), count(events, SwarmAdaptationEvent.Name));
+		assertTrue(count(events, ObjectiveEvaluationEvent.Name) > 0);
+		for (RecordedEvent event : events) {
+			if (event.getEventType().getName().equals(SwarmIterationEvent.Name)) {
+				assertTrue(event.getLong("iteration") >= 1 && event.getLong("iteration") <= 40);
+				assertTrue(event.getInt("particles") > 0);
+			}
+		}
+	}
+
+	/**
+	 * The default configuration doesn't mention the swarm events, so each one falls back to its own @Enabled
+	 * annotation: the iterations are recorded and the evaluations aren't
+	 */
+	@Test
+	public void evaluationsAreDisabledByDefaultTest() throws IOException, ParseException {
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Sphere(3));
+		space.setProbe(new JfrSwarmProbe(1));
+		assertFalse(ObjectiveEvaluationEvent.class.getAnnotation(Enabled.class).value());
+
+		List<RecordedEvent> events;
+		try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+			recording.start();
+			for (int n = 0; n < 11; n++) {
+				space.moveThenAdapt();
+			}
+			recording.stop();
+			events = readEvents(recording);
+		}
+
+		assertEquals(10, count(events, SwarmIterationEvent.Name));
+		assertEquals(0, count(events, ObjectiveEvaluationEvent.Name));
+	}
+
+	private static List<RecordedEvent> readEvents(Recording recording) throws IOException {
+		Path file = Files.createTempFile("swarm", ".jfr");
+		try {
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static long count(List<RecordedEvent> events, String name) {
+		long count = 0;
+		for (RecordedEvent event : events) {
+			if (event.getEventType().getName().equals(name)) {
+				count += 1;
+			}
+		}
+		return count;
+	}
+}
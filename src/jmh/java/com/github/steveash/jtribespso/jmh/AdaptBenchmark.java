@@ -0,0 +1,91 @@
+package com.github.steveash.jtribespso.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.SwarmCheckpoint;
+import com.github.steveash.jtribespso.benchmark.Sphere;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.seed.UniformStrategy;
+
+/**
+ * One adaptation of a swarm of a given number of tribes.  Adapting changes the swarm, so every invocation adapts
+ * a fresh copy of the same swarm, restored from a checkpoint (which doesn't evaluate anything)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AdaptBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int tribes;
+
+    @Param({"10"})
+    public int dimensions;
+
+    private IObjectiveFunction function;
+    private byte[] checkpoint;
+    private AdaptableSearchSpace space;
+
+    @Setup(Level.Trial)
+    public void createSwarm() throws IOException {
+        function = new Sphere(dimensions);
+        AdaptableSearchSpace original = new AdaptableSearchSpace(function);
+        original.setInitialPositionStrategy(new UniformStrategy(), tribes);
+        original.moveThenAdapt();
+        // give the particles a history to judge them by.  The space never adapts on its own, so every tribe is
+        // still "bad" and the adaptation creates a new tribe with a particle for each of them
+        for (int n = 0; n < 3; n++) {
+            original.moveThenAdapt();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SwarmCheckpoint.write(original, Channels.newChannel(bytes));
+        checkpoint = bytes.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreSwarm() throws IOException {
+        space = new AdaptableSearchSpace(function);
+        SwarmCheckpoint.restore(space, Channels.newChannel(new ByteArrayInputStream(checkpoint)));
+    }
+
+    @Benchmark
+    public int adapt() {
+        space.adaptNow();
+        return space.tribeCount();
+    }
+
+    /**
+     * Exposes the adaptation of a search space
+     */
+    public static class AdaptableSearchSpace extends SingleThreadedHypersphereSearchSpace {
+
+        public AdaptableSearchSpace(IObjectiveFunction objectiveFunction) {
+            super(objectiveFunction);
+        }
+
+        @Override
+        protected boolean needsToAdapt(int movesSinceLastAdaptation) {
+            return false;
+        }
+
+        void adaptNow() {
+            adapt();
+        }
+    }
+}
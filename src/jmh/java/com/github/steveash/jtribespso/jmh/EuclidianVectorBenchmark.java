@@ -0,0 +1,62 @@
+package com.github.steveash.jtribespso.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+
+/**
+ * The vector arithmetic every particle move is made of
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EuclidianVectorBenchmark {
+
+    @Param({"2", "10", "100"})
+    public int dimensions;
+
+    private EuclidianVector a;
+    private EuclidianVector b;
+
+    @Setup
+    public void setup() {
+        HyperspaceRandom rng = new HyperspaceRandom(42);
+        a = rng.nextGaussianVector(EuclidianVector.origin(dimensions));
+        b = rng.nextGaussianVector(EuclidianVector.origin(dimensions));
+    }
+
+    @Benchmark
+    public EuclidianVector add() {
+        return EuclidianVector.add(a, b);
+    }
+
+    @Benchmark
+    public EuclidianVector subtract() {
+        return EuclidianVector.subtract(a, b);
+    }
+
+    @Benchmark
+    public EuclidianVector multiply() {
+        return EuclidianVector.multiply(a, 0.5);
+    }
+
+    @Benchmark
+    public double magnitude() {
+        return a.magnitude();
+    }
+
+    @Benchmark
+    public EuclidianVector centerOfGravity() {
+        return EuclidianVector.centerOfGravity(a, 2, b, 1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.steveash.jtribespso.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.steveash.jtribespso.fit.MultiGaussianFitObjective;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+
+/**
+ * The multi gaussian curve fitting kernel, per guess: with Math.exp, with FastExp and in batches of BatchSize
+ * guesses per pass over the data
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GaussianFitBenchmark {
+
+    private static final int BatchSize = 16;
+
+    @Param({"1000", "1000000"})
+    public int rows;
+
+    @Param({"2", "5"})
+    public int curves;
+
+    private MultiGaussianFitObjective exact;
+    private MultiGaussianFitObjective fast;
+    private double[][] guesses;
+    private double[] errors;
+
+    @Setup
+    public void setup() {
+        HyperspaceRandom rng = new HyperspaceRandom(42);
+        double[] xs = new double[rows];
+        double[] ys = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            xs[i] = i;
+            ys[i] = rng.nextDouble();
+        }
+        exact = new MultiGaussianFitObjective(curves, xs, ys, false);
+        fast = new MultiGaussianFitObjective(curves, xs, ys, true);
+
+        guesses = new double[BatchSize][3 * curves];
+        for (double[] guess : guesses) {
+            for (int n = 0; n < guess.length; n++) {
+                guess[n] = rng.nextDouble(exact.getMinBounds().get(n), exact.getMaxBounds().get(n));
+            }
+        }
+        errors = new double[BatchSize];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BatchSize)
+    public double mathExp() {
+        double sum = 0;
+        for (double[] guess : guesses) {
+            sum += exact.evaluate(guess);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BatchSize)
+    public double fastExp() {
+        double sum = 0;
+        for (double[] guess : guesses) {
+            sum += fast.evaluate(guess);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BatchSize)
+    public double[] fastExpBatch() {
+        fast.evaluateBatch(guesses, errors);
+        return errors;
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.steveash.jtribespso.jmh;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.benchmark.Sphere;
+import com.github.steveash.jtribespso.impl.MultithreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.seed.UniformStrategy;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Full iterations of a search space on the sphere function.  Each measurement iteration starts from a freshly
+ * seeded swarm of the given number of tribes, so the swarm size drifts only as much as one measurement iteration
+ * of adaptations allows.  A thread count of 1 uses the single threaded search space
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MoveThenAdaptBenchmark {
+
+    @Param({"2", "10", "30"})
+    public int dimensions;
+
+    @Param({"10", "100", "1000"})
+    public int tribes;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private ListeningExecutorService pool;
+    private SearchSpace<?> space;
+
+    @Setup(Level.Trial)
+    public void createPool() {
+        if (threads > 1) {
+            pool = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void seedSwarm() {
+        IObjectiveFunction function = new Sphere(dimensions);
+        if (threads > 1) {
+            space = new MultithreadedHypersphereSearchSpace(pool, function, threads);
+        } else {
+            space = new SingleThreadedHypersphereSearchSpace(function);
+        }
+        space.setInitialPositionStrategy(new UniformStrategy(), tribes);
+        space.moveThenAdapt();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownPool() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public SearchSpace<?> moveThenAdapt() {
+        space.moveThenAdapt();
+        return space;
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.steveash.jtribespso.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.Particle;
+import com.github.steveash.jtribespso.Tribe;
+import com.github.steveash.jtribespso.benchmark.Sphere;
+import com.github.steveash.jtribespso.impl.HypersphereParticle;
+import com.github.steveash.jtribespso.impl.IndependentGaussianParticle;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.google.common.collect.Lists;
+
+/**
+ * Moves every particle of a tribe towards its shaman, which measures a single particle move (informer selection,
+ * new position, bounds correction, evaluation and bookkeeping) on the cheap sphere function
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParticleMoveBenchmark {
+
+    private static final int TribeSize = 20;
+
+    @Param({"hypersphere", "gaussian"})
+    public String particle;
+
+    @Param({"2", "10", "100"})
+    public int dimensions;
+
+    private Tribe tribe;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        IObjectiveFunction function = new Sphere(dimensions);
+        HyperspaceRandom rng = new HyperspaceRandom(42);
+        List<Particle> members = Lists.newArrayList();
+        for (int i = 0; i < TribeSize; i++) {
+            EuclidianVector position = rng.nextGaussianVector(EuclidianVector.origin(dimensions), 5);
+            if (particle.equals("hypersphere")) {
+                members.add(new HypersphereParticle(function, position));
+            } else {
+                members.add(new IndependentGaussianParticle(function, position));
+            }
+        }
+        tribe = new Tribe(members);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TribeSize)
+    public void move() {
+        for (Particle member : tribe.tribeMembers()) {
+            member.move();
+        }
+        tribe.notifySwarmMoved();
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.steveash.jtribespso.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.rand.GaussianRandom;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+
+/**
+ * The random number generators that position every new particle and every move
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RandomBenchmark {
+
+    @Param({"2", "10", "100"})
+    public int dimensions;
+
+    private GaussianRandom gaussian;
+    private HyperspaceRandom hyperspace;
+    private EuclidianVector center;
+
+    @Setup
+    public void setup() {
+        gaussian = new GaussianRandom(42);
+        hyperspace = new HyperspaceRandom(42);
+        center = EuclidianVector.origin(dimensions);
+    }
+
+    @Benchmark
+    public double nextGaussian() {
+        return gaussian.nextGaussian();
+    }
+
+    @Benchmark
+    public EuclidianVector nextGaussianVector() {
+        return hyperspace.nextGaussianVector(center, 2.0);
+    }
+
+    @Benchmark
+    public EuclidianVector nextUniformVector() {
+        return hyperspace.nextUniformVector(center, 2.0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.steveash.jtribespso;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An objective function that reads the guess from a primitive array.  Search spaces evaluate it through the
+ * IObjectiveFunction interface like any other function, but the position is handed over as the vector's own
+ * array, so implementations index a double[] directly instead of going through EuclidianVector.get() and the
+ * move path doesn't copy anything.
+ * <p/>
+ * Override evaluate(double[], double) to abandon guesses that can't beat the cutoff early.  Use adapt() to view
+ * an existing IObjectiveFunction as a DoubleObjectiveFunction
+ */
+public abstract class DoubleObjectiveFunction implements IAbortableObjectiveFunction {
+
+    /**
+     * @param x the coordinates of the guess, exactly getDimensions() long.  The array may be the backing array of
+     * an immutable EuclidianVector, so implementations must not modify it or keep a reference to it
+     * @return fitness of this guess
+     */
+    public abstract double evaluate(double[] x);
+
+    /**
+     * Evaluates a guess that is only interesting if its fitness is below the cutoff.  The default implementation
+     * always evaluates the guess completely
+     * @param x the coordinates of the guess, with the same restrictions as evaluate(double[])
+     * @param cutoff
+     * @return the exact fitness of the guess if it is below the cutoff, otherwise any value greater than or equal
+     * to the cutoff
+     */
+    public double evaluate(double[] x, double cutoff) {
+        return evaluate(x);
+    }
+
+    @Override
+    public final double evaluate(EuclidianVector guess) {
+        return evaluate(guess.backingArray());
+    }
+
+    @Override
+    public final double evaluate(EuclidianVector guess, double cutoff) {
+        return evaluate(guess.backingArray(), cutoff);
+    }
+
+    /**
+     * @param function
+     * @return the function itself if it already is a DoubleObjectiveFunction, otherwise a view that copies each
+     * guess into a EuclidianVector
+     */
+    public static DoubleObjectiveFunction adapt(IObjectiveFunction function) {
+        if (function instanceof DoubleObjectiveFunction) {
+            return (DoubleObjectiveFunction) function;
+        }
+        return new Adapter(function);
+    }
+
+    private static class Adapter extends DoubleObjectiveFunction {
+        private final IObjectiveFunction function;
+
+        Adapter(IObjectiveFunction function) {
+            this.function = checkNotNull(function);
+        }
+
+        @Override
+        public double evaluate(double[] x) {
+            return function.evaluate(new EuclidianVector(x));
+        }
+
+        @Override
+        public double evaluate(double[] x, double cutoff) {
+            if (function instanceof IAbortableObjectiveFunction) {
+                return ((IAbortableObjectiveFunction) function).evaluate(new EuclidianVector(x), cutoff);
+            }
+            return evaluate(x);
+        }
+
+        @Override
+        public int getDimensions() {
+            return function.getDimensions();
+        }
+
+        @Override
+        public EuclidianVector getMinBounds() {
+            return function.getMinBounds();
+        }
+
+        @Override
+        public EuclidianVector getMaxBounds() {
+            return function.getMaxBounds();
+        }
+
+        @Override
+        public EuclidianVector getInitialGuess() {
+            return function.getInitialGuess();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.steveash.jtribespso;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 import com.carrotsearch.hppc.DoubleArrayList;
@@ -10,46 +11,79 @@ import com.github.steveash.jtribespso.exception.DimensionMismatchException;
  */
 public class EuclidianVector {
 
+    /**
+     * Creates a vector that shares the list's buffer when it is exactly full.  The list must not be changed
+     * afterwards
+     * @param backing
+     * @return
+     */
     public static EuclidianVector createUsingBacking(DoubleArrayList backing) {
-        return new EuclidianVector(backing);
+        if (backing.buffer.length == backing.size()) {
+            return new EuclidianVector(backing.buffer, true);
+        }
+        return new EuclidianVector(backing.toArray(), true);
     }
 
     public static EuclidianVector copyOf(DoubleArrayList source) {
-        return new EuclidianVector(new DoubleArrayList(source));
+        return new EuclidianVector(source.toArray(), true);
+    }
+
+    /**
+     * Wraps the array without copying it.  Only for freshly computed arrays that nothing else will ever change
+     * @param backing
+     * @return
+     */
+    static EuclidianVector wrap(double[] backing) {
+        return new EuclidianVector(backing, true);
     }
 
-    private final DoubleArrayList dimensionData;
+    private final double[] dimensionData;
 
     public int getDimensions() {
-        return dimensionData.size();
+        return dimensionData.length;
     }
 
     public EuclidianVector(double... data) {
-        this.dimensionData = new DoubleArrayList(data.length);
-        dimensionData.add(data);
+        this.dimensionData = data.clone();
     }
 
     public EuclidianVector(Collection<Double> data) {
-        this.dimensionData = new DoubleArrayList(data.size());
+        this.dimensionData = new double[data.size()];
+        int n = 0;
         for (Double datum : data) {
-            dimensionData.add(datum);
+            dimensionData[n++] = datum;
         }
     }
 
-    private EuclidianVector(DoubleArrayList backing) {
+    // the flag only tells this constructor apart from the copying varargs one
+    private EuclidianVector(double[] backing, boolean shared) {
         this.dimensionData = backing;
     }
 
     public double magnitude() {
         double sum = 0;
-        for (int n = 0; n < this.dimensionData.size(); n++) {
-            sum += Math.pow(dimensionData.get(n), 2.0);
+        for (int n = 0; n < this.dimensionData.length; n++) {
+            sum += Math.pow(dimensionData[n], 2.0);
         }
         return Math.sqrt(sum);
     }
 
     public double get(int index) {
-        return dimensionData.get(index);
+        return dimensionData[index];
+    }
+
+    /**
+     * @return a copy of the coordinates
+     */
+    public double[] toArray() {
+        return dimensionData.clone();
+    }
+
+    /**
+     * @return the coordinates without copying them.  Callers must treat the array as read only
+     */
+    double[] backingArray() {
+        return dimensionData;
     }
 
     /**
@@ -61,11 +95,11 @@ public class EuclidianVector {
     public static EuclidianVector subtract(EuclidianVector a, EuclidianVector b) {
         throwIfUnequalDimensions(a, b);
 
-        DoubleArrayList deltas = new DoubleArrayList(a.getDimensions());
+        double[] deltas = new double[a.getDimensions()];
         for (int i = 0; i < a.getDimensions(); i++) {
-            deltas.add(a.get(i) - b.get(i));
+            deltas[i] = a.get(i) - b.get(i);
         }
-        return createUsingBacking(deltas);
+        return wrap(deltas);
     }
 
     /**
@@ -77,11 +111,11 @@ public class EuclidianVector {
     public static EuclidianVector add(EuclidianVector a, EuclidianVector b) {
         throwIfUnequalDimensions(a, b);
 
-        DoubleArrayList deltas = new DoubleArrayList(a.getDimensions());
+        double[] deltas = new double[a.getDimensions()];
         for (int i = 0; i < a.getDimensions(); i++) {
-            deltas.add(a.get(i) + b.get(i));
+            deltas[i] = a.get(i) + b.get(i);
         }
-        return createUsingBacking(deltas);
+        return wrap(deltas);
     }
 
     private static void throwIfUnequalDimensions(EuclidianVector a, EuclidianVector b) {
@@ -96,11 +130,11 @@ public class EuclidianVector {
      * @return
      */
     public static EuclidianVector divide(EuclidianVector a, double divisor) {
-        DoubleArrayList deltas = new DoubleArrayList(a.getDimensions());
+        double[] deltas = new double[a.getDimensions()];
         for (int i = 0; i < a.getDimensions(); i++) {
-            deltas.add(a.get(i) / divisor);
+            deltas[i] = a.get(i) / divisor;
         }
-        return createUsingBacking(deltas);
+        return wrap(deltas);
     }
 
     /**
@@ -110,11 +144,11 @@ public class EuclidianVector {
      * @return
      */
     public static EuclidianVector multiply(EuclidianVector a, double scalar) {
-        DoubleArrayList deltas = new DoubleArrayList(a.getDimensions());
+        double[] deltas = new double[a.getDimensions()];
         for (int i = 0; i < a.getDimensions(); i++) {
-            deltas.add(a.get(i) * scalar);
+            deltas[i] = a.get(i) * scalar;
         }
-        return createUsingBacking(deltas);
+        return wrap(deltas);
     }
 
     /**
@@ -123,11 +157,7 @@ public class EuclidianVector {
      * @return
      */
     public static EuclidianVector origin(int dimensions) {
-        DoubleArrayList zeroes = new DoubleArrayList(dimensions);
-        for (int i = 0; i < dimensions; i++) {
-            zeroes.add(0);
-        }
-        return createUsingBacking(zeroes);
+        return wrap(new double[dimensions]);
     }
 
     /**
@@ -152,14 +182,14 @@ public class EuclidianVector {
      */
     public static EuclidianVector centerOfGravity(EuclidianVector a, double aMass, EuclidianVector b, double bMass) {
         throwIfUnequalDimensions(a, b);
-        DoubleArrayList deltas = new DoubleArrayList(a.getDimensions());
+        double[] deltas = new double[a.getDimensions()];
         for (int i = 0; i < a.getDimensions(); i++) {
             double aa = a.get(i);
             double bb = b.get(i);
             double mass = (aa * aMass + bb * bMass) / (aMass + bMass);
-            deltas.add(mass);
+            deltas[i] = mass;
         }
-        return createUsingBacking(deltas);
+        return wrap(deltas);
     }
 
     @Override
@@ -169,21 +199,16 @@ public class EuclidianVector {
 
         EuclidianVector that = (EuclidianVector) o;
 
-        if (this.dimensionData.size() != that.dimensionData.size()) return false;
-        for (int i = 0; i < this.dimensionData.size(); i++) {
-            if (Double.compare(this.dimensionData.get(i), that.dimensionData.get(i)) != 0) return false;
-        }
-
-        return true;
+        return Arrays.equals(this.dimensionData, that.dimensionData);
     }
 
     @Override
     public int hashCode() {
-        return dimensionData.hashCode();
+        return Arrays.hashCode(dimensionData);
     }
 
     @Override
     public String toString() {
-        return "EuclidianVector{" + dimensionData + '}';
+        return "EuclidianVector{" + Arrays.toString(dimensionData) + '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.github.steveash.jtribespso;
+
+/**
+ * An objective function that can stop evaluating a guess as soon as it knows the guess won't beat a cutoff.  A
+ * particle only cares about a new position if its error is below the particle's best error, so Particle.move()
+ * passes that error as the cutoff.  Functions that add up non-negative terms, like sums of squared residuals, can
+ * stop summing as soon as the partial sum reaches the cutoff
+ */
+public interface IAbortableObjectiveFunction extends IObjectiveFunction {
+
+    /**
+     * @param guess
+     * @param cutoff
+     * @return the exact fitness of the guess if it is below the cutoff.  Otherwise any value that is greater than or
+     * equal to the cutoff, e.g. the partial sum at the point where the evaluation was abandoned
+     */
+    double evaluate(EuclidianVector guess, double cutoff);
+}
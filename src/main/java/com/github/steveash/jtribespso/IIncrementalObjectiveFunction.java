@@ -0,0 +1,25 @@
+package com.github.steveash.jtribespso;
+
+/**
+ * An objective function that can update the error of a known position when only a few of its coordinates change,
+ * e.g. a sum of terms that each depend on one coordinate (separable) or on a few (partially separable).  Updating
+ * the error costs O(changed) instead of the O(dimensions) of a full evaluation.
+ * <p/>
+ * Particle.move() uses the update whenever at most half of the coordinates of a particle change in a move, and
+ * CooperativeSearchSpace uses it to evaluate the guesses of its sub-swarms against the context.  Rounding errors
+ * add up over a chain of updates, so particles fall back to a full evaluation every so many moves.  Particles of an
+ * incremental objective function never pass a cutoff to it, even if it is an IAbortableObjectiveFunction, because
+ * only exact errors can be updated
+ */
+public interface IIncrementalObjectiveFunction extends IObjectiveFunction {
+
+    /**
+     * @param previous a position whose error is known
+     * @param previousError the error at the previous position
+     * @param changed the indexes of the coordinates that change, in ascending order
+     * @param values the new values of the changed coordinates, in the same order as changed
+     * @return the error of the previous position with the changed coordinates replaced, equal to what
+     * evaluate() would return up to rounding
+     */
+    double evaluateChange(EuclidianVector previous, double previousError, int[] changed, double[] values);
+}
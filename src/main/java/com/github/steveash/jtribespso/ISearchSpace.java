@@ -0,0 +1,47 @@
+package com.github.steveash.jtribespso;
+
+/**
+ * The part of a search space that drives an optimization and reports on it.  Optimizer, the stop criteria and the
+ * OptimizationScheduler work with any ISearchSpace.  SearchSpace implements it for a single swarm of tribes, which
+ * can also be configured with metrics, probes and polishers and be checkpointed.  Search spaces that coordinate
+ * swarms created by an ISearchSpaceFactory, like CooperativeSearchSpace and RestartingSearchSpace, only implement
+ * this interface; their swarms are configured through the factory
+ */
+public interface ISearchSpace {
+
+    /**
+     * Seeds the search space on the first call and moves (and adapts) it on every call after that
+     */
+    void moveThenAdapt();
+
+    IObjectiveFunction goodnessFunction();
+
+    /**
+     * @return the best solution found so far, or null before the first call to moveThenAdapt()
+     */
+    Solution bestSolution();
+
+    int tribeCount();
+
+    /**
+     * @return the number of particles
+     */
+    int swarmSize();
+
+    /**
+     * @return the number of times the objective function has been evaluated
+     */
+    long evaluationCount();
+
+    /**
+     * @return the number of moves, not counting the call to moveThenAdapt() that seeds the search space
+     */
+    long iterationCount();
+
+    long adaptationCount();
+
+    /**
+     * @return the root mean square distance of the particles from their centroid
+     */
+    double swarmRadius();
+}
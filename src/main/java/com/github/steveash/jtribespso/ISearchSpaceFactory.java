@@ -0,0 +1,20 @@
+package com.github.steveash.jtribespso;
+
+/**
+ * Creates fresh search spaces, for example one per benchmark run or one per sub-swarm of a CooperativeSearchSpace or
+ * RestartingSearchSpace
+ */
+public interface ISearchSpaceFactory {
+
+    /**
+     * @return the name of the search space implementation used in reports
+     */
+    String getName();
+
+    /**
+     * @param function
+     * @param seed the seed of the run.  Implementations that can't be seeded may ignore it
+     * @return a new search space that hasn't been moved yet
+     */
+    SearchSpace<?> create(IObjectiveFunction function, long seed);
+}
@@ -7,6 +7,11 @@ import java.util.List;
 
 import com.github.steveash.jtribespso.event.ParticleMovedEvent;
 import com.github.steveash.jtribespso.exception.DimensionMismatchException;
+import com.github.steveash.jtribespso.exception.EvaluationAbandonedException;
+import com.github.steveash.jtribespso.metrics.ISwarmProbe;
+import com.github.steveash.jtribespso.metrics.SwarmCounter;
+import com.github.steveash.jtribespso.metrics.SwarmMetrics;
+import com.github.steveash.jtribespso.metrics.SwarmPhase;
 import com.github.steveash.jtribespso.rand.HyperspaceRandom;
 import com.github.steveash.jtribespso.rand.IHyperspaceRandom;
 import com.google.common.annotations.VisibleForTesting;
@@ -25,16 +30,34 @@ public abstract class Particle implements SolutionHolder {
      */
     private static final int HistoryLength = 2;
 
+    /**
+     * The most errors in a row that are updated incrementally before a full evaluation clears the rounding errors
+     * that add up along the chain
+     */
+    static final int MaxIncrementalUpdates = 64;
+
     // Maintains a history of whether or not the particle has improved its best position
     private final List<Boolean> solutionHistory;
     private final IHyperspaceRandom rng;
     private final IObjectiveFunction goodnessFunction;
+    // the goodness function if it can abandon hopeless guesses early, otherwise null
+    private final IAbortableObjectiveFunction abortableFunction;
+    // the goodness function if it can update errors when a few coordinates change, otherwise null
+    private final IIncrementalObjectiveFunction incrementalFunction;
     private final EventBus bus = new EventBus();
 
     private Tribe parent = null;
+    private SearchSpace<?> owner = null;
+    private int id = -1;
     private volatile Solution bestSolution;
     private volatile EuclidianVector position;
     private volatile double currentError;
+    // the number of incremental updates since the current error was last evaluated in full, only touched by move()
+    private int incrementalUpdates = 0;
+    // the move being evaluated if it can be evaluated incrementally
+    private volatile Change pendingChange = null;
+    // the best solution the last polish of this particle ended at, only touched by SearchSpace between moves
+    private Solution polishedSolution = null;
 
     @Override
     public Solution bestSolution() {
@@ -45,6 +68,11 @@ public abstract class Particle implements SolutionHolder {
         return position;
     }
 
+    /**
+     * @return the error at the current position.  With an IAbortableObjectiveFunction that isn't also an
+     * IIncrementalObjectiveFunction this is only a lower bound when the last move didn't improve the particle's best
+     * solution
+     */
     public double getCurrentError() {
         return currentError;
     }
@@ -118,6 +146,25 @@ public abstract class Particle implements SolutionHolder {
         }
     }
 
+    /**
+     * Called by the search space when this particle joins its swarm so that the particle can report its work
+     * back to the search space
+     * @param space
+     */
+    void attachTo(SearchSpace<?> space) {
+        this.owner = space;
+        this.id = space.nextParticleId();
+    }
+
+    /**
+     * Gets the identifier of this particle, which is unique within its search space.  Particles that haven't
+     * joined a search space have an id of -1
+     * @return
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Gets the internal informers of this particle.  Note that if the particle doesn't belong to a tribe,
      * it will only have itself as an informer
@@ -151,22 +198,52 @@ public abstract class Particle implements SolutionHolder {
     protected Particle(IObjectiveFunction objectiveFunction, EuclidianVector initialPosition,
             IHyperspaceRandom randomNumberGenerator) {
 
+        this(objectiveFunction, evaluateInitialPosition(objectiveFunction, initialPosition), randomNumberGenerator);
+    }
+
+    private static Solution evaluateInitialPosition(IObjectiveFunction objectiveFunction,
+            EuclidianVector initialPosition) {
+
         checkNotNull(objectiveFunction);
         checkNotNull(initialPosition);
-        checkNotNull(randomNumberGenerator);
 
         if (objectiveFunction.getDimensions() != initialPosition.getDimensions()) {
             throw new DimensionMismatchException("Goodness function dimensions don't match position dimensions");
         }
+        return new Solution(initialPosition, objectiveFunction.evaluate(initialPosition));
+    }
+
+    /**
+     * Creates a new Particle at the position of a solution whose error is already known.  Unlike the other
+     * constructors, this one doesn't evaluate the objective function, which is what makes restoring a checkpointed
+     * swarm fast
+     * @param objectiveFunction
+     * @param initialSolution
+     * @param randomNumberGenerator
+     */
+    protected Particle(IObjectiveFunction objectiveFunction, Solution initialSolution,
+            IHyperspaceRandom randomNumberGenerator) {
+
+        checkNotNull(objectiveFunction);
+        checkNotNull(initialSolution);
+        checkNotNull(randomNumberGenerator);
+
+        if (objectiveFunction.getDimensions() != initialSolution.getPosition().getDimensions()) {
+            throw new DimensionMismatchException("Goodness function dimensions don't match position dimensions");
+        }
 
         this.solutionHistory = Collections.synchronizedList(
                 Lists.<Boolean>newArrayListWithCapacity(HistoryLength + 1)
         );
         this.goodnessFunction = objectiveFunction;
+        this.abortableFunction = (objectiveFunction instanceof IAbortableObjectiveFunction ?
+                (IAbortableObjectiveFunction) objectiveFunction : null);
+        this.incrementalFunction = (objectiveFunction instanceof IIncrementalObjectiveFunction ?
+                (IIncrementalObjectiveFunction) objectiveFunction : null);
         this.rng = randomNumberGenerator;
-        this.position = initialPosition;
+        this.position = initialSolution.getPosition();
 
-        this.bestSolution = new Solution(initialPosition, objectiveFunction.evaluate(initialPosition));
+        this.bestSolution = initialSolution;
         this.currentError = this.bestSolution.getError();
 
         // prepopulate with two history values
@@ -192,6 +269,10 @@ public abstract class Particle implements SolutionHolder {
          * should normalize the dimensions of the search space first.  I am going to try the first strategy because it
          * is the easiest to code
          */
+        SwarmMetrics metrics = (owner == null ? null : owner.getMetrics());
+        ISwarmProbe probe = (owner == null ? null : owner.getProbe());
+        long start = (metrics == null ? 0 : System.nanoTime());
+
         ImmutableList<Particle> externalInformers = this.externalInformers();
 
         Particle bestInformer = OrderBySolutionErrorAsc.min(this.internalInformers());
@@ -199,6 +280,9 @@ public abstract class Particle implements SolutionHolder {
             Particle bestExternal = OrderBySolutionErrorAsc.min(this.externalInformers());
             bestInformer = OrderBySolutionErrorAsc.min(bestInformer, bestExternal);
         }
+        if (metrics != null) {
+            start = timePhase(metrics, SwarmPhase.SelectInformer, start);
+        }
 
         if (bestInformer == this) {
             //If there's a better informer, we're going to move.  Otherwise we're staying put.
@@ -207,15 +291,46 @@ public abstract class Particle implements SolutionHolder {
         //Capture the best informer's best solution so it doesn't change out from under us in a multithreaded environment
         Solution bestInformerSolution = bestInformer.bestSolution();
         EuclidianVector newPosition = calculateNewPosition(bestInformerSolution);
+        if (metrics != null) {
+            start = timePhase(metrics, SwarmPhase.CalculatePosition, start);
+        }
         newPosition = correctBounds(newPosition);
+        if (metrics != null) {
+            start = timePhase(metrics, SwarmPhase.CorrectBounds, start);
+        }
 
         //Now that we've got our new location, check if it's better and do the necessary book keeping if it is
-        double newError = this.goodnessFunction.evaluate(newPosition);
+        Object evaluationProbe = (probe == null ? null : probe.evaluationStarted());
+        Change change = (incrementalFunction == null ? null : changeTo(newPosition));
+        pendingChange = change;
+        double newError;
+        try {
+            newError = (owner != null ? owner.evaluateMove(this, newPosition) : evaluateCandidate(newPosition));
+        } catch (EvaluationAbandonedException e) {
+            // the search space gave up waiting, so this particle sits the iteration out
+            return;
+        } finally {
+            pendingChange = null;
+        }
+        incrementalUpdates = (change == null ? 0 : incrementalUpdates + 1);
+        if (evaluationProbe != null) {
+            probe.evaluationFinished(evaluationProbe, id, newError);
+        }
+        if (metrics != null) {
+            timePhase(metrics, SwarmPhase.Evaluate, start);
+        }
+        if (owner != null) {
+            owner.particleMoved(this, newPosition, newError);
+        }
 
         boolean improvedBestSolution = newError < bestSolution.getError();
 
-        if (improvedBestSolution)
+        if (improvedBestSolution) {
             bestSolution = new Solution(newPosition, newError);
+            if (metrics != null) {
+                metrics.increment(SwarmCounter.Improvements);
+            }
+        }
 
         memorizePerformance(improvedBestSolution);
 
@@ -226,6 +341,79 @@ public abstract class Particle implements SolutionHolder {
         bus.post(new ParticleMovedEvent(oldPosition, newPosition));
     }
 
+    /**
+     * Evaluates a position this particle is about to move to
+     */
+    double evaluateCandidate(EuclidianVector candidate) {
+        Change change = pendingChange;
+        if (change != null && change.candidate == candidate) {
+            return incrementalFunction.evaluateChange(change.from, change.fromError, change.indexes, change.values);
+        }
+        if (incrementalFunction != null) {
+            // the next move may update this error, so it has to be exact
+            return goodnessFunction.evaluate(candidate);
+        }
+        //Only a position that beats our best solution matters, so abortable functions may give up on worse ones
+        return (abortableFunction != null ?
+                abortableFunction.evaluate(candidate, bestSolution.getError()) :
+                this.goodnessFunction.evaluate(candidate));
+    }
+
+    /**
+     * @return the coordinates that differ between the current position and the candidate, or null if more than half
+     * of them do or the current error has been updated too many times in a row
+     */
+    private Change changeTo(EuclidianVector candidate) {
+        if (incrementalUpdates >= MaxIncrementalUpdates) {
+            return null;
+        }
+        EuclidianVector from = position;
+        double[] current = from.backingArray();
+        double[] next = candidate.backingArray();
+        int limit = current.length / 2;
+        int count = 0;
+        for (int n = 0; n < current.length; n++) {
+            if (current[n] != next[n] && ++count > limit) {
+                return null;
+            }
+        }
+        int[] indexes = new int[count];
+        double[] values = new double[count];
+        int i = 0;
+        for (int n = 0; i < count; n++) {
+            if (current[n] != next[n]) {
+                indexes[i] = n;
+                values[i++] = next[n];
+            }
+        }
+        return new Change(candidate, from, currentError, indexes, values);
+    }
+
+    /**
+     * A move that only changes some coordinates, with the error of the position it starts from
+     */
+    private static class Change {
+        final EuclidianVector candidate;
+        final EuclidianVector from;
+        final double fromError;
+        final int[] indexes;
+        final double[] values;
+
+        Change(EuclidianVector candidate, EuclidianVector from, double fromError, int[] indexes, double[] values) {
+            this.candidate = candidate;
+            this.from = from;
+            this.fromError = fromError;
+            this.indexes = indexes;
+            this.values = values;
+        }
+    }
+
+    private static long timePhase(SwarmMetrics metrics, SwarmPhase phase, long start) {
+        long end = System.nanoTime();
+        metrics.addTime(phase, end - start);
+        return end;
+    }
+
     private EuclidianVector correctBounds(EuclidianVector maybeCorrect) {
         if (!isOutOfBounds(maybeCorrect)) {
             return maybeCorrect;
@@ -259,6 +447,73 @@ public abstract class Particle implements SolutionHolder {
         return this.bus;
     }
 
+    /**
+     * Particle implementations that remember more about their motion than their position, like a velocity, return
+     * it here so that it can be checkpointed.  The default implementation has no motion state
+     * @return the motion state of the particle or null if it has none
+     */
+    protected EuclidianVector getMotionState() {
+        return null;
+    }
+
+    /**
+     * Restores the motion state returned by getMotionState() when a checkpointed particle is restored
+     * @param motionState
+     */
+    protected void restoreMotionState(EuclidianVector motionState) {
+    }
+
+    boolean[] performanceHistory() {
+        synchronized (solutionHistory) {
+            boolean[] history = new boolean[solutionHistory.size()];
+            for (int i = 0; i < history.length; i++) {
+                history[i] = solutionHistory.get(i);
+            }
+            return history;
+        }
+    }
+
+    /**
+     * Takes the result of polishing the particle's best solution, which becomes the particle's best solution if it
+     * is better.  The particle stays where it is
+     * @param polished
+     * @return true if the polished solution replaced the particle's best solution
+     */
+    boolean adoptPolishedSolution(Solution polished) {
+        boolean improved = polished.getError() < bestSolution.getError();
+        if (improved) {
+            bestSolution = polished;
+        }
+        polishedSolution = bestSolution;
+        return improved;
+    }
+
+    /**
+     * @return true if the particle's best solution is where its last polish ended, so polishing it again is wasted
+     */
+    boolean isPolished() {
+        return polishedSolution == bestSolution;
+    }
+
+    /**
+     * Puts the particle back in the state it was in when it was checkpointed
+     */
+    void restoreState(EuclidianVector position, double currentError, boolean[] history) {
+        if (position.getDimensions() != goodnessFunction.getDimensions()) {
+            throw new DimensionMismatchException("Goodness function dimensions don't match position dimensions");
+        }
+        synchronized (solutionHistory) {
+            solutionHistory.clear();
+            for (boolean improved : history) {
+                solutionHistory.add(improved);
+            }
+        }
+        this.position = position;
+        this.currentError = currentError;
+        // the checkpoint doesn't say how exact the error is, so the next move evaluates in full
+        this.incrementalUpdates = MaxIncrementalUpdates;
+    }
+
     /**
      * Memorizes the particle's current performance so that it can be used to determine a particle's quality / (IE Good, Exellent, or Neutral)
      * @param improvedBestPerformance
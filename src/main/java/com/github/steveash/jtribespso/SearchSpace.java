@@ -1,17 +1,33 @@
 package com.github.steveash.jtribespso;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.github.steveash.jtribespso.event.AsyncEventDispatcher;
 import com.github.steveash.jtribespso.event.SwarmAdaptedEvent;
 import com.github.steveash.jtribespso.event.SwarmAdaptingEvent;
 import com.github.steveash.jtribespso.event.SwarmMovedEvent;
+import com.github.steveash.jtribespso.event.SwarmEventType;
 import com.github.steveash.jtribespso.event.SwarmMovingEvent;
+import com.github.steveash.jtribespso.event.SwarmSummary;
+import com.github.steveash.jtribespso.exception.DimensionMismatchException;
+import com.github.steveash.jtribespso.metrics.ISwarmProbe;
+import com.github.steveash.jtribespso.metrics.SwarmCounter;
+import com.github.steveash.jtribespso.metrics.SwarmMetrics;
+import com.github.steveash.jtribespso.metrics.SwarmPhase;
+import com.github.steveash.jtribespso.polish.ShamanPolisher;
 import com.github.steveash.jtribespso.rand.HyperspaceRandom;
 import com.github.steveash.jtribespso.rand.IHyperspaceRandom;
+import com.github.steveash.jtribespso.seed.InitialPositionStrategy;
+import com.github.steveash.jtribespso.trajectory.TrajectoryRecorder;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.eventbus.EventBus;
 
@@ -22,12 +38,33 @@ import com.google.common.eventbus.EventBus;
  * by child classes.
  * @param <TParticle>
  */
-public abstract class SearchSpace<TParticle extends Particle> {
+public abstract class SearchSpace<TParticle extends Particle> implements ISearchSpace {
+    // the initial polishing step, as a fraction of the bounds, of dimensions the informers don't spread along
+    private static final double DefaultRelativePolishStep = 1e-3;
+
     private final List<Tribe> tribeList;
     private final IHyperspaceRandom rng;
     private final IObjectiveFunction goodnessFunction;
     private final EventBus bus = new EventBus();
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicInteger particleIds = new AtomicInteger();
+    private volatile TrajectoryRecorder trajectoryRecorder = null;
+    private volatile SwarmMetrics metrics = null;
+    private volatile ISwarmProbe probe = null;
+    private volatile AsyncEventDispatcher dispatcher = null;
+    private volatile boolean snapshotsEnabled = false;
+    private volatile SwarmSnapshot snapshot = null;
+    private volatile ShamanPolisher polisher = null;
+    // what the last call to adapt() did, tallied for metrics and probes
+    private int adaptTribesCreated;
+    private int adaptTribesRemoved;
+    private int adaptParticlesCreated;
+    private int adaptParticlesRemoved;
     private int movesSinceAdaptation;
+    private long iterations = 0;
+    private long adaptations = 0;
+    private InitialPositionStrategy initialPositionStrategy = null;
+    private int initialTribeCount = 1;
 
     public EventBus eventBus() {
         return bus;
@@ -55,6 +92,20 @@ public abstract class SearchSpace<TParticle extends Particle> {
         this.tribeList = Lists.newArrayList();
     }
 
+    /**
+     * Configures how the search space is seeded the first time moveThenAdapt() is called.  By default the swarm
+     * starts as a single particle and grows through adaptation.  Seeding many tribes at once with a space filling
+     * strategy skips most of those early adaptation cycles.  If the objective function has an initial guess, it
+     * takes the place of one of the generated positions.
+     * @param strategy decides where the initial particles go, or null to use generatePosition()
+     * @param tribeCount the number of monoparticle tribes to seed the swarm with
+     */
+    public void setInitialPositionStrategy(InitialPositionStrategy strategy, int tribeCount) {
+        checkArgument(tribeCount >= 1, "must seed at least one tribe");
+        this.initialPositionStrategy = strategy;
+        this.initialTribeCount = tribeCount;
+    }
+
     protected List<Tribe> tribes() {
         return tribeList;
     }
@@ -115,6 +166,235 @@ public abstract class SearchSpace<TParticle extends Particle> {
         return count;
     }
 
+    /**
+     * Gets the number of times the objective function has been evaluated by the particles of this search space,
+     * including the evaluation every new particle makes at its initial position
+     * @return
+     */
+    public long evaluationCount() {
+        return evaluations.get();
+    }
+
+    /**
+     * Gets the number of times the swarm has been moved.  The call to moveThenAdapt() that seeds the search space
+     * doesn't count as a move
+     * @return
+     */
+    public long iterationCount() {
+        return iterations;
+    }
+
+    /**
+     * Gets the number of times the swarm has been adapted
+     * @return
+     */
+    public long adaptationCount() {
+        return adaptations;
+    }
+
+    /**
+     * Computes how spread out the swarm is as the root mean square distance of the particle positions from
+     * their centroid.  The centroid is found first and the squared distances from it are summed in a second pass,
+     * because subtracting the squared mean from the mean square cancels catastrophically when a tight swarm sits far
+     * from the origin.  This walks every particle twice, so it costs about as much as a move without the evaluations
+     * @return
+     */
+    public double swarmRadius() {
+        int dimensions = goodnessFunction.getDimensions();
+        double[] centroid = new double[dimensions];
+        int count = 0;
+        for (Tribe tribe : tribeList) {
+            for (Particle particle : tribe.tribeMembers()) {
+                EuclidianVector position = particle.getPosition();
+                for (int n = 0; n < dimensions; n++) {
+                    centroid[n] += position.get(n);
+                }
+                count += 1;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        for (int n = 0; n < dimensions; n++) {
+            centroid[n] /= count;
+        }
+        double squares = 0;
+        for (Tribe tribe : tribeList) {
+            for (Particle particle : tribe.tribeMembers()) {
+                EuclidianVector position = particle.getPosition();
+                for (int n = 0; n < dimensions; n++) {
+                    double d = position.get(n) - centroid[n];
+                    squares += d * d;
+                }
+            }
+        }
+        return Math.sqrt(squares / count);
+    }
+
+    /**
+     * Records a trajectory of every particle move made from now on.  The recorder isn't closed by the search space
+     * @param recorder the recorder to write to or null to stop recording
+     */
+    public void setTrajectoryRecorder(TrajectoryRecorder recorder) {
+        if (recorder != null && recorder.getDimensions() != goodnessFunction.getDimensions()) {
+            throw new DimensionMismatchException("The trajectory recorder has " + recorder.getDimensions() +
+                    " dimensions but the objective function has " + goodnessFunction.getDimensions());
+        }
+        this.trajectoryRecorder = recorder;
+    }
+
+    /**
+     * Starts (or stops) collecting per phase timers and counters of the work this search space does
+     * @param metrics the metrics to add to or null to stop collecting
+     */
+    public void setMetrics(SwarmMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the metrics this search space adds to or null if it doesn't collect metrics
+     */
+    public SwarmMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Reports iterations, adaptations and objective function evaluations to a probe, such as the Java Flight
+     * Recorder probe of the jfr module.  Without a probe the reporting points cost a single null check
+     * @param probe the probe to report to or null to stop reporting
+     */
+    public void setProbe(ISwarmProbe probe) {
+        this.probe = probe;
+    }
+
+    public ISwarmProbe getProbe() {
+        return probe;
+    }
+
+    /**
+     * Publishes a summary of the swarm to a dispatcher at every point where moveThenAdapt() posts an event on the
+     * event bus, so listeners can follow the swarm on the dispatcher's thread without slowing the iterations down.
+     * The dispatcher isn't closed by the search space
+     * @param dispatcher the dispatcher to publish to or null to stop publishing
+     */
+    public void setEventDispatcher(AsyncEventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public AsyncEventDispatcher getEventDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Starts (or stops) publishing a SwarmSnapshot at the end of every move and adaptation.  A snapshot costs a
+     * few references per particle, plus a copy of the topology after each adaptation
+     * @param enabled
+     */
+    public void setSnapshotsEnabled(boolean enabled) {
+        this.snapshotsEnabled = enabled;
+        if (!enabled) {
+            this.snapshot = null;
+        }
+    }
+
+    /**
+     * Gets the latest snapshot of the swarm.  Unlike the other accessors of the swarm this can be called from any
+     * thread at any time, including while the swarm is moving
+     * @return the snapshot taken at the end of the latest move or adaptation, or null if snapshots aren't enabled
+     * or none has been taken yet
+     */
+    public SwarmSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Polishes the shamans of the best tribes with a local search after every adaptation, see ShamanPolisher.  The
+     * evaluations of the local searches count towards evaluationCount()
+     * @param polisher the polisher to use or null to stop polishing
+     */
+    public void setPolisher(ShamanPolisher polisher) {
+        this.polisher = polisher;
+    }
+
+    public ShamanPolisher getPolisher() {
+        return polisher;
+    }
+
+    /**
+     * Adds evaluations of the objective function to evaluationCount() and the Evaluations counter of the metrics
+     * @param count
+     */
+    protected void countEvaluations(int count) {
+        evaluations.addAndGet(count);
+        SwarmMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.add(SwarmCounter.Evaluations, count);
+        }
+    }
+
+    /**
+     * Evaluates the objective function at the new position of a moving particle and counts the evaluation.  Search
+     * spaces that put a deadline on evaluations override this and throw an EvaluationAbandonedException to leave the
+     * particle where it is.  Overrides that run the evaluations elsewhere count every evaluation they start with
+     * countEvaluations(), whether or not its result is used, and evaluate with evaluateUncounted()
+     * @param particle
+     * @param position
+     * @return the particle's error at the position
+     */
+    protected double evaluateMove(Particle particle, EuclidianVector position) {
+        countEvaluations(1);
+        return particle.evaluateCandidate(position);
+    }
+
+    /**
+     * Evaluates the objective function at the new position of a moving particle without counting the evaluation.
+     * May be called from any thread
+     * @param particle
+     * @param position
+     * @return the particle's error at the position
+     */
+    protected final double evaluateUncounted(Particle particle, EuclidianVector position) {
+        return particle.evaluateCandidate(position);
+    }
+
+    int nextParticleId() {
+        return particleIds.getAndIncrement();
+    }
+
+    /**
+     * Called by a particle of this search space every time it moves to a new position
+     */
+    void particleMoved(Particle particle, EuclidianVector newPosition, double newError) {
+        TrajectoryRecorder recorder = trajectoryRecorder;
+        if (recorder != null) {
+            // moves are numbered from 1, like iterationCount() after the move completes
+            recorder.record(iterations + 1, particle.getId(), newPosition, newError);
+        }
+    }
+
+    int movesSinceAdaptation() {
+        return movesSinceAdaptation;
+    }
+
+    /**
+     * Installs a swarm that was restored from a checkpoint
+     */
+    void restoreState(List<Tribe> tribes, int movesSinceAdaptation, long iterations, long adaptations,
+            long evaluations) {
+
+        checkState(tribeList.isEmpty(), "A swarm can only be restored into an empty search space");
+        for (Tribe tribe : tribes) {
+            for (Particle particle : tribe.tribeMembers()) {
+                particle.attachTo(this);
+            }
+        }
+        this.tribeList.addAll(tribes);
+        this.movesSinceAdaptation = movesSinceAdaptation;
+        this.iterations = iterations;
+        this.adaptations = adaptations;
+        this.evaluations.set(evaluations);
+    }
+
     private int swarmLinkCount() {
         int count = 0;
         for (Tribe tribe : tribeList) {
@@ -141,6 +421,20 @@ public abstract class SearchSpace<TParticle extends Particle> {
      */
     protected abstract TParticle generateParticleAtPosition(EuclidianVector position);
 
+    /**
+     * Called when the swarm is restored from a checkpoint.  This method provides a new particle at the position of a
+     * solution whose error is already known.  Implementations should create the particle without evaluating the
+     * objective function.  The default implementation falls back to GenerateParticleAtPosition(EuclidianVector),
+     * which re-evaluates the position.
+     * <p/>
+     * The particle's random number generator must be its own, because its state is restored from the checkpoint
+     * @param solution
+     * @return
+     */
+    protected TParticle generateParticleAtSolution(Solution solution) {
+        return generateParticleAtPosition(solution.getPosition());
+    }
+
     /**
      * If the swarm is empty, this method will seed the search space based on the behavior of
      * SeedSearchSpace();
@@ -155,33 +449,195 @@ public abstract class SearchSpace<TParticle extends Particle> {
          * but I think it's worth it because it allows people to inherit from SearchSpace and change how
          * the particles are initially distributed more easily
          */
-        if (this.swarmSize() == 0) {
+        SwarmMetrics metrics = this.metrics;
+        ISwarmProbe probe = this.probe;
+        AsyncEventDispatcher dispatcher = this.dispatcher;
+        long start = (metrics == null ? 0 : System.nanoTime());
+
+        int size = this.swarmSize();
+        if (size == 0) {
             seedSearchSpace();
+            if (metrics != null) {
+                metrics.addTime(SwarmPhase.Seed, System.nanoTime() - start);
+                metrics.add(SwarmCounter.TribesCreated, tribeList.size());
+            }
+            takeSnapshot();
             return;
         }
 
+        Object iterationProbe = (probe == null ? null : probe.iterationStarted(iterations + 1));
         bus.post(new SwarmMovingEvent());
+        if (dispatcher != null) {
+            publish(dispatcher, SwarmEventType.Moving, size, bestSolution());
+        }
         move();
         this.movesSinceAdaptation += 1;
+        this.iterations += 1;
+        if (metrics != null) {
+            long end = System.nanoTime();
+            metrics.addTime(SwarmPhase.Move, end - start);
+            metrics.increment(SwarmCounter.Iterations);
+            start = end;
+        }
 
         //First let all of the tribes know that the swarm has moved
         for (Tribe tribe : tribeList) {
             tribe.notifySwarmMoved();
         }
+        if (metrics != null) {
+            long end = System.nanoTime();
+            metrics.addTime(SwarmPhase.UpdateShamans, end - start);
+            start = end;
+        }
+        takeSnapshot();
+        //Moving doesn't change the size of the swarm, so only the best solution has to be found again
+        Solution best = (dispatcher == null && probe == null ? null : bestSolution());
         //Then notify anybody else who wants to know
         bus.post(new SwarmMovedEvent());
+        publish(dispatcher, SwarmEventType.Moved, size, best);
 
         if (needsToAdapt(movesSinceAdaptation)) {
 
             bus.post(new SwarmAdaptingEvent());
+            publish(dispatcher, SwarmEventType.Adapting, size, best);
+            if (metrics != null) {
+                start = System.nanoTime();
+            }
+            Object adaptationProbe = (probe == null ? null : probe.adaptationStarted(adaptations + 1));
+            adaptTribesCreated = adaptTribesRemoved = adaptParticlesCreated = adaptParticlesRemoved = 0;
             adapt();
             this.movesSinceAdaptation = 0;
+            this.adaptations += 1;
 
             //Again, we're going to tell all of the tribes that we've adapted the swarm
             for (Tribe tribe : tribeList) {
                 tribe.notifySwarmAdapted();
             }
+            if (metrics != null) {
+                metrics.addTime(SwarmPhase.Adapt, System.nanoTime() - start);
+                metrics.add(SwarmCounter.TribesCreated, adaptTribesCreated);
+                metrics.add(SwarmCounter.TribesRemoved, adaptTribesRemoved);
+                metrics.add(SwarmCounter.ParticlesRemoved, adaptParticlesRemoved);
+            }
+            size = swarmSize();
+            if (adaptationProbe != null) {
+                probe.adaptationFinished(adaptationProbe, adaptTribesCreated, adaptTribesRemoved,
+                        adaptParticlesCreated, adaptParticlesRemoved, tribeList.size(), size);
+            }
+            ShamanPolisher polisher = this.polisher;
+            if (polisher != null) {
+                start = (metrics == null ? 0 : System.nanoTime());
+                int improved = polishShamans(polisher);
+                if (metrics != null) {
+                    metrics.addTime(SwarmPhase.Polish, System.nanoTime() - start);
+                    metrics.add(SwarmCounter.PolishImprovements, improved);
+                }
+            }
+            takeSnapshot();
+            best = (dispatcher == null && probe == null ? null : bestSolution());
             bus.post(new SwarmAdaptedEvent());
+            publish(dispatcher, SwarmEventType.Adapted, size, best);
+        }
+        if (iterationProbe != null) {
+            probe.iterationFinished(iterationProbe, tribeList.size(), size, best.getError(), evaluations.get());
+        }
+    }
+
+    /**
+     * Runs the polisher's local search from the best solution of the shaman of each of the best tribes, unless the
+     * shaman hasn't improved since it was last polished.  The initial step of every dimension is the root mean square
+     * distance from the shaman's best solution to those of its informers, so the search starts at the scale the
+     * tribe is exploring at
+     * @param polisher
+     * @return the number of shamans the search improved
+     */
+    private int polishShamans(final ShamanPolisher polisher) {
+        final CountingObjectiveFunction function = new CountingObjectiveFunction(goodnessFunction);
+        final List<Particle> shamans = Lists.newArrayList();
+        final List<Solution> polished = Lists.newArrayList();
+        List<Runnable> tasks = Lists.newArrayList();
+        for (Tribe tribe : SolutionHolder.OrderBySolutionErrorAsc.leastOf(tribeList, polisher.getShamanCount())) {
+            Particle shaman = tribe.getShaman();
+            if (shaman.isPolished()) {
+                continue;
+            }
+            final int index = shamans.size();
+            final Solution start = shaman.bestSolution();
+            final double[] steps = polishSteps(tribe, start);
+            shamans.add(shaman);
+            polished.add(start);
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    Solution result = polisher.getLocalSearch().search(function, start, steps,
+                            polisher.getEvaluationBudget());
+                    polished.set(index, result);
+                }
+            });
+        }
+        runTasks(tasks);
+
+        int improved = 0;
+        for (int i = 0; i < shamans.size(); i++) {
+            if (shamans.get(i).adoptPolishedSolution(polished.get(i))) {
+                improved += 1;
+            }
+        }
+        countEvaluations((int) function.getEvaluations());
+        return improved;
+    }
+
+    private double[] polishSteps(Tribe tribe, Solution start) {
+        double[] center = start.getPosition().toArray();
+        double[] steps = new double[center.length];
+        int informers = 0;
+        for (Particle informer : Iterables.concat(tribe.tribeMembers(), tribe.externalLinks())) {
+            if (informer == tribe.getShaman()) {
+                continue;
+            }
+            EuclidianVector position = informer.bestSolution().getPosition();
+            for (int n = 0; n < steps.length; n++) {
+                double distance = position.get(n) - center[n];
+                steps[n] += distance * distance;
+            }
+            informers += 1;
+        }
+        EuclidianVector min = goodnessFunction.getMinBounds();
+        EuclidianVector max = goodnessFunction.getMaxBounds();
+        for (int n = 0; n < steps.length; n++) {
+            steps[n] = (informers == 0 ? 0 : Math.sqrt(steps[n] / informers));
+            if (steps[n] == 0) {
+                steps[n] = DefaultRelativePolishStep * Math.abs(max.get(n) - min.get(n));
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Runs independent tasks and returns when they have all finished.  This implementation runs them one after the
+     * other; search spaces with a thread pool override it to run them in parallel
+     * @param tasks
+     */
+    protected void runTasks(List<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+
+    private void takeSnapshot() {
+        if (snapshotsEnabled) {
+            snapshot = SwarmSnapshot.capture(tribeList, iterations, adaptations, evaluations.get(), snapshot);
+        }
+    }
+
+    /**
+     * The swarm size and best solution are passed in by moveThenAdapt(), which finds them once per change to the
+     * swarm instead of scanning the tribes again at every event
+     */
+    private void publish(AsyncEventDispatcher dispatcher, SwarmEventType type, int size, Solution best) {
+        if (dispatcher != null) {
+            dispatcher.publish(type, new SwarmSummary(iterations, adaptations, evaluations.get(), tribeList.size(),
+                    size, best));
         }
     }
 
@@ -209,20 +665,24 @@ public abstract class SearchSpace<TParticle extends Particle> {
         //Kill bad particles in good tribes
         for (Tribe tribe : tribeList) {
             if (tribe.isGood()) {
-                tribe.tryRemoveWorstParticle();
+                if (tribe.tryRemoveWorstParticle()) {
+                    adaptParticlesRemoved += 1;
+                }
             }
         }
-        removeAllEmptyTribes();
+        adaptTribesRemoved += removeAllEmptyTribes();
 
         List<Tribe> badTribes = collectBadTribes();
         if (!badTribes.isEmpty()) {
 
-            Tribe newTribe = new Tribe(generateNewParticle(badTribes.size()), this.getRandomNumberGenerator());
+            Tribe newTribe = new Tribe(adopt(generateNewParticle(badTribes.size())), this.getRandomNumberGenerator());
             for (Tribe badTribe : badTribes) {
                 badTribe.addInformer(newTribe);
             }
 
             this.tribeList.add(newTribe);
+            adaptTribesCreated += 1;
+            adaptParticlesCreated += badTribes.size();
         }
     }
 
@@ -236,14 +696,17 @@ public abstract class SearchSpace<TParticle extends Particle> {
         return badTribes;
     }
 
-    private void removeAllEmptyTribes() {
+    private int removeAllEmptyTribes() {
+        int removed = 0;
         ListIterator<Tribe> iter = tribeList.listIterator();
         while (iter.hasNext()) {
             Tribe t = iter.next();
             if (t.tribeMembers().isEmpty()) {
                 iter.remove();
+                removed += 1;
             }
         }
+        return removed;
     }
 
     /**
@@ -265,27 +728,102 @@ public abstract class SearchSpace<TParticle extends Particle> {
     }
 
     /**
-     * Adds a single new particle to the search space.  If the search space's objective function
+     * Seeds the search space.  By default this adds a single new particle; if the search space's objective function
      * has an initial guess, the new particle will be placed there.
+     * <p/>
+     * If more than one initial tribe was requested with setInitialPositionStrategy() then that many monoparticle
+     * tribes are created at once and linked into a ring so that every tribe has informers from the first move on.
      */
     protected void seedSearchSpace() {
-        TParticle initialParticle = null;
         EuclidianVector guess = this.goodnessFunction().getInitialGuess();
-        if (guess == null) {
-            initialParticle = generateNewParticle();
+        if (initialTribeCount == 1 && initialPositionStrategy == null) {
+            TParticle initialParticle = null;
+            if (guess == null) {
+                initialParticle = generateNewParticle();
+            } else {
+                initialParticle = generateParticleAtPosition(guess);
+            }
+            Tribe initialTribe = new Tribe(adopt(initialParticle), this.getRandomNumberGenerator());
+
+            //Generate the first tribe
+            this.tribeList.add(initialTribe);
+            return;
+        }
+
+        List<EuclidianVector> positions = Lists.newArrayListWithCapacity(initialTribeCount);
+        if (guess != null) {
+            positions.add(guess);
+        }
+        int toGenerate = initialTribeCount - positions.size();
+        if (initialPositionStrategy == null) {
+            for (int n = 0; n < toGenerate; n++) {
+                positions.add(generatePosition());
+            }
         } else {
-            initialParticle = generateParticleAtPosition(guess);
+            positions.addAll(initialPositionStrategy.generatePositions(
+                    goodnessFunction(), toGenerate, getRandomNumberGenerator()));
         }
-        Tribe initialTribe = new Tribe(initialParticle, this.getRandomNumberGenerator());
 
-        //Generate the first tribe
-        this.tribeList.add(initialTribe);
+        Tribe previous = null;
+        for (TParticle particle : adopt(generateParticlesAtPositions(positions))) {
+            Tribe tribe = new Tribe(particle, this.getRandomNumberGenerator());
+            if (previous != null) {
+                tribe.addInformer(previous);
+            }
+            this.tribeList.add(tribe);
+            previous = tribe;
+        }
+        if (tribeList.size() > 2) {
+            // close the ring
+            tribeList.get(0).addInformer(previous);
+        }
+    }
+
+    /**
+     * Takes ownership of particles that are about to join the swarm.  Every new particle has already evaluated
+     * the objective function once at its initial position
+     */
+    private TParticle adopt(TParticle particle) {
+        particle.attachTo(this);
+        countNewParticles(1);
+        return particle;
+    }
+
+    private List<TParticle> adopt(List<TParticle> particles) {
+        for (TParticle particle : particles) {
+            particle.attachTo(this);
+        }
+        countNewParticles(particles.size());
+        return particles;
+    }
+
+    private void countNewParticles(int count) {
+        countEvaluations(count);
+        SwarmMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.add(SwarmCounter.ParticlesCreated, count);
+        }
     }
 
     protected List<TParticle> generateNewParticle(int numberToGenerate) {
-        List<TParticle> particles = Lists.newArrayListWithCapacity(numberToGenerate);
+        List<EuclidianVector> positions = Lists.newArrayListWithCapacity(numberToGenerate);
         for (int n = 0; n < numberToGenerate; n++) {
-            particles.add(generateNewParticle());
+            positions.add(generatePosition());
+        }
+        return generateParticlesAtPositions(positions);
+    }
+
+    /**
+     * Creates one particle at each of the specified positions by calling GenerateParticleAtPosition(EuclidianVector).
+     * Creating a particle evaluates the objective function at its position, so search spaces that can evaluate in
+     * parallel should override this method.  The returned particles must be in the same order as the positions.
+     * @param positions
+     * @return
+     */
+    protected List<TParticle> generateParticlesAtPositions(List<EuclidianVector> positions) {
+        List<TParticle> particles = Lists.newArrayListWithCapacity(positions.size());
+        for (EuclidianVector position : positions) {
+            particles.add(generateParticleAtPosition(position));
         }
         return particles;
     }
@@ -304,4 +842,46 @@ public abstract class SearchSpace<TParticle extends Particle> {
         EuclidianVector position = generatePosition();
         return generateParticleAtPosition(position);
     }
+
+    /**
+     * Counts the evaluations of the local searches that polish the shamans, which may run on several threads
+     */
+    private static class CountingObjectiveFunction implements IObjectiveFunction {
+        private final IObjectiveFunction function;
+        private final AtomicLong evaluations = new AtomicLong();
+
+        CountingObjectiveFunction(IObjectiveFunction function) {
+            this.function = function;
+        }
+
+        long getEvaluations() {
+            return evaluations.get();
+        }
+
+        @Override
+        public int getDimensions() {
+            return function.getDimensions();
+        }
+
+        @Override
+        public EuclidianVector getMinBounds() {
+            return function.getMinBounds();
+        }
+
+        @Override
+        public EuclidianVector getMaxBounds() {
+            return function.getMaxBounds();
+        }
+
+        @Override
+        public EuclidianVector getInitialGuess() {
+            return function.getInitialGuess();
+        }
+
+        @Override
+        public double evaluate(EuclidianVector guess) {
+            evaluations.incrementAndGet();
+            return function.evaluate(guess);
+        }
+    }
 }
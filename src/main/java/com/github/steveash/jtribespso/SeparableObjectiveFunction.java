@@ -0,0 +1,36 @@
+package com.github.steveash.jtribespso;
+
+/**
+ * An objective function that is a sum of terms of one coordinate each, which it updates incrementally when only
+ * some coordinates change.  Subclasses only implement term()
+ */
+public abstract class SeparableObjectiveFunction extends DoubleObjectiveFunction
+        implements IIncrementalObjectiveFunction {
+
+    /**
+     * @param dimension
+     * @param x the value of the coordinate
+     * @return the contribution of the coordinate to the error
+     */
+    protected abstract double term(int dimension, double x);
+
+    @Override
+    public double evaluate(double[] x) {
+        double sum = 0;
+        for (int n = 0; n < x.length; n++) {
+            sum += term(n, x[n]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double evaluateChange(EuclidianVector previous, double previousError, int[] changed, double[] values) {
+        double[] old = previous.backingArray();
+        double sum = previousError;
+        for (int i = 0; i < changed.length; i++) {
+            int n = changed[i];
+            sum += term(n, values[i]) - term(n, old[n]);
+        }
+        return sum;
+    }
+}
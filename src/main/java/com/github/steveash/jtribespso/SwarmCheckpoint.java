@@ -0,0 +1,559 @@
+package com.github.steveash.jtribespso;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.github.steveash.jtribespso.exception.CorruptCheckpointException;
+import com.github.steveash.jtribespso.exception.DimensionMismatchException;
+import com.github.steveash.jtribespso.rand.IRandom;
+import com.github.steveash.jtribespso.rand.JdkRandom;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Saves the complete state of a swarm to a compact binary checkpoint and restores it again.  A checkpoint holds
+ * every particle's position, current error, best solution, performance history and motion state, every tribe's
+ * bookkeeping and links, the search space counters and the state of every random number generator that extends
+ * JdkRandom.  Restoring a checkpoint doesn't evaluate the objective function, so a swarm of any size comes back
+ * in the time it takes to read the file, and a restored swarm draws the same random numbers it would have drawn
+ * had it never been stopped.
+ * <p/>
+ * The format is a fixed header (magic number, format version, dimensions), the swarm and a CRC-32 of everything
+ * before it.  The whole checkpoint is read and verified before a search space is touched, so a truncated or
+ * corrupt file leaves the search space untouched and throws CorruptCheckpointException.
+ * <p/>
+ * Checkpoints must be written in between calls to moveThenAdapt(), never while the swarm is moving
+ */
+public class SwarmCheckpoint {
+
+    public static final int FormatVersion = 1;
+
+    private static final int Magic = 0x4A545053; // "JTPS"
+    private static final int BufferSize = 64 * 1024;
+
+    // how a random number generator is stored
+    private static final byte RngNotSaved = 0;
+    private static final byte RngState = 1;
+    private static final byte RngSharedWithSearchSpace = 2;
+
+    // per particle flags
+    private static final int BestAtCurrentPosition = 1;
+    private static final int HasMotionState = 2;
+
+    private SwarmCheckpoint() {
+        // static utility class
+    }
+
+    /**
+     * Writes a checkpoint of the swarm to a file, replacing the file if it already exists
+     * @param space
+     * @param file
+     * @throws IOException
+     */
+    public static void write(SearchSpace<?> space, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(space, channel);
+        }
+    }
+
+    /**
+     * Writes a checkpoint of the swarm to the channel.  The channel is not closed
+     * @param space
+     * @param channel
+     * @throws IOException
+     */
+    public static void write(SearchSpace<?> space, WritableByteChannel channel) throws IOException {
+        checkNotNull(space);
+        checkNotNull(channel);
+
+        IRandom spaceRng = space.getRandomNumberGenerator();
+        List<Tribe> tribes = space.tribes();
+        int dimensions = space.goodnessFunction().getDimensions();
+
+        ChecksumWriter out = new ChecksumWriter(channel);
+        out.putInt(Magic);
+        out.putInt(FormatVersion);
+        out.putInt(dimensions);
+        out.putInt(tribes.size());
+
+        out.putInt(space.movesSinceAdaptation());
+        out.putLong(space.iterationCount());
+        out.putLong(space.adaptationCount());
+        out.putLong(space.evaluationCount());
+        putRandom(out, spaceRng, null);
+
+        for (Tribe tribe : tribes) {
+            putRandom(out, tribe.randomNumberGenerator(), spaceRng);
+            out.putDouble(tribe.historicalBestError());
+            out.putByte(tribe.isGood() ? 1 : 0);
+            out.putInt(tribe.memberCount());
+            for (Particle particle : tribe.tribeMembers()) {
+                putParticle(out, particle, spaceRng);
+            }
+        }
+
+        Map<Tribe, Integer> indexes = Maps.newIdentityHashMap();
+        for (Tribe tribe : tribes) {
+            indexes.put(tribe, indexes.size());
+        }
+        for (Tribe tribe : tribes) {
+            List<Tribe> informers = tribe.informers();
+            out.putInt(informers.size());
+            for (Tribe informer : informers) {
+                out.putInt(indexes.get(informer));
+            }
+        }
+        out.finish();
+    }
+
+    /**
+     * Restores the swarm in a checkpoint file into an empty search space
+     * @param space
+     * @param file
+     * @throws IOException
+     */
+    public static <T extends Particle> void restore(SearchSpace<T> space, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            restore(space, channel);
+        }
+    }
+
+    /**
+     * Restores a swarm into an empty search space.  The particles, tribes, links, counters and random number
+     * generators are put back exactly as they were when the checkpoint was written.  The objective function isn't
+     * evaluated, so it must be the same function the checkpointed swarm was searching
+     * @param space an empty search space over the same objective function that the checkpoint was written from
+     * @param channel
+     * @throws IOException
+     * @throws CorruptCheckpointException if the checkpoint is truncated, fails its checksum or has an unsupported
+     * format version
+     * @throws DimensionMismatchException if the checkpoint has a different number of dimensions than the space
+     */
+    public static <T extends Particle> void restore(SearchSpace<T> space, ReadableByteChannel channel)
+            throws IOException {
+
+        SavedSwarm saved = readVerified(space, channel);
+        IRandom spaceRng = space.getRandomNumberGenerator();
+        restoreRandom(spaceRng, saved.spaceRng);
+
+        List<Tribe> tribes = Lists.newArrayListWithCapacity(saved.tribes.size());
+        for (SavedTribe savedTribe : saved.tribes) {
+            List<T> members = Lists.newArrayListWithCapacity(savedTribe.particles.size());
+            for (SavedParticle savedParticle : savedTribe.particles) {
+                T particle = space.generateParticleAtSolution(savedParticle.best);
+                particle.restoreState(savedParticle.position, savedParticle.currentError, savedParticle.history);
+                if (savedParticle.motionState != null) {
+                    particle.restoreMotionState(savedParticle.motionState);
+                }
+                restoreRandom(particle.getRandomNumberGenerator(), savedParticle.rng);
+                members.add(particle);
+            }
+            Tribe tribe = new Tribe(members, tribeRandom(savedTribe.rng, spaceRng));
+            tribe.restoreState(savedTribe.historicalBestError, savedTribe.isGood);
+            tribes.add(tribe);
+        }
+        linkTribes(tribes, saved);
+
+        space.restoreState(tribes, saved.movesSinceAdaptation, saved.iterations, saved.adaptations,
+                saved.evaluations);
+    }
+
+    /**
+     * Hot starts a search space from a checkpoint file
+     * @param space
+     * @param file
+     * @throws IOException
+     */
+    public static <T extends Particle> void hotStart(SearchSpace<T> space, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            hotStart(space, channel);
+        }
+    }
+
+    /**
+     * Warm starts a new search from a checkpoint, typically after the objective function has changed a little (new
+     * data, adjusted weights).  The tribes and links of the checkpoint are kept, but every particle starts over at
+     * the best position it had found, which is re-evaluated against the space's objective function through
+     * generateParticlesAtPositions(), so multithreaded search spaces re-evaluate the swarm in parallel.  Counters and
+     * performance histories start from zero
+     * @param space an empty search space
+     * @param channel
+     * @throws IOException
+     */
+    public static <T extends Particle> void hotStart(SearchSpace<T> space, ReadableByteChannel channel)
+            throws IOException {
+
+        SavedSwarm saved = readVerified(space, channel);
+
+        List<EuclidianVector> positions = Lists.newArrayList();
+        for (SavedTribe savedTribe : saved.tribes) {
+            for (SavedParticle savedParticle : savedTribe.particles) {
+                positions.add(savedParticle.best.getPosition());
+            }
+        }
+        List<T> particles = space.generateParticlesAtPositions(positions);
+
+        IRandom spaceRng = space.getRandomNumberGenerator();
+        List<Tribe> tribes = Lists.newArrayListWithCapacity(saved.tribes.size());
+        int next = 0;
+        for (SavedTribe savedTribe : saved.tribes) {
+            List<T> members = particles.subList(next, next + savedTribe.particles.size());
+            next += savedTribe.particles.size();
+            tribes.add(new Tribe(members, spaceRng));
+        }
+        linkTribes(tribes, saved);
+
+        space.restoreState(tribes, 0, 0, 0, particles.size());
+    }
+
+    private static void linkTribes(List<Tribe> tribes, SavedSwarm saved) {
+        // the links were saved from both ends, so they're put back in their original order rather than through
+        // addInformer(), which would link both ends at once
+        for (int i = 0; i < tribes.size(); i++) {
+            List<Tribe> informers = tribes.get(i).informers();
+            for (int informer : saved.tribes.get(i).informers) {
+                informers.add(tribes.get(informer));
+            }
+        }
+    }
+
+    private static IRandom tribeRandom(SavedRandom saved, IRandom spaceRng) {
+        if (saved.kind == RngSharedWithSearchSpace) {
+            return spaceRng;
+        }
+        JdkRandom rng = new JdkRandom();
+        if (saved.kind == RngState) {
+            rng.setState(saved.state);
+        }
+        return rng;
+    }
+
+    private static void restoreRandom(IRandom rng, SavedRandom saved) {
+        if (saved.kind == RngState && rng instanceof JdkRandom) {
+            ((JdkRandom) rng).setState(saved.state);
+        }
+    }
+
+    private static void putRandom(ChecksumWriter out, IRandom rng, IRandom spaceRng) throws IOException {
+        if (spaceRng != null && rng == spaceRng) {
+            out.putByte(RngSharedWithSearchSpace);
+        } else if (rng instanceof JdkRandom) {
+            out.putByte(RngState);
+            out.putLong(((JdkRandom) rng).getState());
+        } else {
+            out.putByte(RngNotSaved);
+        }
+    }
+
+    private static void putParticle(ChecksumWriter out, Particle particle, IRandom spaceRng) throws IOException {
+        Solution best = particle.bestSolution();
+        EuclidianVector position = particle.getPosition();
+        EuclidianVector motionState = particle.getMotionState();
+        boolean[] history = particle.performanceHistory();
+
+        int flags = 0;
+        if (best.getPosition() == position) flags |= BestAtCurrentPosition;
+        if (motionState != null) flags |= HasMotionState;
+
+        out.putByte(flags);
+        putRandom(out, particle.getRandomNumberGenerator(), spaceRng);
+        out.putVector(position);
+        out.putDouble(particle.getCurrentError());
+        if ((flags & BestAtCurrentPosition) == 0) {
+            out.putVector(best.getPosition());
+        }
+        out.putDouble(best.getError());
+        out.putByte(history.length);
+        for (boolean improved : history) {
+            out.putByte(improved ? 1 : 0);
+        }
+        if (motionState != null) {
+            out.putVector(motionState);
+        }
+    }
+
+    private static SavedSwarm readVerified(SearchSpace<?> space, ReadableByteChannel channel) throws IOException {
+        checkNotNull(space);
+        checkNotNull(channel);
+        checkState(space.tribes().isEmpty(), "A checkpoint can only be restored into an empty search space");
+
+        ChecksumReader in = new ChecksumReader(channel);
+        if (in.getInt() != Magic) {
+            throw new CorruptCheckpointException("Not a swarm checkpoint");
+        }
+        int version = in.getInt();
+        if (version != FormatVersion) {
+            throw new CorruptCheckpointException("Unsupported checkpoint format version " + version);
+        }
+        int dimensions = in.getInt();
+        if (dimensions != space.goodnessFunction().getDimensions()) {
+            throw new DimensionMismatchException("The checkpoint has " + dimensions +
+                    " dimensions but the objective function has " + space.goodnessFunction().getDimensions());
+        }
+
+        // Counts aren't trusted to size anything up front, so a corrupt count can't make us allocate more than
+        // the checkpoint could actually hold before the read runs off the end
+        SavedSwarm saved = new SavedSwarm();
+        int tribeCount = in.getCount();
+        saved.tribes = Lists.newArrayList();
+        saved.movesSinceAdaptation = in.getInt();
+        saved.iterations = in.getLong();
+        saved.adaptations = in.getLong();
+        saved.evaluations = in.getLong();
+        saved.spaceRng = getRandom(in);
+
+        for (int t = 0; t < tribeCount; t++) {
+            SavedTribe tribe = new SavedTribe();
+            tribe.rng = getRandom(in);
+            tribe.historicalBestError = in.getDouble();
+            tribe.isGood = in.getByte() != 0;
+            int memberCount = in.getCount();
+            if (memberCount == 0) {
+                throw new CorruptCheckpointException("Tribe " + t + " has no members");
+            }
+            tribe.particles = Lists.newArrayList();
+            for (int p = 0; p < memberCount; p++) {
+                tribe.particles.add(getParticle(in, dimensions));
+            }
+            saved.tribes.add(tribe);
+        }
+
+        for (SavedTribe tribe : saved.tribes) {
+            int informerCount = in.getCount();
+            if (informerCount >= tribeCount) {
+                throw new CorruptCheckpointException("Tribe has " + informerCount + " links but there are only " +
+                        tribeCount + " tribes");
+            }
+            tribe.informers = new int[informerCount];
+            for (int i = 0; i < tribe.informers.length; i++) {
+                int informer = in.getInt();
+                if (informer < 0 || informer >= tribeCount) {
+                    throw new CorruptCheckpointException("Link to tribe " + informer + " is out of range");
+                }
+                tribe.informers[i] = informer;
+            }
+        }
+
+        int expected = in.checksum();
+        if (in.getInt() != expected) {
+            throw new CorruptCheckpointException("Checkpoint checksum mismatch");
+        }
+        return saved;
+    }
+
+    private static SavedRandom getRandom(ChecksumReader in) throws IOException {
+        SavedRandom rng = new SavedRandom();
+        rng.kind = in.getByte();
+        if (rng.kind == RngState) {
+            rng.state = in.getLong();
+        } else if (rng.kind != RngNotSaved && rng.kind != RngSharedWithSearchSpace) {
+            throw new CorruptCheckpointException("Unknown random number generator kind " + rng.kind);
+        }
+        return rng;
+    }
+
+    private static SavedParticle getParticle(ChecksumReader in, int dimensions) throws IOException {
+        SavedParticle particle = new SavedParticle();
+        int flags = in.getByte();
+        particle.rng = getRandom(in);
+        particle.position = in.getVector(dimensions);
+        particle.currentError = in.getDouble();
+        EuclidianVector bestPosition = ((flags & BestAtCurrentPosition) != 0 ? particle.position :
+                in.getVector(dimensions));
+        particle.best = new Solution(bestPosition, in.getDouble());
+        particle.history = new boolean[in.getByte() & 0xFF];
+        for (int i = 0; i < particle.history.length; i++) {
+            particle.history[i] = in.getByte() != 0;
+        }
+        if ((flags & HasMotionState) != 0) {
+            particle.motionState = in.getVector(dimensions);
+        }
+        return particle;
+    }
+
+    private static class SavedSwarm {
+        int movesSinceAdaptation;
+        long iterations;
+        long adaptations;
+        long evaluations;
+        SavedRandom spaceRng;
+        List<SavedTribe> tribes;
+    }
+
+    private static class SavedTribe {
+        SavedRandom rng;
+        double historicalBestError;
+        boolean isGood;
+        List<SavedParticle> particles;
+        int[] informers;
+    }
+
+    private static class SavedParticle {
+        SavedRandom rng;
+        EuclidianVector position;
+        double currentError;
+        Solution best;
+        boolean[] history;
+        EuclidianVector motionState;
+    }
+
+    private static class SavedRandom {
+        byte kind;
+        long state;
+    }
+
+    /**
+     * Buffers writes to a channel and keeps a running CRC-32 of everything written
+     */
+    private static class ChecksumWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BufferSize);
+        private final CRC32 crc = new CRC32();
+
+        ChecksumWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(int value) throws IOException {
+            ensureSpace(1);
+            buffer.put((byte) value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensureSpace(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureSpace(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensureSpace(8);
+            buffer.putDouble(value);
+        }
+
+        void putVector(EuclidianVector vector) throws IOException {
+            for (int n = 0; n < vector.getDimensions(); n++) {
+                putDouble(vector.get(n));
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            drain();
+        }
+
+        private void ensureSpace(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffers reads from a channel and keeps a running CRC-32 of everything read
+     */
+    private static class ChecksumReader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BufferSize);
+        private final CRC32 crc = new CRC32();
+        // the bytes of the buffer before this index have been added to the checksum
+        private int checksummed = 0;
+
+        ChecksumReader(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        byte getByte() throws IOException {
+            ensureAvailable(1);
+            return buffer.get();
+        }
+
+        int getInt() throws IOException {
+            ensureAvailable(4);
+            return buffer.getInt();
+        }
+
+        /**
+         * Reads an element count, which can never be negative in a valid checkpoint
+         */
+        int getCount() throws IOException {
+            int count = getInt();
+            if (count < 0) {
+                throw new CorruptCheckpointException("Negative element count " + count);
+            }
+            return count;
+        }
+
+        long getLong() throws IOException {
+            ensureAvailable(8);
+            return buffer.getLong();
+        }
+
+        double getDouble() throws IOException {
+            ensureAvailable(8);
+            return buffer.getDouble();
+        }
+
+        EuclidianVector getVector(int dimensions) throws IOException {
+            double[] values = new double[dimensions];
+            for (int n = 0; n < dimensions; n++) {
+                values[n] = getDouble();
+            }
+            return new EuclidianVector(values);
+        }
+
+        /**
+         * @return the CRC-32 of everything read so far
+         */
+        int checksum() {
+            crc.update(buffer.array(), checksummed, buffer.position() - checksummed);
+            checksummed = buffer.position();
+            return (int) crc.getValue();
+        }
+
+        private void ensureAvailable(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            crc.update(buffer.array(), checksummed, buffer.position() - checksummed);
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new CorruptCheckpointException("The checkpoint is truncated");
+                }
+            }
+            buffer.flip();
+            checksummed = 0;
+        }
+    }
+}
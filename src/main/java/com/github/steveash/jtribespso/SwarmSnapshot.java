@@ -0,0 +1,284 @@
+package com.github.steveash.jtribespso;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.primitives.Ints;
+
+/**
+ * An immutable view of a swarm at the end of a move or adaptation, for threads that want to watch a swarm while it
+ * is being optimized.  Enable them with SearchSpace.setSnapshotsEnabled() and read the latest with
+ * SearchSpace.getSnapshot() from any thread, without locks and without ever stalling the particles.
+ * <p/>
+ * Particles are numbered from 0 in tribe order, so the members of a tribe are a contiguous range of particles.
+ * Positions and solutions are immutable, so a snapshot only copies references to them.  The topology of the swarm
+ * (which particle belongs to which tribe, the links between tribes and which tribes are good) only changes when the
+ * swarm adapts, so it is copied once per adaptation and shared by the snapshots of all the moves in between
+ */
+public class SwarmSnapshot {
+
+    private final Topology topology;
+    private final long iteration;
+    private final long adaptations;
+    private final long evaluations;
+    private final EuclidianVector[] positions;
+    private final double[] currentErrors;
+    private final Solution[] bestSolutions;
+    private final int[] shamans;
+    private final int bestParticle;
+
+    private SwarmSnapshot(Topology topology, long iteration, long adaptations, long evaluations,
+            EuclidianVector[] positions, double[] currentErrors, Solution[] bestSolutions, int[] shamans,
+            int bestParticle) {
+
+        this.topology = topology;
+        this.iteration = iteration;
+        this.adaptations = adaptations;
+        this.evaluations = evaluations;
+        this.positions = positions;
+        this.currentErrors = currentErrors;
+        this.bestSolutions = bestSolutions;
+        this.shamans = shamans;
+        this.bestParticle = bestParticle;
+    }
+
+    /**
+     * Captures the state of the tribes, which must not be moving or adapting
+     * @param tribes
+     * @param iteration
+     * @param adaptations
+     * @param evaluations
+     * @param previous the last snapshot of the swarm, whose topology is reused if the swarm only moved since, or null
+     * to capture the topology
+     * @return
+     */
+    static SwarmSnapshot capture(List<Tribe> tribes, long iteration, long adaptations, long evaluations,
+            SwarmSnapshot previous) {
+
+        Topology topology = (previous == null || previous.adaptations != adaptations ? null : previous.topology);
+        if (topology == null || !topology.matches(tribes)) {
+            topology = new Topology(tribes);
+        }
+        int particleCount = topology.tribeOf.length;
+        EuclidianVector[] positions = new EuclidianVector[particleCount];
+        double[] currentErrors = new double[particleCount];
+        Solution[] bestSolutions = new Solution[particleCount];
+        int[] shamans = new int[tribes.size()];
+        int bestParticle = -1;
+        double bestError = Double.POSITIVE_INFINITY;
+
+        int index = 0;
+        for (int t = 0; t < tribes.size(); t++) {
+            Tribe tribe = tribes.get(t);
+            Particle shaman = tribe.getShaman();
+            for (Particle particle : tribe.tribeMembers()) {
+                positions[index] = particle.getPosition();
+                currentErrors[index] = particle.getCurrentError();
+                Solution best = particle.bestSolution();
+                bestSolutions[index] = best;
+                if (particle == shaman) {
+                    shamans[t] = index;
+                }
+                if (bestParticle < 0 || best.getError() < bestError) {
+                    bestParticle = index;
+                    bestError = best.getError();
+                }
+                index += 1;
+            }
+        }
+        return new SwarmSnapshot(topology, iteration, adaptations, evaluations, positions, currentErrors,
+                bestSolutions, shamans, bestParticle);
+    }
+
+    /**
+     * @return the number of moves the swarm had made
+     */
+    public long getIteration() {
+        return iteration;
+    }
+
+    public long getAdaptations() {
+        return adaptations;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public int getParticleCount() {
+        return positions.length;
+    }
+
+    public int getTribeCount() {
+        return shamans.length;
+    }
+
+    /**
+     * @return the best solution found by the swarm or null if the swarm is empty
+     */
+    public Solution getBestSolution() {
+        return (bestParticle < 0 ? null : bestSolutions[bestParticle]);
+    }
+
+    /**
+     * @return the positions of all particles in particle order
+     */
+    public List<EuclidianVector> getPositions() {
+        return Collections.unmodifiableList(Arrays.asList(positions));
+    }
+
+    public EuclidianVector getPosition(int particle) {
+        return positions[particle];
+    }
+
+    public double getCurrentError(int particle) {
+        return currentErrors[particle];
+    }
+
+    public Solution getBestSolution(int particle) {
+        return bestSolutions[particle];
+    }
+
+    /**
+     * @param particle
+     * @return the id the search space gave the particle, as used by trajectories
+     */
+    public int getParticleId(int particle) {
+        return topology.ids[particle];
+    }
+
+    /**
+     * @param particle
+     * @return the index of the tribe the particle belongs to
+     */
+    public int getTribeOf(int particle) {
+        return topology.tribeOf[particle];
+    }
+
+    /**
+     * @param tribe
+     * @return the index of the tribe's first particle
+     */
+    public int getFirstMember(int tribe) {
+        checkElementIndex(tribe, shamans.length);
+        return topology.firstMember[tribe];
+    }
+
+    public int getMemberCount(int tribe) {
+        checkElementIndex(tribe, shamans.length);
+        return topology.firstMember[tribe + 1] - topology.firstMember[tribe];
+    }
+
+    /**
+     * @param tribe
+     * @return the index of the tribe's best particle
+     */
+    public int getShaman(int tribe) {
+        return shamans[tribe];
+    }
+
+    /**
+     * @param tribe
+     * @return whether the tribe was good as of the last adaptation
+     */
+    public boolean isGood(int tribe) {
+        return topology.good[tribe];
+    }
+
+    /**
+     * @param tribe
+     * @return the indexes of the tribes that inform the tribe
+     */
+    public List<Integer> getInformers(int tribe) {
+        return Collections.unmodifiableList(Ints.asList(topology.informers[tribe]));
+    }
+
+    /**
+     * @param other
+     * @return true if the other snapshot shares this snapshot's topology, i.e. the swarm didn't adapt in between
+     */
+    public boolean hasSameTopology(SwarmSnapshot other) {
+        return other != null && topology == other.topology;
+    }
+
+    @Override
+    public String toString() {
+        Solution best = getBestSolution();
+        return "SwarmSnapshot{iteration=" + iteration + ", tribes=" + getTribeCount() + ", particles=" +
+                getParticleCount() + ", best error=" + (best == null ? "none" : best.getError()) + "}";
+    }
+
+    /**
+     * The parts of a snapshot that only change when the swarm adapts
+     */
+    private static class Topology {
+        final Particle[][] members; // only used to tell whether the topology still matches the tribes
+        final int[] firstMember;
+        final int[] tribeOf;
+        final int[] ids;
+        final int[][] informers;
+        final boolean[] good;
+
+        Topology(List<Tribe> tribes) {
+            int tribeCount = tribes.size();
+            Map<Tribe, Integer> tribeIndexes = new IdentityHashMap<>();
+            int particleCount = 0;
+            for (int t = 0; t < tribeCount; t++) {
+                tribeIndexes.put(tribes.get(t), t);
+                particleCount += tribes.get(t).memberCount();
+            }
+
+            members = new Particle[tribeCount][];
+            firstMember = new int[tribeCount + 1];
+            tribeOf = new int[particleCount];
+            ids = new int[particleCount];
+            informers = new int[tribeCount][];
+            good = new boolean[tribeCount];
+            int index = 0;
+            for (int t = 0; t < tribeCount; t++) {
+                Tribe tribe = tribes.get(t);
+                firstMember[t] = index;
+                members[t] = tribe.tribeMembers().toArray(new Particle[tribe.memberCount()]);
+                for (Particle particle : members[t]) {
+                    tribeOf[index] = t;
+                    ids[index] = particle.getId();
+                    index += 1;
+                }
+                List<Particle> links = tribe.externalLinks();
+                informers[t] = new int[links.size()];
+                for (int i = 0; i < links.size(); i++) {
+                    informers[t][i] = tribeIndexes.get(links.get(i).getParent());
+                }
+                good[t] = tribe.isGood();
+            }
+            firstMember[tribeCount] = index;
+        }
+
+        /**
+         * Checks the tribes against the topology, which is as cheap as comparing references but catches subclasses
+         * that change the tribes outside of adapt()
+         */
+        boolean matches(List<Tribe> tribes) {
+            if (tribes.size() != members.length) {
+                return false;
+            }
+            for (int t = 0; t < members.length; t++) {
+                List<Particle> current = tribes.get(t).tribeMembers();
+                if (current.size() != members[t].length) {
+                    return false;
+                }
+                for (int i = 0; i < members[t].length; i++) {
+                    if (current.get(i) != members[t][i]) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -220,6 +220,28 @@ public class Tribe implements SolutionHolder {
         this.informers.remove(source);
     }
 
+    IRandom randomNumberGenerator() {
+        return rng;
+    }
+
+    List<Tribe> informers() {
+        return informers;
+    }
+
+    double historicalBestError() {
+        return historicalBestError;
+    }
+
+    /**
+     * Puts the tribe back in the state it was in when it was checkpointed.  Links are restored separately once all
+     * of the tribes exist: SwarmCheckpoint appends the saved informers of every tribe to informers() in their original
+     * order, because addInformer() would link both ends at once
+     */
+    void restoreState(double historicalBestError, boolean isGood) {
+        this.historicalBestError = historicalBestError;
+        this.isGood = isGood;
+    }
+
     public void notifySwarmAdapted() {
         updateIsGood();
     }
@@ -0,0 +1,26 @@
+package com.github.steveash.jtribespso.benchmark;
+
+/**
+ * The Ackley function on [-32.768, 32.768].  A nearly flat outer region full of shallow local minima with a deep
+ * hole at the origin
+ */
+public class Ackley extends BenchmarkFunction {
+
+    public Ackley(int dimensions) {
+        super("ackley", dimensions, -32.768, 32.768);
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        double squares = 0;
+        double cosines = 0;
+        for (double xi : x) {
+            squares += xi * xi;
+            cosines += Math.cos(2 * Math.PI * xi);
+        }
+        double n = x.length;
+        double value = -20 * Math.exp(-0.2 * Math.sqrt(squares / n)) - Math.exp(cosines / n) + 20 + Math.E;
+        // rounding leaves a tiny negative value at the origin
+        return Math.max(value, 0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+import com.github.steveash.jtribespso.DoubleObjectiveFunction;
+import com.github.steveash.jtribespso.EuclidianVector;
+
+/**
+ * Base class of the standard optimization test functions.  Every function is defined on a hypercube with the
+ * same bounds in every dimension and has a global minimum of 0
+ */
+public abstract class BenchmarkFunction extends DoubleObjectiveFunction {
+
+    private final String name;
+    private final int dimensions;
+    private final EuclidianVector minBounds;
+    private final EuclidianVector maxBounds;
+
+    protected BenchmarkFunction(String name, int dimensions, double lowerBound, double upperBound) {
+        checkArgument(dimensions > 0, "dimensions must be positive");
+        checkArgument(lowerBound < upperBound, "the lower bound must be below the upper bound");
+
+        this.name = name;
+        this.dimensions = dimensions;
+        double[] bounds = new double[dimensions];
+        Arrays.fill(bounds, lowerBound);
+        this.minBounds = new EuclidianVector(bounds);
+        Arrays.fill(bounds, upperBound);
+        this.maxBounds = new EuclidianVector(bounds);
+    }
+
+    /**
+     * @return the name of the function including its dimensions, e.g. "rastrigin-10"
+     */
+    public String getName() {
+        return name + "-" + dimensions;
+    }
+
+    String name() {
+        return name;
+    }
+
+    public double getLowerBound() {
+        return minBounds.get(0);
+    }
+
+    public double getUpperBound() {
+        return maxBounds.get(0);
+    }
+
+    @Override
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public EuclidianVector getMinBounds() {
+        return minBounds;
+    }
+
+    @Override
+    public EuclidianVector getMaxBounds() {
+        return maxBounds;
+    }
+
+    @Override
+    public EuclidianVector getInitialGuess() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.steveash.jtribespso.IObjectiveFunction;
+
+/**
+ * An objective function together with the error a run has to reach to count as a success
+ */
+public class BenchmarkProblem {
+
+    private final String name;
+    private final IObjectiveFunction function;
+    private final double targetError;
+
+    public BenchmarkProblem(String name, IObjectiveFunction function, double targetError) {
+        checkArgument(targetError >= 0, "the target error can't be negative");
+        this.name = checkNotNull(name);
+        this.function = checkNotNull(function);
+        this.targetError = targetError;
+    }
+
+    public BenchmarkProblem(BenchmarkFunction function, double targetError) {
+        this(function.getName(), function, targetError);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public IObjectiveFunction getFunction() {
+        return function;
+    }
+
+    public double getTargetError() {
+        return targetError;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (target " + targetError + ")";
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Summarizes all runs of one search space implementation on one benchmark problem.  Runs that never reached the
+ * target count as taking infinitely many evaluations, so the medians are infinite once half of the runs failed
+ */
+public class BenchmarkResult {
+
+    static final String CsvHeader = "problem,searchSpace,dimensions,targetError,runs,successRate," +
+            "medianEvaluations,medianMillis,medianFinalError";
+
+    private final String problem;
+    private final String searchSpace;
+    private final int dimensions;
+    private final double targetError;
+    private final int runs;
+    private final int successes;
+    private final double medianEvaluations;
+    private final double medianMillis;
+    private final double medianFinalError;
+
+    BenchmarkResult(BenchmarkProblem problem, String searchSpace, double[] evaluationsToTarget,
+            double[] millisToTarget, double[] finalErrors) {
+
+        this.problem = problem.getName();
+        this.searchSpace = searchSpace;
+        this.dimensions = problem.getFunction().getDimensions();
+        this.targetError = problem.getTargetError();
+        this.runs = finalErrors.length;
+        int reached = 0;
+        for (double evaluations : evaluationsToTarget) {
+            if (!Double.isInfinite(evaluations)) {
+                reached += 1;
+            }
+        }
+        this.successes = reached;
+        this.medianEvaluations = median(evaluationsToTarget);
+        this.medianMillis = median(millisToTarget);
+        this.medianFinalError = median(finalErrors);
+    }
+
+    static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        if (sorted.length % 2 == 1) {
+            return sorted[middle];
+        }
+        return (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    public String getProblem() {
+        return problem;
+    }
+
+    public String getSearchSpace() {
+        return searchSpace;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public double getTargetError() {
+        return targetError;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getSuccesses() {
+        return successes;
+    }
+
+    public double getSuccessRate() {
+        return (double) successes / runs;
+    }
+
+    /**
+     * @return the median number of objective function evaluations to reach the target, or infinity
+     */
+    public double getMedianEvaluations() {
+        return medianEvaluations;
+    }
+
+    /**
+     * @return the median wall clock milliseconds to reach the target, or infinity
+     */
+    public double getMedianMillis() {
+        return medianMillis;
+    }
+
+    public double getMedianFinalError() {
+        return medianFinalError;
+    }
+
+    String toCsvRow() {
+        return String.format(Locale.ROOT, "%s,%s,%d,%s,%d,%.3f,%s,%s,%s", problem, searchSpace, dimensions,
+                format(targetError), runs, getSuccessRate(), format(medianEvaluations), format(medianMillis),
+                format(medianFinalError));
+    }
+
+    private static String format(double value) {
+        if (Double.isInfinite(value)) {
+            return "inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.6g", value);
+    }
+
+    @Override
+    public String toString() {
+        return "BenchmarkResult{" + toCsvRow() + "}";
+    }
+}
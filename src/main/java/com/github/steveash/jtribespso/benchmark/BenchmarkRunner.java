@@ -0,0 +1,233 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.jtribespso.ISearchSpaceFactory;
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
+import com.github.steveash.jtribespso.optimizer.Optimizer;
+import com.github.steveash.jtribespso.optimizer.OptimizerResult;
+import com.github.steveash.jtribespso.optimizer.StopCriteria;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Runs every search space implementation on every benchmark problem with many seeds and reports how many
+ * evaluations and how much wall clock time the median run needed to reach the target error.  Each run stops at
+ * the target or after maxEvaluations, whichever comes first.  Runs are independent, so they are spread over a
+ * pool of threads; the wall clock times are therefore only comparable between reports made with the same
+ * parallelism.
+ * <p/>
+ * The main method runs the standard suite and writes a CSV summary to the file given as the first argument, or
+ * to standard out
+ */
+public class BenchmarkRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkRunner.class);
+
+    private final int seeds;
+    private final long firstSeed;
+    private final long maxEvaluations;
+    private final List<BenchmarkProblem> problems = Lists.newArrayList();
+    private final List<ISearchSpaceFactory> searchSpaces = Lists.newArrayList();
+
+    /**
+     * @param seeds the number of runs of each search space on each problem
+     * @param firstSeed runs are seeded with firstSeed, firstSeed + 1, ...
+     * @param maxEvaluations the budget of each run
+     */
+    public BenchmarkRunner(int seeds, long firstSeed, long maxEvaluations) {
+        checkArgument(seeds > 0, "need at least one seed");
+        checkArgument(maxEvaluations > 0, "maxEvaluations must be positive");
+        this.seeds = seeds;
+        this.firstSeed = firstSeed;
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public BenchmarkRunner addProblem(BenchmarkProblem problem) {
+        problems.add(checkNotNull(problem));
+        return this;
+    }
+
+    public BenchmarkRunner addSearchSpace(ISearchSpaceFactory factory) {
+        searchSpaces.add(checkNotNull(factory));
+        return this;
+    }
+
+    /**
+     * Sphere, Rastrigin, Ackley, Griewank and Schwefel plus shifted and rotated variants of the first four, with
+     * targets that a decent optimizer reaches within a few hundred thousand evaluations
+     * @param dimensions
+     * @return
+     */
+    public static List<BenchmarkProblem> standardProblems(int dimensions) {
+        ImmutableList.Builder<BenchmarkProblem> problems = ImmutableList.builder();
+        BenchmarkFunction[] functions = {new Sphere(dimensions), new Rastrigin(dimensions), new Ackley(dimensions),
+                new Griewank(dimensions)};
+        double[] targets = {1e-6, 10, 1e-3, 1e-2};
+        for (int i = 0; i < functions.length; i++) {
+            problems.add(new BenchmarkProblem(functions[i], targets[i]));
+            problems.add(new BenchmarkProblem(TransformedFunction.shifted(functions[i], 17 + i), targets[i]));
+            problems.add(new BenchmarkProblem(TransformedFunction.shiftedAndRotated(functions[i], 31 + i),
+                    targets[i]));
+        }
+        problems.add(new BenchmarkProblem(new Schwefel(dimensions), 10.0 * dimensions));
+        return problems.build();
+    }
+
+    /**
+     * Runs all problems on all search spaces
+     * @param pool runs the individual optimizations.  This must not be the pool of a multithreaded search space
+     * under test, or the runs could starve their own workers
+     * @return one result per problem and search space, in the order they were added
+     */
+    public List<BenchmarkResult> run(ListeningExecutorService pool) {
+        checkState(!problems.isEmpty(), "no problems were added");
+        checkState(!searchSpaces.isEmpty(), "no search spaces were added");
+
+        List<List<Future<OptimizerResult>>> pending = Lists.newArrayList();
+        for (BenchmarkProblem problem : problems) {
+            for (ISearchSpaceFactory factory : searchSpaces) {
+                List<Future<OptimizerResult>> runs = Lists.newArrayListWithCapacity(seeds);
+                for (int i = 0; i < seeds; i++) {
+                    runs.add(pool.submit(new BenchmarkRun(problem, factory, firstSeed + i, maxEvaluations)));
+                }
+                pending.add(runs);
+            }
+        }
+
+        List<BenchmarkResult> results = Lists.newArrayList();
+        int next = 0;
+        for (BenchmarkProblem problem : problems) {
+            for (ISearchSpaceFactory factory : searchSpaces) {
+                BenchmarkResult result = summarize(problem, factory, pending.get(next++));
+                log.info("Finished {}", result);
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    private BenchmarkResult summarize(BenchmarkProblem problem, ISearchSpaceFactory factory,
+            List<Future<OptimizerResult>> runs) {
+
+        double[] evaluations = new double[runs.size()];
+        double[] millis = new double[runs.size()];
+        double[] finalErrors = new double[runs.size()];
+        for (int i = 0; i < runs.size(); i++) {
+            OptimizerResult run = getUnchecked(runs.get(i));
+            double error = (run.getBestSolution() == null ? Double.POSITIVE_INFINITY :
+                    run.getBestSolution().getError());
+            finalErrors[i] = error;
+            if (error <= problem.getTargetError()) {
+                evaluations[i] = run.getEvaluationsToBest();
+                millis[i] = run.getTimeToBest(TimeUnit.MICROSECONDS) / 1000.0;
+            } else {
+                evaluations[i] = Double.POSITIVE_INFINITY;
+                millis[i] = Double.POSITIVE_INFINITY;
+            }
+        }
+        return new BenchmarkResult(problem, factory.getName(), evaluations, millis, finalErrors);
+    }
+
+    private static OptimizerResult getUnchecked(Future<OptimizerResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Writes the results as CSV with a header line.  Numbers are formatted independently of the default locale
+     * and medians of failed runs are written as "inf"
+     * @param results
+     * @param out
+     * @throws IOException
+     */
+    public static void writeCsv(List<BenchmarkResult> results, Appendable out) throws IOException {
+        out.append(BenchmarkResult.CsvHeader).append('\n');
+        for (BenchmarkResult result : results) {
+            out.append(result.toCsvRow()).append('\n');
+        }
+    }
+
+    private static class BenchmarkRun implements Callable<OptimizerResult> {
+        private final BenchmarkProblem problem;
+        private final ISearchSpaceFactory factory;
+        private final long seed;
+        private final long maxEvaluations;
+
+        BenchmarkRun(BenchmarkProblem problem, ISearchSpaceFactory factory, long seed, long maxEvaluations) {
+            this.problem = problem;
+            this.factory = factory;
+            this.seed = seed;
+            this.maxEvaluations = maxEvaluations;
+        }
+
+        @Override
+        public OptimizerResult call() {
+            Optimizer optimizer = new Optimizer(factory.create(problem.getFunction(), seed),
+                    StopCriteria.targetError(problem.getTargetError()), StopCriteria.maxEvaluations(maxEvaluations));
+            return optimizer.run();
+        }
+    }
+
+    /**
+     * Usage: BenchmarkRunner [csv file] [dimensions] [seeds] [max evaluations]
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        int dimensions = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+        int seeds = (args.length > 2 ? Integer.parseInt(args[2]) : 25);
+        long maxEvaluations = (args.length > 3 ? Long.parseLong(args[3]) : 200000);
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        ListeningExecutorService runPool = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(processors));
+        ListeningExecutorService workerPool = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+        try {
+            BenchmarkRunner runner = new BenchmarkRunner(seeds, 1, maxEvaluations);
+            for (BenchmarkProblem problem : standardProblems(dimensions)) {
+                runner.addProblem(problem);
+            }
+            for (ISearchSpaceFactory factory : SearchSpaceFactories.all(workerPool, 2)) {
+                runner.addSearchSpace(factory);
+            }
+            List<BenchmarkResult> results = runner.run(runPool);
+
+            if (args.length > 0) {
+                try (Writer writer = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+                    writeCsv(results, writer);
+                }
+            } else {
+                writeCsv(results, System.out);
+            }
+        } finally {
+            runPool.shutdownNow();
+            workerPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.steveash.jtribespso.benchmark;
+
+/**
+ * The Griewank function, 1 + sum(x^2) / 4000 - prod(cos(x_i / sqrt(i))) on [-600, 600].  The product term couples
+ * the dimensions, so it isn't separable
+ */
+public class Griewank extends BenchmarkFunction {
+
+    public Griewank(int dimensions) {
+        super("griewank", dimensions, -600, 600);
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        double sum = 0;
+        double product = 1;
+        for (int i = 0; i < x.length; i++) {
+            sum += x[i] * x[i];
+            product *= Math.cos(x[i] / Math.sqrt(i + 1));
+        }
+        return 1 + sum / 4000 - product;
+    }
+}
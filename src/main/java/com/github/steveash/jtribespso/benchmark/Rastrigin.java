@@ -0,0 +1,37 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IIncrementalObjectiveFunction;
+
+/**
+ * The Rastrigin function, 10d + sum(x^2 - 10 cos(2 pi x)) on [-5.12, 5.12].  A regular grid of local minima
+ * around the global minimum at the origin
+ */
+public class Rastrigin extends BenchmarkFunction implements IIncrementalObjectiveFunction {
+
+    public Rastrigin(int dimensions) {
+        super("rastrigin", dimensions, -5.12, 5.12);
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        double sum = 10 * x.length;
+        for (double xi : x) {
+            sum += term(xi);
+        }
+        return sum;
+    }
+
+    @Override
+    public double evaluateChange(EuclidianVector previous, double previousError, int[] changed, double[] values) {
+        double sum = previousError;
+        for (int i = 0; i < changed.length; i++) {
+            sum += term(values[i]) - term(previous.get(changed[i]));
+        }
+        return sum;
+    }
+
+    private static double term(double xi) {
+        return xi * xi - 10 * Math.cos(2 * Math.PI * xi);
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.steveash.jtribespso.benchmark;
+
+/**
+ * The Schwefel function, 418.9829d - sum(x sin(sqrt(|x|))) on [-500, 500].  The global minimum at
+ * x_i = 420.9687 is far from the second best minima, near the corner of the search space, which punishes
+ * optimizers that are drawn to the center.  Its optimum is already off center, so it isn't meaningful to shift
+ */
+public class Schwefel extends BenchmarkFunction {
+
+    public static final double Optimum = 420.968746;
+
+    private static final double Constant = 418.9828872724339;
+
+    public Schwefel(int dimensions) {
+        super("schwefel", dimensions, -500, 500);
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        double sum = Constant * x.length;
+        for (double xi : x) {
+            sum -= xi * Math.sin(Math.sqrt(Math.abs(xi)));
+        }
+        return Math.max(sum, 0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IIncrementalObjectiveFunction;
+
+/**
+ * The sphere function, sum(x^2) on [-100, 100].  Unimodal and separable, it measures raw convergence speed
+ */
+public class Sphere extends BenchmarkFunction implements IIncrementalObjectiveFunction {
+
+    public Sphere(int dimensions) {
+        super("sphere", dimensions, -100, 100);
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        double sum = 0;
+        for (double xi : x) {
+            sum += xi * xi;
+        }
+        return sum;
+    }
+
+    @Override
+    public double evaluateChange(EuclidianVector previous, double previousError, int[] changed, double[] values) {
+        double sum = previousError;
+        for (int i = 0; i < changed.length; i++) {
+            double old = previous.get(changed[i]);
+            sum += values[i] * values[i] - old * old;
+        }
+        return sum;
+    }
+}
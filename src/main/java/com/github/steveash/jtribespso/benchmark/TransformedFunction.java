@@ -0,0 +1,114 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import com.github.steveash.jtribespso.rand.GaussianRandom;
+import com.github.steveash.jtribespso.rand.JdkRandom;
+
+/**
+ * Shifts and/or rotates a benchmark function: the value at x is base(R (x - o)).  Shifting moves the optimum away
+ * from the center of the search space, which exposes optimizers that are biased towards the center or the origin.
+ * Rotating by a random orthogonal matrix couples all dimensions, so separable functions like Rastrigin can no
+ * longer be solved one coordinate at a time.  The shift and rotation are generated from a seed so that a variant
+ * can be recreated exactly
+ */
+public class TransformedFunction extends BenchmarkFunction {
+
+    // shifted optima are placed inside this fraction of the bounds
+    private static final double ShiftRange = 0.8;
+
+    private final BenchmarkFunction base;
+    private final double[] shift;
+    private final double[][] rotation;
+
+    private TransformedFunction(String name, BenchmarkFunction base, double[] shift, double[][] rotation) {
+        super(name, base.getDimensions(), base.getLowerBound(), base.getUpperBound());
+        this.base = base;
+        this.shift = shift;
+        this.rotation = rotation;
+    }
+
+    public static TransformedFunction shifted(BenchmarkFunction base, long seed) {
+        return new TransformedFunction("shifted-" + base.name(), base, randomShift(base, seed), null);
+    }
+
+    public static TransformedFunction rotated(BenchmarkFunction base, long seed) {
+        return new TransformedFunction("rotated-" + base.name(), base, null,
+                randomRotation(base.getDimensions(), seed));
+    }
+
+    public static TransformedFunction shiftedAndRotated(BenchmarkFunction base, long seed) {
+        return new TransformedFunction("shifted-rotated-" + base.name(), base, randomShift(base, seed),
+                randomRotation(base.getDimensions(), seed + 1));
+    }
+
+    /**
+     * @return the position of the global minimum
+     */
+    public double[] getOptimum() {
+        return (shift == null ? new double[getDimensions()] : shift.clone());
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        double[] z = x;
+        if (shift != null) {
+            z = new double[x.length];
+            for (int i = 0; i < x.length; i++) {
+                z[i] = x[i] - shift[i];
+            }
+        }
+        if (rotation != null) {
+            double[] rotated = new double[z.length];
+            for (int i = 0; i < z.length; i++) {
+                double sum = 0;
+                double[] row = rotation[i];
+                for (int j = 0; j < z.length; j++) {
+                    sum += row[j] * z[j];
+                }
+                rotated[i] = sum;
+            }
+            z = rotated;
+        }
+        return base.evaluate(z);
+    }
+
+    private static double[] randomShift(BenchmarkFunction base, long seed) {
+        JdkRandom rng = new JdkRandom(seed);
+        double[] shift = new double[base.getDimensions()];
+        for (int i = 0; i < shift.length; i++) {
+            shift[i] = rng.nextDouble(ShiftRange * base.getLowerBound(), ShiftRange * base.getUpperBound());
+        }
+        return shift;
+    }
+
+    /**
+     * Generates a random orthogonal matrix by Gram-Schmidt orthonormalization of a matrix of gaussian samples
+     */
+    static double[][] randomRotation(int dimensions, long seed) {
+        GaussianRandom rng = new GaussianRandom(seed);
+        double[][] matrix = new double[dimensions][dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            double[] row = matrix[i];
+            for (int j = 0; j < dimensions; j++) {
+                row[j] = rng.nextGaussian();
+            }
+            for (int k = 0; k < i; k++) {
+                double dot = 0;
+                for (int j = 0; j < dimensions; j++) {
+                    dot += row[j] * matrix[k][j];
+                }
+                for (int j = 0; j < dimensions; j++) {
+                    row[j] -= dot * matrix[k][j];
+                }
+            }
+            double norm = 0;
+            for (int j = 0; j < dimensions; j++) {
+                norm += row[j] * row[j];
+            }
+            norm = Math.sqrt(norm);
+            for (int j = 0; j < dimensions; j++) {
+                row[j] /= norm;
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,378 @@
+package com.github.steveash.jtribespso.cooperative;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.github.steveash.jtribespso.DoubleObjectiveFunction;
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IIncrementalObjectiveFunction;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.ISearchSpace;
+import com.github.steveash.jtribespso.ISearchSpaceFactory;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.Solution;
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.github.steveash.jtribespso.rand.IHyperspaceRandom;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * A cooperative coevolution search space for problems with hundreds or thousands of dimensions, where every particle
+ * of an ordinary swarm has to move through every dimension at once.  The dimensions are split into small groups and
+ * each group (subcomponent) is optimized by a swarm of its own.  A sub-swarm evaluates its guesses by placing them in
+ * a shared context vector that holds the best known coordinates of every other subcomponent.
+ * <p/>
+ * Every call to moveThenAdapt() is a cycle: all sub-swarms move (and adapt) once, in parallel on the pool, against the
+ * same context, and then the best position of every sub-swarm that found something new is merged into the context,
+ * one subcomponent at a time and only if it makes the context better.  Merging costs one evaluation per subcomponent
+ * that moved the context.  After a merge the sub-swarms remember errors that were measured against an older, worse
+ * context, which only makes them quicker to accept new positions.  Merges are evaluated in full, so the context
+ * error is exact and the sub-swarms of an IIncrementalObjectiveFunction can update it for each guess.
+ * <p/>
+ * With a random grouping and a regroup interval the sub-swarms are replaced by new ones over new groups every so
+ * many cycles, so that interacting dimensions end up in the same group now and then.  New sub-swarms start at the
+ * context.
+ * <p/>
+ * The swarm accessors report the totals of the sub-swarms and bestSolution() is the context.  A cooperative search
+ * space has no tribes of its own, so it isn't a SearchSpace: it can't be checkpointed, and metrics, probes,
+ * polishers and the like are set on the sub-swarms by the search space factory
+ */
+public class CooperativeSearchSpace implements ISearchSpace {
+
+    private final IObjectiveFunction objectiveFunction;
+    private final IHyperspaceRandom rng;
+    private final DoubleObjectiveFunction objective;
+    private final IIncrementalObjectiveFunction incremental;
+    private final IDimensionGrouping grouping;
+    private final ISearchSpaceFactory subcomponentFactory;
+    private final ListeningExecutorService pool;
+    private int regroupInterval = 0;
+
+    private List<SubcomponentObjective> subcomponents = ImmutableList.of();
+    private List<SearchSpace<?>> swarms = ImmutableList.of();
+    private double[] context = null;
+    private Solution best = null;
+    private long cycles = 0;
+    private long ownEvaluations = 0;
+    // totals of the sub-swarms that were replaced by regrouping
+    private long retiredEvaluations = 0;
+    private long retiredAdaptations = 0;
+
+    /**
+     * Creates a search space that optimizes contiguous groups of dimensions one after the other with single threaded
+     * hypersphere swarms
+     * @param objectiveFunction
+     * @param groupSize
+     */
+    public CooperativeSearchSpace(IObjectiveFunction objectiveFunction, int groupSize) {
+        this(objectiveFunction, DimensionGroupings.contiguous(groupSize),
+                SearchSpaceFactories.singleThreadedHypersphere(), MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * @param objectiveFunction
+     * @param grouping splits the dimensions into subcomponents
+     * @param subcomponentFactory creates the sub-swarms
+     * @param pool moves the sub-swarms in parallel
+     */
+    public CooperativeSearchSpace(IObjectiveFunction objectiveFunction, IDimensionGrouping grouping,
+            ISearchSpaceFactory subcomponentFactory, ListeningExecutorService pool) {
+        this(objectiveFunction, grouping, subcomponentFactory, pool, new HyperspaceRandom());
+    }
+
+    /**
+     * @param objectiveFunction
+     * @param grouping splits the dimensions into subcomponents
+     * @param subcomponentFactory creates the sub-swarms
+     * @param pool moves the sub-swarms in parallel
+     * @param randomNumberGenerator draws the first context, the random groupings and the seeds of the sub-swarms
+     */
+    public CooperativeSearchSpace(IObjectiveFunction objectiveFunction, IDimensionGrouping grouping,
+            ISearchSpaceFactory subcomponentFactory, ListeningExecutorService pool,
+            IHyperspaceRandom randomNumberGenerator) {
+        this.objectiveFunction = checkNotNull(objectiveFunction);
+        this.rng = checkNotNull(randomNumberGenerator);
+        this.objective = DoubleObjectiveFunction.adapt(objectiveFunction);
+        this.incremental = (objectiveFunction instanceof IIncrementalObjectiveFunction ?
+                (IIncrementalObjectiveFunction) objectiveFunction : null);
+        this.grouping = checkNotNull(grouping);
+        this.subcomponentFactory = checkNotNull(subcomponentFactory);
+        this.pool = checkNotNull(pool);
+    }
+
+    /**
+     * Replaces the sub-swarms with new ones over a new grouping every so many cycles
+     * @param cycles the number of cycles between regroupings or 0 to keep the first grouping
+     */
+    public void setRegroupInterval(int cycles) {
+        checkArgument(cycles >= 0, "the regroup interval can't be negative");
+        this.regroupInterval = cycles;
+    }
+
+    /**
+     * @return the sub-swarms of the current grouping, in the order of getGroups()
+     */
+    public List<SearchSpace<?>> getSubcomponentSwarms() {
+        return swarms;
+    }
+
+    /**
+     * @return the dimension indexes of every subcomponent of the current grouping
+     */
+    public List<int[]> getGroups() {
+        List<int[]> groups = Lists.newArrayListWithCapacity(subcomponents.size());
+        for (SubcomponentObjective subcomponent : subcomponents) {
+            groups.add(subcomponent.dimensionIndexes().clone());
+        }
+        return groups;
+    }
+
+    /**
+     * The first call creates the context and the sub-swarms and seeds the sub-swarms.  Every other call is a cycle
+     */
+    @Override
+    public void moveThenAdapt() {
+        if (context == null) {
+            seed();
+            return;
+        }
+        move();
+    }
+
+    /**
+     * Moves every sub-swarm once and merges their improvements into the context
+     */
+    private void move() {
+        moveSwarms();
+        merge();
+        cycles += 1;
+        if (regroupInterval > 0 && cycles % regroupInterval == 0) {
+            regroup();
+        }
+    }
+
+    private void seed() {
+        EuclidianVector guess = objective.getInitialGuess();
+        double[] start = (guess == null ? generatePosition() : guess.toArray());
+        best = new Solution(new EuclidianVector(start), evaluate(start));
+        context = start;
+        regroup();
+    }
+
+    /**
+     * @return a position drawn uniformly from the bounds of the objective function
+     */
+    private double[] generatePosition() {
+        EuclidianVector min = objectiveFunction.getMinBounds();
+        EuclidianVector max = objectiveFunction.getMaxBounds();
+        double[] position = new double[objectiveFunction.getDimensions()];
+        for (int n = 0; n < position.length; n++) {
+            position[n] = rng.nextDouble(min.get(n), max.get(n));
+        }
+        return position;
+    }
+
+    @Override
+    public IObjectiveFunction goodnessFunction() {
+        return objectiveFunction;
+    }
+
+    @Override
+    public Solution bestSolution() {
+        return best;
+    }
+
+    @Override
+    public int tribeCount() {
+        int count = 0;
+        for (SearchSpace<?> swarm : swarms) {
+            count += swarm.tribeCount();
+        }
+        return count;
+    }
+
+    @Override
+    public int swarmSize() {
+        int size = 0;
+        for (SearchSpace<?> swarm : swarms) {
+            size += swarm.swarmSize();
+        }
+        return size;
+    }
+
+    @Override
+    public long evaluationCount() {
+        long count = ownEvaluations + retiredEvaluations;
+        for (SearchSpace<?> swarm : swarms) {
+            count += swarm.evaluationCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of cycles
+     */
+    @Override
+    public long iterationCount() {
+        return cycles;
+    }
+
+    /**
+     * @return the adaptations of all sub-swarms
+     */
+    @Override
+    public long adaptationCount() {
+        long count = retiredAdaptations;
+        for (SearchSpace<?> swarm : swarms) {
+            count += swarm.adaptationCount();
+        }
+        return count;
+    }
+
+    /**
+     * The subcomponents cover disjoint dimensions, so the squared radii of the sub-swarms add up
+     */
+    @Override
+    public double swarmRadius() {
+        double sum = 0;
+        for (SearchSpace<?> swarm : swarms) {
+            double radius = swarm.swarmRadius();
+            sum += radius * radius;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private double evaluate(double[] position) {
+        ownEvaluations += 1;
+        return objective.evaluate(position);
+    }
+
+    private void regroup() {
+        for (SearchSpace<?> swarm : swarms) {
+            retiredEvaluations += swarm.evaluationCount();
+            retiredAdaptations += swarm.adaptationCount();
+        }
+        List<int[]> groups = grouping.group(objective.getDimensions(), rng);
+        checkCovers(groups);
+        ImmutableList.Builder<SubcomponentObjective> newSubcomponents = ImmutableList.builder();
+        ImmutableList.Builder<SearchSpace<?>> newSwarms = ImmutableList.builder();
+        for (int[] group : groups) {
+            SubcomponentObjective subcomponent = new SubcomponentObjective(objective, incremental, group.clone(),
+                    best.getPosition(), best.getError());
+            newSubcomponents.add(subcomponent);
+            newSwarms.add(subcomponentFactory.create(subcomponent, rng.nextInt()));
+        }
+        subcomponents = newSubcomponents.build();
+        swarms = newSwarms.build();
+        // seeds the new sub-swarms
+        moveSwarms();
+    }
+
+    private void checkCovers(List<int[]> groups) {
+        boolean[] covered = new boolean[objective.getDimensions()];
+        for (int[] group : groups) {
+            checkArgument(group.length > 0, "the grouping returned an empty group");
+            for (int dimension : group) {
+                checkArgument(!covered[dimension], "the grouping returned dimension %s twice", dimension);
+                covered[dimension] = true;
+            }
+        }
+        for (int n = 0; n < covered.length; n++) {
+            checkArgument(covered[n], "the grouping left out dimension %s", n);
+        }
+    }
+
+    private void moveSwarms() {
+        List<ListenableFuture<Void>> moves = Lists.newArrayListWithCapacity(swarms.size());
+        for (final SearchSpace<?> swarm : swarms) {
+            moves.add(pool.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    swarm.moveThenAdapt();
+                    return null;
+                }
+            }));
+        }
+        try {
+            Futures.allAsList(moves).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            for (ListenableFuture<Void> move : moves) {
+                move.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Tries the best position of every sub-swarm in the context, the most promising first, and keeps the ones that
+     * make the context better
+     */
+    private void merge() {
+        Integer[] order = new Integer[swarms.size()];
+        final double[] errors = new double[swarms.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            Solution swarmBest = swarms.get(i).bestSolution();
+            errors[i] = (swarmBest == null ? Double.POSITIVE_INFINITY : swarmBest.getError());
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(errors[a], errors[b]);
+            }
+        });
+
+        double[] merged = context;
+        double mergedError = best.getError();
+        for (int i : order) {
+            Solution swarmBest = swarms.get(i).bestSolution();
+            if (swarmBest == null) {
+                continue;
+            }
+            SubcomponentObjective subcomponent = subcomponents.get(i);
+            double[] coordinates = swarmBest.getPosition().toArray();
+            if (Arrays.equals(coordinates, subcomponent.project(merged).toArray())) {
+                continue;
+            }
+            double[] trial = merged.clone();
+            int[] dimensions = subcomponent.dimensionIndexes();
+            for (int n = 0; n < dimensions.length; n++) {
+                trial[dimensions[n]] = coordinates[n];
+            }
+            double error = evaluate(trial);
+            if (error < mergedError) {
+                merged = trial;
+                mergedError = error;
+            }
+        }
+        if (merged != context) {
+            context = merged;
+            best = new Solution(new EuclidianVector(merged), mergedError);
+            for (SubcomponentObjective subcomponent : subcomponents) {
+                subcomponent.setContext(best.getPosition(), mergedError);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CooperativeSearchSpace{subcomponents=" + subcomponents.size() + ", cycles=" + cycles + ", best=" +
+                (best == null ? "none" : best.getError()) + "}";
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.steveash.jtribespso.cooperative;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.steveash.jtribespso.rand.IRandom;
+import com.google.common.collect.Lists;
+
+/**
+ * The groupings of dimensions that ship with the library
+ */
+public class DimensionGroupings {
+
+    private DimensionGroupings() { }
+
+    /**
+     * Groups neighbouring dimensions, which suits problems whose interacting parameters are stored next to each
+     * other, e.g. the parameters of one curve of a fit
+     * @param groupSize the number of dimensions per group.  The last group gets the remainder
+     * @return
+     */
+    public static IDimensionGrouping contiguous(final int groupSize) {
+        checkArgument(groupSize > 0, "groupSize must be positive");
+        return new IDimensionGrouping() {
+            @Override
+            public List<int[]> group(int dimensions, IRandom rng) {
+                int[] order = new int[dimensions];
+                for (int i = 0; i < dimensions; i++) {
+                    order[i] = i;
+                }
+                return split(order, groupSize);
+            }
+        };
+    }
+
+    /**
+     * Groups randomly chosen dimensions.  Combined with CooperativeSearchSpace.setRegroupInterval() every pair of
+     * interacting dimensions sooner or later lands in the same group, even when it isn't known which dimensions
+     * interact
+     * @param groupSize the number of dimensions per group.  The last group gets the remainder
+     * @return
+     */
+    public static IDimensionGrouping random(final int groupSize) {
+        checkArgument(groupSize > 0, "groupSize must be positive");
+        return new IDimensionGrouping() {
+            @Override
+            public List<int[]> group(int dimensions, IRandom rng) {
+                int[] order = new int[dimensions];
+                for (int i = 0; i < dimensions; i++) {
+                    order[i] = i;
+                }
+                for (int i = dimensions - 1; i > 0; i--) {
+                    int j = rng.nextInt(i + 1);
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                }
+                return split(order, groupSize);
+            }
+        };
+    }
+
+    private static List<int[]> split(int[] order, int groupSize) {
+        List<int[]> groups = Lists.newArrayListWithCapacity((order.length + groupSize - 1) / groupSize);
+        for (int start = 0; start < order.length; start += groupSize) {
+            int[] group = Arrays.copyOfRange(order, start, Math.min(order.length, start + groupSize));
+            Arrays.sort(group);
+            groups.add(group);
+        }
+        return groups;
+    }
+}
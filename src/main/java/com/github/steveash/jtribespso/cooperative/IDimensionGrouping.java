@@ -0,0 +1,18 @@
+package com.github.steveash.jtribespso.cooperative;
+
+import java.util.List;
+
+import com.github.steveash.jtribespso.rand.IRandom;
+
+/**
+ * Splits the dimensions of a problem into the subcomponents of a CooperativeSearchSpace
+ */
+public interface IDimensionGrouping {
+
+    /**
+     * @param dimensions
+     * @param rng
+     * @return disjoint groups of dimension indexes that together cover every dimension exactly once
+     */
+    List<int[]> group(int dimensions, IRandom rng);
+}
@@ -0,0 +1,120 @@
+package com.github.steveash.jtribespso.cooperative;
+
+import com.github.steveash.jtribespso.DoubleObjectiveFunction;
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IIncrementalObjectiveFunction;
+
+/**
+ * The objective function of one subcomponent: the full objective function evaluated at the context vector with the
+ * subcomponent's dimensions replaced by the guess.  The context only changes in between cycles, when no sub-swarm
+ * is moving.  If the objective function is an IIncrementalObjectiveFunction, a guess is evaluated as a change of the
+ * context, which costs O(group size) instead of O(dimensions)
+ */
+class SubcomponentObjective extends DoubleObjectiveFunction {
+
+    private final DoubleObjectiveFunction objective;
+    private final IIncrementalObjectiveFunction incremental;
+    private final int[] dimensions;
+    private final EuclidianVector minBounds;
+    private final EuclidianVector maxBounds;
+    private volatile Context context;
+
+    SubcomponentObjective(DoubleObjectiveFunction objective, IIncrementalObjectiveFunction incremental,
+            int[] dimensions, EuclidianVector context, double contextError) {
+        this.objective = objective;
+        this.incremental = incremental;
+        this.dimensions = dimensions;
+        this.minBounds = project(objective.getMinBounds().toArray());
+        this.maxBounds = project(objective.getMaxBounds().toArray());
+        this.context = new Context(context, contextError);
+    }
+
+    int[] dimensionIndexes() {
+        return dimensions;
+    }
+
+    /**
+     * @param context
+     * @param contextError the exact error of the context
+     */
+    void setContext(EuclidianVector context, double contextError) {
+        this.context = new Context(context, contextError);
+    }
+
+    /**
+     * @param full
+     * @return the subcomponent's coordinates of a full vector
+     */
+    EuclidianVector project(double[] full) {
+        double[] sub = new double[dimensions.length];
+        for (int i = 0; i < dimensions.length; i++) {
+            sub[i] = full[dimensions[i]];
+        }
+        return new EuclidianVector(sub);
+    }
+
+    /**
+     * @param sub
+     * @return a copy of the context with the subcomponent's coordinates replaced
+     */
+    double[] embed(double[] sub) {
+        double[] full = context.vector.toArray();
+        for (int i = 0; i < dimensions.length; i++) {
+            full[dimensions[i]] = sub[i];
+        }
+        return full;
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        if (incremental != null) {
+            Context current = context;
+            return incremental.evaluateChange(current.vector, current.error, dimensions, x);
+        }
+        return objective.evaluate(embed(x));
+    }
+
+    @Override
+    public double evaluate(double[] x, double cutoff) {
+        if (incremental != null) {
+            return evaluate(x);
+        }
+        return objective.evaluate(embed(x), cutoff);
+    }
+
+    @Override
+    public int getDimensions() {
+        return dimensions.length;
+    }
+
+    @Override
+    public EuclidianVector getMinBounds() {
+        return minBounds;
+    }
+
+    @Override
+    public EuclidianVector getMaxBounds() {
+        return maxBounds;
+    }
+
+    /**
+     * A new sub-swarm starts at the context, so it can only make the context better
+     */
+    @Override
+    public EuclidianVector getInitialGuess() {
+        return project(context.vector.toArray());
+    }
+
+    /**
+     * The context and its error, swapped together
+     */
+    private static class Context {
+        final EuclidianVector vector;
+        final double error;
+
+        Context(EuclidianVector vector, double error) {
+            this.vector = vector;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.steveash.jtribespso.event;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the lifecycle events of a search space to listeners on a dedicated thread, so slow listeners don't add
+ * their latency to the iterations the way subscribers of the synchronous event bus do.  Attach it with
+ * SearchSpace.setEventDispatcher().
+ * <p/>
+ * Events pass through a bounded single producer, single consumer ring buffer.  When the listeners fall so far
+ * behind that the buffer is full, a new event replaces the newest event that is still waiting instead of blocking
+ * the search space.  Every summary describes the whole swarm, so the newer one supersedes the one it replaces, but
+ * the listeners don't see the replaced event's type.  Replaced events are counted as drops.  Publishing is a few
+ * array and atomic operations, and wakes up the dispatcher thread only when it is idle.
+ * <p/>
+ * publish() must only be called from one thread at a time, which is the case for the thread that calls
+ * moveThenAdapt().  Listeners that throw are logged and keep receiving events
+ */
+public class AsyncEventDispatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncEventDispatcher.class);
+
+    public static final int DefaultCapacity = 1024;
+
+    private final AtomicReferenceArray<SwarmSummaryEvent> ring;
+    private final int mask;
+    private final List<ISwarmEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread thread;
+
+    // the next slot the producer writes, only written by the producer
+    private final AtomicLong head = new AtomicLong();
+    // the next slot the consumer reads, only written by the consumer
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private volatile boolean idle = false;
+    private volatile boolean closed = false;
+
+    public AsyncEventDispatcher() {
+        this(DefaultCapacity);
+    }
+
+    /**
+     * @param capacity the number of events that can wait for the listeners, rounded up to a power of two
+     */
+    public AsyncEventDispatcher(int capacity) {
+        checkArgument(capacity > 0 && capacity <= (1 << 30), "the capacity must be between 1 and 2^30");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        }, "swarm-event-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void addListener(ISwarmEventListener listener) {
+        listeners.add(checkNotNull(listener));
+    }
+
+    public void removeListener(ISwarmEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return the number of events that have been published
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * @return the number of events that were replaced by newer events before they were delivered
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of events that have been handed to the listeners
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Queues an event for the listeners.  Never blocks
+     * @param type
+     * @param summary
+     */
+    public void publish(SwarmEventType type, SwarmSummary summary) {
+        checkState(!closed, "The dispatcher is closed");
+        SwarmSummaryEvent event = new SwarmSummaryEvent(type, published.getAndIncrement(), summary);
+        long h = head.get();
+        while (true) {
+            if (h - tail.get() <= mask) {
+                ring.set((int) h & mask, event);
+                // a full store, so the dispatcher can't go idle without seeing the event
+                head.set(h + 1);
+                break;
+            }
+            // full, so replace the newest waiting event unless the dispatcher has just taken it
+            int newest = (int) (h - 1) & mask;
+            SwarmSummaryEvent waiting = ring.get(newest);
+            if (waiting != null && ring.compareAndSet(newest, waiting, event)) {
+                dropped.incrementAndGet();
+                break;
+            }
+            // the dispatcher is between taking the slot and freeing it, which takes a few instructions
+            Thread.yield();
+        }
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Waits until every published event has been delivered
+     * @param timeout
+     * @param unit
+     * @return false if the timeout expired first
+     * @throws InterruptedException
+     */
+    public boolean awaitDelivery(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (delivered.get() + dropped.get() < published.get()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Delivers the events that are still waiting and stops the dispatcher thread
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+        while (true) {
+            SwarmSummaryEvent event = take();
+            if (event != null) {
+                deliver(event);
+                continue;
+            }
+            if (closed) {
+                // a final look, since the producer stopped before closing
+                if ((event = take()) == null) {
+                    return;
+                }
+                deliver(event);
+                continue;
+            }
+            idle = true;
+            if ((event = take()) != null) {
+                idle = false;
+                deliver(event);
+                continue;
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            idle = false;
+        }
+    }
+
+    /**
+     * @return the oldest waiting event or null if there is none
+     */
+    private SwarmSummaryEvent take() {
+        long t = tail.get();
+        if (t >= head.get()) {
+            return null;
+        }
+        int slot = (int) t & mask;
+        SwarmSummaryEvent event = ring.getAndSet(slot, null);
+        tail.lazySet(t + 1);
+        return event;
+    }
+
+    private void deliver(SwarmSummaryEvent event) {
+        for (ISwarmEventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                log.warn("Swarm event listener " + listener + " failed on " + event, e);
+            }
+        }
+        delivered.incrementAndGet();
+    }
+}
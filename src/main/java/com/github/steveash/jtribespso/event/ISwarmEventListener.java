@@ -0,0 +1,9 @@
+package com.github.steveash.jtribespso.event;
+
+/**
+ * Receives the events of an AsyncEventDispatcher on the dispatcher's thread
+ */
+public interface ISwarmEventListener {
+
+    void onEvent(SwarmSummaryEvent event);
+}
@@ -0,0 +1,12 @@
+package com.github.steveash.jtribespso.event;
+
+/**
+ * The points of an iteration at which a search space publishes events, matching SwarmMovingEvent,
+ * SwarmMovedEvent, SwarmAdaptingEvent and SwarmAdaptedEvent
+ */
+public enum SwarmEventType {
+    Moving,
+    Moved,
+    Adapting,
+    Adapted
+}
@@ -0,0 +1,69 @@
+package com.github.steveash.jtribespso.event;
+
+import com.github.steveash.jtribespso.Solution;
+
+/**
+ * An immutable summary of the state of a swarm at one point of an iteration, the payload of the events of an
+ * AsyncEventDispatcher
+ */
+public class SwarmSummary {
+
+    private final long iteration;
+    private final long adaptations;
+    private final long evaluations;
+    private final int tribeCount;
+    private final int swarmSize;
+    private final Solution bestSolution;
+
+    public SwarmSummary(long iteration, long adaptations, long evaluations, int tribeCount, int swarmSize,
+            Solution bestSolution) {
+
+        this.iteration = iteration;
+        this.adaptations = adaptations;
+        this.evaluations = evaluations;
+        this.tribeCount = tribeCount;
+        this.swarmSize = swarmSize;
+        this.bestSolution = bestSolution;
+    }
+
+    /**
+     * @return the number of moves the swarm had made
+     */
+    public long getIteration() {
+        return iteration;
+    }
+
+    public long getAdaptations() {
+        return adaptations;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public int getTribeCount() {
+        return tribeCount;
+    }
+
+    public int getSwarmSize() {
+        return swarmSize;
+    }
+
+    /**
+     * @return the best solution of the swarm, which is null before the swarm is seeded
+     */
+    public Solution getBestSolution() {
+        return bestSolution;
+    }
+
+    public double getBestError() {
+        return (bestSolution == null ? Double.POSITIVE_INFINITY : bestSolution.getError());
+    }
+
+    @Override
+    public String toString() {
+        return "SwarmSummary{iteration=" + iteration + ", adaptations=" + adaptations + ", evaluations=" +
+                evaluations + ", tribes=" + tribeCount + ", particles=" + swarmSize + ", best error=" +
+                getBestError() + "}";
+    }
+}
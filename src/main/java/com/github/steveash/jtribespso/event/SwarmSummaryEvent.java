@@ -0,0 +1,35 @@
+package com.github.steveash.jtribespso.event;
+
+/**
+ * An event delivered by an AsyncEventDispatcher.  Sequence numbers count every published event, so a gap between
+ * the sequence numbers of two delivered events is the number of events that were conflated away
+ */
+public class SwarmSummaryEvent {
+
+    private final SwarmEventType type;
+    private final long sequence;
+    private final SwarmSummary summary;
+
+    public SwarmSummaryEvent(SwarmEventType type, long sequence, SwarmSummary summary) {
+        this.type = type;
+        this.sequence = sequence;
+        this.summary = summary;
+    }
+
+    public SwarmEventType getType() {
+        return type;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public SwarmSummary getSummary() {
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        return type + "#" + sequence + " " + summary;
+    }
+}
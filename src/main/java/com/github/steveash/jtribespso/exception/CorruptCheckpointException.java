@@ -0,0 +1,20 @@
+package com.github.steveash.jtribespso.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a swarm checkpoint can't be read because it is truncated, fails its checksum or was written in
+ * an unsupported format version
+ */
+public class CorruptCheckpointException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CorruptCheckpointException(String message) {
+        super(message);
+    }
+
+    public CorruptCheckpointException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
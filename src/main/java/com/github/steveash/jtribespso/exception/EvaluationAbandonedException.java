@@ -0,0 +1,14 @@
+package com.github.steveash.jtribespso.exception;
+
+/**
+ * Thrown by SearchSpace.evaluateMove() when a particle's evaluation missed its deadline and was given up on.  The
+ * particle stays where it is for that iteration
+ */
+public class EvaluationAbandonedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EvaluationAbandonedException(String message) {
+        super(message);
+    }
+}
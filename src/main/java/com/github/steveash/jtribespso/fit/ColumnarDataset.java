@@ -0,0 +1,143 @@
+package com.github.steveash.jtribespso.fit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read only table of doubles stored column by column in a binary file and memory mapped, so opening even a file
+ * with tens of millions of rows is a few system calls: nothing is parsed or copied onto the heap, and the operating
+ * system pages the data in as it is read.
+ * <p/>
+ * The file is a 32 byte header (magic, format version, column count, reserved, row count as a long, reserved)
+ * followed by each column's values in row order.  Everything is little endian.  A column is mapped as a single
+ * buffer, so it can have at most 2^28 rows.
+ * <p/>
+ * The column buffers are shared; read them with the absolute get(int), which is safe from any number of threads
+ */
+public class ColumnarDataset {
+
+    static final int Magic = 0x4A544344; // "JTCD"
+    static final int FormatVersion = 1;
+    static final int HeaderSize = 32;
+    static final int MaxRows = Integer.MAX_VALUE / 8;
+
+    private static final int WriteBufferSize = 64 * 1024;
+
+    private final DoubleBuffer[] columns;
+    private final int rowCount;
+
+    private ColumnarDataset(DoubleBuffer[] columns, int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Maps a dataset file written by write()
+     * @param file
+     * @return
+     * @throws IOException if the file isn't a dataset or its size doesn't match its header
+     */
+    public static ColumnarDataset open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HeaderSize) {
+                throw new IOException(file + " is not a columnar dataset");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HeaderSize)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != Magic) {
+                throw new IOException(file + " is not a columnar dataset");
+            }
+            if (header.getInt(4) != FormatVersion) {
+                throw new IOException("Unsupported dataset format version " + header.getInt(4) + " in " + file);
+            }
+            int columnCount = header.getInt(8);
+            long rows = header.getLong(16);
+            if (columnCount <= 0 || rows < 0 || rows > MaxRows) {
+                throw new IOException("Corrupt dataset header in " + file);
+            }
+            long columnBytes = rows * 8;
+            if (channel.size() != HeaderSize + columnCount * columnBytes) {
+                throw new IOException("The size of " + file + " doesn't match its " + columnCount + " columns of " +
+                        rows + " rows");
+            }
+
+            // the mappings stay valid after the channel is closed
+            DoubleBuffer[] columns = new DoubleBuffer[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                columns[c] = channel.map(FileChannel.MapMode.READ_ONLY, HeaderSize + c * columnBytes, columnBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+            return new ColumnarDataset(columns, (int) rows);
+        }
+    }
+
+    /**
+     * Writes the columns to a new dataset file, replacing the file if it exists
+     * @param file
+     * @param columns at least one column; all columns must have the same length
+     * @throws IOException
+     */
+    public static void write(Path file, double[]... columns) throws IOException {
+        checkNotNull(file);
+        checkArgument(columns.length > 0, "need at least one column");
+        int rows = columns[0].length;
+        for (double[] column : columns) {
+            checkArgument(column.length == rows, "all columns must have the same number of rows");
+        }
+        checkArgument(rows <= MaxRows, "columns can have at most %s rows", MaxRows);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WriteBufferSize).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(Magic).putInt(FormatVersion).putInt(columns.length).putInt(0)
+                    .putLong(rows).putLong(0);
+            for (double[] column : columns) {
+                for (double value : column) {
+                    if (buffer.remaining() < 8) {
+                        drain(buffer, channel);
+                    }
+                    buffer.putDouble(value);
+                }
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @param column
+     * @return the shared read only buffer of the column.  Only use absolute gets on it
+     */
+    public DoubleBuffer column(int column) {
+        checkElementIndex(column, columns.length);
+        return columns[column];
+    }
+
+    public double get(int column, int row) {
+        return columns[column].get(row);
+    }
+}
@@ -0,0 +1,232 @@
+package com.github.steveash.jtribespso.fit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.steveash.jtribespso.DoubleObjectiveFunction;
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.rand.IRandom;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * Scores candidates on a growing random subsample of the rows of a least squares objective and only goes on to the
+ * full data while they still look competitive.  Particle.move() evaluates every candidate position with the
+ * particle's best error as the cutoff.  This wrapper sums the rows block by block in a random systematic order and,
+ * after initialSampleRows and then every time the sample has doubled, estimates the full error from the sample
+ * together with its standard error.  Once the estimate is more than z standard errors above the cutoff the
+ * candidate is rejected.  Candidates that stay competitive end up summing every block, so the errors of improving
+ * candidates, and therefore the swarm's best solutions, are always exact, and no candidate costs more than one
+ * full pass.
+ * <p/>
+ * Early in the search most candidates are far worse than their particle's best and are rejected on the first
+ * sample.  As the swarm converges candidates get closer to the cutoffs and need larger samples to tell apart, so
+ * the fidelity grows by itself.  Unlike other IAbortableObjectiveFunctions, an improving candidate can
+ * occasionally be rejected because its sample was unlucky; z = 3 keeps that to roughly one in a thousand of the
+ * candidates that are being tested.
+ * <p/>
+ * Choosing the sample takes a single random number per evaluation, which is drawn under a lock so that the
+ * wrapper can be used from multithreaded search spaces
+ */
+public class FidelityObjective extends DoubleObjectiveFunction {
+
+    public static final int DefaultInitialSampleRows = 1024;
+    public static final double DefaultZ = 3;
+
+    // how much memory the remembered best solutions and their block sums may take
+    private static final long MaxRememberedBytes = 64L * 1024 * 1024;
+
+    private final SumOfSquaresObjective objective;
+    private final IRandom rng;
+    private final double z;
+    private final int initialSampleBlocks;
+    private final int blocks;
+    private final int stride;
+
+    private final Cache<Long, Best> bests;
+    private final AtomicLong screened = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rowsVisited = new AtomicLong();
+
+    public FidelityObjective(SumOfSquaresObjective objective, IRandom rng) {
+        this(objective, rng, DefaultInitialSampleRows, DefaultZ);
+    }
+
+    /**
+     * @param objective the full fidelity objective
+     * @param rng picks the samples
+     * @param initialSampleRows the size of the first sample.  It needs enough blocks of rows for a useful
+     * estimate of their variance
+     * @param z how many standard errors above the cutoff an estimate has to be to reject the candidate
+     */
+    public FidelityObjective(SumOfSquaresObjective objective, IRandom rng, int initialSampleRows, double z) {
+        checkArgument(initialSampleRows >= 2 * SumOfSquaresObjective.CheckInterval,
+                "the first sample needs at least two blocks of %s rows", SumOfSquaresObjective.CheckInterval);
+        checkArgument(z > 0, "z must be positive");
+        this.objective = checkNotNull(objective);
+        this.rng = checkNotNull(rng);
+        this.z = z;
+        this.initialSampleBlocks = initialSampleRows / SumOfSquaresObjective.CheckInterval;
+
+        int rows = objective.rowCount();
+        this.blocks = (rows + SumOfSquaresObjective.CheckInterval - 1) / SumOfSquaresObjective.CheckInterval;
+        this.stride = SumOfSquaresObjective.blockStride(blocks);
+        this.bests = CacheBuilder.newBuilder()
+                .maximumWeight(MaxRememberedBytes)
+                .weigher(new Weigher<Long, Best>() {
+                    @Override
+                    public int weigh(Long key, Best value) {
+                        return 8 * (value.position.length + value.blockSums.length);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return the number of candidates that were estimated from a sample
+     */
+    public long getScreenedCount() {
+        return screened.get();
+    }
+
+    /**
+     * @return the number of candidates that were rejected on a sample before reaching the cutoff
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the number of rows summed by all evaluations so far
+     */
+    public long getRowsVisited() {
+        return rowsVisited.get();
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        rowsVisited.addAndGet(objective.rowCount());
+        double error = objective.evaluate(x);
+        remember(x, error);
+        return error;
+    }
+
+    @Override
+    public double evaluate(double[] x, double cutoff) {
+        if (Double.isInfinite(cutoff) || blocks <= initialSampleBlocks) {
+            rowsVisited.addAndGet(objective.rowCount());
+            double error = objective.evaluate(x, cutoff);
+            if (error < cutoff) {
+                remember(x, error);
+            }
+            return error;
+        }
+        screened.incrementAndGet();
+
+        // the cutoff is the error of the particle's best solution, which we have usually seen before
+        Best best = bests.getIfPresent(Double.doubleToLongBits(cutoff));
+        int block;
+        synchronized (rng) {
+            block = rng.nextInt(blocks);
+        }
+        int rows = objective.rowCount();
+        double sum = 0;
+        double statisticSum = 0;
+        double statisticSquares = 0;
+        int visitedRows = 0;
+        int nextCheck = initialSampleBlocks;
+        for (int visited = 1; visited <= blocks; visited++) {
+            int start = block * SumOfSquaresObjective.CheckInterval;
+            int end = Math.min(rows, start + SumOfSquaresObjective.CheckInterval);
+            double blockSum = objective.sumRows(x, start, end);
+            visitedRows += end - start;
+            sum += blockSum;
+            if (sum >= cutoff) {
+                break;
+            }
+
+            double statistic = blockSum;
+            if (best != null) {
+                double bestSum = best.blockSums[block];
+                if (Double.isNaN(bestSum)) {
+                    bestSum = objective.sumRows(best.position, start, end);
+                    visitedRows += end - start;
+                    best.blockSums[block] = bestSum;
+                }
+                statistic -= bestSum;
+            }
+            statisticSum += statistic;
+            statisticSquares += statistic * statistic;
+
+            if (visited == nextCheck) {
+                double mean = statisticSum / visited;
+                double variance = Math.max(0, (statisticSquares - visited * mean * mean) / (visited - 1));
+                // sampling without replacement from a finite number of blocks
+                double correction = 1 - (double) visited / blocks;
+                double estimate = (best != null ? cutoff : 0) + blocks * mean;
+                if (estimate - z * blocks * Math.sqrt(variance / visited * correction) >= cutoff) {
+                    rejected.incrementAndGet();
+                    rowsVisited.addAndGet(visitedRows);
+                    return estimate;
+                }
+                nextCheck *= 2;
+            }
+            block += stride;
+            if (block >= blocks) {
+                block -= blocks;
+            }
+        }
+        rowsVisited.addAndGet(visitedRows);
+        if (sum < cutoff) {
+            remember(x, sum);
+        }
+        return sum;
+    }
+
+    /**
+     * Remembers a guess whose exact error is known, since it is about to become some particle's best solution and
+     * its error the cutoff of that particle's next moves
+     */
+    private void remember(double[] x, double error) {
+        bests.put(Double.doubleToLongBits(error), new Best(x.clone(), blocks));
+    }
+
+    /**
+     * A particle's best position and the block sums of its error, filled in as candidates are compared with it.
+     * Threads that race to fill in the same block write the same value
+     */
+    private static class Best {
+        final double[] position;
+        final double[] blockSums;
+
+        Best(double[] position, int blocks) {
+            this.position = position;
+            this.blockSums = new double[blocks];
+            Arrays.fill(blockSums, Double.NaN);
+        }
+    }
+
+    @Override
+    public int getDimensions() {
+        return objective.getDimensions();
+    }
+
+    @Override
+    public EuclidianVector getMinBounds() {
+        return objective.getMinBounds();
+    }
+
+    @Override
+    public EuclidianVector getMaxBounds() {
+        return objective.getMaxBounds();
+    }
+
+    @Override
+    public EuclidianVector getInitialGuess() {
+        return objective.getInitialGuess();
+    }
+}
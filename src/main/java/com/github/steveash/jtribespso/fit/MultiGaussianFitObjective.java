@@ -0,0 +1,240 @@
+package com.github.steveash.jtribespso.fit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+
+/**
+ * Fits the sum of K gaussian curves to (x, y) data by least squares.  A guess has 3K dimensions: the mean,
+ * variance and height of each curve in turn, and the model at x is the sum of height * exp(-(x - mean)^2 /
+ * (2 variance)).
+ * <p/>
+ * The kernel is a single fused loop over contiguous x and y arrays.  The only setup is turning each variance into the
+ * factor of the exponent once per block of rows, in a per thread scratch array, so evaluating a guess creates no
+ * objects.  Set fastExp to use FastExp instead of Math.exp.  Evaluations stop early when the partial sum reaches
+ * the cutoff, in the same block order as SumOfSquaresObjective.
+ * <p/>
+ * evaluateBatch() scores many guesses in one pass over the data: it walks the rows in tiles small enough to stay
+ * in the L1 cache and evaluates every guess on a tile before moving on, so a large dataset is read from memory once
+ * per batch rather than once per guess
+ */
+public class MultiGaussianFitObjective extends SumOfSquaresObjective {
+
+    static final int TileRows = 512;
+
+    private final int curveCount;
+    private final double[] xs;
+    private final double[] ys;
+    private final boolean fastExp;
+    private final EuclidianVector minBounds;
+    private final EuclidianVector maxBounds;
+
+    private final ThreadLocal<double[]> scratch = new ThreadLocal<double[]>() {
+        @Override
+        protected double[] initialValue() {
+            return new double[3 * curveCount];
+        }
+    };
+
+    public MultiGaussianFitObjective(int curveCount, double[] xs, double[] ys) {
+        this(curveCount, xs, ys, false);
+    }
+
+    /**
+     * @param curveCount the number of gaussian curves to fit
+     * @param xs the x values of the data.  The arrays are used as they are, so they must not change afterwards
+     * @param ys the observed values at xs
+     * @param fastExp use FastExp.exp() instead of Math.exp()
+     */
+    public MultiGaussianFitObjective(int curveCount, double[] xs, double[] ys, boolean fastExp) {
+        checkArgument(curveCount > 0, "need at least one curve");
+        checkNotNull(xs);
+        checkNotNull(ys);
+        checkArgument(xs.length == ys.length, "need as many x values as y values");
+        checkArgument(xs.length > 1, "need at least two rows of data");
+
+        this.curveCount = curveCount;
+        this.xs = xs;
+        this.ys = ys;
+        this.fastExp = fastExp;
+
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        for (double x : xs) {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+        }
+        double range = maxX - minX;
+        double volume = 0;
+        for (double y : ys) {
+            volume += y * range / xs.length;
+        }
+        // a variance of exactly 0 would turn the exponent at the mean into 0 / 0
+        double minVariance = 1e-12 * Math.max(range * range, 1);
+
+        double[] mins = new double[3 * curveCount];
+        double[] maxs = new double[3 * curveCount];
+        for (int k = 0; k < curveCount; k++) {
+            mins[3 * k] = minX;
+            mins[3 * k + 1] = minVariance;
+            mins[3 * k + 2] = 0;
+            maxs[3 * k] = maxX;
+            maxs[3 * k + 1] = Math.max((range / 6) * (range / 6), minVariance);
+            maxs[3 * k + 2] = Math.max(volume, 0);
+        }
+        this.minBounds = new EuclidianVector(mins);
+        this.maxBounds = new EuclidianVector(maxs);
+    }
+
+    /**
+     * Copies two columns of a dataset into arrays and fits curves to them
+     * @param curveCount
+     * @param data
+     * @param xColumn
+     * @param yColumn
+     * @param fastExp
+     * @return
+     */
+    public static MultiGaussianFitObjective fromDataset(int curveCount, ColumnarDataset data, int xColumn,
+            int yColumn, boolean fastExp) {
+
+        double[] xs = new double[data.rowCount()];
+        double[] ys = new double[data.rowCount()];
+        data.column(xColumn).duplicate().get(xs);
+        data.column(yColumn).duplicate().get(ys);
+        return new MultiGaussianFitObjective(curveCount, xs, ys, fastExp);
+    }
+
+    /**
+     * @param parameters a guess of (mean, variance, height) triples
+     * @param x
+     * @return the value of the curves of the guess at x
+     */
+    public static double density(double[] parameters, double x) {
+        double sum = 0;
+        for (int k = 0; k + 2 < parameters.length; k += 3) {
+            double difference = x - parameters[k];
+            sum += parameters[k + 2] * Math.exp(-difference * difference / (2 * parameters[k + 1]));
+        }
+        return sum;
+    }
+
+    public int curveCount() {
+        return curveCount;
+    }
+
+    public boolean isFastExp() {
+        return fastExp;
+    }
+
+    @Override
+    public int getDimensions() {
+        return 3 * curveCount;
+    }
+
+    @Override
+    public EuclidianVector getMinBounds() {
+        return minBounds;
+    }
+
+    @Override
+    public EuclidianVector getMaxBounds() {
+        return maxBounds;
+    }
+
+    @Override
+    public EuclidianVector getInitialGuess() {
+        return null;
+    }
+
+    @Override
+    public int rowCount() {
+        return xs.length;
+    }
+
+    @Override
+    protected double residual(double[] x, int row) {
+        double[] curves = prepare(x, scratch.get(), 0);
+        return model(curves, 0, xs[row]) - ys[row];
+    }
+
+    @Override
+    protected double sumRows(double[] x, int from, int to) {
+        return sumRange(prepare(x, scratch.get(), 0), 0, from, to);
+    }
+
+    /**
+     * Evaluates many guesses in one pass over the data.  The errors are exact; there is no cutoff
+     * @param guesses each one getDimensions() long
+     * @param errors receives the error of each guess
+     */
+    public void evaluateBatch(double[][] guesses, double[] errors) {
+        checkArgument(errors.length >= guesses.length, "need room for an error per guess");
+        int stride = 3 * curveCount;
+        double[] curves = new double[stride * guesses.length];
+        for (int g = 0; g < guesses.length; g++) {
+            checkArgument(guesses[g].length == stride, "guess %s doesn't have %s dimensions", g, stride);
+            prepare(guesses[g], curves, g * stride);
+            errors[g] = 0;
+        }
+
+        for (int start = 0; start < xs.length; start += TileRows) {
+            int end = Math.min(xs.length, start + TileRows);
+            for (int g = 0; g < guesses.length; g++) {
+                errors[g] += sumRange(curves, g * stride, start, end);
+            }
+        }
+    }
+
+    /**
+     * Converts a guess into (mean, exponent factor, height) triples starting at offset in curves
+     */
+    private double[] prepare(double[] x, double[] curves, int offset) {
+        for (int k = 0; k < 3 * curveCount; k += 3) {
+            curves[offset + k] = x[k];
+            curves[offset + k + 1] = -0.5 / x[k + 1];
+            curves[offset + k + 2] = x[k + 2];
+        }
+        return curves;
+    }
+
+    private double sumRange(double[] curves, int offset, int from, int to) {
+        double sum = 0;
+        int end = offset + 3 * curveCount;
+        if (fastExp) {
+            for (int row = from; row < to; row++) {
+                double x = xs[row];
+                double model = 0;
+                for (int k = offset; k < end; k += 3) {
+                    double difference = x - curves[k];
+                    model += curves[k + 2] * FastExp.exp(difference * difference * curves[k + 1]);
+                }
+                double residual = model - ys[row];
+                sum += residual * residual;
+            }
+        } else {
+            for (int row = from; row < to; row++) {
+                double x = xs[row];
+                double model = 0;
+                for (int k = offset; k < end; k += 3) {
+                    double difference = x - curves[k];
+                    model += curves[k + 2] * Math.exp(difference * difference * curves[k + 1]);
+                }
+                double residual = model - ys[row];
+                sum += residual * residual;
+            }
+        }
+        return sum;
+    }
+
+    private double model(double[] curves, int offset, double x) {
+        double model = 0;
+        for (int k = offset; k < offset + 3 * curveCount; k += 3) {
+            double difference = x - curves[k];
+            double exponent = difference * difference * curves[k + 1];
+            model += curves[k + 2] * (fastExp ? FastExp.exp(exponent) : Math.exp(exponent));
+        }
+        return model;
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.steveash.jtribespso.fit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A least squares objective over a (usually memory mapped) ColumnarDataset whose residual sum is split across a
+ * ForkJoinPool, so a single evaluation of tens of millions of rows uses every core.
+ * <p/>
+ * The rows are split in halves until the ranges are at most leafRows long, each range is summed in order and the
+ * halves are added back up pairwise.  The shape of that tree only depends on the row count, so the error of a
+ * guess is the same bit for bit no matter how many threads the pool has or how the work was stolen.
+ * <p/>
+ * Evaluations with a finite cutoff publish each finished range to a shared partial sum and skip the remaining
+ * ranges once it reaches the cutoff.  Which ranges were skipped depends on timing, but that only affects the value
+ * returned for guesses that are at or above the cutoff anyway
+ */
+public abstract class ParallelLeastSquaresObjective extends SumOfSquaresObjective {
+
+    public static final int DefaultLeafRows = 16 * 1024;
+
+    private final ColumnarDataset data;
+    private final ForkJoinPool pool;
+    private final int leafRows;
+
+    protected ParallelLeastSquaresObjective(ColumnarDataset data, ForkJoinPool pool) {
+        this(data, pool, DefaultLeafRows);
+    }
+
+    /**
+     * @param data
+     * @param pool
+     * @param leafRows the largest range of rows that one task sums.  Small enough to balance the load, large
+     * enough that the tasks are cheap compared to the residuals
+     */
+    protected ParallelLeastSquaresObjective(ColumnarDataset data, ForkJoinPool pool, int leafRows) {
+        checkArgument(leafRows > 0, "leafRows must be positive");
+        this.data = checkNotNull(data);
+        this.pool = checkNotNull(pool);
+        this.leafRows = leafRows;
+    }
+
+    protected ColumnarDataset data() {
+        return data;
+    }
+
+    @Override
+    public int rowCount() {
+        return data.rowCount();
+    }
+
+    @Override
+    public double evaluate(double[] x, double cutoff) {
+        int rows = rowCount();
+        if (rows <= leafRows) {
+            return super.evaluate(x, cutoff);
+        }
+        Reduction reduction = new Reduction(cutoff);
+        double sum = pool.invoke(new RangeSum(x, reduction, 0, rows));
+        // skipped ranges added nothing, but the shared partial sum already reached the cutoff
+        return (reduction.aborted ? Math.max(sum, reduction.partialSum()) : sum);
+    }
+
+    private static class Reduction {
+        final double cutoff;
+        final AtomicLong partialSumBits;
+        volatile boolean aborted = false;
+
+        Reduction(double cutoff) {
+            this.cutoff = cutoff;
+            this.partialSumBits = (Double.isInfinite(cutoff) ? null : new AtomicLong(Double.doubleToLongBits(0)));
+        }
+
+        void add(double rangeSum) {
+            if (partialSumBits == null) {
+                return;
+            }
+            while (true) {
+                long bits = partialSumBits.get();
+                double total = Double.longBitsToDouble(bits) + rangeSum;
+                if (partialSumBits.compareAndSet(bits, Double.doubleToLongBits(total))) {
+                    if (total >= cutoff) {
+                        aborted = true;
+                    }
+                    return;
+                }
+            }
+        }
+
+        double partialSum() {
+            return Double.longBitsToDouble(partialSumBits.get());
+        }
+    }
+
+    private class RangeSum extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] x;
+        private final Reduction reduction;
+        private final int from;
+        private final int to;
+
+        RangeSum(double[] x, Reduction reduction, int from, int to) {
+            this.x = x;
+            this.reduction = reduction;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (reduction.aborted) {
+                return 0.0;
+            }
+            if (to - from <= leafRows) {
+                double sum = sumRows(x, from, to);
+                reduction.add(sum);
+                return sum;
+            }
+            int middle = from + (to - from) / 2;
+            RangeSum left = new RangeSum(x, reduction, from, middle);
+            left.fork();
+            double right = new RangeSum(x, reduction, middle, to).compute();
+            return left.join() + right;
+        }
+    }
+}
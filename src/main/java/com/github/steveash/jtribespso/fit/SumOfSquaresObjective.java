@@ -0,0 +1,99 @@
+package com.github.steveash.jtribespso.fit;
+
+import com.github.steveash.jtribespso.DoubleObjectiveFunction;
+
+/**
+ * Base class of least squares objectives: the error of a guess is the sum of its squared residuals over all rows
+ * of the data.  Every term is non-negative, so once the partial sum reaches the cutoff the guess can't beat it and
+ * the rest of the rows are skipped.  A particle whose new position is worse than its best solution, which is most
+ * moves once the swarm has settled, then usually pays for only a small fraction of the rows.
+ * <p/>
+ * The rows are summed in blocks of CheckInterval rows, and the partial sum is only compared with the cutoff after
+ * each block, which keeps the check out of the way of the summing loop.  Subclasses with a cheaper way to sum
+ * many residuals at once override sumRows() and keep the early exit
+ */
+public abstract class SumOfSquaresObjective extends DoubleObjectiveFunction {
+
+    static final int CheckInterval = 64;
+
+    /**
+     * @return the number of rows of data
+     */
+    public abstract int rowCount();
+
+    /**
+     * @param x the guess
+     * @param row
+     * @return the difference between the model at x and the observed value of the row
+     */
+    protected abstract double residual(double[] x, int row);
+
+    @Override
+    public double evaluate(double[] x) {
+        return evaluate(x, Double.POSITIVE_INFINITY);
+    }
+
+    @Override
+    public double evaluate(double[] x, double cutoff) {
+        int rows = rowCount();
+        int blocks = (rows + CheckInterval - 1) / CheckInterval;
+        int stride = blockStride(blocks);
+        double sum = 0;
+        int block = 0;
+        for (int n = 0; n < blocks; n++) {
+            int start = block * CheckInterval;
+            sum += sumRows(x, start, Math.min(rows, start + CheckInterval));
+            if (sum >= cutoff) {
+                return sum;
+            }
+            block += stride;
+            if (block >= blocks) {
+                block -= blocks;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the squared residuals of a range of rows.  Override it with a fused loop when computing the residuals
+     * together is cheaper than one at a time
+     * @param x the guess
+     * @param from the first row
+     * @param to one past the last row
+     * @return
+     */
+    protected double sumRows(double[] x, int from, int to) {
+        double sum = 0;
+        for (int row = from; row < to; row++) {
+            double residual = residual(x, row);
+            sum += residual * residual;
+        }
+        return sum;
+    }
+
+    /**
+     * Rows are often sorted by something the residuals depend on, so summing them in order can leave most of the
+     * error for the end.  Visiting the blocks with a large stride that is coprime to the block count still visits
+     * every block once, but spreads the early blocks over the whole data set so that the partial sum reaches
+     * the cutoff about as early as it can
+     */
+    static int blockStride(int blocks) {
+        if (blocks < 3) {
+            return 1;
+        }
+        int stride = (int) (blocks * 0.6180339887498949);
+        while (gcd(stride, blocks) != 1) {
+            stride += 1;
+        }
+        return stride;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -36,6 +36,18 @@ public class HypersphereParticle extends Particle {
         super(objectiveFunction, initialPosition, randomNumberGenerator);
     }
 
+    /**
+     * Initializes a new Particle that moves based on hyperspherical distributions at the position of a solution whose
+     * error is already known.  The objective function is not evaluated
+     * @param objectiveFunction
+     * @param initialSolution
+     * @param randomNumberGenerator
+     */
+    public HypersphereParticle(IObjectiveFunction objectiveFunction, Solution initialSolution,
+            IHyperspaceRandom randomNumberGenerator) {
+        super(objectiveFunction, initialSolution, randomNumberGenerator);
+    }
+
     /**
      * Computes the next position of a particle by creating a hypersphere around this particle's best solution and the best
      * solution of its informers.  The new position is the center of gravity of two points chosen within these two hypersphers weighted
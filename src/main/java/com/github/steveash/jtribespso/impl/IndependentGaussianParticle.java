@@ -48,6 +48,33 @@ public class IndependentGaussianParticle extends Particle {
         eventBus().register(this);
     }
 
+    /**
+     * Initializes a new Particle that moves based on independent gaussian distributions at the position of a solution
+     * whose error is already known.  The objective function is not evaluated
+     * @param objectiveFunction
+     * @param initialSolution
+     * @param randomNumberGenerator
+     */
+    public IndependentGaussianParticle(IObjectiveFunction objectiveFunction, Solution initialSolution,
+            IHyperspaceRandom randomNumberGenerator) {
+        super(objectiveFunction, initialSolution, randomNumberGenerator);
+        velocity = EuclidianVector.origin(objectiveFunction.getDimensions());
+        eventBus().register(this);
+    }
+
+    /**
+     * @return the velocity of the particle
+     */
+    @Override
+    protected EuclidianVector getMotionState() {
+        return velocity;
+    }
+
+    @Override
+    protected void restoreMotionState(EuclidianVector motionState) {
+        this.velocity = motionState;
+    }
+
     /**
      * Calculate a new position using independant gaussian functions.
      * The formula used to calculate the next position of a particle using independant gaussian functions is as follows:
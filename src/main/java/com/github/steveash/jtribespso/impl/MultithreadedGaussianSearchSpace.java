@@ -2,6 +2,8 @@ package com.github.steveash.jtribespso.impl;
 
 import com.github.steveash.jtribespso.EuclidianVector;
 import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.Solution;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
 public class MultithreadedGaussianSearchSpace extends MultithreadedSearchSpace<IndependentGaussianParticle> {
@@ -16,4 +18,9 @@ public class MultithreadedGaussianSearchSpace extends MultithreadedSearchSpace<I
     protected IndependentGaussianParticle generateParticleAtPosition(EuclidianVector position) {
         return new IndependentGaussianParticle(this.goodnessFunction(), position);
     }
-}
\ No newline at end of file
+
+    @Override
+    protected IndependentGaussianParticle generateParticleAtSolution(Solution solution) {
+        return new IndependentGaussianParticle(this.goodnessFunction(), solution, new HyperspaceRandom());
+    }
+}
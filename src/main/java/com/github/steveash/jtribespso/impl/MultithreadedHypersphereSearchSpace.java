@@ -2,6 +2,7 @@ package com.github.steveash.jtribespso.impl;
 
 import com.github.steveash.jtribespso.EuclidianVector;
 import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.Solution;
 import com.github.steveash.jtribespso.rand.HyperspaceRandom;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
@@ -17,4 +18,9 @@ public class MultithreadedHypersphereSearchSpace extends MultithreadedSearchSpac
     protected HypersphereParticle generateParticleAtPosition(EuclidianVector position) {
         return new HypersphereParticle(this.goodnessFunction(), position, new HyperspaceRandom());
     }
-}
\ No newline at end of file
+
+    @Override
+    protected HypersphereParticle generateParticleAtSolution(Solution solution) {
+        return new HypersphereParticle(this.goodnessFunction(), solution, new HyperspaceRandom());
+    }
+}
@@ -1,24 +1,40 @@
 package com.github.steveash.jtribespso.impl;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import com.github.steveash.jtribespso.EuclidianVector;
 import com.github.steveash.jtribespso.IObjectiveFunction;
 import com.github.steveash.jtribespso.Particle;
 import com.github.steveash.jtribespso.SearchSpace;
 import com.github.steveash.jtribespso.Tribe;
+import com.github.steveash.jtribespso.exception.EvaluationAbandonedException;
+import com.github.steveash.jtribespso.metrics.SwarmCounter;
+import com.github.steveash.jtribespso.metrics.SwarmMetrics;
 import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * A multi threaded (partial) implementation of SearchSpace
@@ -39,8 +55,15 @@ import com.google.common.util.concurrent.ListeningExecutorService;
  */
 public abstract class MultithreadedSearchSpace<TParticle extends Particle> extends SearchSpace<TParticle> {
 
+    // each move thread waits on at most two evaluations, and as many again may be ignoring their interruption
+    private static final int EvaluatorsPerThread = 4;
+
     private final int threadCount;
     private final ListeningExecutorService pool;
+    // 0 while evaluations don't have a deadline
+    private volatile long deadlineNanos = 0;
+    private volatile boolean speculate = false;
+    private ListeningExecutorService evaluators = null;
 
     protected MultithreadedSearchSpace(ListeningExecutorService pool, IObjectiveFunction objectiveFunction, int workerCount) {
         super(objectiveFunction);
@@ -83,6 +106,60 @@ public abstract class MultithreadedSearchSpace<TParticle extends Particle> exten
         }
     }
 
+    /**
+     * Creates the particles on the thread pool.  Every new particle evaluates the objective function at its position,
+     * so seeding many tribes at once or adding a batch of particles during adaptation runs in parallel like a move
+     * @param positions
+     * @return
+     */
+    @Override
+    protected List<TParticle> generateParticlesAtPositions(List<EuclidianVector> positions) {
+        if (positions.size() <= 1) {
+            return super.generateParticlesAtPositions(positions);
+        }
+        int perThread = (positions.size() / threadCount) + 1;
+        List<ListenableFuture<List<TParticle>>> tasks = Lists.newArrayListWithCapacity(threadCount);
+        for (final List<EuclidianVector> positionsPerThread : Lists.partition(positions, perThread)) {
+            tasks.add(pool.submit(new Callable<List<TParticle>>() {
+                @Override
+                public List<TParticle> call() throws Exception {
+                    return MultithreadedSearchSpace.super.generateParticlesAtPositions(positionsPerThread);
+                }
+            }));
+        }
+
+        List<TParticle> particles = Lists.newArrayListWithCapacity(positions.size());
+        try {
+            for (List<TParticle> created : Futures.allAsList(tasks).get()) {
+                particles.addAll(created);
+            }
+        } catch (Exception e) {
+            throw Throwables.propagate(e);
+        }
+        return particles;
+    }
+
+    /**
+     * Runs the tasks on the thread pool
+     * @param tasks
+     */
+    @Override
+    protected void runTasks(List<Runnable> tasks) {
+        if (tasks.size() <= 1) {
+            super.runTasks(tasks);
+            return;
+        }
+        List<ListenableFuture<?>> submitted = Lists.newArrayListWithCapacity(tasks.size());
+        for (Runnable task : tasks) {
+            submitted.add(pool.submit(task));
+        }
+        try {
+            Futures.allAsList(submitted).get();
+        } catch (Exception e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
     private ArrayList<Tribe> randomOrderOfTribes() {
         ArrayList<Tribe> randomOrder = Lists.newArrayList(this.tribes());
         Collections.shuffle(randomOrder);
@@ -104,5 +181,130 @@ public abstract class MultithreadedSearchSpace<TParticle extends Particle> exten
     public int getThreadCount() {
         return threadCount;
     }
+
+    /**
+     * Puts a deadline on the evaluation of every particle move, so that one evaluation that hangs doesn't stall the
+     * whole iteration.  The evaluations run on a separate evaluation pool while the move threads wait for them until
+     * the deadline.  A straggler that misses the deadline is either given up on right away, or, with
+     * speculate, evaluated again in parallel in the hope that the duplicate is faster (e.g. because the straggler
+     * landed on a slow remote worker) and given up on if neither finishes within another deadline.  A move that is
+     * given up on leaves its particle where it was for the iteration, and the straggling evaluation is interrupted.
+     * <p/>
+     * The evaluation pool has no queue and at most four threads per move thread, which it lets go after a minute
+     * idle, so an objective function that ignores interruption can't leak a thread per move.  While all of them are
+     * busy, new moves are given up on right away and stragglers aren't duplicated.
+     * <p/>
+     * The handoff to the evaluation pool costs some microseconds per move, so deadlines only pay off for slow
+     * objective functions.  The evaluations of new particles don't have a deadline.  Every evaluation that is started
+     * counts towards evaluationCount(), including those of abandoned moves and duplicates that lost the race.
+     * Stragglers, speculative evaluations and abandoned moves are counted in the SwarmMetrics of the search space
+     * @param timeout the deadline of each evaluation or 0 to wait for evaluations however long they take
+     * @param unit
+     * @param speculate whether to start a duplicate evaluation for stragglers
+     */
+    public synchronized void setEvaluationDeadline(long timeout, TimeUnit unit, boolean speculate) {
+        checkArgument(timeout >= 0, "the timeout can't be negative");
+        if (timeout > 0 && evaluators == null) {
+            evaluators = MoreExecutors.listeningDecorator(new ThreadPoolExecutor(0, EvaluatorsPerThread * threadCount,
+                    60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactoryBuilder()
+                    .setDaemon(true).setNameFormat("search-space-evaluator-%d").build()));
+        }
+        this.speculate = speculate;
+        this.deadlineNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    protected double evaluateMove(final Particle particle, final EuclidianVector position) {
+        long deadline = deadlineNanos;
+        if (deadline == 0) {
+            return super.evaluateMove(particle, position);
+        }
+        Callable<Double> evaluation = new Callable<Double>() {
+            @Override
+            public Double call() throws Exception {
+                return evaluateUncounted(particle, position);
+            }
+        };
+
+        ListenableFuture<Double> first = submit(evaluation);
+        if (first == null) {
+            return abandon();
+        }
+        ListenableFuture<Double> duplicate = null;
+        try {
+            try {
+                return first.get(deadline, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                count(SwarmCounter.Stragglers);
+            }
+            if (!speculate) {
+                return abandon();
+            }
+            duplicate = submit(evaluation);
+            if (duplicate != null) {
+                count(SwarmCounter.SpeculativeEvaluations);
+            }
+            try {
+                return (duplicate == null ? first : firstOf(first, duplicate)).get(deadline, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return abandon();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            // whatever is still running lost the race or was abandoned
+            first.cancel(true);
+            if (duplicate != null) {
+                duplicate.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return the future of the evaluation, which is counted, or null if all of the evaluators are busy
+     */
+    private ListenableFuture<Double> submit(Callable<Double> evaluation) {
+        ListenableFuture<Double> future;
+        try {
+            future = evaluators.submit(evaluation);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        countEvaluations(1);
+        return future;
+    }
+
+    private double abandon() {
+        count(SwarmCounter.AbandonedMoves);
+        throw new EvaluationAbandonedException("The evaluation missed its deadline");
+    }
+
+    private void count(SwarmCounter counter) {
+        SwarmMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.increment(counter);
+        }
+    }
+
+    private static ListenableFuture<Double> firstOf(ListenableFuture<Double> a, ListenableFuture<Double> b) {
+        final SettableFuture<Double> first = SettableFuture.create();
+        FutureCallback<Double> callback = new FutureCallback<Double>() {
+            @Override
+            public void onSuccess(Double result) {
+                first.set(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                first.setException(t);
+            }
+        };
+        Futures.addCallback(a, callback);
+        Futures.addCallback(b, callback);
+        return first;
+    }
 }
 
@@ -0,0 +1,100 @@
+package com.github.steveash.jtribespso.impl;
+
+import java.util.List;
+
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.ISearchSpaceFactory;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Factories for the search space implementations that ship with the library
+ */
+public class SearchSpaceFactories {
+
+    private SearchSpaceFactories() { }
+
+    public static ISearchSpaceFactory singleThreadedHypersphere() {
+        return new ISearchSpaceFactory() {
+            @Override
+            public String getName() {
+                return "SingleThreadedHypersphere";
+            }
+
+            @Override
+            public SearchSpace<?> create(IObjectiveFunction function, long seed) {
+                return new SingleThreadedHypersphereSearchSpace(function, new HyperspaceRandom(seed));
+            }
+        };
+    }
+
+    public static ISearchSpaceFactory singleThreadedGaussian() {
+        return new ISearchSpaceFactory() {
+            @Override
+            public String getName() {
+                return "SingleThreadedGaussian";
+            }
+
+            @Override
+            public SearchSpace<?> create(IObjectiveFunction function, long seed) {
+                return new SingleThreadedGaussianSearchSpace(function, new HyperspaceRandom(seed));
+            }
+        };
+    }
+
+    /**
+     * The multithreaded particles draw their own unseeded random numbers, so runs of this factory aren't
+     * reproducible
+     * @param pool
+     * @param workerCount
+     * @return
+     */
+    public static ISearchSpaceFactory multithreadedHypersphere(final ListeningExecutorService pool,
+            final int workerCount) {
+        return new ISearchSpaceFactory() {
+            @Override
+            public String getName() {
+                return "MultithreadedHypersphere";
+            }
+
+            @Override
+            public SearchSpace<?> create(IObjectiveFunction function, long seed) {
+                return new MultithreadedHypersphereSearchSpace(pool, function, workerCount);
+            }
+        };
+    }
+
+    /**
+     * The multithreaded particles draw their own unseeded random numbers, so runs of this factory aren't
+     * reproducible
+     * @param pool
+     * @param workerCount
+     * @return
+     */
+    public static ISearchSpaceFactory multithreadedGaussian(final ListeningExecutorService pool,
+            final int workerCount) {
+        return new ISearchSpaceFactory() {
+            @Override
+            public String getName() {
+                return "MultithreadedGaussian";
+            }
+
+            @Override
+            public SearchSpace<?> create(IObjectiveFunction function, long seed) {
+                return new MultithreadedGaussianSearchSpace(pool, function, workerCount);
+            }
+        };
+    }
+
+    /**
+     * @param pool used by the multithreaded search spaces
+     * @param workerCount
+     * @return factories for all four search space implementations
+     */
+    public static List<ISearchSpaceFactory> all(ListeningExecutorService pool, int workerCount) {
+        return ImmutableList.of(singleThreadedHypersphere(), singleThreadedGaussian(),
+                multithreadedHypersphere(pool, workerCount), multithreadedGaussian(pool, workerCount));
+    }
+}
@@ -2,6 +2,8 @@ package com.github.steveash.jtribespso.impl;
 
 import com.github.steveash.jtribespso.EuclidianVector;
 import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.Solution;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
 import com.github.steveash.jtribespso.rand.IHyperspaceRandom;
 
 /**
@@ -19,7 +21,11 @@ public class SingleThreadedGaussianSearchSpace extends SingleThreadedSearchSpace
 
     @Override
     protected IndependentGaussianParticle generateParticleAtPosition(EuclidianVector position) {
-        return new IndependentGaussianParticle(this.goodnessFunction(), position);
+        return new IndependentGaussianParticle(this.goodnessFunction(), position, newParticleRandom());
     }
-}
 
+    @Override
+    protected IndependentGaussianParticle generateParticleAtSolution(Solution solution) {
+        return new IndependentGaussianParticle(this.goodnessFunction(), solution, new HyperspaceRandom());
+    }
+}
@@ -2,6 +2,8 @@ package com.github.steveash.jtribespso.impl;
 
 import com.github.steveash.jtribespso.EuclidianVector;
 import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.Solution;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
 import com.github.steveash.jtribespso.rand.IHyperspaceRandom;
 
 /**
@@ -25,7 +27,11 @@ public class SingleThreadedHypersphereSearchSpace extends SingleThreadedSearchSp
      */
     @Override
     protected HypersphereParticle generateParticleAtPosition(EuclidianVector position) {
-        return new HypersphereParticle(this.goodnessFunction(), position);
+        return new HypersphereParticle(this.goodnessFunction(), position, newParticleRandom());
     }
-}
 
+    @Override
+    protected HypersphereParticle generateParticleAtSolution(Solution solution) {
+        return new HypersphereParticle(this.goodnessFunction(), solution, new HyperspaceRandom());
+    }
+}
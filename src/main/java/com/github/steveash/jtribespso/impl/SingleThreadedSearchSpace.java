@@ -2,6 +2,7 @@ package com.github.steveash.jtribespso.impl;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import com.github.steveash.jtribespso.IObjectiveFunction;
 import com.github.steveash.jtribespso.Particle;
@@ -40,12 +41,13 @@ public abstract class SingleThreadedSearchSpace<TParticle extends Particle> exte
 
     /**
      * Moves all of the particles in the swarm. Particles are moved serially within a tribe.
-     * The tribes are moved in a random order
+     * The tribes are moved in a random order drawn from the search space's random number generator, so a seeded
+     * search space moves its tribes in the same order every run
      */
     @Override
     protected void move() {
         ArrayList<Tribe> randomOrder = Lists.newArrayList(this.tribes());
-        Collections.shuffle(randomOrder);
+        shuffle(randomOrder);
 
         for (Tribe tribe : randomOrder) {
             for (Particle particle : tribe.tribeMembers()) {
@@ -53,4 +55,20 @@ public abstract class SingleThreadedSearchSpace<TParticle extends Particle> exte
             }
         }
     }
+
+    /**
+     * Creates the random number generator of a new particle.  It is seeded from the search space's own generator
+     * so that a search space created with a seeded generator is reproducible
+     * @return
+     */
+    protected IHyperspaceRandom newParticleRandom() {
+        return new HyperspaceRandom(getRandomNumberGenerator().nextInt());
+    }
+
+    private void shuffle(List<Tribe> tribes) {
+        IHyperspaceRandom rng = getRandomNumberGenerator();
+        for (int n = tribes.size() - 1; n > 0; n--) {
+            Collections.swap(tribes, n, rng.nextInt(n + 1));
+        }
+    }
 }
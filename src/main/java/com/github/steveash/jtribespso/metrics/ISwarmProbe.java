@@ -0,0 +1,47 @@
+package com.github.steveash.jtribespso.metrics;
+
+/**
+ * Receives the iterations, adaptations and (sampled) objective function evaluations of a search space as they
+ * happen, for example to turn them into profiler events.  Attach a probe with SearchSpace.setProbe().
+ * <p/>
+ * Every xxxStarted() method returns a context object that is handed back to the matching xxxFinished() method, or
+ * null to skip the finished call.  Probes that are switched off return null so that the search space does no
+ * further work.  Evaluations happen on the worker threads of multithreaded search spaces, so the evaluation
+ * methods must be thread safe
+ */
+public interface ISwarmProbe {
+
+    /**
+     * @param iteration the 1-based number of the iteration that is starting
+     * @return a context for iterationFinished() or null
+     */
+    Object iterationStarted(long iteration);
+
+    /**
+     * Called after the swarm has moved and, if it was due, adapted
+     * @param context
+     * @param tribeCount
+     * @param swarmSize
+     * @param bestError
+     * @param evaluations the total number of evaluations of the search space
+     */
+    void iterationFinished(Object context, int tribeCount, int swarmSize, double bestError, long evaluations);
+
+    /**
+     * @param adaptation the 1-based number of the adaptation that is starting
+     * @return a context for adaptationFinished() or null
+     */
+    Object adaptationStarted(long adaptation);
+
+    void adaptationFinished(Object context, int tribesCreated, int tribesRemoved, int particlesCreated,
+            int particlesRemoved, int tribeCount, int swarmSize);
+
+    /**
+     * Called before a particle evaluates the objective function at its new position.  Probes decide here which
+     * evaluations they sample
+     * @return a context for evaluationFinished() or null
+     */
+    Object evaluationStarted();
+
+    void evaluationFinished(Object context, int particleId, double error);
+}
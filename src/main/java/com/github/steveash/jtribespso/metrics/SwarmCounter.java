@@ -0,0 +1,25 @@
+package com.github.steveash.jtribespso.metrics;
+
+/**
+ * The events that SwarmMetrics counts
+ */
+public enum SwarmCounter {
+    /** Moves of the whole swarm */
+    Iterations,
+    /** Objective function evaluations, including the evaluation of every new particle */
+    Evaluations,
+    /** Particle moves that improved the particle's best solution */
+    Improvements,
+    TribesCreated,
+    TribesRemoved,
+    ParticlesCreated,
+    ParticlesRemoved,
+    /** Evaluations that missed the deadline of a MultithreadedSearchSpace */
+    Stragglers,
+    /** Duplicate evaluations started for stragglers */
+    SpeculativeEvaluations,
+    /** Moves that were given up on because their evaluation missed the deadline */
+    AbandonedMoves,
+    /** Polished shamans whose best solution the local search improved */
+    PolishImprovements
+}
@@ -0,0 +1,58 @@
+package com.github.steveash.jtribespso.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects per phase nanosecond timers and event counters from a search space.  Instrumentation is opt-in: a
+ * search space only measures anything once metrics are attached with SearchSpace.setMetrics(), and without them
+ * every measurement point costs a single null check.
+ * <p/>
+ * All methods are thread safe.  The particle phases of multithreaded search spaces are timed on the worker
+ * threads, so they add up CPU time across threads while the Move phase is wall clock time.  Use snapshot() to
+ * export the current values
+ */
+public class SwarmMetrics {
+
+    private static final int PhaseCount = SwarmPhase.values().length;
+    private static final int CounterCount = SwarmCounter.values().length;
+
+    // [0, PhaseCount) holds the nanoseconds of each phase and [PhaseCount, 2 * PhaseCount) how often it ran
+    private final AtomicLongArray phases = new AtomicLongArray(2 * PhaseCount);
+    private final AtomicLongArray counters = new AtomicLongArray(CounterCount);
+
+    /**
+     * Adds one timed run of a phase
+     * @param phase
+     * @param nanos
+     */
+    public void addTime(SwarmPhase phase, long nanos) {
+        phases.addAndGet(phase.ordinal(), nanos);
+        phases.incrementAndGet(PhaseCount + phase.ordinal());
+    }
+
+    public void add(SwarmCounter counter, long amount) {
+        counters.addAndGet(counter.ordinal(), amount);
+    }
+
+    public void increment(SwarmCounter counter) {
+        counters.incrementAndGet(counter.ordinal());
+    }
+
+    /**
+     * @return a copy of the current timers and counters.  Values that are updated while the snapshot is taken
+     * may or may not be included
+     */
+    public SwarmMetricsSnapshot snapshot() {
+        long[] nanos = new long[PhaseCount];
+        long[] runs = new long[PhaseCount];
+        for (int i = 0; i < PhaseCount; i++) {
+            nanos[i] = phases.get(i);
+            runs[i] = phases.get(PhaseCount + i);
+        }
+        long[] counts = new long[CounterCount];
+        for (int i = 0; i < CounterCount; i++) {
+            counts[i] = counters.get(i);
+        }
+        return new SwarmMetricsSnapshot(nanos, runs, counts);
+    }
+}
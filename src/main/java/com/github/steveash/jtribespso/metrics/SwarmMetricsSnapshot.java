@@ -0,0 +1,84 @@
+package com.github.steveash.jtribespso.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable copy of the timers and counters of SwarmMetrics.  Subtract an earlier snapshot with since() to
+ * see where the time of an interval went
+ */
+public class SwarmMetricsSnapshot {
+
+    private final long[] nanos;
+    private final long[] runs;
+    private final long[] counters;
+
+    SwarmMetricsSnapshot(long[] nanos, long[] runs, long[] counters) {
+        this.nanos = nanos;
+        this.runs = runs;
+        this.counters = counters;
+    }
+
+    /**
+     * @param phase
+     * @return the total time spent in the phase in nanoseconds
+     */
+    public long getNanos(SwarmPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public long getTime(SwarmPhase phase, TimeUnit unit) {
+        return unit.convert(getNanos(phase), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param phase
+     * @return the number of times the phase ran
+     */
+    public long getRuns(SwarmPhase phase) {
+        return runs[phase.ordinal()];
+    }
+
+    public long getCount(SwarmCounter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * @param phase
+     * @return the average nanoseconds the phase took per iteration of the swarm, or 0 if the swarm hasn't moved
+     */
+    public double getNanosPerIteration(SwarmPhase phase) {
+        long iterations = getCount(SwarmCounter.Iterations);
+        return (iterations == 0 ? 0 : (double) getNanos(phase) / iterations);
+    }
+
+    /**
+     * @param earlier a snapshot of the same metrics taken before this one
+     * @return the timers and counters of the interval between the two snapshots
+     */
+    public SwarmMetricsSnapshot since(SwarmMetricsSnapshot earlier) {
+        return new SwarmMetricsSnapshot(subtract(nanos, earlier.nanos), subtract(runs, earlier.runs),
+                subtract(counters, earlier.counters));
+    }
+
+    private static long[] subtract(long[] later, long[] earlier) {
+        long[] result = new long[later.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = later[i] - earlier[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SwarmMetricsSnapshot{");
+        for (SwarmCounter counter : SwarmCounter.values()) {
+            sb.append(counter).append('=').append(getCount(counter)).append(", ");
+        }
+        for (SwarmPhase phase : SwarmPhase.values()) {
+            sb.append(phase).append('=').append(getTime(phase, TimeUnit.MICROSECONDS)).append("us/")
+                    .append(getRuns(phase)).append(", ");
+        }
+        sb.setLength(sb.length() - 2);
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.steveash.jtribespso.metrics;
+
+/**
+ * The phases of a search space iteration that SwarmMetrics times
+ */
+public enum SwarmPhase {
+    /** Creating and evaluating the initial swarm */
+    Seed,
+    /** Moving the whole swarm (wall clock time of SearchSpace.move()) */
+    Move,
+    /** Finding the best informer of a particle */
+    SelectInformer,
+    /**
+     * Particle.calculateNewPosition(), which includes drawing the random numbers and the vector math.  The two
+     * happen interleaved inside the particle implementations so they are timed together
+     */
+    CalculatePosition,
+    /** Clamping a new position to the bounds of the objective function */
+    CorrectBounds,
+    /** Evaluating the objective function at a particle's new position */
+    Evaluate,
+    /** Recalculating the shaman of every tribe after the swarm moves */
+    UpdateShamans,
+    /** Adapting the swarm, including creating and evaluating new particles */
+    Adapt,
+    /** Polishing the best shamans after an adaptation, see SearchSpace.setPolisher() */
+    Polish
+}
@@ -0,0 +1,26 @@
+package com.github.steveash.jtribespso.optimizer;
+
+/**
+ * Receives the progress of an optimization from a ProgressPublisher.  This has the same contract as
+ * java.util.concurrent.Flow.Subscriber (which needs Java 9): onSubscribe() comes first, onNext() is only called
+ * for progress that was requested, and the calls are never concurrent.  Progress is conflated, so a subscriber
+ * that requests slower than the swarm moves gets the latest progress instead of every one of them
+ */
+public interface IProgressSubscriber {
+
+    void onSubscribe(IProgressSubscription subscription);
+
+    void onNext(OptimizerProgress progress);
+
+    /**
+     * Called when the optimization failed or the subscriber broke the protocol, e.g. by requesting a non positive
+     * number of items
+     * @param error
+     */
+    void onError(Throwable error);
+
+    /**
+     * Called once the final progress of a finished optimization has been delivered
+     */
+    void onComplete();
+}
@@ -0,0 +1,18 @@
+package com.github.steveash.jtribespso.optimizer;
+
+/**
+ * The link between a ProgressPublisher and one of its subscribers, like java.util.concurrent.Flow.Subscription
+ */
+public interface IProgressSubscription {
+
+    /**
+     * Asks for up to n more progress updates.  Long.MAX_VALUE means as many as there will be
+     * @param n
+     */
+    void request(long n);
+
+    /**
+     * Stops the delivery of progress.  Deliveries that have already started may still arrive
+     */
+    void cancel();
+}
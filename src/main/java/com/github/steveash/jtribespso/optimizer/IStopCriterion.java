@@ -0,0 +1,19 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import com.github.steveash.jtribespso.ISearchSpace;
+
+/**
+ * Decides when an Optimizer should stop moving the swarm.  Criteria are checked after every call to
+ * moveThenAdapt(), so implementations should answer from the statistics in the progress object and only rarely
+ * walk the swarm itself.  A criterion may keep state between checks, so don't share one between optimizers.
+ * See StopCriteria for the standard criteria.
+ */
+public interface IStopCriterion {
+
+    /**
+     * @param progress statistics of the optimization run so far
+     * @param space the search space being optimized
+     * @return true if the optimization should stop
+     */
+    boolean shouldStop(OptimizerProgress progress, ISearchSpace space);
+}
@@ -0,0 +1,208 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+
+import com.github.steveash.jtribespso.ISearchSpace;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Runs many optimizations over one shared executor, one move at a time, instead of giving every search space a
+ * thread of its own that loops over moveThenAdapt().  At most parallelism moves run at once, and a search space is
+ * never moved by two threads at the same time, so single threaded search spaces can be used as they are.  Size the
+ * parallelism to the number of cores: throughput then scales with the cores however many jobs are submitted.
+ * <p/>
+ * Jobs are scheduled by priority.  Whenever a slot frees up the job with the highest priority moves next, and jobs
+ * of equal priority take turns, so submitting every job with the same priority schedules them fairly.  A job
+ * finishes when its optimizer does, and its future then holds the optimizer's result.  Cancelling the future stops
+ * the job after its current move and finishes its optimizer, which completes the optimizer's progress publisher.
+ * If a move throws, the job's future fails with the exception.
+ * <p/>
+ * All methods are thread safe
+ */
+public class OptimizationScheduler {
+
+    public static final int DefaultPriority = 0;
+
+    private final Executor executor;
+    private final int parallelism;
+
+    // guarded by this
+    private final PriorityQueue<Job> ready = new PriorityQueue<>();
+    private int running = 0;
+    private long nextTurn = 0;
+
+    /**
+     * @param executor runs the moves.  It should have at least parallelism threads and must not run tasks on the
+     * thread that submits them
+     * @param parallelism the most moves that run at the same time
+     */
+    public OptimizationScheduler(Executor executor, int parallelism) {
+        checkArgument(parallelism > 0, "parallelism must be positive");
+        this.executor = checkNotNull(executor);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Schedules an optimizer with the default priority
+     * @param optimizer
+     * @return the future result of the optimizer
+     */
+    public ListenableFuture<OptimizerResult> submit(Optimizer optimizer) {
+        return submit(optimizer, DefaultPriority);
+    }
+
+    /**
+     * @param optimizer an optimizer that isn't being run anywhere else
+     * @param priority jobs with a higher priority move first
+     * @return the future result of the optimizer
+     */
+    public ListenableFuture<OptimizerResult> submit(Optimizer optimizer, int priority) {
+        checkNotNull(optimizer);
+        final Job job = new Job(optimizer, priority);
+        job.result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (job.result.isCancelled()) {
+                    job.optimizer.stop();
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+
+        synchronized (this) {
+            enqueue(job);
+        }
+        dispatch();
+        return job.result;
+    }
+
+    /**
+     * Schedules the optimization of a search space that stops once it has used up its evaluation budget or one of
+     * the criteria is met
+     * @param space
+     * @param priority jobs with a higher priority move first
+     * @param evaluationBudget the most evaluations the job may use, give or take the last move
+     * @param criteria more criteria that may stop the optimization earlier
+     * @return the future result of the optimization.  Its stop reason is the budget when the budget ran out
+     */
+    public ListenableFuture<OptimizerResult> submit(ISearchSpace space, int priority, long evaluationBudget,
+            IStopCriterion... criteria) {
+
+        IStopCriterion[] withBudget = Arrays.copyOf(criteria, criteria.length + 1);
+        withBudget[criteria.length] = StopCriteria.maxEvaluations(evaluationBudget);
+        return submit(new Optimizer(space, withBudget), priority);
+    }
+
+    /**
+     * @return the number of jobs that are waiting for their next move
+     */
+    public synchronized int getQueuedJobCount() {
+        return ready.size();
+    }
+
+    /**
+     * @return the number of jobs that are moving right now
+     */
+    public synchronized int getRunningJobCount() {
+        return running;
+    }
+
+    private void enqueue(Job job) {
+        job.turn = nextTurn++;
+        ready.add(job);
+    }
+
+    private void dispatch() {
+        while (true) {
+            final Job job;
+            synchronized (this) {
+                if (running >= parallelism || ready.isEmpty()) {
+                    return;
+                }
+                job = ready.poll();
+                running += 1;
+            }
+            if (job.result.isCancelled()) {
+                synchronized (this) {
+                    running -= 1;
+                }
+                finishCancelled(job);
+                continue;
+            }
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        step(job);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // e.g. the executor was shut down
+                synchronized (this) {
+                    running -= 1;
+                }
+                job.result.setException(e);
+            }
+        }
+    }
+
+    private void step(Job job) {
+        boolean moreSteps;
+        try {
+            moreSteps = job.optimizer.step();
+        } catch (Throwable e) {
+            moreSteps = false;
+            job.result.setException(e);
+        }
+        boolean requeued = false;
+        synchronized (this) {
+            running -= 1;
+            if (moreSteps && !job.result.isDone()) {
+                enqueue(job);
+                requeued = true;
+            }
+        }
+        if (!moreSteps) {
+            job.result.set(job.optimizer.result());
+        } else if (!requeued) {
+            finishCancelled(job);
+        }
+        dispatch();
+    }
+
+    /**
+     * Takes the last step of a job that was cancelled, which finishes its optimizer without moving the swarm.  The
+     * cancel listener may not have stopped the optimizer yet, so it is stopped here as well
+     * @param job a cancelled job that is neither queued nor running
+     */
+    private static void finishCancelled(Job job) {
+        job.optimizer.stop();
+        job.optimizer.step();
+    }
+
+    private static class Job implements Comparable<Job> {
+        final Optimizer optimizer;
+        final int priority;
+        final SettableFuture<OptimizerResult> result = SettableFuture.create();
+        long turn;
+
+        Job(Optimizer optimizer, int priority) {
+            this.optimizer = optimizer;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            if (priority != other.priority) {
+                return (priority > other.priority ? -1 : 1);
+            }
+            return (turn < other.turn ? -1 : (turn == other.turn ? 0 : 1));
+        }
+    }
+}
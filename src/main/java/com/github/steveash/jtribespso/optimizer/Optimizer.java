@@ -0,0 +1,217 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.github.steveash.jtribespso.ISearchSpace;
+import com.github.steveash.jtribespso.Solution;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Drives a search space until one of its stop criteria is met.  This replaces the hand written loops around
+ * moveThenAdapt() that check the best error after every move:
+ * <pre>
+ *     OptimizerResult result = new Optimizer(space,
+ *             StopCriteria.targetError(0.5),
+ *             StopCriteria.maxEvaluations(1000000),
+ *             StopCriteria.noImprovement(50)).run();
+ * </pre>
+ * The criteria are checked in order after every move and the first one that is met is reported as the stop
+ * reason.  An optimizer runs once; it can be driven by run(), in the background by optimizeAsync() or one move at
+ * a time with step().  A ProgressPublisher streams the progress of every move to subscribers on other threads.  The
+ * optimizer is not thread safe, except for stop() which may be called from any thread.
+ */
+public class Optimizer {
+
+    private final ISearchSpace space;
+    private final List<IStopCriterion> criteria;
+
+    private final long startIterations;
+    private final long startEvaluations;
+    private final long startAdaptations;
+    private long startNanos = -1;
+
+    private long lastAdaptations = 0;
+    private double bestErrorAtLastAdaptation = Double.POSITIVE_INFINITY;
+    private long adaptationsSinceImprovement = 0;
+
+    private Solution best = null;
+    private long evaluationsToBest = 0;
+    private long nanosToBest = 0;
+
+    private OptimizerProgress progress;
+    private IStopCriterion stopReason = null;
+    private boolean finished = false;
+    private volatile boolean stopRequested = false;
+    private ProgressPublisher publisher = null;
+
+    /**
+     * @param space the search space to optimize.  It can be fresh or already partially optimized
+     * @param criteria at least one criterion that will eventually stop the optimization
+     */
+    public Optimizer(ISearchSpace space, IStopCriterion... criteria) {
+        this.space = checkNotNull(space);
+        this.criteria = ImmutableList.copyOf(checkNotNull(criteria));
+        checkArgument(!this.criteria.isEmpty(), "need at least one stop criterion");
+
+        this.startIterations = space.iterationCount();
+        this.startEvaluations = space.evaluationCount();
+        this.startAdaptations = space.adaptationCount();
+        this.progress = new OptimizerProgress(0, 0, 0, 0, Double.POSITIVE_INFINITY, space.swarmSize(), 0);
+    }
+
+    public ISearchSpace searchSpace() {
+        return space;
+    }
+
+    /**
+     * Publishes the progress of every move from now on, and completes the publisher when the optimizer finishes
+     * @param publisher the publisher or null to stop publishing
+     */
+    public void setProgressPublisher(ProgressPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Moves the swarm once and checks the stop criteria
+     * @return true if the optimization should continue, false once it has finished
+     */
+    public boolean step() {
+        if (finished) {
+            return false;
+        }
+        if (stopRequested) {
+            finish();
+            return false;
+        }
+        if (startNanos < 0) {
+            startNanos = System.nanoTime();
+        }
+
+        try {
+            space.moveThenAdapt();
+        } catch (RuntimeException e) {
+            if (publisher != null) {
+                publisher.fail(e);
+            }
+            throw e;
+        }
+        updateProgress();
+        if (publisher != null) {
+            publisher.publish(progress);
+        }
+
+        for (IStopCriterion criterion : criteria) {
+            if (criterion.shouldStop(progress, space)) {
+                stopReason = criterion;
+                finish();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void finish() {
+        finished = true;
+        if (publisher != null) {
+            publisher.complete();
+        }
+    }
+
+    /**
+     * Moves the swarm until a stop criterion is met or stop() is called
+     * @return
+     */
+    public OptimizerResult run() {
+        while (step()) {
+            // keep moving
+        }
+        return result();
+    }
+
+    /**
+     * Runs the optimizer on the executor.  Cancelling the future stops the optimizer before its next move
+     * @param executor
+     * @return the future result of the run
+     */
+    public ListenableFuture<OptimizerResult> optimizeAsync(Executor executor) {
+        final SettableFuture<OptimizerResult> result = SettableFuture.create();
+        result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (result.isCancelled()) {
+                    stop();
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.set(Optimizer.this.run());
+                } catch (Throwable e) {
+                    result.setException(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Asks the optimizer to stop before its next move.  Safe to call from any thread
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return the statistics as of the last step
+     */
+    public OptimizerProgress progress() {
+        return progress;
+    }
+
+    /**
+     * @return the result of the run so far.  Once the optimizer has finished this is its final result
+     */
+    public OptimizerResult result() {
+        return new OptimizerResult(best, stopReason, progress, evaluationsToBest, nanosToBest);
+    }
+
+    private void updateProgress() {
+        long elapsed = System.nanoTime() - startNanos;
+        long evaluations = space.evaluationCount() - startEvaluations;
+        long adaptations = space.adaptationCount() - startAdaptations;
+
+        Solution current = space.bestSolution();
+        if (current != null && (best == null || current.getError() < best.getError())) {
+            best = current;
+            evaluationsToBest = evaluations;
+            nanosToBest = elapsed;
+        }
+
+        double bestError = (best == null ? Double.POSITIVE_INFINITY : best.getError());
+        if (adaptations != lastAdaptations) {
+            if (bestError < bestErrorAtLastAdaptation) {
+                adaptationsSinceImprovement = 0;
+            } else {
+                adaptationsSinceImprovement += adaptations - lastAdaptations;
+            }
+            bestErrorAtLastAdaptation = bestError;
+            lastAdaptations = adaptations;
+        }
+
+        progress = new OptimizerProgress(space.iterationCount() - startIterations, evaluations, adaptations,
+                adaptationsSinceImprovement, bestError, space.swarmSize(), elapsed);
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of the statistics of an optimization run.  All of the counts are relative to the start of
+ * the run, so a search space that was moved before the optimizer took over starts at zero
+ */
+public class OptimizerProgress {
+
+    private final long iterations;
+    private final long evaluations;
+    private final long adaptations;
+    private final long adaptationsSinceImprovement;
+    private final double bestError;
+    private final int swarmSize;
+    private final long elapsedNanos;
+
+    public OptimizerProgress(long iterations, long evaluations, long adaptations, long adaptationsSinceImprovement,
+            double bestError, int swarmSize, long elapsedNanos) {
+
+        this.iterations = iterations;
+        this.evaluations = evaluations;
+        this.adaptations = adaptations;
+        this.adaptationsSinceImprovement = adaptationsSinceImprovement;
+        this.bestError = bestError;
+        this.swarmSize = swarmSize;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the number of calls to moveThenAdapt() that moved the swarm
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the number of objective function evaluations
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return the number of times the swarm adapted its size
+     */
+    public long getAdaptations() {
+        return adaptations;
+    }
+
+    /**
+     * @return the number of adaptations since the best error last improved
+     */
+    public long getAdaptationsSinceImprovement() {
+        return adaptationsSinceImprovement;
+    }
+
+    /**
+     * @return the error of the best solution found so far
+     */
+    public double getBestError() {
+        return bestError;
+    }
+
+    /**
+     * @return the number of particles in the swarm
+     */
+    public int getSwarmSize() {
+        return swarmSize;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "OptimizerProgress{iterations = " + iterations + ", evaluations = " + evaluations +
+                ", adaptations = " + adaptations + ", best error = " + bestError +
+                ", swarm size = " + swarmSize + ", elapsed = " + getElapsed(TimeUnit.MILLISECONDS) + " ms}";
+    }
+}
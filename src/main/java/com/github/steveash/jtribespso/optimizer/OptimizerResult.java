@@ -0,0 +1,84 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.steveash.jtribespso.Solution;
+
+/**
+ * The outcome of an optimization run: the best solution, which criterion stopped the run and how much work
+ * it took to get there
+ */
+public class OptimizerResult {
+
+    private final Solution bestSolution;
+    private final IStopCriterion stopReason;
+    private final OptimizerProgress finalProgress;
+    private final long evaluationsToBest;
+    private final long nanosToBest;
+
+    public OptimizerResult(Solution bestSolution, IStopCriterion stopReason, OptimizerProgress finalProgress,
+            long evaluationsToBest, long nanosToBest) {
+
+        this.bestSolution = bestSolution;
+        this.stopReason = stopReason;
+        this.finalProgress = finalProgress;
+        this.evaluationsToBest = evaluationsToBest;
+        this.nanosToBest = nanosToBest;
+    }
+
+    public Solution getBestSolution() {
+        return bestSolution;
+    }
+
+    /**
+     * @return the criterion that stopped the run, or null if the run was stopped by calling Optimizer.stop()
+     */
+    public IStopCriterion getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * @return the statistics of the run at the time it stopped
+     */
+    public OptimizerProgress getFinalProgress() {
+        return finalProgress;
+    }
+
+    public long getIterations() {
+        return finalProgress.getIterations();
+    }
+
+    public long getEvaluations() {
+        return finalProgress.getEvaluations();
+    }
+
+    public long getAdaptations() {
+        return finalProgress.getAdaptations();
+    }
+
+    public long getElapsed(TimeUnit unit) {
+        return finalProgress.getElapsed(unit);
+    }
+
+    /**
+     * @return the number of evaluations it took to find the best solution
+     */
+    public long getEvaluationsToBest() {
+        return evaluationsToBest;
+    }
+
+    /**
+     * @param unit
+     * @return the time it took to find the best solution
+     */
+    public long getTimeToBest(TimeUnit unit) {
+        return unit.convert(nanosToBest, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "OptimizerResult{stop reason = " + stopReason + ", best error = " +
+                (bestSolution == null ? "none" : bestSolution.getError()) +
+                ", evaluations to best = " + evaluationsToBest + ", " + finalProgress + "}";
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the progress of an Optimizer to subscribers without ever making the optimizer wait for them.  Attach it
+ * with Optimizer.setProgressPublisher().  Every subscriber has a single slot that holds the latest progress it
+ * hasn't received yet, so publishing overwrites the slot (conflation) and, if the subscriber has outstanding demand
+ * and isn't being served already, hands one delivery task to the delivery executor.  The cost on the optimizer
+ * thread is therefore constant per subscriber, and a slow subscriber just skips the progress it was too slow for.
+ * <p/>
+ * All calls to a subscriber happen on the delivery executor, one at a time.  Use an executor with an unbounded
+ * queue (or a thread of its own) so that handing it a task never blocks; each subscriber has at most one task
+ * queued at any time.  A subscriber that subscribes late gets the latest progress first.  This mirrors
+ * java.util.concurrent.Flow.Publisher, which needs Java 9
+ */
+public class ProgressPublisher {
+
+    private final Executor deliveryExecutor;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile OptimizerProgress latest = null;
+    // set once when the optimization finishes
+    private volatile boolean completed = false;
+    private volatile Throwable failure = null;
+
+    /**
+     * @param deliveryExecutor runs the calls to the subscribers
+     */
+    public ProgressPublisher(Executor deliveryExecutor) {
+        this.deliveryExecutor = checkNotNull(deliveryExecutor);
+    }
+
+    public void subscribe(IProgressSubscriber subscriber) {
+        Subscription subscription = new Subscription(checkNotNull(subscriber));
+        subscriptions.add(subscription);
+        OptimizerProgress current = latest;
+        if (current != null) {
+            subscription.pending.compareAndSet(null, current);
+        }
+        subscription.schedule();
+    }
+
+    /**
+     * @return the number of subscribers that haven't cancelled or been completed yet
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return the last progress that was published or null
+     */
+    public OptimizerProgress getLatest() {
+        return latest;
+    }
+
+    void publish(OptimizerProgress progress) {
+        latest = progress;
+        for (Subscription subscription : subscriptions) {
+            subscription.pending.set(progress);
+            subscription.schedule();
+        }
+    }
+
+    void complete() {
+        completed = true;
+        terminate();
+    }
+
+    void fail(Throwable error) {
+        failure = error;
+        terminate();
+    }
+
+    private void terminate() {
+        for (Subscription subscription : subscriptions) {
+            subscription.schedule();
+        }
+    }
+
+    private class Subscription implements IProgressSubscription, Runnable {
+
+        final IProgressSubscriber subscriber;
+        final AtomicReference<OptimizerProgress> pending = new AtomicReference<>();
+        final AtomicLong demand = new AtomicLong();
+        // the number of times the delivery task was asked to run, so that it runs one at a time
+        final AtomicInteger scheduled = new AtomicInteger();
+        volatile boolean cancelled = false;
+        volatile Throwable protocolError = null;
+        // only touched by the delivery task
+        boolean subscribed = false;
+
+        Subscription(IProgressSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                protocolError = new IllegalArgumentException("Subscribers must request a positive number of items");
+            } else {
+                long current;
+                long next;
+                do {
+                    current = demand.get();
+                    next = (current + n < 0 ? Long.MAX_VALUE : current + n);
+                } while (!demand.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void schedule() {
+            if (scheduled.getAndIncrement() == 0) {
+                deliveryExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                deliver();
+                missed = scheduled.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            if (cancelled) {
+                return;
+            }
+            if (!subscribed) {
+                subscribed = true;
+                subscriber.onSubscribe(this);
+            }
+            while (!cancelled && protocolError == null && demand.get() > 0) {
+                OptimizerProgress progress = pending.getAndSet(null);
+                if (progress == null) {
+                    break;
+                }
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                subscriber.onNext(progress);
+            }
+            if (cancelled) {
+                return;
+            }
+            if (protocolError != null) {
+                cancel();
+                subscriber.onError(protocolError);
+            } else if (failure != null) {
+                cancel();
+                subscriber.onError(failure);
+            } else if (completed && pending.get() == null) {
+                cancel();
+                subscriber.onComplete();
+            }
+        }
+    }
+}
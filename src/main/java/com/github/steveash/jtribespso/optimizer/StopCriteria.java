@@ -0,0 +1,167 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.github.steveash.jtribespso.ISearchSpace;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Static factories for the standard stop criteria.  Pass several of them to an Optimizer to stop as soon as
+ * any of them is met, or combine them with allOf()
+ */
+public class StopCriteria {
+
+    private StopCriteria() {
+    }
+
+    /**
+     * @param target
+     * @return a criterion that stops once the best error is below target
+     */
+    public static IStopCriterion targetError(final double target) {
+        return new IStopCriterion() {
+            @Override
+            public boolean shouldStop(OptimizerProgress progress, ISearchSpace space) {
+                return progress.getBestError() < target;
+            }
+
+            @Override
+            public String toString() {
+                return "targetError(" + target + ")";
+            }
+        };
+    }
+
+    /**
+     * The swarm is moved as a whole, so the run can overshoot the budget by up to one move of the swarm
+     * @param maxEvaluations
+     * @return a criterion that stops once the objective function has been evaluated maxEvaluations times
+     */
+    public static IStopCriterion maxEvaluations(final long maxEvaluations) {
+        return new IStopCriterion() {
+            @Override
+            public boolean shouldStop(OptimizerProgress progress, ISearchSpace space) {
+                return progress.getEvaluations() >= maxEvaluations;
+            }
+
+            @Override
+            public String toString() {
+                return "maxEvaluations(" + maxEvaluations + ")";
+            }
+        };
+    }
+
+    /**
+     * @param maxIterations
+     * @return a criterion that stops once the swarm has been moved maxIterations times
+     */
+    public static IStopCriterion maxIterations(final long maxIterations) {
+        return new IStopCriterion() {
+            @Override
+            public boolean shouldStop(OptimizerProgress progress, ISearchSpace space) {
+                return progress.getIterations() >= maxIterations;
+            }
+
+            @Override
+            public String toString() {
+                return "maxIterations(" + maxIterations + ")";
+            }
+        };
+    }
+
+    /**
+     * The deadline is only checked between moves, so a run can exceed it by the duration of one move
+     * @param duration
+     * @param unit
+     * @return a criterion that stops once the run has taken longer than the given wall clock time
+     */
+    public static IStopCriterion deadline(long duration, final TimeUnit unit) {
+        final long nanos = unit.toNanos(duration);
+        return new IStopCriterion() {
+            @Override
+            public boolean shouldStop(OptimizerProgress progress, ISearchSpace space) {
+                return progress.getElapsedNanos() >= nanos;
+            }
+
+            @Override
+            public String toString() {
+                return "deadline(" + nanos + " ns)";
+            }
+        };
+    }
+
+    /**
+     * @param adaptations
+     * @return a criterion that stops once the best error hasn't improved for the given number of adaptations
+     */
+    public static IStopCriterion noImprovement(final int adaptations) {
+        checkArgument(adaptations > 0, "adaptations must be positive");
+        return new IStopCriterion() {
+            @Override
+            public boolean shouldStop(OptimizerProgress progress, ISearchSpace space) {
+                return progress.getAdaptationsSinceImprovement() >= adaptations;
+            }
+
+            @Override
+            public String toString() {
+                return "noImprovement(" + adaptations + " adaptations)";
+            }
+        };
+    }
+
+    /**
+     * Measuring the spread of the swarm walks every particle, so it is only re-measured after the swarm adapts.
+     * The criterion remembers the last measurement, so create a new one for every optimizer
+     * @param epsilon
+     * @return a criterion that stops once SearchSpace.swarmRadius() drops below epsilon
+     */
+    public static IStopCriterion diversityBelow(final double epsilon) {
+        return new IStopCriterion() {
+            private long measuredAtAdaptation = -1;
+            private double radius = Double.POSITIVE_INFINITY;
+
+            @Override
+            public boolean shouldStop(OptimizerProgress progress, ISearchSpace space) {
+                if (progress.getAdaptations() != measuredAtAdaptation) {
+                    measuredAtAdaptation = progress.getAdaptations();
+                    radius = space.swarmRadius();
+                }
+                return radius < epsilon;
+            }
+
+            @Override
+            public String toString() {
+                return "diversityBelow(" + epsilon + ")";
+            }
+        };
+    }
+
+    /**
+     * @param criteria
+     * @return a criterion that only stops when all of the given criteria are met
+     */
+    public static IStopCriterion allOf(IStopCriterion... criteria) {
+        final ImmutableList<IStopCriterion> all = ImmutableList.copyOf(checkNotNull(criteria));
+        checkArgument(!all.isEmpty(), "need at least one criterion");
+        return new IStopCriterion() {
+            @Override
+            public boolean shouldStop(OptimizerProgress progress, ISearchSpace space) {
+                // check every criterion so that stateful criteria see every step
+                boolean stop = true;
+                for (IStopCriterion criterion : all) {
+                    stop &= criterion.shouldStop(progress, space);
+                }
+                return stop;
+            }
+
+            @Override
+            public String toString() {
+                return "allOf" + Arrays.toString(all.toArray());
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.steveash.jtribespso.polish;
+
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.Solution;
+
+/**
+ * A derivative-free local search that refines a solution, used by ShamanPolisher to polish the best particles of a
+ * swarm
+ */
+public interface ILocalSearch {
+
+    /**
+     * @param function
+     * @param start the solution to refine
+     * @param steps the initial step size of every dimension
+     * @param budget the most evaluations the search may use
+     * @return the best solution found, which is start itself if nothing better was found.  Its position is inside
+     * the bounds of the function unless it is start
+     */
+    Solution search(IObjectiveFunction function, Solution start, double[] steps, int budget);
+}
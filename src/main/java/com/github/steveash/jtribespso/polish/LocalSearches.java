@@ -0,0 +1,31 @@
+package com.github.steveash.jtribespso.polish;
+
+/**
+ * Helpers shared by the local searches
+ */
+class LocalSearches {
+
+    private LocalSearches() { }
+
+    static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Halves the steps
+     * @param steps
+     * @param position
+     * @param minRelativeStep
+     * @return false if every step is already below the relative minimum, so halving is pointless
+     */
+    static boolean halve(double[] steps, double[] position, double minRelativeStep) {
+        boolean anyLeft = false;
+        for (int n = 0; n < steps.length; n++) {
+            if (steps[n] > minRelativeStep * Math.max(1, Math.abs(position[n]))) {
+                steps[n] /= 2;
+                anyLeft = true;
+            }
+        }
+        return anyLeft;
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.steveash.jtribespso.polish;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.Solution;
+
+/**
+ * The Nelder-Mead downhill simplex with the standard coefficients.  The initial simplex is the start plus one step
+ * along every dimension, and every vertex is clamped to the bounds of the function.  It stops when the budget is
+ * spent or the simplex has collapsed
+ */
+public class NelderMead implements ILocalSearch {
+
+    private static final double Reflection = 1;
+    private static final double Expansion = 2;
+    private static final double Contraction = 0.5;
+    private static final double Shrink = 0.5;
+
+    /** The simplex has collapsed once every edge to the best vertex is below this fraction of its coordinates */
+    private static final double MinRelativeSize = 1e-12;
+
+    private static class Simplex {
+        final IObjectiveFunction function;
+        final double[] min;
+        final double[] max;
+        final double[][] vertices;
+        final double[] errors;
+        final int budget;
+        int used = 0;
+
+        Simplex(IObjectiveFunction function, int dimensions, int budget) {
+            this.function = function;
+            this.min = function.getMinBounds().toArray();
+            this.max = function.getMaxBounds().toArray();
+            this.vertices = new double[dimensions + 1][];
+            this.errors = new double[dimensions + 1];
+            this.budget = budget;
+        }
+
+        boolean exhausted() {
+            return used >= budget;
+        }
+
+        double evaluate(double[] x) {
+            used += 1;
+            return function.evaluate(new EuclidianVector(x));
+        }
+
+        /**
+         * @return origin + coefficient * (towards - origin) clamped to the bounds
+         */
+        double[] along(double[] origin, double[] towards, double coefficient) {
+            double[] x = new double[origin.length];
+            for (int n = 0; n < x.length; n++) {
+                x[n] = LocalSearches.clamp(origin[n] + coefficient * (towards[n] - origin[n]), min[n], max[n]);
+            }
+            return x;
+        }
+
+        /**
+         * Moves the worst vertex into the first slot that keeps the vertices ordered by error
+         */
+        void replaceWorst(double[] x, double error) {
+            int n = vertices.length - 1;
+            while (n > 0 && errors[n - 1] > error) {
+                vertices[n] = vertices[n - 1];
+                errors[n] = errors[n - 1];
+                n -= 1;
+            }
+            vertices[n] = x;
+            errors[n] = error;
+        }
+
+        void sort() {
+            // insertion sort, the vertices are nearly sorted after a shrink
+            for (int i = 1; i < vertices.length; i++) {
+                double[] x = vertices[i];
+                double error = errors[i];
+                int n = i;
+                while (n > 0 && errors[n - 1] > error) {
+                    vertices[n] = vertices[n - 1];
+                    errors[n] = errors[n - 1];
+                    n -= 1;
+                }
+                vertices[n] = x;
+                errors[n] = error;
+            }
+        }
+
+        double[] centroidOfBest() {
+            int dimensions = vertices.length - 1;
+            double[] centroid = new double[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                for (int n = 0; n < dimensions; n++) {
+                    centroid[n] += vertices[i][n];
+                }
+            }
+            for (int n = 0; n < dimensions; n++) {
+                centroid[n] /= dimensions;
+            }
+            return centroid;
+        }
+
+        boolean collapsed() {
+            double[] best = vertices[0];
+            for (int i = 1; i < vertices.length; i++) {
+                for (int n = 0; n < best.length; n++) {
+                    if (Math.abs(vertices[i][n] - best[n]) > MinRelativeSize * Math.max(1, Math.abs(best[n]))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public Solution search(IObjectiveFunction function, Solution start, double[] steps, int budget) {
+        double[] origin = start.getPosition().toArray();
+        int dimensions = origin.length;
+        if (budget <= dimensions) {
+            // not enough to build the simplex
+            return start;
+        }
+        Simplex simplex = new Simplex(function, dimensions, budget);
+        simplex.vertices[0] = origin;
+        simplex.errors[0] = start.getError();
+        for (int d = 0; d < dimensions; d++) {
+            double[] vertex = origin.clone();
+            vertex[d] = LocalSearches.clamp(origin[d] + steps[d], simplex.min[d], simplex.max[d]);
+            if (vertex[d] == origin[d]) {
+                // against the upper bound, so step the other way
+                vertex[d] = LocalSearches.clamp(origin[d] - steps[d], simplex.min[d], simplex.max[d]);
+            }
+            simplex.vertices[d + 1] = vertex;
+            simplex.errors[d + 1] = simplex.evaluate(vertex);
+        }
+        simplex.sort();
+
+        while (!simplex.exhausted() && !simplex.collapsed()) {
+            double[] worst = simplex.vertices[dimensions];
+            double worstError = simplex.errors[dimensions];
+            double[] centroid = simplex.centroidOfBest();
+
+            double[] reflected = simplex.along(centroid, worst, -Reflection);
+            double reflectedError = simplex.evaluate(reflected);
+            if (reflectedError < simplex.errors[0]) {
+                if (simplex.exhausted()) {
+                    simplex.replaceWorst(reflected, reflectedError);
+                    break;
+                }
+                double[] expanded = simplex.along(centroid, reflected, Expansion);
+                double expandedError = simplex.evaluate(expanded);
+                if (expandedError < reflectedError) {
+                    simplex.replaceWorst(expanded, expandedError);
+                } else {
+                    simplex.replaceWorst(reflected, reflectedError);
+                }
+                continue;
+            }
+            if (reflectedError < simplex.errors[dimensions - 1]) {
+                simplex.replaceWorst(reflected, reflectedError);
+                continue;
+            }
+            if (simplex.exhausted()) {
+                break;
+            }
+            boolean outside = reflectedError < worstError;
+            double[] contracted = simplex.along(centroid, outside ? reflected : worst, Contraction);
+            double contractedError = simplex.evaluate(contracted);
+            if (contractedError < (outside ? reflectedError : worstError)) {
+                simplex.replaceWorst(contracted, contractedError);
+                continue;
+            }
+            shrink(simplex);
+        }
+        if (simplex.errors[0] < start.getError()) {
+            return new Solution(new EuclidianVector(simplex.vertices[0]), simplex.errors[0]);
+        }
+        return start;
+    }
+
+    /**
+     * Shrinks every vertex towards the best one; vertices the budget doesn't reach are left where they are
+     */
+    private static void shrink(Simplex simplex) {
+        double[] best = simplex.vertices[0];
+        for (int i = 1; i < simplex.vertices.length && !simplex.exhausted(); i++) {
+            simplex.vertices[i] = simplex.along(best, simplex.vertices[i], Shrink);
+            simplex.errors[i] = simplex.evaluate(simplex.vertices[i]);
+        }
+        simplex.sort();
+    }
+}
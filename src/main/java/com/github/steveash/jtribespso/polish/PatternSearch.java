@@ -0,0 +1,54 @@
+package com.github.steveash.jtribespso.polish;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.Solution;
+
+/**
+ * Compass search: tries a step forwards and backwards along every dimension in turn, keeps every step that improves,
+ * and halves the steps once a sweep over all dimensions doesn't.  It changes one coordinate per evaluation, so it
+ * suits separable problems and problems with many dimensions
+ */
+public class PatternSearch implements ILocalSearch {
+
+    /** Steps are not halved below this fraction of the largest coordinate */
+    private static final double MinRelativeStep = 1e-12;
+
+    @Override
+    public Solution search(IObjectiveFunction function, Solution start, double[] steps, int budget) {
+        double[] min = function.getMinBounds().toArray();
+        double[] max = function.getMaxBounds().toArray();
+        double[] x = start.getPosition().toArray();
+        double[] step = steps.clone();
+        double error = start.getError();
+        boolean improvedAny = false;
+        int used = 0;
+
+        while (used < budget) {
+            boolean improved = false;
+            for (int n = 0; n < x.length && used < budget; n++) {
+                double original = x[n];
+                for (int sign = 1; sign >= -1 && used < budget; sign -= 2) {
+                    double candidate = LocalSearches.clamp(original + sign * step[n], min[n], max[n]);
+                    if (candidate == original) {
+                        continue;
+                    }
+                    x[n] = candidate;
+                    double candidateError = function.evaluate(new EuclidianVector(x));
+                    used += 1;
+                    if (candidateError < error) {
+                        error = candidateError;
+                        improved = true;
+                        break;
+                    }
+                    x[n] = original;
+                }
+            }
+            improvedAny |= improved;
+            if (!improved && !LocalSearches.halve(step, x, MinRelativeStep)) {
+                break;
+            }
+        }
+        return (improvedAny ? new Solution(new EuclidianVector(x), error) : start);
+    }
+}
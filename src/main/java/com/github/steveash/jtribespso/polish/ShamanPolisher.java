@@ -0,0 +1,52 @@
+package com.github.steveash.jtribespso.polish;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Configures the polishing of shamans: after every adaptation the search space runs a local search from the best
+ * solutions of the shamans of its best tribes and keeps whatever the search improves.  The swarm finds the basin
+ * and the local search descends it, which the swarm does slowly once its particles are close together.
+ * <p>
+ * A shaman is only polished again once the swarm has improved it since its last polish, so converged shamans don't
+ * spend the budget over and over
+ */
+public class ShamanPolisher {
+
+    private final ILocalSearch localSearch;
+    private final int shamanCount;
+    private final int evaluationBudget;
+
+    /**
+     * @param localSearch
+     * @param shamanCount how many of the best tribes have their shaman polished after every adaptation
+     * @param evaluationBudget the most evaluations each polish may use
+     */
+    public ShamanPolisher(ILocalSearch localSearch, int shamanCount, int evaluationBudget) {
+        checkArgument(shamanCount > 0, "must polish at least one shaman");
+        checkArgument(evaluationBudget > 0, "the evaluation budget must be positive");
+        this.localSearch = checkNotNull(localSearch);
+        this.shamanCount = shamanCount;
+        this.evaluationBudget = evaluationBudget;
+    }
+
+    public static ShamanPolisher nelderMead(int shamanCount, int evaluationBudget) {
+        return new ShamanPolisher(new NelderMead(), shamanCount, evaluationBudget);
+    }
+
+    public static ShamanPolisher patternSearch(int shamanCount, int evaluationBudget) {
+        return new ShamanPolisher(new PatternSearch(), shamanCount, evaluationBudget);
+    }
+
+    public ILocalSearch getLocalSearch() {
+        return localSearch;
+    }
+
+    public int getShamanCount() {
+        return shamanCount;
+    }
+
+    public int getEvaluationBudget() {
+        return evaluationBudget;
+    }
+}
@@ -0,0 +1,358 @@
+package com.github.steveash.jtribespso.process;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * An objective function that evaluates guesses in a pool of local worker processes, for objective functions that
+ * can't run inside the swarm's JVM.  Each worker is a process started with the same command line that talks the
+ * length prefixed frames of WorkerProtocol over its stdin and stdout; its stderr is passed through.  ProcessWorker
+ * is such a worker for objective functions written in Java.
+ * <p/>
+ * evaluate() queues the guess and blocks until a worker has answered it.  Every worker process is driven by its
+ * own thread, which takes up to batchSize queued guesses and sends them in a single round trip, so a
+ * MultithreadedSearchSpace keeps all of the workers busy as long as it runs at least as many threads as there are
+ * workers.  More threads than workers fill up the batches.
+ * <p/>
+ * Workers are started when they get their first batch.  A worker that crashes, breaks the protocol or takes longer
+ * than the timeout per guess is killed and replaced by a new process.  The guesses of a failed batch are retried
+ * one at a time, so only the guess that actually kills the worker (or hangs it) fails, and a guess that fails on its
+ * own gets failureError, positive infinity by default, which no particle will mistake for an improvement.  If a
+ * worker can't even be started, evaluate() throws
+ */
+public class ProcessObjective implements IObjectiveFunction, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessObjective.class);
+
+    public static final int DefaultBatchSize = 8;
+
+    private final EuclidianVector minBounds;
+    private final EuclidianVector maxBounds;
+    private final int dimensions;
+    private final ProcessBuilder command;
+    private final int batchSize;
+    private final long timeoutNanos;
+    private final double failureError;
+
+    private final BlockingQueue<Evaluation> queue = new LinkedBlockingQueue<>();
+    private final List<Worker> workers;
+    private final ExecutorService workerThreads;
+    private final ScheduledExecutorService watchdog;
+    private volatile boolean closed = false;
+
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong restarts = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a pool with the default batch size whose failed guesses get an error of positive infinity
+     * @param command the command line that starts a worker
+     * @param minBounds
+     * @param maxBounds
+     * @param workerCount
+     * @param timeout
+     * @param unit
+     */
+    public ProcessObjective(List<String> command, EuclidianVector minBounds, EuclidianVector maxBounds,
+            int workerCount, long timeout, TimeUnit unit) {
+        this(command, minBounds, maxBounds, workerCount, DefaultBatchSize, timeout, unit, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param command the command line that starts a worker
+     * @param minBounds
+     * @param maxBounds
+     * @param workerCount the number of worker processes
+     * @param batchSize the most guesses a worker is sent in one round trip
+     * @param timeout how long a worker may take per guess before it is killed
+     * @param unit
+     * @param failureError the error of guesses that crash or hang their worker
+     */
+    public ProcessObjective(List<String> command, EuclidianVector minBounds, EuclidianVector maxBounds,
+            int workerCount, int batchSize, long timeout, TimeUnit unit, double failureError) {
+        checkArgument(!command.isEmpty(), "the command line is empty");
+        checkArgument(minBounds.getDimensions() == maxBounds.getDimensions(), "the bounds have different dimensions");
+        checkArgument(workerCount > 0, "there has to be at least one worker");
+        checkArgument(batchSize > 0, "the batch size must be positive");
+        checkArgument(timeout > 0, "the timeout must be positive");
+
+        this.minBounds = minBounds;
+        this.maxBounds = maxBounds;
+        this.dimensions = minBounds.getDimensions();
+        this.command = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT);
+        this.batchSize = batchSize;
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.failureError = failureError;
+
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("process-objective-watchdog").build());
+        this.workerThreads = Executors.newFixedThreadPool(workerCount,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("process-objective-worker-%d").build());
+        ImmutableList.Builder<Worker> builder = ImmutableList.builder();
+        for (int i = 0; i < workerCount; i++) {
+            Worker worker = new Worker();
+            builder.add(worker);
+            workerThreads.execute(worker);
+        }
+        this.workers = builder.build();
+    }
+
+    @Override
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public EuclidianVector getMinBounds() {
+        return minBounds;
+    }
+
+    @Override
+    public EuclidianVector getMaxBounds() {
+        return maxBounds;
+    }
+
+    @Override
+    public EuclidianVector getInitialGuess() {
+        return null;
+    }
+
+    /**
+     * @return the number of batches the workers have answered
+     */
+    public long getRoundTripCount() {
+        return roundTrips.get();
+    }
+
+    /**
+     * @return the number of workers that were started to replace one that crashed or timed out
+     */
+    public long getRestartCount() {
+        return restarts.get();
+    }
+
+    /**
+     * @return the number of round trips that were cut short by the timeout
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return the number of guesses that got the failure error
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Queues the guess for the next free worker and waits for its error.  This method is thread safe
+     * @param guess
+     * @return the error of the guess or the failure error if it crashed or hung its worker
+     */
+    @Override
+    public double evaluate(EuclidianVector guess) {
+        checkNotNull(guess);
+        checkArgument(guess.getDimensions() == dimensions, "expected a guess of %s dimensions", dimensions);
+        checkState(!closed, "The worker pool is closed");
+
+        Evaluation evaluation = new Evaluation(guess);
+        queue.add(evaluation);
+        if (closed && queue.remove(evaluation)) {
+            // close() may have drained the queue before the evaluation got in
+            throw new IllegalStateException("The worker pool is closed");
+        }
+        try {
+            return evaluation.error.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the worker processes.  Evaluations that are still waiting fail with an IllegalStateException
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        workerThreads.shutdownNow();
+        watchdog.shutdownNow();
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+        Evaluation abandoned;
+        while ((abandoned = queue.poll()) != null) {
+            abandoned.error.setException(new IllegalStateException("The worker pool was closed"));
+        }
+    }
+
+    private static class Evaluation {
+        final EuclidianVector guess;
+        final SettableFuture<Double> error = SettableFuture.create();
+
+        Evaluation(EuclidianVector guess) {
+            this.guess = guess;
+        }
+    }
+
+    /**
+     * Owns one worker process and runs its round trips on a thread of the pool
+     */
+    private class Worker implements Runnable {
+
+        private volatile Process process = null;
+        private DataOutputStream toProcess;
+        private DataInputStream fromProcess;
+        private boolean started = false;
+
+        @Override
+        public void run() {
+            List<Evaluation> batch = Lists.newArrayListWithCapacity(batchSize);
+            try {
+                while (!closed) {
+                    batch.clear();
+                    batch.add(queue.take());
+                    queue.drainTo(batch, batchSize - 1);
+                    evaluate(batch);
+                }
+            } catch (InterruptedException e) {
+                // closed
+            } finally {
+                for (Evaluation evaluation : batch) {
+                    evaluation.error.setException(new IllegalStateException("The worker pool was closed"));
+                }
+            }
+        }
+
+        private void evaluate(List<Evaluation> batch) {
+            try {
+                if (roundTrip(batch) || closed) {
+                    return;
+                }
+                if (batch.size() == 1) {
+                    fail(batch.get(0));
+                    return;
+                }
+                for (Evaluation evaluation : batch) {
+                    if (!closed && !roundTrip(Collections.singletonList(evaluation))) {
+                        fail(evaluation);
+                    }
+                }
+            } catch (IOException e) {
+                // the worker couldn't be started, which no retry is going to fix
+                for (Evaluation evaluation : batch) {
+                    evaluation.error.setException(e);
+                }
+            }
+        }
+
+        private void fail(Evaluation evaluation) {
+            failures.incrementAndGet();
+            evaluation.error.set(failureError);
+        }
+
+        /**
+         * @return true if the worker answered the batch or false if it was lost along the way
+         * @throws IOException if a worker process can't be started
+         */
+        private boolean roundTrip(List<Evaluation> batch) throws IOException {
+            if (process == null) {
+                start();
+            }
+            final Process current = process;
+            final AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> alarm = watchdog.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    timedOut.set(true);
+                    current.destroy();
+                }
+            }, timeoutNanos * batch.size(), TimeUnit.NANOSECONDS);
+
+            double[] errors;
+            try {
+                List<EuclidianVector> guesses = Lists.newArrayListWithCapacity(batch.size());
+                for (Evaluation evaluation : batch) {
+                    guesses.add(evaluation.guess);
+                }
+                WorkerProtocol.writeRequest(toProcess, guesses, dimensions);
+                errors = WorkerProtocol.readResponse(fromProcess, batch.size());
+            } catch (IOException e) {
+                alarm.cancel(false);
+                if (timedOut.get()) {
+                    timeouts.incrementAndGet();
+                    log.warn("A worker timed out on a batch of " + batch.size() + " guesses and was killed");
+                } else if (!closed) {
+                    log.warn("Lost a worker on a batch of " + batch.size() + " guesses", e);
+                }
+                stop();
+                return false;
+            }
+            if (!alarm.cancel(false)) {
+                // the answer came in just as the watchdog went off, so the process is being killed anyway
+                stop();
+            }
+            roundTrips.incrementAndGet();
+            for (int i = 0; i < errors.length; i++) {
+                batch.get(i).error.set(errors[i]);
+            }
+            return true;
+        }
+
+        private void start() throws IOException {
+            if (started) {
+                restarts.incrementAndGet();
+            }
+            started = true;
+            process = command.start();
+            toProcess = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            fromProcess = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        void stop() {
+            Process stopped = process;
+            process = null;
+            if (stopped != null) {
+                stopped.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.steveash.jtribespso.process;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+
+/**
+ * The worker side of ProcessObjective for objective functions that can be loaded in a JVM but shouldn't share one
+ * with the swarm, e.g. JNI wrappers of native simulators that leak or crash.  Start it with
+ * <pre>
+ * java -cp ... com.github.steveash.jtribespso.process.ProcessWorker my.ObjectiveFunction
+ * </pre>
+ * where the objective function has a public no argument constructor.  Workers written in other languages only
+ * have to speak the frames described in WorkerProtocol
+ */
+public class ProcessWorker {
+
+    /**
+     * Answers requests from the input with the objective function until the input ends
+     * @param objective
+     * @param input
+     * @param output
+     * @throws IOException
+     */
+    public static void serve(IObjectiveFunction objective, InputStream input, OutputStream output)
+            throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        double[][] guesses;
+        while ((guesses = WorkerProtocol.readRequest(in)) != null) {
+            double[] errors = new double[guesses.length];
+            for (int i = 0; i < guesses.length; i++) {
+                errors[i] = objective.evaluate(new EuclidianVector(guesses[i]));
+            }
+            WorkerProtocol.writeResponse(out, errors);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("usage: ProcessWorker <objective function class>");
+            System.exit(2);
+        }
+        IObjectiveFunction objective = (IObjectiveFunction) Class.forName(args[0]).newInstance();
+
+        // stdout carries the protocol, so anything the objective function prints goes to stderr instead
+        OutputStream protocol = new FileOutputStream(FileDescriptor.out);
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+        serve(objective, new FileInputStream(FileDescriptor.in), protocol);
+    }
+}
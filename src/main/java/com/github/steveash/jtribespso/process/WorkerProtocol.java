@@ -0,0 +1,97 @@
+package com.github.steveash.jtribespso.process;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+
+/**
+ * The frames that ProcessObjective and its worker processes exchange over the worker's stdin and stdout.  Every
+ * frame starts with the number of bytes that follow as an int, and all numbers are big endian (the byte order of
+ * DataOutputStream).
+ * <pre>
+ * request:  int length, int candidates, int dimensions, candidates * dimensions doubles
+ * response: int length, int candidates, candidates doubles (the errors in request order)
+ * </pre>
+ * A worker reads requests until its stdin is closed and answers each with one response
+ */
+final class WorkerProtocol {
+
+    // no batch comes anywhere near this, so a larger length means the stream is out of sync
+    static final int MaxFrameBytes = 256 * 1024 * 1024;
+
+    private WorkerProtocol() { }
+
+    static void writeRequest(DataOutputStream out, List<EuclidianVector> guesses, int dimensions)
+            throws IOException {
+
+        out.writeInt(8 + 8 * guesses.size() * dimensions);
+        out.writeInt(guesses.size());
+        out.writeInt(dimensions);
+        for (EuclidianVector guess : guesses) {
+            for (int n = 0; n < dimensions; n++) {
+                out.writeDouble(guess.get(n));
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * @return the candidates of the next request or null if the stream ended before it
+     */
+    static double[][] readRequest(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        checkLength(length);
+        int candidates = in.readInt();
+        int dimensions = in.readInt();
+        if (candidates < 0 || dimensions < 0 || length != 8 + 8L * candidates * dimensions) {
+            throw new IOException("Malformed request of " + candidates + " candidates of " + dimensions +
+                    " dimensions in " + length + " bytes");
+        }
+        double[][] guesses = new double[candidates][dimensions];
+        for (double[] guess : guesses) {
+            for (int n = 0; n < dimensions; n++) {
+                guess[n] = in.readDouble();
+            }
+        }
+        return guesses;
+    }
+
+    static void writeResponse(DataOutputStream out, double[] errors) throws IOException {
+        out.writeInt(4 + 8 * errors.length);
+        out.writeInt(errors.length);
+        for (double error : errors) {
+            out.writeDouble(error);
+        }
+        out.flush();
+    }
+
+    static double[] readResponse(DataInputStream in, int expectedCandidates) throws IOException {
+        int length = in.readInt();
+        checkLength(length);
+        int candidates = in.readInt();
+        if (candidates != expectedCandidates || length != 4 + 8L * candidates) {
+            throw new IOException("Expected the errors of " + expectedCandidates + " candidates but got a response of " +
+                    candidates + " in " + length + " bytes");
+        }
+        double[] errors = new double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            errors[i] = in.readDouble();
+        }
+        return errors;
+    }
+
+    private static void checkLength(int length) throws IOException {
+        if (length < 0 || length > MaxFrameBytes) {
+            throw new IOException("Frame length " + length + " is out of range");
+        }
+    }
+}
@@ -1,37 +1,96 @@
 package com.github.steveash.jtribespso.rand;
 
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * The linear congruential generator of java.util.Random.  It produces exactly the same sequences as
+ * java.util.Random for the same seed, but its internal state can be saved and restored so that a checkpointed
+ * swarm resumes with the same random numbers it would have drawn.
+ */
 public class JdkRandom implements IRandom {
 
-    private final Random delegate;
+    private static final long Multiplier = 0x5DEECE66DL;
+    private static final long Addend = 0xBL;
+    private static final long Mask = (1L << 48) - 1;
+    private static final double DoubleUnit = 0x1.0p-53;
+
+    private static final AtomicLong seedUniquifier = new AtomicLong(8682522807148012L);
+
+    private final AtomicLong state;
 
     public JdkRandom(long seed) {
-        this.delegate = new Random(seed);
+        this.state = new AtomicLong(scramble(seed));
     }
 
     public JdkRandom() {
-        this.delegate = new Random();
+        this(nextSeedUniquifier() ^ System.nanoTime());
+    }
+
+    private static long scramble(long seed) {
+        return (seed ^ Multiplier) & Mask;
+    }
+
+    private static long nextSeedUniquifier() {
+        while (true) {
+            long current = seedUniquifier.get();
+            long next = current * 181783497276652981L;
+            if (seedUniquifier.compareAndSet(current, next))
+                return next;
+        }
+    }
+
+    /**
+     * @return the internal state of the generator.  Passing it to setState() makes the generator repeat the
+     * sequence it would have produced from this point on
+     */
+    public long getState() {
+        return state.get();
+    }
+
+    public void setState(long value) {
+        state.set(value & Mask);
+    }
+
+    private int next(int bits) {
+        long oldState;
+        long nextState;
+        do {
+            oldState = state.get();
+            nextState = (oldState * Multiplier + Addend) & Mask;
+        } while (!state.compareAndSet(oldState, nextState));
+        return (int) (nextState >>> (48 - bits));
     }
 
     @Override
     public int nextInt() {
-        return delegate.nextInt();
+        return next(32);
     }
 
     @Override
     public int nextInt(int maxValue) {
-        return delegate.nextInt(maxValue);
+        if (maxValue <= 0)
+            throw new IllegalArgumentException("maxValue must be positive");
+
+        int r = next(31);
+        int m = maxValue - 1;
+        if ((maxValue & m) == 0) {
+            // power of two
+            return (int) ((maxValue * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % maxValue) + m < 0; u = next(31)) {
+            // reject values from the incomplete last bucket so every result is equally likely
+        }
+        return r;
     }
 
     @Override
     public int nextInt(int minValue, int maxValue) {
-        return delegate.nextInt(maxValue - minValue) + minValue;
+        return nextInt(maxValue - minValue) + minValue;
     }
 
     @Override
     public double nextDouble() {
-        return delegate.nextDouble();
+        return (((long) (next(26)) << 27) + next(27)) * DoubleUnit;
     }
 
     @Override
@@ -39,4 +98,4 @@ public class JdkRandom implements IRandom {
         double range = maxValue - minValue;
         return (range * nextDouble() + minValue);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.github.steveash.jtribespso.restart;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+
+import com.github.steveash.jtribespso.Solution;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Keeps the best solutions offered to it, best first, up to a fixed number.  Not thread safe
+ */
+public class EliteArchive {
+
+    private final int capacity;
+    private final List<Solution> solutions = Lists.newArrayList();
+
+    public EliteArchive(int capacity) {
+        checkArgument(capacity >= 1, "the archive must hold at least one solution");
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param solution
+     * @return true if the solution is one of the best so far and was kept
+     */
+    public boolean offer(Solution solution) {
+        int index = 0;
+        while (index < solutions.size() && solutions.get(index).getError() <= solution.getError()) {
+            if (solutions.get(index) == solution) {
+                return false;
+            }
+            index += 1;
+        }
+        if (index >= capacity) {
+            return false;
+        }
+        solutions.add(index, solution);
+        if (solutions.size() > capacity) {
+            solutions.remove(capacity);
+        }
+        return true;
+    }
+
+    /**
+     * @return the best solution in the archive, or null if it's empty
+     */
+    public Solution best() {
+        return (solutions.isEmpty() ? null : solutions.get(0));
+    }
+
+    /**
+     * @return the solutions in the archive, best first
+     */
+    public List<Solution> getSolutions() {
+        return ImmutableList.copyOf(solutions);
+    }
+
+    public int size() {
+        return solutions.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.steveash.jtribespso.restart;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides when a RestartingSearchSpace has stagnated and how much bigger each new swarm is seeded.  A swarm has
+ * stagnated when its best error hasn't improved by more than the tolerance for a number of moves, or when it has
+ * collapsed: its particles are all within a tiny radius of each other, so there's nothing left for them to explore.
+ * Like IPOP, every restart seeds the new swarm with more tribes than the last one, so the later runs explore more
+ * broadly
+ */
+public class RestartPolicy {
+
+    private final int plateauMoves;
+    private final double improvementTolerance;
+    private final double minRelativeRadius;
+    private final double growthFactor;
+    private final int maxTribeCount;
+    private final int archiveSize;
+
+    /**
+     * @param plateauMoves the number of moves without improvement after which the swarm has stagnated
+     * @param improvementTolerance the relative improvement of the best error that resets the plateau
+     * @param minRelativeRadius the swarm has collapsed once its radius is below this fraction of the diagonal of the
+     * bounds, or 0 to never restart a swarm for being collapsed
+     * @param growthFactor multiplies the tribes the swarm is seeded with at every restart
+     * @param maxTribeCount the most tribes a restarted swarm is seeded with
+     * @param archiveSize the number of best solutions of earlier runs that are kept for reporting
+     */
+    public RestartPolicy(int plateauMoves, double improvementTolerance, double minRelativeRadius, double growthFactor,
+            int maxTribeCount, int archiveSize) {
+        checkArgument(plateauMoves > 0, "the plateau must be at least one move");
+        checkArgument(improvementTolerance >= 0, "the improvement tolerance can't be negative");
+        checkArgument(minRelativeRadius >= 0, "the minimum radius can't be negative");
+        checkArgument(growthFactor >= 1, "the swarm can't shrink between restarts");
+        checkArgument(maxTribeCount >= 1, "must seed at least one tribe");
+        checkArgument(archiveSize >= 1, "the archive must hold at least one solution");
+        this.plateauMoves = plateauMoves;
+        this.improvementTolerance = improvementTolerance;
+        this.minRelativeRadius = minRelativeRadius;
+        this.growthFactor = growthFactor;
+        this.maxTribeCount = maxTribeCount;
+        this.archiveSize = archiveSize;
+    }
+
+    /**
+     * Restarts after 500 moves without a 0.01% improvement or once the swarm has collapsed to a millionth of the
+     * bounds, and doubles the initial tribes every restart
+     * @return
+     */
+    public static RestartPolicy ipop() {
+        return new RestartPolicy(500, 1e-4, 1e-6, 2, 1024, 10);
+    }
+
+    public int getPlateauMoves() {
+        return plateauMoves;
+    }
+
+    public double getImprovementTolerance() {
+        return improvementTolerance;
+    }
+
+    public double getMinRelativeRadius() {
+        return minRelativeRadius;
+    }
+
+    public double getGrowthFactor() {
+        return growthFactor;
+    }
+
+    public int getMaxTribeCount() {
+        return maxTribeCount;
+    }
+
+    public int getArchiveSize() {
+        return archiveSize;
+    }
+
+    /**
+     * @param tribeCount the tribes the last swarm was seeded with
+     * @return the tribes the next swarm is seeded with
+     */
+    int nextTribeCount(int tribeCount) {
+        return (int) Math.min(maxTribeCount, Math.ceil(tribeCount * growthFactor));
+    }
+}
@@ -0,0 +1,235 @@
+package com.github.steveash.jtribespso.restart;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.ISearchSpace;
+import com.github.steveash.jtribespso.ISearchSpaceFactory;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.Solution;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.github.steveash.jtribespso.rand.IHyperspaceRandom;
+import com.github.steveash.jtribespso.seed.InitialPositionStrategy;
+
+/**
+ * A search space that throws its swarm away once it has stagnated and starts over with a fresh, bigger one, so a
+ * swarm that has settled in a local minimum or collapsed doesn't burn the rest of the budget.  See RestartPolicy for
+ * when a swarm has stagnated and how the swarms grow.  The best solution of every swarm that is thrown away goes
+ * into an elite archive, and bestSolution() is the best of the archive and the current swarm.  The archive is only
+ * kept for bestSolution() and reporting; new swarms don't start from it, so they don't fall back into the basins the
+ * earlier swarms stagnated in.
+ * <p/>
+ * The first swarm is seeded as configured by setInitialPositionStrategy(), by default with a single particle, and
+ * every restart seeds with the same strategy and more tribes.  The counts of this search space are the totals over
+ * all of its swarms, and every call to moveThenAdapt() after the first moves the current swarm once.  When that move
+ * stagnates the swarm, the new swarm is seeded in the same call.
+ * <p/>
+ * A restarting search space has no tribes of its own, so it isn't a SearchSpace: it can't be checkpointed, and
+ * metrics, probes, polishers and the like are set on every new swarm by the search space factory
+ */
+public class RestartingSearchSpace implements ISearchSpace {
+
+    private final IObjectiveFunction objectiveFunction;
+    private final IHyperspaceRandom rng;
+    private final ISearchSpaceFactory factory;
+    private final RestartPolicy policy;
+    private final EliteArchive archive;
+    private final double minRadius;
+
+    private InitialPositionStrategy initialPositionStrategy = null;
+    private int tribeCount = 1;
+
+    private SearchSpace<?> swarm = null;
+    private int restarts = 0;
+    private double plateauError = Double.POSITIVE_INFINITY;
+    private int movesOnPlateau = 0;
+    // totals of the swarms that were thrown away
+    private long retiredIterations = 0;
+    private long retiredEvaluations = 0;
+    private long retiredAdaptations = 0;
+
+    /**
+     * @param objectiveFunction
+     * @param factory creates the swarms
+     * @param policy
+     */
+    public RestartingSearchSpace(IObjectiveFunction objectiveFunction, ISearchSpaceFactory factory,
+            RestartPolicy policy) {
+        this(objectiveFunction, factory, policy, new HyperspaceRandom());
+    }
+
+    /**
+     * @param objectiveFunction
+     * @param factory creates the swarms
+     * @param policy
+     * @param randomNumberGenerator draws the seeds of the swarms
+     */
+    public RestartingSearchSpace(IObjectiveFunction objectiveFunction, ISearchSpaceFactory factory,
+            RestartPolicy policy, IHyperspaceRandom randomNumberGenerator) {
+        this.objectiveFunction = checkNotNull(objectiveFunction);
+        this.rng = checkNotNull(randomNumberGenerator);
+        this.factory = checkNotNull(factory);
+        this.policy = checkNotNull(policy);
+        this.archive = new EliteArchive(policy.getArchiveSize());
+        this.minRadius = policy.getMinRelativeRadius() * boundsDiagonal(objectiveFunction);
+    }
+
+    /**
+     * Configures how the first swarm is seeded; every restart uses the same strategy with more tribes
+     * @param strategy decides where the initial particles go, or null to use generatePosition()
+     * @param tribeCount the number of monoparticle tribes to seed the first swarm with
+     */
+    public void setInitialPositionStrategy(InitialPositionStrategy strategy, int tribeCount) {
+        checkArgument(tribeCount >= 1, "must seed at least one tribe");
+        this.initialPositionStrategy = strategy;
+        this.tribeCount = tribeCount;
+    }
+
+    public RestartPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return the number of times the swarm has been thrown away and started over
+     */
+    public int getRestartCount() {
+        return restarts;
+    }
+
+    /**
+     * @return the swarm that is currently searching, or null before the first call to moveThenAdapt()
+     */
+    public SearchSpace<?> getCurrentSwarm() {
+        return swarm;
+    }
+
+    /**
+     * @return the tribes the current swarm was seeded with
+     */
+    public int getCurrentTribeCount() {
+        return tribeCount;
+    }
+
+    /**
+     * @return the best solutions of the swarms that were thrown away, best first.  They are only reported; new swarms
+     * don't start from them
+     */
+    public List<Solution> getEliteArchive() {
+        return archive.getSolutions();
+    }
+
+    /**
+     * The first call creates and seeds the first swarm.  Every other call moves the current swarm once and restarts
+     * it if it has stagnated
+     */
+    @Override
+    public void moveThenAdapt() {
+        if (swarm == null) {
+            seed();
+            return;
+        }
+        swarm.moveThenAdapt();
+        if (hasStagnated()) {
+            restart();
+        }
+    }
+
+    private void seed() {
+        swarm = factory.create(objectiveFunction, rng.nextInt());
+        swarm.setInitialPositionStrategy(initialPositionStrategy, tribeCount);
+        swarm.moveThenAdapt();
+        plateauError = swarm.bestSolution().getError();
+        movesOnPlateau = 0;
+    }
+
+    private boolean hasStagnated() {
+        double error = swarm.bestSolution().getError();
+        if (plateauError - error > policy.getImprovementTolerance() * Math.abs(plateauError)) {
+            plateauError = error;
+            movesOnPlateau = 0;
+            return false;
+        }
+        movesOnPlateau += 1;
+        if (movesOnPlateau >= policy.getPlateauMoves()) {
+            return true;
+        }
+        // a lone particle has no radius
+        return minRadius > 0 && swarm.swarmSize() > 1 && swarm.swarmRadius() < minRadius;
+    }
+
+    private void restart() {
+        archive.offer(swarm.bestSolution());
+        retiredIterations += swarm.iterationCount();
+        retiredEvaluations += swarm.evaluationCount();
+        retiredAdaptations += swarm.adaptationCount();
+        restarts += 1;
+        tribeCount = policy.nextTribeCount(tribeCount);
+        seed();
+    }
+
+    private static double boundsDiagonal(IObjectiveFunction function) {
+        EuclidianVector min = function.getMinBounds();
+        EuclidianVector max = function.getMaxBounds();
+        double sum = 0;
+        for (int n = 0; n < function.getDimensions(); n++) {
+            double range = max.get(n) - min.get(n);
+            sum += range * range;
+        }
+        return Math.sqrt(sum);
+    }
+
+    @Override
+    public IObjectiveFunction goodnessFunction() {
+        return objectiveFunction;
+    }
+
+    @Override
+    public Solution bestSolution() {
+        Solution archived = archive.best();
+        Solution current = (swarm == null ? null : swarm.bestSolution());
+        if (archived == null || (current != null && current.getError() <= archived.getError())) {
+            return current;
+        }
+        return archived;
+    }
+
+    @Override
+    public int tribeCount() {
+        return (swarm == null ? 0 : swarm.tribeCount());
+    }
+
+    @Override
+    public int swarmSize() {
+        return (swarm == null ? 0 : swarm.swarmSize());
+    }
+
+    @Override
+    public long evaluationCount() {
+        return retiredEvaluations + (swarm == null ? 0 : swarm.evaluationCount());
+    }
+
+    /**
+     * @return the moves of all swarms
+     */
+    @Override
+    public long iterationCount() {
+        return retiredIterations + (swarm == null ? 0 : swarm.iterationCount());
+    }
+
+    /**
+     * @return the adaptations of all swarms
+     */
+    @Override
+    public long adaptationCount() {
+        return retiredAdaptations + (swarm == null ? 0 : swarm.adaptationCount());
+    }
+
+    @Override
+    public double swarmRadius() {
+        return (swarm == null ? 0 : swarm.swarmRadius());
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.steveash.jtribespso.seed;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.EuclidianVectorBuilder;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.rand.IRandom;
+import com.google.common.collect.Lists;
+
+/**
+ * Base class for strategies that design their point set inside the unit hypercube [0, 1)^d.  The points are then
+ * scaled to the min and max bounds of the objective function
+ */
+public abstract class AbstractUnitCubeStrategy implements InitialPositionStrategy {
+
+    @Override
+    public List<EuclidianVector> generatePositions(IObjectiveFunction objectiveFunction, int count, IRandom rng) {
+        checkArgument(count >= 0, "count must be non-negative");
+
+        int dimensions = objectiveFunction.getDimensions();
+        EuclidianVector mins = objectiveFunction.getMinBounds();
+        EuclidianVector maxs = objectiveFunction.getMaxBounds();
+
+        double[][] unitPoints = generateUnitPoints(dimensions, count, rng);
+        List<EuclidianVector> positions = Lists.newArrayListWithCapacity(count);
+        for (double[] unitPoint : unitPoints) {
+            EuclidianVectorBuilder builder = new EuclidianVectorBuilder();
+            for (int n = 0; n < dimensions; n++) {
+                double min = mins.get(n);
+                builder.add(min + unitPoint[n] * (maxs.get(n) - min));
+            }
+            positions.add(builder.build());
+        }
+        return positions;
+    }
+
+    /**
+     * @param dimensions
+     * @param count
+     * @param rng
+     * @return count points, each an array of length dimensions with every coordinate in [0, 1)
+     */
+    protected abstract double[][] generateUnitPoints(int dimensions, int count, IRandom rng);
+}
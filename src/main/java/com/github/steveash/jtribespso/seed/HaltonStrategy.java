@@ -0,0 +1,81 @@
+package com.github.steveash.jtribespso.seed;
+
+import com.github.steveash.jtribespso.rand.IRandom;
+
+/**
+ * Places the particles on a Halton low discrepancy sequence.  Dimension n uses the radical inverse in the base of the
+ * n-th prime.  Halton points are cheap to generate for any dimension count, but the coordinates of neighbouring
+ * high prime bases are correlated for short sequences, so prefer SobolStrategy or LatinHypercubeStrategy above a
+ * dozen or so dimensions.
+ * <p/>
+ * By default each call applies a random Cranley-Patterson rotation (every coordinate is offset by a random
+ * amount modulo 1) so that independent runs get different point sets
+ */
+public class HaltonStrategy extends AbstractUnitCubeStrategy {
+
+    private final boolean randomize;
+
+    /**
+     * Creates a Halton strategy that randomly rotates every point set it generates
+     */
+    public HaltonStrategy() {
+        this(true);
+    }
+
+    /**
+     * @param randomize false to generate the raw Halton sequence (starting from index 1)
+     */
+    public HaltonStrategy(boolean randomize) {
+        this.randomize = randomize;
+    }
+
+    @Override
+    protected double[][] generateUnitPoints(int dimensions, int count, IRandom rng) {
+        int[] bases = firstPrimes(dimensions);
+        double[] rotation = new double[dimensions];
+        if (randomize) {
+            for (int n = 0; n < dimensions; n++) {
+                rotation[n] = rng.nextDouble();
+            }
+        }
+
+        double[][] points = new double[count][dimensions];
+        for (int i = 0; i < count; i++) {
+            for (int n = 0; n < dimensions; n++) {
+                double u = radicalInverse(i + 1, bases[n]) + rotation[n];
+                points[i][n] = (u >= 1.0 ? u - 1.0 : u);
+            }
+        }
+        return points;
+    }
+
+    static double radicalInverse(long index, int base) {
+        double inverseBase = 1.0 / base;
+        double digitWeight = inverseBase;
+        double result = 0;
+        while (index > 0) {
+            result += (index % base) * digitWeight;
+            index /= base;
+            digitWeight *= inverseBase;
+        }
+        return result;
+    }
+
+    static int[] firstPrimes(int count) {
+        int[] primes = new int[count];
+        int found = 0;
+        for (int candidate = 2; found < count; candidate++) {
+            boolean prime = true;
+            for (int i = 0; i < found && primes[i] * primes[i] <= candidate; i++) {
+                if (candidate % primes[i] == 0) {
+                    prime = false;
+                    break;
+                }
+            }
+            if (prime) {
+                primes[found++] = candidate;
+            }
+        }
+        return primes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.steveash.jtribespso.seed;
+
+import java.util.List;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.rand.IRandom;
+
+/**
+ * Decides where the particles of a freshly seeded search space are placed.  Implementations generate a whole set
+ * of positions at once so that space filling designs (latin hypercube, low discrepancy sequences) can spread the
+ * initial swarm evenly over the bounds of the objective function
+ */
+public interface InitialPositionStrategy {
+
+    /**
+     * @param objectiveFunction supplies the number of dimensions and the min and max bounds of the search space
+     * @param count the number of positions to generate
+     * @param rng source of randomness for strategies that randomize their designs
+     * @return count positions, all of which lie inside the bounds of the objective function
+     */
+    List<EuclidianVector> generatePositions(IObjectiveFunction objectiveFunction, int count, IRandom rng);
+}
@@ -0,0 +1,34 @@
+package com.github.steveash.jtribespso.seed;
+
+import com.github.steveash.jtribespso.rand.IRandom;
+
+/**
+ * Latin hypercube sampling.  Each dimension is cut into count equally sized strata and every stratum receives
+ * exactly one particle, so the projection of the swarm onto any single axis is evenly spread no matter how many
+ * dimensions the problem has.  The pairing of strata between dimensions is a random permutation
+ */
+public class LatinHypercubeStrategy extends AbstractUnitCubeStrategy {
+
+    @Override
+    protected double[][] generateUnitPoints(int dimensions, int count, IRandom rng) {
+        double[][] points = new double[count][dimensions];
+        int[] strata = new int[count];
+        for (int n = 0; n < dimensions; n++) {
+            for (int i = 0; i < count; i++) {
+                strata[i] = i;
+            }
+            // Fisher-Yates shuffle so each point gets a different stratum in this dimension
+            for (int i = count - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                int swap = strata[i];
+                strata[i] = strata[j];
+                strata[j] = swap;
+            }
+            for (int i = 0; i < count; i++) {
+                double u = (strata[i] + rng.nextDouble()) / count;
+                points[i][n] = Math.min(u, Math.nextAfter(1.0, 0.0));
+            }
+        }
+        return points;
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.steveash.jtribespso.seed;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.github.steveash.jtribespso.rand.IRandom;
+
+/**
+ * Places the particles on a Sobol low discrepancy sequence.  The first 2^k points of every dimension fall into
+ * 2^k distinct, equally sized strata, and low dimensional projections stay well spread too.  The direction
+ * numbers are the first entries of Joe and Kuo's new-joe-kuo-6.21201 table, so up to MaxDimensions dimensions
+ * are supported.  For higher dimensional problems use LatinHypercubeStrategy.
+ * <p/>
+ * By default each call applies a random digital shift (an XOR of every coordinate with a random bit pattern).  The
+ * shift keeps the stratification of the sequence but gives independent runs different point sets
+ */
+public class SobolStrategy extends AbstractUnitCubeStrategy {
+
+    private static final int Bits = 32;
+    private static final double Scale = 1.0 / (1L << Bits);
+
+    // {s, a, m_1 .. m_s} for dimensions 2 and up.  Dimension 1 uses m_k = 1 for all k
+    private static final int[][] DirectionTable = {
+            {1, 0, 1},
+            {2, 1, 1, 3},
+            {3, 1, 1, 3, 1},
+            {3, 2, 1, 1, 1},
+            {4, 1, 1, 1, 3, 3},
+            {4, 4, 1, 3, 5, 13},
+            {5, 2, 1, 1, 5, 5, 17},
+            {5, 4, 1, 1, 5, 5, 5},
+            {5, 7, 1, 1, 7, 11, 19},
+            {5, 11, 1, 1, 5, 1, 1},
+            {5, 13, 1, 1, 1, 3, 11},
+            {5, 14, 1, 3, 5, 5, 31},
+            {6, 1, 1, 3, 3, 9, 7, 49},
+            {6, 13, 1, 1, 1, 15, 21, 21},
+            {6, 16, 1, 3, 1, 13, 27, 49},
+            {6, 19, 1, 1, 1, 15, 7, 5},
+            {6, 22, 1, 3, 1, 15, 13, 25},
+            {6, 25, 1, 1, 5, 5, 19, 61},
+            {7, 1, 1, 3, 7, 11, 23, 15, 103},
+            {7, 4, 1, 3, 7, 13, 13, 15, 69},
+    };
+
+    public static final int MaxDimensions = DirectionTable.length + 1;
+
+    private final boolean randomize;
+
+    /**
+     * Creates a Sobol strategy that applies a random digital shift to every point set it generates
+     */
+    public SobolStrategy() {
+        this(true);
+    }
+
+    /**
+     * @param randomize false to generate the raw, unshifted Sobol sequence starting at the origin
+     */
+    public SobolStrategy(boolean randomize) {
+        this.randomize = randomize;
+    }
+
+    @Override
+    protected double[][] generateUnitPoints(int dimensions, int count, IRandom rng) {
+        checkArgument(dimensions <= MaxDimensions,
+                "Sobol directions are only tabulated for %s dimensions, but the problem has %s",
+                MaxDimensions, dimensions);
+
+        long[][] directions = new long[dimensions][];
+        long[] shift = new long[dimensions];
+        for (int n = 0; n < dimensions; n++) {
+            directions[n] = directionNumbers(n);
+            if (randomize) {
+                shift[n] = rng.nextInt() & 0xFFFFFFFFL;
+            }
+        }
+
+        double[][] points = new double[count][dimensions];
+        long[] x = new long[dimensions];
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                // Gray code ordering: point i differs from point i - 1 by the direction of the lowest zero bit of i - 1
+                int c = Integer.numberOfTrailingZeros(~(i - 1));
+                for (int n = 0; n < dimensions; n++) {
+                    x[n] ^= directions[n][c];
+                }
+            }
+            for (int n = 0; n < dimensions; n++) {
+                points[i][n] = (x[n] ^ shift[n]) * Scale;
+            }
+        }
+        return points;
+    }
+
+    private static long[] directionNumbers(int dimension) {
+        long[] v = new long[Bits];
+        if (dimension == 0) {
+            for (int k = 0; k < Bits; k++) {
+                v[k] = 1L << (Bits - 1 - k);
+            }
+            return v;
+        }
+
+        int[] row = DirectionTable[dimension - 1];
+        int s = row[0];
+        int a = row[1];
+        for (int k = 0; k < s; k++) {
+            v[k] = ((long) row[2 + k]) << (Bits - 1 - k);
+        }
+        for (int k = s; k < Bits; k++) {
+            v[k] = v[k - s] ^ (v[k - s] >> s);
+            for (int l = 1; l < s; l++) {
+                if (((a >> (s - 1 - l)) & 1) != 0) {
+                    v[k] ^= v[k - l];
+                }
+            }
+        }
+        return v;
+    }
+}
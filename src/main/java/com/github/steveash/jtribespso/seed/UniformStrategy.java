@@ -0,0 +1,21 @@
+package com.github.steveash.jtribespso.seed;
+
+import com.github.steveash.jtribespso.rand.IRandom;
+
+/**
+ * Places every particle independently with a uniform distribution in each dimension.  This is the same
+ * distribution that SearchSpace.generatePosition() uses, so it is the baseline the other strategies are measured against
+ */
+public class UniformStrategy extends AbstractUnitCubeStrategy {
+
+    @Override
+    protected double[][] generateUnitPoints(int dimensions, int count, IRandom rng) {
+        double[][] points = new double[count][dimensions];
+        for (double[] point : points) {
+            for (int n = 0; n < dimensions; n++) {
+                point[n] = rng.nextDouble();
+            }
+        }
+        return points;
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.steveash.jtribespso.surrogate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+/**
+ * A k-d tree of points with a value attached to each of them, which answers k nearest neighbour queries.  Points
+ * are added one at a time below the leaf where they belong, and every time the tree has doubled in size it is
+ * rebuilt around the medians so that the search paths stay logarithmic however the points arrive.  The points and
+ * links are kept in flat primitive arrays.
+ * <p/>
+ * This class is not thread safe
+ */
+class KdTree {
+
+    private static final int InitialCapacity = 64;
+
+    private final int dimensions;
+    private double[] coordinates;
+    private double[] values;
+    private int[] left;
+    private int[] right;
+    private int[] axes;
+    private int size = 0;
+    private int root = -1;
+    private int nextRebuild = InitialCapacity;
+
+    KdTree(int dimensions) {
+        checkArgument(dimensions > 0, "dimensions must be positive");
+        this.dimensions = dimensions;
+        this.coordinates = new double[InitialCapacity * dimensions];
+        this.values = new double[InitialCapacity];
+        this.left = new int[InitialCapacity];
+        this.right = new int[InitialCapacity];
+        this.axes = new int[InitialCapacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    double value(int point) {
+        return values[point];
+    }
+
+    double coordinate(int point, int dimension) {
+        return coordinates[point * dimensions + dimension];
+    }
+
+    void add(double[] point, double value) {
+        checkArgument(point.length == dimensions, "expected a point of %s dimensions", dimensions);
+        if (size == values.length) {
+            grow();
+        }
+        int added = size++;
+        System.arraycopy(point, 0, coordinates, added * dimensions, dimensions);
+        values[added] = value;
+        left[added] = -1;
+        right[added] = -1;
+
+        if (size >= nextRebuild) {
+            rebuild();
+            nextRebuild = 2 * size;
+            return;
+        }
+        if (root < 0) {
+            root = added;
+            axes[added] = 0;
+            return;
+        }
+        int node = root;
+        while (true) {
+            int axis = axes[node];
+            int[] links = (point[axis] < coordinate(node, axis) ? left : right);
+            if (links[node] < 0) {
+                links[node] = added;
+                axes[added] = (axis + 1) % dimensions;
+                return;
+            }
+            node = links[node];
+        }
+    }
+
+    /**
+     * Finds the k points nearest to the query
+     * @param query
+     * @param k
+     * @param nearest receives the indexes of the neighbours, nearest first
+     * @param squaredDistances receives the squared euclidian distances of the neighbours
+     * @return the number of neighbours found, which is less than k when the tree holds fewer than k points
+     */
+    int nearest(double[] query, int k, int[] nearest, double[] squaredDistances) {
+        checkArgument(query.length == dimensions, "expected a point of %s dimensions", dimensions);
+        checkArgument(k > 0 && nearest.length >= k && squaredDistances.length >= k, "there isn't room for k results");
+        Arrays.fill(squaredDistances, 0, k, Double.POSITIVE_INFINITY);
+        if (root < 0) {
+            return 0;
+        }
+        search(root, query, k, nearest, squaredDistances);
+        return Math.min(k, size);
+    }
+
+    private void search(int node, double[] query, int k, int[] nearest, double[] squaredDistances) {
+        while (node >= 0) {
+            offer(node, squaredDistance(node, query), k, nearest, squaredDistances);
+            int axis = axes[node];
+            double split = query[axis] - coordinate(node, axis);
+            int near = (split < 0 ? left[node] : right[node]);
+            int far = (split < 0 ? right[node] : left[node]);
+            if (far >= 0 && split * split < squaredDistances[k - 1]) {
+                search(near, query, k, nearest, squaredDistances);
+                node = far;
+            } else {
+                node = near;
+            }
+        }
+    }
+
+    private static void offer(int point, double squaredDistance, int k, int[] nearest, double[] squaredDistances) {
+        if (squaredDistance >= squaredDistances[k - 1]) {
+            return;
+        }
+        int slot = k - 1;
+        while (slot > 0 && squaredDistances[slot - 1] > squaredDistance) {
+            squaredDistances[slot] = squaredDistances[slot - 1];
+            nearest[slot] = nearest[slot - 1];
+            slot -= 1;
+        }
+        squaredDistances[slot] = squaredDistance;
+        nearest[slot] = point;
+    }
+
+    private double squaredDistance(int point, double[] query) {
+        int offset = point * dimensions;
+        double sum = 0;
+        for (int n = 0; n < dimensions; n++) {
+            double delta = coordinates[offset + n] - query[n];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    private void grow() {
+        int capacity = 2 * values.length;
+        coordinates = Arrays.copyOf(coordinates, capacity * dimensions);
+        values = Arrays.copyOf(values, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        axes = Arrays.copyOf(axes, capacity);
+    }
+
+    private void rebuild() {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        root = build(order, 0, size, 0);
+    }
+
+    private int build(int[] order, int from, int to, int axis) {
+        if (from >= to) {
+            return -1;
+        }
+        int middle = (from + to) >>> 1;
+        select(order, from, to - 1, middle, axis);
+        int node = order[middle];
+        axes[node] = axis;
+        int nextAxis = (axis + 1) % dimensions;
+        left[node] = build(order, from, middle, nextAxis);
+        right[node] = build(order, middle + 1, to, nextAxis);
+        return node;
+    }
+
+    /**
+     * Partially sorts order[from..to] by the axis coordinate so that the point at index k is in its sorted place,
+     * the points before it aren't greater and the points after it aren't smaller
+     */
+    private void select(int[] order, int from, int to, int k, int axis) {
+        while (from < to) {
+            double pivot = coordinate(order[(from + to) >>> 1], axis);
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (coordinate(order[i], axis) < pivot) i++;
+                while (coordinate(order[j], axis) > pivot) j--;
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                to = j;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
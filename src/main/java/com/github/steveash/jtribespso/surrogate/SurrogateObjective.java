@@ -0,0 +1,223 @@
+package com.github.steveash.jtribespso.surrogate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IAbortableObjectiveFunction;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+
+/**
+ * Wraps an expensive objective function with a k-nearest-neighbour surrogate that skips the evaluation of
+ * candidates that are clearly worse than their particle's best.  Every real evaluation is archived in a k-d tree
+ * over the search space scaled to the unit cube.  Particle.move() passes the particle's best error as the cutoff,
+ * and the surrogate predicts the candidate's error as the inverse distance weighted mean of the errors of its
+ * nearest archived neighbours.  The real evaluation is skipped, and the prediction returned instead, when every one
+ * of the neighbours is worse than the cutoff and the prediction is more than margin weighted standard deviations
+ * of their errors above it.  A skipped candidate still moves the particle, it just doesn't count as an
+ * improvement, so the predicted error is what getCurrentError() reports.
+ * <p/>
+ * Nothing is skipped until the archive holds warmUpEvaluations points, and evaluations without a cutoff are always
+ * real, so the swarm's best solutions always have exact errors.  If the wrapped function is itself an
+ * IAbortableObjectiveFunction it gets the cutoff too, and the lower bounds of the evaluations it abandons are
+ * archived like any other error.
+ * <p/>
+ * The archive is guarded by a read write lock, so predictions of multithreaded search spaces run concurrently
+ * while the (expensive) real evaluations run outside of the lock
+ */
+public class SurrogateObjective implements IAbortableObjectiveFunction {
+
+    public static final int DefaultNeighbours = 8;
+    public static final double DefaultMargin = 1;
+
+    private final IObjectiveFunction objective;
+    private final IAbortableObjectiveFunction abortableObjective;
+    private final int neighbours;
+    private final double margin;
+    private final int warmUpEvaluations;
+    private final double[] mins;
+    private final double[] scales;
+
+    private final KdTree archive; // guarded by lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong evaluated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * Creates a surrogate with the default neighbours and margin that starts skipping after 10 evaluations per
+     * dimension
+     * @param objective
+     */
+    public SurrogateObjective(IObjectiveFunction objective) {
+        this(objective, DefaultNeighbours, DefaultMargin, 10 * objective.getDimensions());
+    }
+
+    /**
+     * @param objective the expensive objective function
+     * @param neighbours how many archived evaluations a prediction is based on
+     * @param margin how many standard deviations of the neighbours' errors a prediction has to be above the cutoff
+     * to skip the real evaluation
+     * @param warmUpEvaluations how many real evaluations to archive before predictions are trusted
+     */
+    public SurrogateObjective(IObjectiveFunction objective, int neighbours, double margin, int warmUpEvaluations) {
+        checkNotNull(objective);
+        checkArgument(neighbours > 0, "neighbours must be positive");
+        checkArgument(margin >= 0, "margin can't be negative");
+        checkArgument(warmUpEvaluations >= neighbours, "the warm up needs at least as many evaluations as neighbours");
+
+        this.objective = objective;
+        this.abortableObjective = (objective instanceof IAbortableObjectiveFunction ?
+                (IAbortableObjectiveFunction) objective : null);
+        this.neighbours = neighbours;
+        this.margin = margin;
+        this.warmUpEvaluations = warmUpEvaluations;
+
+        int dimensions = objective.getDimensions();
+        this.mins = new double[dimensions];
+        this.scales = new double[dimensions];
+        EuclidianVector minBounds = objective.getMinBounds();
+        EuclidianVector maxBounds = objective.getMaxBounds();
+        for (int n = 0; n < dimensions; n++) {
+            double range = maxBounds.get(n) - minBounds.get(n);
+            mins[n] = minBounds.get(n);
+            scales[n] = (range > 0 ? 1.0 / range : 1.0);
+        }
+        this.archive = new KdTree(dimensions);
+    }
+
+    @Override
+    public int getDimensions() {
+        return objective.getDimensions();
+    }
+
+    @Override
+    public EuclidianVector getMinBounds() {
+        return objective.getMinBounds();
+    }
+
+    @Override
+    public EuclidianVector getMaxBounds() {
+        return objective.getMaxBounds();
+    }
+
+    @Override
+    public EuclidianVector getInitialGuess() {
+        return objective.getInitialGuess();
+    }
+
+    /**
+     * @return the number of real evaluations
+     */
+    public long getEvaluatedCount() {
+        return evaluated.get();
+    }
+
+    /**
+     * @return the number of candidates whose real evaluation was skipped
+     */
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    public int getArchiveSize() {
+        lock.readLock().lock();
+        try {
+            return archive.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public double evaluate(EuclidianVector guess) {
+        double error = objective.evaluate(guess);
+        archive(scale(guess), error);
+        return error;
+    }
+
+    @Override
+    public double evaluate(EuclidianVector guess, double cutoff) {
+        if (Double.isInfinite(cutoff)) {
+            return evaluate(guess);
+        }
+        double[] point = scale(guess);
+        double prediction = predict(point, cutoff);
+        if (prediction >= cutoff) {
+            skipped.incrementAndGet();
+            return prediction;
+        }
+
+        double error = (abortableObjective != null ?
+                abortableObjective.evaluate(guess, cutoff) :
+                objective.evaluate(guess));
+        // an abandoned evaluation is only a lower bound, which makes the neighbourhood look better than it is and
+        // can only make skipping less likely
+        archive(point, error);
+        return error;
+    }
+
+    /**
+     * @return the predicted error of the point if it is clearly worse than the cutoff, otherwise negative infinity
+     */
+    private double predict(double[] point, double cutoff) {
+        int[] nearest = new int[neighbours];
+        double[] squaredDistances = new double[neighbours];
+        double weightSum = 0;
+        double weightedErrors = 0;
+        double weightedSquares = 0;
+
+        lock.readLock().lock();
+        try {
+            if (archive.size() < warmUpEvaluations) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            int found = archive.nearest(point, neighbours, nearest, squaredDistances);
+            if (squaredDistances[0] == 0) {
+                // the point has been evaluated before
+                double error = archive.value(nearest[0]);
+                return (error >= cutoff ? error : Double.NEGATIVE_INFINITY);
+            }
+            for (int i = 0; i < found; i++) {
+                double error = archive.value(nearest[i]);
+                if (error < cutoff) {
+                    return Double.NEGATIVE_INFINITY;
+                }
+                double weight = 1.0 / squaredDistances[i];
+                weightSum += weight;
+                weightedErrors += weight * error;
+                weightedSquares += weight * error * error;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        double mean = weightedErrors / weightSum;
+        double deviation = Math.sqrt(Math.max(0, weightedSquares / weightSum - mean * mean));
+        return (mean - margin * deviation >= cutoff ? mean : Double.NEGATIVE_INFINITY);
+    }
+
+    private void archive(double[] point, double error) {
+        evaluated.incrementAndGet();
+        if (Double.isNaN(error) || Double.isInfinite(error)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            archive.add(point, error);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private double[] scale(EuclidianVector guess) {
+        double[] point = new double[mins.length];
+        for (int n = 0; n < point.length; n++) {
+            point[n] = (guess.get(n) - mins[n]) * scales[n];
+        }
+        return point;
+    }
+}
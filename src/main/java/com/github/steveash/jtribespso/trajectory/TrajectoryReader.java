@@ -0,0 +1,147 @@
+package com.github.steveash.jtribespso.trajectory;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.google.common.collect.Lists;
+
+/**
+ * Replays a trajectory written by TrajectoryRecorder.  The reader is a cursor over the records: call next() to
+ * advance to the following record and the getters to read it, so replaying a trajectory doesn't allocate
+ * anything per record unless getPosition() is used.
+ * <p/>
+ * Segments that were never finished because the recording process died are read up to the first empty record
+ */
+public class TrajectoryReader implements Closeable {
+
+    private final List<Path> segments;
+    private final int dimensions;
+    private final int recordSize;
+
+    private int segmentIndex = -1;
+    private ByteBuffer segment = null;
+    private int segmentRecords = 0;
+    private int record = -1;
+    private int offset = -1;
+
+    public TrajectoryReader(Path directory) throws IOException {
+        this.segments = Lists.newArrayList();
+        try (DirectoryStream<Path> found = Files.newDirectoryStream(directory, TrajectoryRecorder.SegmentGlob)) {
+            for (Path path : found) {
+                segments.add(path);
+            }
+        }
+        // segment numbers are zero padded so their names sort in recording order
+        Collections.sort(segments);
+        if (segments.isEmpty()) {
+            throw new IOException("There are no trajectory segments in " + directory);
+        }
+
+        ByteBuffer first = map(segments.get(0));
+        this.dimensions = first.getInt(8);
+        this.recordSize = first.getInt(12);
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Advances to the next record
+     * @return false if there are no more records
+     * @throws IOException
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (segment != null && record + 1 < segmentRecords) {
+                int nextOffset = TrajectoryRecorder.HeaderSize + (record + 1) * recordSize;
+                // iterations are numbered from 1, so a zero iteration is a slot that was never written
+                if (segment.getLong(nextOffset) != 0) {
+                    record += 1;
+                    offset = nextOffset;
+                    return true;
+                }
+            }
+            if (segmentIndex + 1 >= segments.size()) {
+                return false;
+            }
+            openSegment(segmentIndex + 1);
+        }
+    }
+
+    public long getIteration() {
+        checkState(offset >= 0, "next() hasn't been called");
+        return segment.getLong(offset);
+    }
+
+    public int getParticleId() {
+        checkState(offset >= 0, "next() hasn't been called");
+        return segment.getInt(offset + 8);
+    }
+
+    public double getError() {
+        checkState(offset >= 0, "next() hasn't been called");
+        return segment.getDouble(offset + 12);
+    }
+
+    public double getPosition(int dimension) {
+        checkState(offset >= 0, "next() hasn't been called");
+        checkElementIndex(dimension, dimensions);
+        return segment.getDouble(offset + 20 + 8 * dimension);
+    }
+
+    public EuclidianVector getPosition() {
+        double[] position = new double[dimensions];
+        for (int n = 0; n < dimensions; n++) {
+            position[n] = getPosition(n);
+        }
+        return new EuclidianVector(position);
+    }
+
+    @Override
+    public void close() {
+        segment = null;
+        segmentIndex = segments.size();
+    }
+
+    private void openSegment(int index) throws IOException {
+        Path path = segments.get(index);
+        ByteBuffer buffer = map(path);
+        if (buffer.getInt(8) != dimensions || buffer.getInt(12) != recordSize) {
+            throw new IOException("Segment " + path + " doesn't match the dimensions of the trajectory");
+        }
+        int count = buffer.getInt(TrajectoryRecorder.CountOffset);
+        int capacity = (buffer.capacity() - TrajectoryRecorder.HeaderSize) / recordSize;
+        this.segmentRecords = (count == TrajectoryRecorder.UnknownCount ? capacity : Math.min(count, capacity));
+        this.segment = buffer;
+        this.segmentIndex = index;
+        this.record = -1;
+        this.offset = -1;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < TrajectoryRecorder.HeaderSize ||
+                    buffer.getInt(0) != TrajectoryRecorder.Magic) {
+                throw new IOException(path + " is not a trajectory segment");
+            }
+            if (buffer.getInt(4) != TrajectoryRecorder.FormatVersion) {
+                throw new IOException("Unsupported trajectory format version " + buffer.getInt(4) + " in " + path);
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.github.steveash.jtribespso.trajectory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.google.common.base.Throwables;
+
+/**
+ * Records the trajectory of a swarm (the iteration, particle id, error and position of every move) into a
+ * directory of memory mapped segment files.  Every record has the same size, so recording a move is a slot
+ * reservation and a handful of absolute puts into the mapped segment, with no allocation, no locking and no
+ * system calls except when a segment fills up and the next one is mapped.  Particles of multithreaded search
+ * spaces record concurrently.
+ * <p/>
+ * Records are written in the order their slots were reserved.  Use TrajectoryReader to replay them.  Attach a
+ * recorder to a search space with SearchSpace.setTrajectoryRecorder()
+ * <p/>
+ * A full segment rolls over to the next segment file.  By default every segment is kept, so a long recording
+ * fills the disk; give the recorder a maximum number of segments to keep only the most recent moves.  The oldest
+ * segment file is then deleted whenever a new one is started
+ */
+public class TrajectoryRecorder implements Closeable {
+
+    public static final long DefaultSegmentBytes = 64L * 1024 * 1024;
+    public static final int KeepAllSegments = 0;
+
+    static final int Magic = 0x4A545452; // "JTTR"
+    static final int FormatVersion = 1;
+    static final int HeaderSize = 32;
+    // header fields: magic, version, dimensions, record size, segment index, record count (-1 until the segment is
+    // finished), reserved
+    static final int CountOffset = 20;
+    static final int UnknownCount = -1;
+    static final String SegmentGlob = "trajectory-*.seg";
+
+    private final Path directory;
+    private final int dimensions;
+    private final int recordSize;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    private volatile Segment current;
+    private Segment previous = null; // guarded by this
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a recorder with the default segment size of 64MB
+     * @param directory
+     * @param dimensions
+     * @throws IOException
+     */
+    public TrajectoryRecorder(Path directory, int dimensions) throws IOException {
+        this(directory, dimensions, DefaultSegmentBytes);
+    }
+
+    /**
+     * Creates a recorder that writes segment files of (at most) segmentBytes into the directory and keeps all of
+     * them.  Segments left in the directory by an earlier recording are deleted
+     * @param directory created if it doesn't exist
+     * @param dimensions the dimensions of the objective function of the swarm that will be recorded
+     * @param segmentBytes the size of each segment file
+     * @throws IOException
+     */
+    public TrajectoryRecorder(Path directory, int dimensions, long segmentBytes) throws IOException {
+        this(directory, dimensions, segmentBytes, KeepAllSegments);
+    }
+
+    /**
+     * Creates a recorder that writes segment files of (at most) segmentBytes into the directory and keeps only the
+     * most recent maxSegments of them.  Segments left in the directory by an earlier recording are deleted
+     * @param directory created if it doesn't exist
+     * @param dimensions the dimensions of the objective function of the swarm that will be recorded
+     * @param segmentBytes the size of each segment file
+     * @param maxSegments the most segment files kept on disk, or KeepAllSegments.  At least two are kept, because
+     * writers that lag behind may still be writing to the previous segment when the next one is started
+     * @throws IOException
+     */
+    public TrajectoryRecorder(Path directory, int dimensions, long segmentBytes, int maxSegments)
+            throws IOException {
+        checkNotNull(directory);
+        checkArgument(dimensions > 0, "dimensions must be positive");
+        checkArgument(segmentBytes <= Integer.MAX_VALUE, "segments can't be larger than 2GB");
+        checkArgument(maxSegments == KeepAllSegments || maxSegments >= 2, "at least two segments must be kept");
+
+        this.directory = directory;
+        this.dimensions = dimensions;
+        this.recordSize = recordSize(dimensions);
+        this.recordsPerSegment = (int) ((segmentBytes - HeaderSize) / recordSize);
+        this.maxSegments = maxSegments;
+        checkArgument(recordsPerSegment > 0, "a segment of %s bytes can't hold a single record of %s bytes",
+                segmentBytes, recordSize + HeaderSize);
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, SegmentGlob)) {
+            for (Path segment : stale) {
+                Files.delete(segment);
+            }
+        }
+        this.current = openSegment(0);
+    }
+
+    static int recordSize(int dimensions) {
+        // iteration, particle id, error, position
+        return 8 + 4 + 8 + 8 * dimensions;
+    }
+
+    static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("trajectory-%06d.seg", index));
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the number of records written so far, including those in segments that were deleted to keep the
+     * number of segments under the maximum
+     */
+    public long recordCount() {
+        return nextSlot.get();
+    }
+
+    /**
+     * Appends a record.  This method is thread safe
+     * @param iteration the 1-based iteration number.  Zero marks unwritten slots in the file
+     * @param particleId
+     * @param position
+     * @param error
+     */
+    public void record(long iteration, int particleId, EuclidianVector position, double error) {
+        checkState(!closed, "The recorder is closed");
+        checkArgument(iteration > 0, "iterations are numbered from 1");
+
+        long slot = nextSlot.getAndIncrement();
+        int segmentIndex = (int) (slot / recordsPerSegment);
+        Segment segment = current;
+        if (segment.index != segmentIndex) {
+            segment = segment(segmentIndex);
+            if (segment == null) {
+                // the writer fell so far behind that its segment was already deleted
+                return;
+            }
+        }
+
+        ByteBuffer buffer = segment.buffer;
+        int offset = HeaderSize + (int) (slot % recordsPerSegment) * recordSize;
+        buffer.putLong(offset, iteration);
+        buffer.putInt(offset + 8, particleId);
+        buffer.putDouble(offset + 12, error);
+        offset += 20;
+        for (int n = 0; n < dimensions; n++) {
+            buffer.putDouble(offset, position.get(n));
+            offset += 8;
+        }
+    }
+
+    /**
+     * Finishes the last segment and flushes the mapped segments to disk
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long lastSegmentRecords = nextSlot.get() - (long) current.index * recordsPerSegment;
+        current.buffer.putInt(CountOffset, (int) Math.min(lastSegmentRecords, recordsPerSegment));
+        current.buffer.force();
+        if (previous != null) {
+            previous.buffer.force();
+        }
+    }
+
+    private synchronized Segment segment(int index) {
+        try {
+            if (current.index == index) {
+                return current;
+            }
+            if (previous != null && previous.index == index) {
+                return previous;
+            }
+            if (index < current.index) {
+                // a writer fell more than a whole segment behind, which is possible but very unlikely
+                return (isDeleted(index) ? null : mapSegment(index));
+            }
+            while (current.index < index) {
+                current.buffer.putInt(CountOffset, recordsPerSegment);
+                previous = current;
+                current = openSegment(current.index + 1);
+                if (maxSegments != KeepAllSegments && current.index >= maxSegments) {
+                    Files.deleteIfExists(segmentPath(directory, current.index - maxSegments));
+                }
+            }
+            return current;
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    /**
+     * @return true if the segment is too old to be kept, counting from the current segment
+     */
+    private boolean isDeleted(int index) {
+        return maxSegments != KeepAllSegments && index <= current.index - maxSegments;
+    }
+
+    private Segment openSegment(int index) throws IOException {
+        Segment segment = mapSegment(index);
+        ByteBuffer header = segment.buffer;
+        header.putInt(0, Magic);
+        header.putInt(4, FormatVersion);
+        header.putInt(8, dimensions);
+        header.putInt(12, recordSize);
+        header.putInt(16, index);
+        header.putInt(CountOffset, UnknownCount);
+        return segment;
+    }
+
+    private Segment mapSegment(int index) throws IOException {
+        long size = HeaderSize + (long) recordsPerSegment * recordSize;
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, index), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(index, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private static class Segment {
+        final int index;
+        final MappedByteBuffer buffer;
+
+        Segment(int index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.steveash.jtribespso;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.jtribespso.benchmark.Sphere;
+import com.github.steveash.jtribespso.impl.SingleThreadedGaussianSearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.github.steveash.jtribespso.test.AllocationMeter;
+import com.google.common.collect.Lists;
+
+/**
+This is a test class for the garbage produced by moving the swarm and is intended
+to fail the build when the bytes allocated per move creep back up.  The thresholds
+are about twice the allocation measured when they were set; if a change legitimately
+needs more, raise them in the same commit and say why
+*/
+public class AllocationTest {
+	private static final Logger log = LoggerFactory.getLogger(AllocationTest.class);
+
+	private static final int[] Dimensions = {2, 10, 50};
+
+	@Before
+	public void setUp() {
+		Assume.assumeTrue(AllocationMeter.isSupported());
+	}
+
+	private static SearchSpace<?> hypersphereSpace(int dimensions) {
+		return new SingleThreadedHypersphereSearchSpace(new Sphere(dimensions), new HyperspaceRandom(1));
+	}
+
+	private static SearchSpace<?> gaussianSpace(int dimensions) {
+		return new SingleThreadedGaussianSearchSpace(new Sphere(dimensions), new HyperspaceRandom(1));
+	}
+
+	private static double bytesPerMove(SearchSpace<?> space) {
+		for (int n = 0; n < 20; n++) {
+			space.moveThenAdapt();
+		}
+		final List<Particle> particles = Lists.newArrayList(space.tribeMembers());
+		Runnable moveAll = new Runnable() {
+			@Override
+			public void run() {
+				for (Particle particle : particles) {
+					particle.move();
+				}
+			}
+		};
+		return AllocationMeter.bytesPerRun(moveAll, 2000, 500) / particles.size();
+	}
+
+	private static double bytesPerParticleIteration(SearchSpace<?> space) {
+		for (int n = 0; n < 2000; n++) {
+			space.moveThenAdapt();
+		}
+		//bytes per particle per iteration, since the swarm grows and shrinks as it adapts
+		long start = AllocationMeter.allocatedBytes();
+		long particleMoves = 0;
+		for (int n = 0; n < 500; n++) {
+			particleMoves += space.swarmSize();
+			space.moveThenAdapt();
+		}
+		return (double) (AllocationMeter.allocatedBytes() - start) / particleMoves;
+	}
+
+	private static void check(String name, int dimensions, double bytes, int fixedLimit, int perDimensionLimit) {
+		long limit = fixedLimit + (long) perDimensionLimit * dimensions;
+		log.info(String.format(Locale.ROOT, "%s, %d dimensions: %.0f bytes (limit %d)", name, dimensions, bytes,
+				limit));
+		assertTrue(String.format(Locale.ROOT, "%s allocates %.0f bytes at %d dimensions, more than the limit of %d",
+				name, bytes, dimensions, limit), bytes <= limit);
+	}
+
+	@Test
+	public void hypersphereMoveTest() {
+		for (int dimensions : Dimensions) {
+			double bytes = bytesPerMove(hypersphereSpace(dimensions));
+			check("Hypersphere Particle.move()", dimensions, bytes, 2400, 220);
+		}
+	}
+
+	@Test
+	public void gaussianMoveTest() {
+		for (int dimensions : Dimensions) {
+			double bytes = bytesPerMove(gaussianSpace(dimensions));
+			check("Gaussian Particle.move()", dimensions, bytes, 1400, 90);
+		}
+	}
+
+	@Test
+	public void hypersphereMoveThenAdaptTest() {
+		for (int dimensions : Dimensions) {
+			double bytes = bytesPerParticleIteration(hypersphereSpace(dimensions));
+			check("Hypersphere moveThenAdapt() per particle", dimensions, bytes, 3600, 400);
+		}
+	}
+
+	@Test
+	public void gaussianMoveThenAdaptTest() {
+		for (int dimensions : Dimensions) {
+			double bytes = bytesPerParticleIteration(gaussianSpace(dimensions));
+			check("Gaussian moveThenAdapt() per particle", dimensions, bytes, 1800, 100);
+		}
+	}
+}
@@ -1,8 +1,17 @@
 package com.github.steveash.jtribespso;
 
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
 import com.github.steveash.jtribespso.impl.IndependentGaussianParticle;
+import com.github.steveash.jtribespso.rand.IRandom;
+import com.github.steveash.jtribespso.seed.InitialPositionStrategy;
 import com.github.steveash.jtribespso.test.BaseSearchSpace;
 import com.github.steveash.jtribespso.test.Rosenbrock;
+import com.google.common.collect.Lists;
 
 /**
 This is a test class for SearchSpace and is intended
@@ -16,4 +25,33 @@ public class BaseSearchSpaceTest extends SearchSpaceTest<IndependentGaussianPart
 		Rosenbrock objectiveFunction = new Rosenbrock();
 		return new BaseSearchSpace(objectiveFunction);
 	}
+
+	@Test
+	public void swarmRadiusFarFromOriginTest() {
+		final double d = 1e-6;
+		Rosenbrock offsetBox = new Rosenbrock() {
+			@Override
+			public EuclidianVector getMinBounds() {
+				return new EuclidianVector(1000, 1000);
+			}
+
+			@Override
+			public EuclidianVector getMaxBounds() {
+				return new EuclidianVector(1001, 1001);
+			}
+		};
+		BaseSearchSpace target = new BaseSearchSpace(offsetBox);
+		target.setInitialPositionStrategy(new InitialPositionStrategy() {
+			@Override
+			public List<EuclidianVector> generatePositions(IObjectiveFunction objectiveFunction, int count, IRandom rng) {
+				return Lists.newArrayList(new EuclidianVector(1000.5, 1000.5), new EuclidianVector(1000.5 + d, 1000.5),
+						new EuclidianVector(1000.5, 1000.5 + d), new EuclidianVector(1000.5 + d, 1000.5 + d));
+			}
+		}, 4);
+		target.moveThenAdapt();
+
+		//each coordinate is a or a + d half the time, so its variance is d^2 / 4
+		assertEquals(4, target.swarmSize());
+		assertEquals(d / Math.sqrt(2), target.swarmRadius(), 1e-12);
+	}
 }
@@ -0,0 +1,68 @@
+package com.github.steveash.jtribespso;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.test.Rosenbrock;
+
+/**
+This is a test class for DoubleObjectiveFunction and is intended
+to contain all DoubleObjectiveFunction Unit Tests
+*/
+public class DoubleObjectiveFunctionTest {
+
+	private static class RecordingFunction extends DoubleObjectiveFunction {
+		double[] lastGuess;
+
+		@Override
+		public double evaluate(double[] x) {
+			lastGuess = x;
+			return x[0] + 10 * x[1];
+		}
+
+		@Override
+		public int getDimensions() {
+			return 2;
+		}
+
+		@Override
+		public EuclidianVector getMinBounds() {
+			return new EuclidianVector(-1, -1);
+		}
+
+		@Override
+		public EuclidianVector getMaxBounds() {
+			return new EuclidianVector(1, 1);
+		}
+
+		@Override
+		public EuclidianVector getInitialGuess() {
+			return null;
+		}
+	}
+
+	@Test
+	public void evaluatesBackingArrayTest() {
+		RecordingFunction target = new RecordingFunction();
+		EuclidianVector guess = new EuclidianVector(1, 2);
+
+		assertEquals(21, target.evaluate(guess), 0);
+		assertSame(guess.backingArray(), target.lastGuess);
+	}
+
+	@Test
+	public void adaptTest() {
+		Rosenbrock rosenbrock = new Rosenbrock();
+		DoubleObjectiveFunction target = DoubleObjectiveFunction.adapt(rosenbrock);
+
+		assertEquals(0, target.evaluate(new double[] {1, 1}), 0);
+		assertEquals(rosenbrock.evaluate(new EuclidianVector(0.5, 2)), target.evaluate(new double[] {0.5, 2}), 0);
+		assertEquals(2, target.getDimensions());
+		assertEquals(rosenbrock.getMaxBounds(), target.getMaxBounds());
+
+		RecordingFunction primitive = new RecordingFunction();
+		assertSame(primitive, DoubleObjectiveFunction.adapt(primitive));
+	}
+}
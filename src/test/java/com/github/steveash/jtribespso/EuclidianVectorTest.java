@@ -167,4 +167,17 @@ public class EuclidianVectorTest {
 			assertEquals(a.get(n) / divisor, actual.get(n), 0.001);
 		}
 	}
+
+	@Test
+	public void toArrayCopiesTest() {
+		double[] data = {1, 2, 3};
+		EuclidianVector target = new EuclidianVector(data);
+		data[0] = 7;
+		double[] copy = target.toArray();
+		copy[1] = 7;
+
+		assertEquals(new EuclidianVector(1, 2, 3), target);
+		assertEquals(new EuclidianVector(1, 2, 3).hashCode(), target.hashCode());
+		assertEquals("EuclidianVector{[1.0, 2.0, 3.0]}", target.toString());
+	}
 }
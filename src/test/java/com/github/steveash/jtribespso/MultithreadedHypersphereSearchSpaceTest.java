@@ -1,18 +1,30 @@
 package com.github.steveash.jtribespso;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Test;
 
 import com.github.steveash.jtribespso.impl.HypersphereParticle;
 import com.github.steveash.jtribespso.impl.MultithreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.metrics.SwarmCounter;
+import com.github.steveash.jtribespso.metrics.SwarmMetrics;
+import com.github.steveash.jtribespso.metrics.SwarmMetricsSnapshot;
 import com.github.steveash.jtribespso.test.Rosenbrock;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 /** 
 This is a test class for MultithreadedHypersphereSearchSpaceTest and is intended
@@ -39,4 +51,126 @@ public class MultithreadedHypersphereSearchSpaceTest extends SearchSpaceTest<Hyp
 	protected SearchSpace<HypersphereParticle> createSearchSpace() {
 		return new MultithreadedHypersphereSearchSpace(pool, new Rosenbrock(), 4);
 	}
+
+	/**
+	 * Hangs on every 25th evaluation with a deadline once stalling is switched on.  New particles are evaluated
+	 * without a deadline, so adaptations aren't held up
+	 */
+	private static class StallingRosenbrock extends Rosenbrock {
+		final AtomicBoolean stalling = new AtomicBoolean();
+		final AtomicInteger calls = new AtomicInteger();
+		final AtomicInteger evaluations = new AtomicInteger();
+
+		@Override
+		public double evaluate(EuclidianVector position) {
+			evaluations.incrementAndGet();
+			if (stalling.get() && onEvaluator() && calls.incrementAndGet() % 25 == 0) {
+				try {
+					Thread.sleep(60000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return super.evaluate(position);
+		}
+	}
+
+	private static boolean onEvaluator() {
+		return Thread.currentThread().getName().startsWith("search-space-evaluator");
+	}
+
+	private SwarmMetricsSnapshot runWithDeadline(boolean speculate) {
+		return runWithDeadline(new StallingRosenbrock(), speculate);
+	}
+
+	private SwarmMetricsSnapshot runWithDeadline(StallingRosenbrock function, boolean speculate) {
+		MultithreadedHypersphereSearchSpace space = new MultithreadedHypersphereSearchSpace(pool, function, 4);
+		space.setMetrics(new SwarmMetrics());
+		space.setEvaluationDeadline(200, TimeUnit.MILLISECONDS, speculate);
+		space.moveThenAdapt();
+
+		function.stalling.set(true);
+		for (int i = 0; i < 20; i++) {
+			long start = System.nanoTime();
+			space.moveThenAdapt();
+			// the stragglers of an iteration wait out their deadlines in parallel
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		}
+		SwarmMetricsSnapshot snapshot = space.getMetrics().snapshot();
+		assertEquals(space.evaluationCount(), snapshot.getCount(SwarmCounter.Evaluations));
+		return snapshot;
+	}
+
+	/**
+	 * Hangs on every evaluation with a deadline and ignores interruption until it's released
+	 */
+	private static class HangingRosenbrock extends Rosenbrock {
+		final AtomicBoolean hanging = new AtomicBoolean();
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger evaluations = new AtomicInteger();
+		final AtomicInteger hung = new AtomicInteger();
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger mostRunning = new AtomicInteger();
+
+		@Override
+		public double evaluate(EuclidianVector position) {
+			evaluations.incrementAndGet();
+			if (hanging.get() && onEvaluator()) {
+				hung.incrementAndGet();
+				int now = running.incrementAndGet();
+				while (mostRunning.get() < now && !mostRunning.compareAndSet(mostRunning.get(), now)) {
+					// retry
+				}
+				Uninterruptibles.awaitUninterruptibly(release);
+				running.decrementAndGet();
+			}
+			return super.evaluate(position);
+		}
+	}
+
+	@Test
+	public void abandonsStragglersTest() {
+		StallingRosenbrock function = new StallingRosenbrock();
+		SwarmMetricsSnapshot snapshot = runWithDeadline(function, false);
+		// the abandoned evaluations are counted too, since each one started before its deadline
+		assertEquals(function.evaluations.get(), snapshot.getCount(SwarmCounter.Evaluations));
+		assertTrue(snapshot.getCount(SwarmCounter.Stragglers) > 0);
+		assertEquals(snapshot.getCount(SwarmCounter.Stragglers), snapshot.getCount(SwarmCounter.AbandonedMoves));
+		assertEquals(0, snapshot.getCount(SwarmCounter.SpeculativeEvaluations));
+	}
+
+	@Test
+	public void speculatesOnStragglersTest() {
+		SwarmMetricsSnapshot snapshot = runWithDeadline(true);
+		assertTrue(snapshot.getCount(SwarmCounter.Stragglers) > 0);
+		assertEquals(snapshot.getCount(SwarmCounter.Stragglers),
+				snapshot.getCount(SwarmCounter.SpeculativeEvaluations));
+		// the duplicate is almost always one of the 24 evaluations out of 25 that don't hang
+		assertTrue(snapshot.getCount(SwarmCounter.AbandonedMoves) < snapshot.getCount(SwarmCounter.Stragglers));
+	}
+
+	@Test
+	public void boundsEvaluatorsTest() {
+		HangingRosenbrock function = new HangingRosenbrock();
+		MultithreadedHypersphereSearchSpace space = new MultithreadedHypersphereSearchSpace(pool, function, 2);
+		space.setMetrics(new SwarmMetrics());
+		space.setEvaluationDeadline(20, TimeUnit.MILLISECONDS, true);
+		space.moveThenAdapt();
+
+		function.hanging.set(true);
+		try {
+			for (int i = 0; i < 10; i++) {
+				space.moveThenAdapt();
+			}
+		} finally {
+			function.release.countDown();
+		}
+		SwarmMetricsSnapshot snapshot = space.getMetrics().snapshot();
+		// four evaluators per move thread, after which every move is given up on without being evaluated
+		assertEquals(8, function.hung.get());
+		assertEquals(8, function.mostRunning.get());
+		assertEquals(function.evaluations.get(), space.evaluationCount());
+		assertEquals(space.evaluationCount(), snapshot.getCount(SwarmCounter.Evaluations));
+		assertTrue(snapshot.getCount(SwarmCounter.AbandonedMoves) > 8);
+	}
 }
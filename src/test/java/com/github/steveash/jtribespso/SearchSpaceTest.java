@@ -2,11 +2,17 @@ package com.github.steveash.jtribespso;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.util.List;
 
 import org.junit.Test;
 
 import com.github.steveash.jtribespso.event.SwarmMovedEvent;
+import com.github.steveash.jtribespso.seed.LatinHypercubeStrategy;
+import com.github.steveash.jtribespso.test.Rosenbrock;
 import com.github.steveash.jtribespso.test.EventHandler;
 import com.google.common.collect.Iterables;
 
@@ -99,4 +105,134 @@ public abstract class SearchSpaceTest<TParticle extends Particle> {
         EuclidianVector onlyPosition = Iterables.getOnlyElement(target.particlePositions());
         assertEquals(onlyPosition, target.bestSolution().getPosition());
 	}
+
+    @Test
+	public void seedWithInitialPositionStrategyTest() {
+		SearchSpace<TParticle> target = createSearchSpace();
+		target.setInitialPositionStrategy(new LatinHypercubeStrategy(), 12);
+		EventHandler eh = EventHandler.make(target.eventBus());
+
+		target.moveThenAdapt();
+		assertEquals(12, target.tribeCount());
+		assertEquals(12, target.swarmSize());
+		assertEquals(0, eh.countForEvent(SwarmMovedEvent.class));
+
+		IObjectiveFunction function = target.goodnessFunction();
+		for (EuclidianVector position : target.particlePositions()) {
+			for (int n = 0; n < position.getDimensions(); n++) {
+				assertTrue(position.get(n) >= function.getMinBounds().get(n));
+				assertTrue(position.get(n) <= function.getMaxBounds().get(n));
+			}
+		}
+		//Every seeded tribe is linked into the ring so that it has someone to learn from
+		for (Tribe tribe : target.tribes()) {
+			assertEquals(2, tribe.externalLinkCount());
+		}
+
+		target.moveThenAdapt();
+		assertEquals(1, eh.countForEvent(SwarmMovedEvent.class));
+	}
+
+    @Test
+	public void evaluationCountTest() {
+		SearchSpace<TParticle> target = createSearchSpace();
+		Rosenbrock function = (Rosenbrock) target.goodnessFunction();
+		assertEquals(0, target.evaluationCount());
+
+		for (int n = 0; n < 50; n++) {
+			target.moveThenAdapt();
+			assertEquals(function.getEvaluations(), target.evaluationCount());
+		}
+		assertEquals(49, target.iterationCount());
+		assertTrue(target.adaptationCount() > 0);
+		assertTrue(target.swarmRadius() > 0);
+	}
+
+    @Test
+	public void checkpointRoundtripTest() throws IOException {
+		SearchSpace<TParticle> original = createSearchSpace();
+		for (int n = 0; n < 40; n++) {
+			original.moveThenAdapt();
+		}
+		byte[] checkpoint = writeCheckpoint(original);
+
+		SearchSpace<TParticle> restored = createSearchSpace();
+		Rosenbrock function = (Rosenbrock) restored.goodnessFunction();
+		SwarmCheckpoint.restore(restored, Channels.newChannel(new ByteArrayInputStream(checkpoint)));
+
+		//Restoring doesn't evaluate anything
+		assertEquals(0, function.getEvaluations());
+		assertEquals(original.evaluationCount(), restored.evaluationCount());
+		assertEquals(original.iterationCount(), restored.iterationCount());
+		assertEquals(original.adaptationCount(), restored.adaptationCount());
+		assertEquals(original.tribeCount(), restored.tribeCount());
+		assertEquals(original.swarmSize(), restored.swarmSize());
+		assertEquals(original.bestSolution().getError(), restored.bestSolution().getError(), 0);
+
+		for (int t = 0; t < original.tribeCount(); t++) {
+			Tribe expectedTribe = original.tribes().get(t);
+			Tribe actualTribe = restored.tribes().get(t);
+			assertEquals(expectedTribe.isGood(), actualTribe.isGood());
+			assertEquals(expectedTribe.externalLinkCount(), actualTribe.externalLinkCount());
+			for (int p = 0; p < expectedTribe.memberCount(); p++) {
+				Particle expected = expectedTribe.tribeMembers().get(p);
+				Particle actual = actualTribe.tribeMembers().get(p);
+				assertEquals(expected.getPosition(), actual.getPosition());
+				assertEquals(expected.getCurrentError(), actual.getCurrentError(), 0);
+				assertEquals(expected.bestSolution().getPosition(), actual.bestSolution().getPosition());
+				assertEquals(expected.bestSolution().getError(), actual.bestSolution().getError(), 0);
+				assertEquals(expected.isGood(), actual.isGood());
+				assertEquals(expected.isExcellent(), actual.isExcellent());
+				assertEquals(expected.getMotionState(), actual.getMotionState());
+				assertSame(actualTribe, actual.getParent());
+			}
+		}
+
+		//Everything that was saved, including the random number generator states and the order of the links, comes
+		//back exactly as it was
+		assertArrayEquals(checkpoint, writeCheckpoint(restored));
+
+		for (int n = 0; n < 10; n++) {
+			restored.moveThenAdapt();
+		}
+		assertEquals(function.getEvaluations(), restored.evaluationCount() - original.evaluationCount());
+	}
+
+    @Test
+	public void hotStartTest() throws IOException {
+		SearchSpace<TParticle> original = createSearchSpace();
+		for (int n = 0; n < 40; n++) {
+			original.moveThenAdapt();
+		}
+		byte[] checkpoint = writeCheckpoint(original);
+
+		SearchSpace<TParticle> restarted = createSearchSpace();
+		Rosenbrock function = (Rosenbrock) restarted.goodnessFunction();
+		SwarmCheckpoint.hotStart(restarted, Channels.newChannel(new ByteArrayInputStream(checkpoint)));
+
+		//Every particle is re-evaluated at the best position it had found
+		assertEquals(original.swarmSize(), function.getEvaluations());
+		assertEquals(original.swarmSize(), restarted.evaluationCount());
+		assertEquals(0, restarted.iterationCount());
+		assertEquals(original.tribeCount(), restarted.tribeCount());
+		assertEquals(original.bestSolution().getError(), restarted.bestSolution().getError(), 0);
+		for (int t = 0; t < original.tribeCount(); t++) {
+			Tribe expectedTribe = original.tribes().get(t);
+			Tribe actualTribe = restarted.tribes().get(t);
+			assertEquals(expectedTribe.externalLinkCount(), actualTribe.externalLinkCount());
+			for (int p = 0; p < expectedTribe.memberCount(); p++) {
+				assertEquals(expectedTribe.tribeMembers().get(p).bestSolution().getPosition(),
+						actualTribe.tribeMembers().get(p).getPosition());
+			}
+		}
+
+		restarted.moveThenAdapt();
+		assertEquals(1, restarted.iterationCount());
+	}
+
+	private static byte[] writeCheckpoint(SearchSpace<?> space) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		SwarmCheckpoint.write(space, Channels.newChannel(bytes));
+		return bytes.toByteArray();
+	}
 }
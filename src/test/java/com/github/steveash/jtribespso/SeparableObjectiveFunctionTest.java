@@ -0,0 +1,146 @@
+package com.github.steveash.jtribespso;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.impl.HypersphereParticle;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.google.common.collect.ImmutableList;
+
+/**
+This is a test class for SeparableObjectiveFunction and is intended
+to contain all SeparableObjectiveFunction and IIncrementalObjectiveFunction Unit Tests
+*/
+public class SeparableObjectiveFunctionTest {
+
+	/**
+	 * sum((x - 1)^2), counting full evaluations and incremental updates
+	 */
+	private static class CountingSeparable extends SeparableObjectiveFunction {
+		final int dimensions;
+		int fullEvaluations = 0;
+		int updates = 0;
+
+		CountingSeparable(int dimensions) {
+			this.dimensions = dimensions;
+		}
+
+		@Override
+		protected double term(int dimension, double x) {
+			return (x - 1) * (x - 1);
+		}
+
+		@Override
+		public double evaluate(double[] x) {
+			fullEvaluations += 1;
+			return super.evaluate(x);
+		}
+
+		@Override
+		public double evaluateChange(EuclidianVector previous, double previousError, int[] changed, double[] values) {
+			updates += 1;
+			return super.evaluateChange(previous, previousError, changed, values);
+		}
+
+		@Override
+		public int getDimensions() {
+			return dimensions;
+		}
+
+		@Override
+		public EuclidianVector getMinBounds() {
+			return EuclidianVector.multiply(getMaxBounds(), -1);
+		}
+
+		@Override
+		public EuclidianVector getMaxBounds() {
+			double[] bounds = new double[dimensions];
+			Arrays.fill(bounds, 10);
+			return new EuclidianVector(bounds);
+		}
+
+		@Override
+		public EuclidianVector getInitialGuess() {
+			return null;
+		}
+	}
+
+	/**
+	 * Moves one coordinate at a time halfway towards the best informer, like a coordinate-wise search
+	 */
+	private static class CoordinateParticle extends Particle {
+		CoordinateParticle(IObjectiveFunction function, EuclidianVector position) {
+			super(function, position, new HyperspaceRandom(11));
+		}
+
+		@Override
+		protected EuclidianVector calculateNewPosition(Solution bestInformerSolution) {
+			double[] next = getPosition().toArray();
+			int n = getRandomNumberGenerator().nextInt(next.length);
+			next[n] = (next[n] + bestInformerSolution.getPosition().get(n)) / 2 +
+					getRandomNumberGenerator().nextGaussian(0, 0.1);
+			return new EuclidianVector(next);
+		}
+	}
+
+	private static EuclidianVector filled(int dimensions, double value) {
+		double[] x = new double[dimensions];
+		Arrays.fill(x, value);
+		return new EuclidianVector(x);
+	}
+
+	@Test
+	public void evaluateChangeMatchesEvaluateTest() {
+		CountingSeparable function = new CountingSeparable(5);
+		EuclidianVector previous = new EuclidianVector(0, 1, 2, 3, 4);
+		double previousError = function.evaluate(previous);
+		double updated = function.evaluateChange(previous, previousError, new int[] { 1, 4 }, new double[] { -2, 1 });
+		assertEquals(function.evaluate(new EuclidianVector(0, -2, 2, 3, 1)), updated, 1e-12);
+	}
+
+	/**
+	 * A particle that only changes a coordinate per move updates its error instead of evaluating it, and falls back
+	 * to a full evaluation every so often to keep the rounding errors in check
+	 */
+	@Test
+	public void sparseMovesUpdateTest() {
+		CountingSeparable function = new CountingSeparable(200);
+		Particle best = new CoordinateParticle(function, filled(200, 1));
+		Particle mover = new CoordinateParticle(function, filled(200, -5));
+		new Tribe(ImmutableList.of(best, mover));
+		int initialEvaluations = function.fullEvaluations;
+
+		int moves = 650;
+		for (int i = 0; i < moves; i++) {
+			mover.move();
+		}
+		int fullEvaluations = function.fullEvaluations - initialEvaluations;
+		assertEquals(moves / (Particle.MaxIncrementalUpdates + 1), fullEvaluations);
+		assertEquals(moves - fullEvaluations, function.updates);
+
+		double exact = function.evaluate(mover.getPosition());
+		assertEquals(exact, mover.getCurrentError(), 1e-9 * exact);
+		assertEquals(function.evaluate(mover.bestSolution().getPosition()), mover.bestSolution().getError(),
+				1e-9 * exact);
+	}
+
+	/**
+	 * Hypersphere moves change every coordinate, so they are always evaluated in full
+	 */
+	@Test
+	public void denseMovesEvaluateTest() {
+		CountingSeparable function = new CountingSeparable(20);
+		Particle best = new HypersphereParticle(function, filled(20, 1), new HyperspaceRandom(3));
+		Particle mover = new HypersphereParticle(function, filled(20, -5), new HyperspaceRandom(4));
+		new Tribe(ImmutableList.of(best, mover));
+		for (int i = 0; i < 20; i++) {
+			mover.move();
+		}
+		assertEquals(0, function.updates);
+		assertTrue(function.fullEvaluations >= 20);
+	}
+}
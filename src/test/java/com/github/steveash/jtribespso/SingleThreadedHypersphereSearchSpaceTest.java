@@ -1,6 +1,11 @@
 package com.github.steveash.jtribespso;
 
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
 import com.github.steveash.jtribespso.impl.HypersphereParticle;
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
 import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
 import com.github.steveash.jtribespso.test.Rosenbrock;
 
@@ -14,4 +19,20 @@ public class SingleThreadedHypersphereSearchSpaceTest extends SearchSpaceTest<Hy
 	protected SearchSpace<HypersphereParticle> createSearchSpace() {
 		return new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
 	}
+
+	@Test
+	public void sameSeedIsReproducibleTest() {
+		ISearchSpaceFactory factory = SearchSpaceFactories.singleThreadedHypersphere();
+		SearchSpace<?> first = factory.create(new Rosenbrock(), 42);
+		SearchSpace<?> second = factory.create(new Rosenbrock(), 42);
+
+		for (int n = 0; n < 50; n++) {
+			first.moveThenAdapt();
+			second.moveThenAdapt();
+		}
+
+		assertEquals(first.evaluationCount(), second.evaluationCount());
+		assertEquals(first.bestSolution().getError(), second.bestSolution().getError(), 0);
+		assertEquals(first.bestSolution().getPosition(), second.bestSolution().getPosition());
+	}
 }
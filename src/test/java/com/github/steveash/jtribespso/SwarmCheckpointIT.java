@@ -0,0 +1,78 @@
+package com.github.steveash.jtribespso;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.jtribespso.gauss.GaussianFitFunction;
+import com.github.steveash.jtribespso.gauss.GaussianIT;
+import com.github.steveash.jtribespso.impl.MultithreadedGaussianSearchSpace;
+import com.github.steveash.jtribespso.seed.UniformStrategy;
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Times checkpointing a swarm of 100,000 particles on the gaussian fit problem and compares restoring it against
+ * hot starting it, which has to re-evaluate every particle
+ */
+public class SwarmCheckpointIT {
+    private static final Logger log = LoggerFactory.getLogger(SwarmCheckpointIT.class);
+
+    private static final int ParticleCount = 100000;
+    private static final int Threads = 4;
+    // generous, so slow build machines don't fail; restores take about a second on a single core
+    private static final long RestoreLimitMillis = 5000;
+
+    @Test
+    public void shouldRestoreLargeSwarmQuickly() throws Exception {
+        List<double[]> fitData = GaussianIT.parseFitData("gauss-data.txt");
+        ListeningExecutorService pool = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(Threads));
+        Path file = Files.createTempFile("swarm", ".ckpt");
+        try {
+            SearchSpace<?> original = new MultithreadedGaussianSearchSpace(pool,
+                    new GaussianFitFunction(2, fitData), Threads);
+            original.setInitialPositionStrategy(new UniformStrategy(), ParticleCount);
+
+            Stopwatch watch = Stopwatch.createStarted();
+            original.moveThenAdapt();
+            log.info("seeded {} particles in {} ms", original.swarmSize(), watch.elapsed(TimeUnit.MILLISECONDS));
+
+            watch = Stopwatch.createStarted();
+            SwarmCheckpoint.write(original, file);
+            log.info("wrote a {} KB checkpoint in {} ms", Files.size(file) / 1024, watch.elapsed(TimeUnit.MILLISECONDS));
+
+            long fastestRestore = Long.MAX_VALUE;
+            for (int n = 0; n < 3; n++) {
+                SearchSpace<?> restored = new MultithreadedGaussianSearchSpace(pool,
+                        new GaussianFitFunction(2, fitData), Threads);
+                watch = Stopwatch.createStarted();
+                SwarmCheckpoint.restore(restored, file);
+                long elapsed = watch.elapsed(TimeUnit.MILLISECONDS);
+                log.info("restored in {} ms", elapsed);
+                assertEquals(ParticleCount, restored.swarmSize());
+                fastestRestore = Math.min(fastestRestore, elapsed);
+            }
+            assertTrue("restoring took " + fastestRestore + " ms", fastestRestore < RestoreLimitMillis);
+
+            SearchSpace<?> restarted = new MultithreadedGaussianSearchSpace(pool,
+                    new GaussianFitFunction(2, fitData), Threads);
+            watch = Stopwatch.createStarted();
+            SwarmCheckpoint.hotStart(restarted, file);
+            log.info("hot started (re-evaluating every particle) in {} ms", watch.elapsed(TimeUnit.MILLISECONDS));
+            assertEquals(ParticleCount, restarted.swarmSize());
+        } finally {
+            pool.shutdownNow();
+            Files.deleteIfExists(file);
+        }
+    }
+}
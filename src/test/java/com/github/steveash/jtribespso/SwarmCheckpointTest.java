@@ -0,0 +1,142 @@
+package com.github.steveash.jtribespso;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.steveash.jtribespso.exception.CorruptCheckpointException;
+import com.github.steveash.jtribespso.exception.DimensionMismatchException;
+import com.github.steveash.jtribespso.impl.HypersphereParticle;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+
+/**
+This is a test class for SwarmCheckpoint and is intended
+to contain the SwarmCheckpoint Unit Tests that don't depend on the search space implementation
+*/
+public class SwarmCheckpointTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void fileRoundtripTest() throws IOException {
+		SearchSpace<HypersphereParticle> original = movedSearchSpace();
+		Path file = folder.newFile("swarm.ckpt").toPath();
+		SwarmCheckpoint.write(original, file);
+
+		SearchSpace<HypersphereParticle> restored = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		SwarmCheckpoint.restore(restored, file);
+
+		assertEquals(original.swarmSize(), restored.swarmSize());
+		assertEquals(original.bestSolution().getPosition(), restored.bestSolution().getPosition());
+	}
+
+	@Test
+	public void corruptionIsDetectedTest() throws IOException {
+		byte[] checkpoint = writeCheckpoint(movedSearchSpace());
+
+		for (int n = 16; n < checkpoint.length; n += 7) {
+			byte[] corrupt = checkpoint.clone();
+			corrupt[n] ^= 0x10;
+			assertRestoreFails(corrupt);
+		}
+	}
+
+	@Test
+	public void truncationIsDetectedTest() throws IOException {
+		byte[] checkpoint = writeCheckpoint(movedSearchSpace());
+
+		for (int length = 0; length < checkpoint.length; length += 5) {
+			assertRestoreFails(Arrays.copyOf(checkpoint, length));
+		}
+	}
+
+	@Test
+	public void unsupportedVersionTest() throws IOException {
+		byte[] checkpoint = writeCheckpoint(movedSearchSpace());
+		checkpoint[7] = (byte) (SwarmCheckpoint.FormatVersion + 1);
+
+		assertRestoreFails(checkpoint);
+	}
+
+	@Test(expected = DimensionMismatchException.class)
+	public void dimensionMismatchTest() throws IOException {
+		byte[] checkpoint = writeCheckpoint(movedSearchSpace());
+		IObjectiveFunction threeDimensions = new IObjectiveFunction() {
+			@Override
+			public int getDimensions() {
+				return 3;
+			}
+
+			@Override
+			public EuclidianVector getMinBounds() {
+				return new EuclidianVector(-1, -1, -1);
+			}
+
+			@Override
+			public EuclidianVector getMaxBounds() {
+				return new EuclidianVector(1, 1, 1);
+			}
+
+			@Override
+			public EuclidianVector getInitialGuess() {
+				return null;
+			}
+
+			@Override
+			public double evaluate(EuclidianVector position) {
+				return position.magnitude();
+			}
+		};
+
+		SwarmCheckpoint.restore(new SingleThreadedHypersphereSearchSpace(threeDimensions),
+				Channels.newChannel(new ByteArrayInputStream(checkpoint)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void restoreIntoSeededSpaceTest() throws IOException {
+		byte[] checkpoint = writeCheckpoint(movedSearchSpace());
+
+		SwarmCheckpoint.restore(movedSearchSpace(), Channels.newChannel(new ByteArrayInputStream(checkpoint)));
+	}
+
+	private static void assertRestoreFails(byte[] checkpoint) {
+		SearchSpace<HypersphereParticle> target = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		try {
+			SwarmCheckpoint.restore(target, Channels.newChannel(new ByteArrayInputStream(checkpoint)));
+			fail("Restored a corrupt checkpoint");
+		} catch (CorruptCheckpointException e) {
+			//A checkpoint that fails to restore leaves the search space alone
+			assertEquals(0, target.swarmSize());
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		assertTrue(target.tribes().isEmpty());
+	}
+
+	private static SearchSpace<HypersphereParticle> movedSearchSpace() {
+		SearchSpace<HypersphereParticle> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		for (int n = 0; n < 40; n++) {
+			space.moveThenAdapt();
+		}
+		return space;
+	}
+
+	private static byte[] writeCheckpoint(SearchSpace<?> space) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		SwarmCheckpoint.write(space, Channels.newChannel(bytes));
+		return bytes.toByteArray();
+	}
+}
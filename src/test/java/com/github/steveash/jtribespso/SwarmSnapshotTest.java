@@ -0,0 +1,170 @@
+package com.github.steveash.jtribespso;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.impl.HypersphereParticle;
+import com.github.steveash.jtribespso.impl.MultithreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+This is a test class for SwarmSnapshot and is intended
+to contain all SwarmSnapshot Unit Tests
+*/
+public class SwarmSnapshotTest {
+
+	@Test
+	public void disabledByDefaultTest() {
+		SearchSpace<HypersphereParticle> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		space.moveThenAdapt();
+		space.moveThenAdapt();
+		assertNull(space.getSnapshot());
+	}
+
+	/**
+	 * A snapshot holds the same particles, tribes and best solution as the search space it was taken of
+	 */
+	@Test
+	public void matchesSearchSpaceTest() {
+		SearchSpace<HypersphereParticle> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		space.setSnapshotsEnabled(true);
+		space.moveThenAdapt();
+		assertEquals(0, space.getSnapshot().getIteration());
+		for (int i = 0; i < 50; i++) {
+			space.moveThenAdapt();
+		}
+		SwarmSnapshot snapshot = space.getSnapshot();
+
+		assertEquals(space.iterationCount(), snapshot.getIteration());
+		assertEquals(space.adaptationCount(), snapshot.getAdaptations());
+		assertEquals(space.evaluationCount(), snapshot.getEvaluations());
+		assertEquals(space.tribeCount(), snapshot.getTribeCount());
+		assertEquals(space.swarmSize(), snapshot.getParticleCount());
+		assertEquals(space.bestSolution().getError(), snapshot.getBestSolution().getError(), 0.0);
+		assertEquals(Lists.newArrayList(space.particlePositions()), snapshot.getPositions());
+
+		int particle = 0;
+		for (int t = 0; t < space.tribeCount(); t++) {
+			Tribe tribe = space.tribes().get(t);
+			assertEquals(particle, snapshot.getFirstMember(t));
+			assertEquals(tribe.memberCount(), snapshot.getMemberCount(t));
+			assertEquals(tribe.isGood(), snapshot.isGood(t));
+			assertEquals(tribe.externalLinkCount(), snapshot.getInformers(t).size());
+			assertSame(tribe.getShaman().bestSolution(), snapshot.getBestSolution(snapshot.getShaman(t)));
+			for (Particle member : tribe.tribeMembers()) {
+				assertEquals(member.getId(), snapshot.getParticleId(particle));
+				assertEquals(t, snapshot.getTribeOf(particle));
+				assertEquals(member.getCurrentError(), snapshot.getCurrentError(particle), 0.0);
+				particle += 1;
+			}
+		}
+	}
+
+	/**
+	 * Snapshots of moves share the topology until the swarm adapts
+	 */
+	@Test
+	public void topologySharedUntilAdaptationTest() {
+		SearchSpace<HypersphereParticle> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		space.setSnapshotsEnabled(true);
+		space.moveThenAdapt();
+		int shared = 0;
+		int adapted = 0;
+		for (int i = 0; i < 100; i++) {
+			SwarmSnapshot before = space.getSnapshot();
+			space.moveThenAdapt();
+			SwarmSnapshot after = space.getSnapshot();
+			if (after.getAdaptations() == before.getAdaptations()) {
+				assertTrue(after.hasSameTopology(before));
+				shared += 1;
+			} else {
+				assertFalse(after.hasSameTopology(before));
+				adapted += 1;
+			}
+		}
+		assertTrue(shared > 0);
+		assertTrue(adapted > 0);
+	}
+
+	/**
+	 * Readers on another thread always see consistent snapshots while a multithreaded swarm is moving
+	 */
+	@Test
+	public void concurrentReadersTest() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		ExecutorService reader = Executors.newSingleThreadExecutor();
+		try {
+			final SearchSpace<HypersphereParticle> space =
+					new MultithreadedHypersphereSearchSpace(MoreExecutors.listeningDecorator(pool), new Rosenbrock(), 4);
+			space.setSnapshotsEnabled(true);
+			final AtomicBoolean done = new AtomicBoolean();
+			final AtomicReference<Throwable> failure = new AtomicReference<>();
+			final List<Long> iterations = Lists.newArrayList();
+			reader.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						double bestError = Double.POSITIVE_INFINITY;
+						while (!done.get()) {
+							SwarmSnapshot snapshot = space.getSnapshot();
+							if (snapshot == null) {
+								continue;
+							}
+							iterations.add(snapshot.getIteration());
+							assertTrue(snapshot.getBestSolution().getError() <= bestError);
+							bestError = snapshot.getBestSolution().getError();
+							int particles = 0;
+							for (int t = 0; t < snapshot.getTribeCount(); t++) {
+								int first = snapshot.getFirstMember(t);
+								int shaman = snapshot.getShaman(t);
+								assertTrue(shaman >= first && shaman < first + snapshot.getMemberCount(t));
+								for (int informer : snapshot.getInformers(t)) {
+									assertTrue(informer >= 0 && informer < snapshot.getTribeCount());
+								}
+								particles += snapshot.getMemberCount(t);
+							}
+							assertEquals(snapshot.getParticleCount(), particles);
+							assertEquals(particles, snapshot.getPositions().size());
+						}
+					} catch (Throwable e) {
+						failure.set(e);
+					}
+				}
+			});
+			for (int i = 0; i < 200; i++) {
+				space.moveThenAdapt();
+			}
+			done.set(true);
+			reader.shutdown();
+			assertTrue(reader.awaitTermination(1, TimeUnit.MINUTES));
+
+			if (failure.get() != null) {
+				throw new AssertionError(failure.get());
+			}
+			assertNotNull(space.getSnapshot());
+			assertEquals(199, space.getSnapshot().getIteration());
+			for (int i = 1; i < iterations.size(); i++) {
+				assertTrue(iterations.get(i) >= iterations.get(i - 1));
+			}
+		} finally {
+			pool.shutdownNow();
+			reader.shutdownNow();
+		}
+	}
+}
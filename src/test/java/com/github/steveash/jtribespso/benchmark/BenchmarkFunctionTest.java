@@ -0,0 +1,94 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IIncrementalObjectiveFunction;
+
+/**
+This is a test class for the benchmark functions and is intended
+to contain all BenchmarkFunction Unit Tests
+*/
+public class BenchmarkFunctionTest {
+
+	private static final int Dimensions = 7;
+
+	private static EuclidianVector fill(double value) {
+		double[] position = new double[Dimensions];
+		Arrays.fill(position, value);
+		return new EuclidianVector(position);
+	}
+
+	@Test
+	public void optimumIsZeroTest() {
+		BenchmarkFunction[] functions = {new Sphere(Dimensions), new Rastrigin(Dimensions), new Ackley(Dimensions),
+				new Griewank(Dimensions)};
+		for (BenchmarkFunction function : functions) {
+			assertEquals(function.getName(), 0, function.evaluate(fill(0)), 1e-12);
+			assertTrue(function.getName(), function.evaluate(fill(0.5)) > 0.1);
+		}
+		Schwefel schwefel = new Schwefel(Dimensions);
+		assertEquals(0, schwefel.evaluate(fill(Schwefel.Optimum)), 1e-4);
+		assertTrue(schwefel.evaluate(fill(0)) > 100);
+	}
+
+	@Test
+	public void knownValuesTest() {
+		assertEquals(7, new Sphere(Dimensions).evaluate(fill(1)), 1e-12);
+		assertEquals(7, new Rastrigin(Dimensions).evaluate(fill(1)), 1e-9);
+		assertEquals("rastrigin-7", new Rastrigin(Dimensions).getName());
+		assertEquals(-5.12, new Rastrigin(Dimensions).getMinBounds().get(3), 0);
+	}
+
+	@Test
+	public void incrementalUpdateTest() {
+		BenchmarkFunction[] functions = {new Sphere(Dimensions), new Rastrigin(Dimensions)};
+		EuclidianVector previous = new EuclidianVector(0.5, -1, 2, 0.25, -3, 1.5, 4);
+		EuclidianVector changed = new EuclidianVector(0.5, 3, 2, 0.25, -0.75, 1.5, 4);
+		for (BenchmarkFunction function : functions) {
+			double updated = ((IIncrementalObjectiveFunction) function).evaluateChange(previous,
+					function.evaluate(previous), new int[] { 1, 4 }, new double[] { 3, -0.75 });
+			assertEquals(function.getName(), function.evaluate(changed), updated, 1e-9);
+		}
+	}
+
+	@Test
+	public void shiftedOptimumTest() {
+		TransformedFunction target = TransformedFunction.shifted(new Rastrigin(Dimensions), 5);
+		double[] optimum = target.getOptimum();
+
+		assertEquals("shifted-rastrigin-7", target.getName());
+		assertEquals(0, target.evaluate(new EuclidianVector(optimum)), 1e-12);
+		assertTrue(target.evaluate(fill(0)) > 1);
+		for (double coordinate : optimum) {
+			assertTrue(Math.abs(coordinate) <= 0.8 * 5.12);
+		}
+		assertEquals(Arrays.toString(optimum),
+				Arrays.toString(TransformedFunction.shifted(new Rastrigin(Dimensions), 5).getOptimum()));
+	}
+
+	@Test
+	public void rotationIsOrthogonalTest() {
+		double[][] rotation = TransformedFunction.randomRotation(Dimensions, 11);
+		for (int i = 0; i < Dimensions; i++) {
+			for (int j = 0; j < Dimensions; j++) {
+				double dot = 0;
+				for (int k = 0; k < Dimensions; k++) {
+					dot += rotation[i][k] * rotation[j][k];
+				}
+				assertEquals(i == j ? 1 : 0, dot, 1e-12);
+			}
+		}
+
+		//rotations preserve distances, so a rotated sphere is still a sphere
+		TransformedFunction sphere = TransformedFunction.rotated(new Sphere(Dimensions), 11);
+		assertEquals(7, sphere.evaluate(fill(1)), 1e-9);
+		TransformedFunction rastrigin = TransformedFunction.shiftedAndRotated(new Rastrigin(Dimensions), 11);
+		assertEquals(0, rastrigin.evaluate(new EuclidianVector(rastrigin.getOptimum())), 1e-12);
+	}
+}
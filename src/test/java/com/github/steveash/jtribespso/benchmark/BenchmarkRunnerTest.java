@@ -0,0 +1,65 @@
+package com.github.steveash.jtribespso.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+This is a test class for BenchmarkRunner and is intended
+to contain all BenchmarkRunner Unit Tests
+*/
+public class BenchmarkRunnerTest {
+
+	@Test
+	public void medianTest() {
+		assertEquals(2, BenchmarkResult.median(new double[] {3, 1, 2}), 0);
+		assertEquals(2.5, BenchmarkResult.median(new double[] {4, 1, 2, 3}), 0);
+		assertTrue(Double.isInfinite(BenchmarkResult.median(
+				new double[] {1, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY})));
+	}
+
+	@Test
+	public void runAndWriteCsvTest() throws Exception {
+		ListeningExecutorService pool = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(2));
+		try {
+			BenchmarkRunner target = new BenchmarkRunner(3, 1, 20000)
+					.addProblem(new BenchmarkProblem(new Sphere(2), 1e-3))
+					.addProblem(new BenchmarkProblem("impossible", new Sphere(2), 0))
+					.addSearchSpace(SearchSpaceFactories.singleThreadedHypersphere())
+					.addSearchSpace(SearchSpaceFactories.singleThreadedGaussian());
+			List<BenchmarkResult> results = target.run(pool);
+
+			assertEquals(4, results.size());
+			BenchmarkResult solved = results.get(0);
+			assertEquals("sphere-2", solved.getProblem());
+			assertEquals("SingleThreadedHypersphere", solved.getSearchSpace());
+			assertEquals(3, solved.getRuns());
+			assertEquals(1.0, solved.getSuccessRate(), 0);
+			assertTrue(solved.getMedianEvaluations() > 0 && solved.getMedianEvaluations() <= 20000);
+			assertTrue(solved.getMedianFinalError() <= 1e-3);
+
+			BenchmarkResult failed = results.get(3);
+			assertEquals("impossible", failed.getProblem());
+			assertEquals(0, failed.getSuccessRate(), 0);
+			assertTrue(Double.isInfinite(failed.getMedianEvaluations()));
+
+			StringBuilder csv = new StringBuilder();
+			BenchmarkRunner.writeCsv(results, csv);
+			String[] lines = csv.toString().split("\n");
+			assertEquals(5, lines.length);
+			assertEquals(BenchmarkResult.CsvHeader, lines[0]);
+			assertTrue(lines[1], lines[1].startsWith("sphere-2,SingleThreadedHypersphere,2,0.00100000,3,1.000,"));
+			assertTrue(lines[4], lines[4].startsWith("impossible,SingleThreadedGaussian,2,0,3,0.000,inf,inf,"));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
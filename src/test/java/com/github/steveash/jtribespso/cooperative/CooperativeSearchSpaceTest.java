@@ -0,0 +1,148 @@
+package com.github.steveash.jtribespso.cooperative;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.benchmark.Rastrigin;
+import com.github.steveash.jtribespso.benchmark.Sphere;
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
+import com.github.steveash.jtribespso.optimizer.Optimizer;
+import com.github.steveash.jtribespso.optimizer.OptimizerResult;
+import com.github.steveash.jtribespso.optimizer.StopCriteria;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.github.steveash.jtribespso.rand.IRandom;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+This is a test class for CooperativeSearchSpace and is intended
+to contain all CooperativeSearchSpace and DimensionGroupings Unit Tests
+*/
+public class CooperativeSearchSpaceTest {
+
+	private static void assertPartition(List<int[]> groups, int dimensions, int groupSize) {
+		boolean[] seen = new boolean[dimensions];
+		for (int[] group : groups) {
+			assertTrue(group.length > 0 && group.length <= groupSize);
+			for (int dimension : group) {
+				assertFalse(seen[dimension]);
+				seen[dimension] = true;
+			}
+		}
+		for (boolean covered : seen) {
+			assertTrue(covered);
+		}
+	}
+
+	@Test
+	public void groupingsPartitionTest() {
+		HyperspaceRandom rng = new HyperspaceRandom(7);
+		List<int[]> contiguous = DimensionGroupings.contiguous(4).group(10, rng);
+		assertEquals(3, contiguous.size());
+		assertTrue(Arrays.equals(new int[] { 4, 5, 6, 7 }, contiguous.get(1)));
+		assertTrue(Arrays.equals(new int[] { 8, 9 }, contiguous.get(2)));
+
+		IDimensionGrouping random = DimensionGroupings.random(7);
+		List<int[]> first = random.group(100, rng);
+		List<int[]> second = random.group(100, rng);
+		assertPartition(first, 100, 7);
+		assertPartition(second, 100, 7);
+		assertFalse(Arrays.equals(first.get(0), second.get(0)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void incompleteGroupingTest() {
+		CooperativeSearchSpace space = new CooperativeSearchSpace(new Sphere(4), new IDimensionGrouping() {
+			@Override
+			public List<int[]> group(int dimensions, IRandom rng) {
+				return Arrays.asList(new int[] { 0, 1 }, new int[] { 3 });
+			}
+		}, SearchSpaceFactories.singleThreadedHypersphere(), MoreExecutors.sameThreadExecutor());
+		space.moveThenAdapt();
+	}
+
+	/**
+	 * The context only ever gets better and the totals add up over the sub-swarms
+	 */
+	@Test
+	public void highDimensionalSphereTest() {
+		CooperativeSearchSpace space = new CooperativeSearchSpace(new Sphere(300), 10);
+		space.moveThenAdapt();
+		assertEquals(30, space.getSubcomponentSwarms().size());
+		assertEquals(0, space.iterationCount());
+		double start = space.bestSolution().getError();
+
+		double previous = start;
+		for (int i = 0; i < 60; i++) {
+			space.moveThenAdapt();
+			double error = space.bestSolution().getError();
+			assertTrue(error <= previous);
+			previous = error;
+		}
+		assertEquals(60, space.iterationCount());
+		assertTrue("cooperation should shrink the error tenfold, got " + previous + " from " + start,
+				previous < start / 10);
+		assertEquals(previous, new Sphere(300).evaluate(space.bestSolution().getPosition()), 0.0);
+
+		long subEvaluations = 0;
+		int particles = 0;
+		for (int i = 0; i < space.getSubcomponentSwarms().size(); i++) {
+			subEvaluations += space.getSubcomponentSwarms().get(i).evaluationCount();
+			particles += space.getSubcomponentSwarms().get(i).swarmSize();
+		}
+		assertTrue(space.evaluationCount() > subEvaluations);
+		assertEquals(particles, space.swarmSize());
+	}
+
+	/**
+	 * Parallel sub-swarms over random groups that are reshuffled every few cycles
+	 */
+	@Test
+	public void parallelRandomRegroupingTest() {
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		try {
+			Rastrigin function = new Rastrigin(120);
+			CooperativeSearchSpace space = new CooperativeSearchSpace(function, DimensionGroupings.random(8),
+					SearchSpaceFactories.singleThreadedHypersphere(), MoreExecutors.listeningDecorator(pool));
+			space.setRegroupInterval(5);
+			space.moveThenAdapt();
+			double start = space.bestSolution().getError();
+			List<int[]> firstGroups = space.getGroups();
+			assertPartition(firstGroups, 120, 8);
+
+			double previous = start;
+			long evaluations = space.evaluationCount();
+			for (int i = 0; i < 40; i++) {
+				space.moveThenAdapt();
+				assertTrue(space.bestSolution().getError() <= previous);
+				previous = space.bestSolution().getError();
+				// the totals carry over the sub-swarms that were replaced
+				assertTrue(space.evaluationCount() > evaluations);
+				evaluations = space.evaluationCount();
+			}
+			assertPartition(space.getGroups(), 120, 8);
+			assertFalse(Arrays.equals(firstGroups.get(0), space.getGroups().get(0)));
+			assertTrue(previous < start / 2);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void optimizerTest() {
+		CooperativeSearchSpace space = new CooperativeSearchSpace(new Sphere(100), 10);
+		OptimizerResult result = new Optimizer(space, StopCriteria.maxEvaluations(20000)).run();
+
+		assertSame(space.bestSolution(), result.getBestSolution());
+		assertTrue(result.getEvaluations() >= 20000);
+		assertTrue(result.getIterations() > 0);
+	}
+}
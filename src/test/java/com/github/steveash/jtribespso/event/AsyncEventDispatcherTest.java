@@ -0,0 +1,159 @@
+package com.github.steveash.jtribespso.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+import com.google.common.collect.Lists;
+
+/**
+This is a test class for AsyncEventDispatcher and is intended
+to contain all AsyncEventDispatcher Unit Tests
+*/
+public class AsyncEventDispatcherTest {
+
+	private static class RecordingListener implements ISwarmEventListener {
+		final List<SwarmSummaryEvent> received = Lists.newCopyOnWriteArrayList();
+		final CountDownLatch release;
+
+		RecordingListener(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void onEvent(SwarmSummaryEvent event) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.add(event);
+		}
+	}
+
+	private static SwarmSummary summary(long iteration) {
+		return new SwarmSummary(iteration, 0, iteration * 10, 1, 5, null);
+	}
+
+	/**
+	 * Every event is delivered in order while the listener keeps up
+	 */
+	@Test
+	public void deliversInOrderTest() throws Exception {
+		AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(16);
+		RecordingListener listener = new RecordingListener(new CountDownLatch(0));
+		dispatcher.addListener(listener);
+		for (int i = 0; i < 10; i++) {
+			dispatcher.publish(SwarmEventType.Moved, summary(i));
+			Thread.sleep(1);
+		}
+		assertTrue(dispatcher.awaitDelivery(10, TimeUnit.SECONDS));
+		dispatcher.close();
+
+		assertEquals(10, listener.received.size());
+		assertEquals(0, dispatcher.getDroppedCount());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, listener.received.get(i).getSequence());
+			assertEquals(i, listener.received.get(i).getSummary().getIteration());
+		}
+	}
+
+	/**
+	 * A stuck listener never blocks publishing: once the buffer is full new events replace the newest waiting one,
+	 * and the latest event is still delivered when the listener comes back
+	 */
+	@Test
+	public void conflatesWhenFullTest() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(4);
+		RecordingListener listener = new RecordingListener(release);
+		dispatcher.addListener(listener);
+
+		int published = 10000;
+		for (int i = 0; i < published; i++) {
+			dispatcher.publish(SwarmEventType.Moved, summary(i));
+		}
+		assertEquals(published, dispatcher.getPublishedCount());
+		assertTrue(dispatcher.getDroppedCount() >= published - 5);
+
+		release.countDown();
+		assertTrue(dispatcher.awaitDelivery(10, TimeUnit.SECONDS));
+		dispatcher.close();
+
+		assertEquals(published, dispatcher.getDeliveredCount() + dispatcher.getDroppedCount());
+		assertEquals(listener.received.size(), dispatcher.getDeliveredCount());
+		long last = -1;
+		for (SwarmSummaryEvent event : listener.received) {
+			assertTrue(event.getSequence() > last);
+			last = event.getSequence();
+		}
+		assertEquals(published - 1, last);
+	}
+
+	/**
+	 * close() delivers the events that are still waiting and a listener that throws keeps its place
+	 */
+	@Test
+	public void closeDeliversRemainingTest() {
+		AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(64);
+		dispatcher.addListener(new ISwarmEventListener() {
+			@Override
+			public void onEvent(SwarmSummaryEvent event) {
+				if (event.getSequence() == 0) {
+					throw new IllegalStateException("expected");
+				}
+			}
+		});
+		RecordingListener listener = new RecordingListener(new CountDownLatch(0));
+		dispatcher.addListener(listener);
+		for (int i = 0; i < 50; i++) {
+			dispatcher.publish(SwarmEventType.Adapted, summary(i));
+		}
+		dispatcher.close();
+
+		assertEquals(50, listener.received.size());
+		assertEquals(50, dispatcher.getDeliveredCount());
+	}
+
+	/**
+	 * A search space publishes every lifecycle point and a listener that is much slower than the swarm doesn't slow
+	 * the swarm down
+	 */
+	@Test
+	public void searchSpacePublishesTest() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(8);
+		RecordingListener listener = new RecordingListener(release);
+		dispatcher.addListener(listener);
+
+		SingleThreadedHypersphereSearchSpace space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		space.setEventDispatcher(dispatcher);
+		long start = System.nanoTime();
+		for (int i = 0; i < 200; i++) {
+			space.moveThenAdapt();
+		}
+		long elapsed = System.nanoTime() - start;
+		release.countDown();
+		assertTrue(dispatcher.awaitDelivery(10, TimeUnit.SECONDS));
+		dispatcher.close();
+
+		// the seeding call doesn't publish, every move publishes two events and every adaptation two more
+		assertEquals(2 * space.iterationCount() + 2 * space.adaptationCount(), dispatcher.getPublishedCount());
+		assertTrue(dispatcher.getDroppedCount() > 0);
+		assertTrue("the swarm waited for the listener", elapsed < TimeUnit.SECONDS.toNanos(30));
+
+		SwarmSummaryEvent last = listener.received.get(listener.received.size() - 1);
+		assertEquals(space.iterationCount(), last.getSummary().getIteration());
+		assertEquals(space.evaluationCount(), last.getSummary().getEvaluations());
+		assertNotNull(last.getSummary().getBestSolution());
+		assertEquals(space.bestSolution().getError(), last.getSummary().getBestError(), 0.0);
+	}
+}
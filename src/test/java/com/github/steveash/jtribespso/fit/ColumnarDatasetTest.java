@@ -0,0 +1,74 @@
+package com.github.steveash.jtribespso.fit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+This is a test class for ColumnarDataset and is intended
+to contain all ColumnarDataset Unit Tests
+*/
+public class ColumnarDatasetTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void roundtripTest() throws Exception {
+		int rows = 20000;
+		double[] xs = new double[rows];
+		double[] ys = new double[rows];
+		for (int i = 0; i < rows; i++) {
+			xs[i] = i;
+			ys[i] = Math.sin(i);
+		}
+		Path file = folder.newFile().toPath();
+		ColumnarDataset.write(file, xs, ys);
+
+		ColumnarDataset target = ColumnarDataset.open(file);
+		assertEquals(rows, target.rowCount());
+		assertEquals(2, target.columnCount());
+		for (int i = 0; i < rows; i++) {
+			assertEquals(xs[i], target.get(0, i), 0);
+			assertEquals(ys[i], target.column(1).get(i), 0);
+		}
+	}
+
+	@Test
+	public void rejectsTruncatedFileTest() throws Exception {
+		Path file = folder.newFile().toPath();
+		ColumnarDataset.write(file, new double[] {1, 2, 3}, new double[] {4, 5, 6});
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 8);
+		}
+		try {
+			ColumnarDataset.open(file);
+			fail("opened a truncated dataset");
+		} catch (IOException expected) {
+			//expected
+		}
+	}
+
+	@Test
+	public void rejectsOtherFilesTest() throws Exception {
+		Path file = folder.newFile().toPath();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[64]));
+		}
+		try {
+			ColumnarDataset.open(file);
+			fail("opened a file that isn't a dataset");
+		} catch (IOException expected) {
+			//expected
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.github.steveash.jtribespso.fit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.github.steveash.jtribespso.rand.JdkRandom;
+
+/**
+This is a test class for FidelityObjective and is intended
+to contain all FidelityObjective Unit Tests
+*/
+public class FidelityObjectiveTest {
+
+	private static final double[] Curves = {450, 10000, 5};
+
+	/**
+	 * Counts the rows it visits
+	 */
+	private static class CountingFit extends MultiGaussianFitObjective {
+		long rows = 0;
+
+		CountingFit(double[] xs, double[] ys) {
+			super(1, xs, ys);
+		}
+
+		@Override
+		protected double sumRows(double[] x, int from, int to) {
+			rows += to - from;
+			return super.sumRows(x, from, to);
+		}
+	}
+
+	private static CountingFit makeFit() {
+		int rows = 50000;
+		double[] xs = new double[rows];
+		double[] ys = new double[rows];
+		HyperspaceRandom rng = new HyperspaceRandom(8);
+		for (int i = 0; i < rows; i++) {
+			xs[i] = i / 50.0;
+			ys[i] = MultiGaussianFitObjective.density(Curves, xs[i]) + rng.nextDouble(-0.1, 0.1);
+		}
+		return new CountingFit(xs, ys);
+	}
+
+	private static SearchSpace<?> optimize(IObjectiveFunction function, int iterations) {
+		SearchSpace<?> space = SearchSpaceFactories.singleThreadedHypersphere().create(function, 1);
+		for (int n = 0; n < iterations; n++) {
+			space.moveThenAdapt();
+		}
+		return space;
+	}
+
+	/**
+	 * Moves a seeded gaussian swarm until it is within 10% of the error of the curve the data was made from
+	 */
+	private static SearchSpace<?> converge(IObjectiveFunction function, double targetError) {
+		SearchSpace<?> space = SearchSpaceFactories.singleThreadedGaussian().create(function, 1);
+		space.moveThenAdapt();
+		for (int n = 0; n < 1000 && space.bestSolution().getError() > targetError; n++) {
+			space.moveThenAdapt();
+		}
+		return space;
+	}
+
+	@Test
+	public void exactOutsideScreeningTest() {
+		CountingFit fit = makeFit();
+		FidelityObjective target = new FidelityObjective(fit, new JdkRandom(1));
+		double[] guess = {440, 9000, 4.5};
+
+		assertEquals(fit.evaluate(guess), target.evaluate(guess), 0);
+		assertEquals(fit.evaluate(guess), target.evaluate(guess, Double.POSITIVE_INFINITY), 0);
+		assertEquals(0, target.getScreenedCount());
+
+		//a hopeless candidate is given up on after a small sample
+		long before = target.getRowsVisited();
+		double aborted = target.evaluate(new double[] {100, 10, 9}, fit.evaluate(guess));
+		assertTrue(aborted >= fit.evaluate(guess));
+		assertEquals(1, target.getScreenedCount());
+		assertTrue(target.getRowsVisited() - before < fit.rowCount() / 10);
+	}
+
+	@Test
+	public void rarelyRejectsImprovementsTest() {
+		CountingFit fit = makeFit();
+		FidelityObjective target = new FidelityObjective(fit, new JdkRandom(1));
+		double cutoff = target.evaluate(new double[] {445, 9500, 4.8});
+		HyperspaceRandom rng = new HyperspaceRandom(3);
+
+		int better = 0;
+		int wronglyRejected = 0;
+		for (int i = 0; i < 400; i++) {
+			double[] candidate = {rng.nextDouble(440, 460), rng.nextDouble(9000, 11000), rng.nextDouble(4.5, 5.5)};
+			double exact = fit.evaluate(candidate);
+			double screened = target.evaluate(candidate, cutoff);
+			if (exact < cutoff) {
+				better += 1;
+				//the blocks are summed in a different order, so the errors only agree up to rounding
+				if (Math.abs(screened - exact) > 1e-9 * exact) {
+					wronglyRejected += 1;
+				}
+			} else {
+				assertTrue(screened >= cutoff * (1 - 1e-9));
+			}
+		}
+		assertTrue(better > 20);
+		assertTrue(wronglyRejected <= better / 50);
+	}
+
+	/**
+	 * While the swarm explores, most candidates are rejected on a small sample, so the screened swarm sums several
+	 * times fewer rows than full passes and about half as many as early exit alone.  Over seeds 1-12 the screened
+	 * swarm sums 8-29% of the rows of full passes and early exit sums 49-58%, so the bounds hold for all of them
+	 */
+	@Test
+	public void fewerRowsTest() {
+		CountingFit sampled = makeFit();
+		FidelityObjective target = new FidelityObjective(sampled, new JdkRandom(1));
+		SearchSpace<?> sampledSpace = optimize(target, 200);
+
+		long sampledPasses = sampledSpace.evaluationCount() * sampled.rowCount();
+		assertEquals(sampled.rows, target.getRowsVisited());
+		assertTrue(sampled.rows + " rows in " + sampledPasses, sampled.rows * 3 < sampledPasses);
+		double bestError = sampledSpace.bestSolution().getError();
+		assertEquals(bestError, sampled.evaluate(sampledSpace.bestSolution().getPosition()), 1e-9 * bestError);
+
+		CountingFit earlyExit = makeFit();
+		SearchSpace<?> earlyExitSpace = optimize(earlyExit, 200);
+		double sampledShare = (double) sampled.rows / sampledPasses;
+		double earlyExitShare = (double) earlyExit.rows / (earlyExitSpace.evaluationCount() * earlyExit.rowCount());
+		assertTrue(sampledShare + " vs " + earlyExitShare, sampledShare * 1.5 < earlyExitShare);
+	}
+
+	/**
+	 * Screening only ever rejects candidates that look worse than the particle's best, so a screened swarm
+	 * converges to the same error as one that evaluates every candidate in full
+	 */
+	@Test
+	public void sameFinalErrorTest() {
+		double targetError = 1.1 * makeFit().evaluate(Curves);
+
+		CountingFit sampled = makeFit();
+		SearchSpace<?> sampledSpace = converge(new FidelityObjective(sampled, new JdkRandom(1)), targetError);
+		SearchSpace<?> fullSpace = converge(makeFit(), targetError);
+
+		double sampledError = sampledSpace.bestSolution().getError();
+		double fullError = fullSpace.bestSolution().getError();
+		assertTrue("screened swarm stopped at " + sampledError, sampledError <= targetError);
+		assertTrue("full fidelity swarm stopped at " + fullError, fullError <= targetError);
+		assertEquals(fullError, sampledError, 0.1 * fullError);
+		assertTrue(sampled.rows < sampledSpace.evaluationCount() * sampled.rowCount());
+	}
+}
@@ -0,0 +1,102 @@
+package com.github.steveash.jtribespso.fit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+
+/**
+This is a test class for MultiGaussianFitObjective and is intended
+to contain all MultiGaussianFitObjective Unit Tests
+*/
+public class MultiGaussianFitObjectiveTest {
+
+	private static final double[] Curves = {30, 16, 5, 60, 49, 3};
+
+	private static MultiGaussianFitObjective makeFit(boolean fastExp) {
+		double[] xs = new double[1000];
+		double[] ys = new double[1000];
+		for (int i = 0; i < xs.length; i++) {
+			xs[i] = i / 10.0;
+			ys[i] = MultiGaussianFitObjective.density(Curves, xs[i]);
+		}
+		return new MultiGaussianFitObjective(2, xs, ys, fastExp);
+	}
+
+	private static double naiveError(MultiGaussianFitObjective fit, double[] guess) {
+		double sum = 0;
+		for (int i = 0; i < 1000; i++) {
+			double x = i / 10.0;
+			double delta = MultiGaussianFitObjective.density(guess, x) - MultiGaussianFitObjective.density(Curves, x);
+			sum += delta * delta;
+		}
+		return sum;
+	}
+
+	@Test
+	public void matchesNaiveEvaluationTest() {
+		MultiGaussianFitObjective exact = makeFit(false);
+		MultiGaussianFitObjective fast = makeFit(true);
+		double[] guess = {35, 20, 4, 55, 40, 3.5};
+
+		assertEquals(0, exact.evaluate(Curves), 1e-20);
+		double expected = naiveError(exact, guess);
+		assertEquals(expected, exact.evaluate(guess), expected * 1e-12);
+		assertEquals(expected, fast.evaluate(guess), expected * 1e-8);
+		assertEquals(6, exact.getDimensions());
+	}
+
+	@Test
+	public void boundsTest() {
+		MultiGaussianFitObjective target = makeFit(false);
+		assertEquals(0, target.getMinBounds().get(0), 0);
+		assertEquals(99.9, target.getMaxBounds().get(3), 1e-12);
+		assertTrue(target.getMinBounds().get(1) > 0);
+		assertTrue(target.getMaxBounds().get(2) > 5);
+	}
+
+	@Test
+	public void cutoffTest() {
+		MultiGaussianFitObjective target = makeFit(false);
+		double[] good = {31, 16, 5, 60, 49, 3};
+		double[] bad = {10, 4, 9, 90, 4, 9};
+		double cutoff = target.evaluate(good);
+
+		assertEquals(cutoff, target.evaluate(good, cutoff * 1.01), 0);
+		double aborted = target.evaluate(bad, cutoff);
+		assertTrue(aborted >= cutoff);
+		assertTrue(aborted < target.evaluate(bad));
+	}
+
+	@Test
+	public void batchMatchesSingleEvaluationsTest() {
+		MultiGaussianFitObjective target = makeFit(false);
+		HyperspaceRandom rng = new HyperspaceRandom(4);
+		double[][] guesses = new double[9][];
+		for (int g = 0; g < guesses.length; g++) {
+			guesses[g] = new double[target.getDimensions()];
+			for (int n = 0; n < guesses[g].length; n++) {
+				guesses[g][n] = rng.nextDouble(target.getMinBounds().get(n), target.getMaxBounds().get(n));
+			}
+		}
+		double[] errors = new double[guesses.length];
+		target.evaluateBatch(guesses, errors);
+
+		for (int g = 0; g < guesses.length; g++) {
+			double expected = target.evaluate(guesses[g]);
+			assertEquals(expected, errors[g], expected * 1e-12);
+		}
+	}
+
+	@Test
+	public void fastExpAccuracyTest() {
+		for (double x = -700; x <= 700; x += 0.0137) {
+			double expected = Math.exp(x);
+			assertEquals("exp(" + x + ")", expected, FastExp.exp(x), expected * 1e-9);
+		}
+		assertEquals(0, FastExp.exp(-800), 0);
+		assertEquals(1, FastExp.exp(0), 0);
+	}
+}
@@ -0,0 +1,66 @@
+package com.github.steveash.jtribespso.fit;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+
+/**
+ * Measures how evaluating a least squares objective over ten million memory mapped rows scales with the size of
+ * the fork join pool
+ */
+public class ParallelLeastSquaresIT {
+    private static final Logger log = LoggerFactory.getLogger(ParallelLeastSquaresIT.class);
+
+    private static final int Rows = 10 * 1000 * 1000;
+    private static final int Evaluations = 50;
+
+    @Test
+    public void shouldScaleWithCores() throws Exception {
+        Path file = Files.createTempFile("dataset", ".cols");
+        try {
+            Stopwatch watch = Stopwatch.createStarted();
+            ParallelLeastSquaresObjectiveTest.writeLine(file, Rows);
+            log.info("wrote {} rows in {} ms", Rows, watch.elapsed(TimeUnit.MILLISECONDS));
+
+            watch = Stopwatch.createStarted();
+            ColumnarDataset data = ColumnarDataset.open(file);
+            log.info("opened the dataset in {} us", watch.elapsed(TimeUnit.MICROSECONDS));
+
+            double[] guess = {1.9, 1.1};
+            double singleThreaded = 0;
+            for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    ParallelLeastSquaresObjectiveTest.LineFit target =
+                            new ParallelLeastSquaresObjectiveTest.LineFit(data, pool,
+                                    ParallelLeastSquaresObjective.DefaultLeafRows);
+                    //warm up, which also pages the file in
+                    for (int n = 0; n < 5; n++) {
+                        target.evaluate(guess);
+                    }
+                    watch = Stopwatch.createStarted();
+                    for (int n = 0; n < Evaluations; n++) {
+                        target.evaluate(guess);
+                    }
+                    double millis = watch.elapsed(TimeUnit.MICROSECONDS) / 1000.0 / Evaluations;
+                    if (threads == 1) {
+                        singleThreaded = millis;
+                    }
+                    log.info(String.format("%d threads: %.2f ms per evaluation (%.1fx)", threads, millis,
+                            singleThreaded / millis));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
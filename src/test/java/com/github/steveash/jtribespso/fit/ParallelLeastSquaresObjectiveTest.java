@@ -0,0 +1,136 @@
+package com.github.steveash.jtribespso.fit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.impl.SingleThreadedGaussianSearchSpace;
+import com.github.steveash.jtribespso.optimizer.Optimizer;
+import com.github.steveash.jtribespso.optimizer.OptimizerResult;
+import com.github.steveash.jtribespso.optimizer.StopCriteria;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+
+/**
+This is a test class for ParallelLeastSquaresObjective and is intended
+to contain all ParallelLeastSquaresObjective Unit Tests
+*/
+public class ParallelLeastSquaresObjectiveTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Fits y = ax + b to the first two columns of the dataset
+	 */
+	static class LineFit extends ParallelLeastSquaresObjective {
+		LineFit(ColumnarDataset data, ForkJoinPool pool, int leafRows) {
+			super(data, pool, leafRows);
+		}
+
+		@Override
+		protected double residual(double[] x, int row) {
+			return x[0] * data().get(0, row) + x[1] - data().get(1, row);
+		}
+
+		@Override
+		public int getDimensions() {
+			return 2;
+		}
+
+		@Override
+		public EuclidianVector getMinBounds() {
+			return new EuclidianVector(-10, -10);
+		}
+
+		@Override
+		public EuclidianVector getMaxBounds() {
+			return new EuclidianVector(10, 10);
+		}
+
+		@Override
+		public EuclidianVector getInitialGuess() {
+			return null;
+		}
+	}
+
+	static Path writeLine(Path file, int rows) throws Exception {
+		double[] xs = new double[rows];
+		double[] ys = new double[rows];
+		HyperspaceRandom rng = new HyperspaceRandom(9);
+		for (int i = 0; i < rows; i++) {
+			xs[i] = (double) i / rows;
+			ys[i] = 2 * xs[i] + 1 + rng.nextDouble(-0.01, 0.01);
+		}
+		ColumnarDataset.write(file, xs, ys);
+		return file;
+	}
+
+	@Test
+	public void sameSumForAnyPoolTest() throws Exception {
+		ColumnarDataset data = ColumnarDataset.open(writeLine(folder.newFile().toPath(), 100003));
+		double[] guess = {1.7, 1.2};
+
+		double expected = 0;
+		for (int row = 0; row < data.rowCount(); row++) {
+			double residual = guess[0] * data.get(0, row) + guess[1] - data.get(1, row);
+			expected += residual * residual;
+		}
+
+		Double first = null;
+		for (int threads : new int[] {1, 2, 4, 7}) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				double actual = new LineFit(data, pool, 1000).evaluate(guess);
+				assertEquals(expected, actual, expected * 1e-12);
+				if (first == null) {
+					first = actual;
+				}
+				//bit for bit, not just close
+				assertEquals(Double.doubleToLongBits(first), Double.doubleToLongBits(actual));
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void cutoffTest() throws Exception {
+		ColumnarDataset data = ColumnarDataset.open(writeLine(folder.newFile().toPath(), 50000));
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			LineFit target = new LineFit(data, pool, 500);
+			double good = target.evaluate(new double[] {2, 1});
+			double bad = target.evaluate(new double[] {-3, 4});
+
+			assertEquals(good, target.evaluate(new double[] {2, 1}, good * 1.5), 0);
+			double aborted = target.evaluate(new double[] {-3, 4}, good);
+			assertTrue(aborted >= good);
+			assertTrue(aborted <= bad);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void fitsLineTest() throws Exception {
+		ColumnarDataset data = ColumnarDataset.open(writeLine(folder.newFile().toPath(), 20000));
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			LineFit target = new LineFit(data, pool, 4096);
+			OptimizerResult result = new Optimizer(new SingleThreadedGaussianSearchSpace(target,
+					new HyperspaceRandom(2)), StopCriteria.maxIterations(300)).run();
+
+			assertEquals(2, result.getBestSolution().getPosition().get(0), 0.01);
+			assertEquals(1, result.getBestSolution().getPosition().get(1), 0.01);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
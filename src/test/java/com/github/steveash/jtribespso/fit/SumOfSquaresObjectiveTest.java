@@ -0,0 +1,126 @@
+package com.github.steveash.jtribespso.fit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.google.common.collect.Lists;
+
+/**
+This is a test class for SumOfSquaresObjective and is intended
+to contain all SumOfSquaresObjective Unit Tests
+*/
+public class SumOfSquaresObjectiveTest {
+
+	/**
+	 * Fits a line y = ax + b to rows of noisy data and counts the residuals it computes
+	 */
+	private static class LineFit extends SumOfSquaresObjective {
+		private final double[] xs;
+		private final double[] ys;
+		long residuals = 0;
+		//the fraction of the rows that were summed for each guess that didn't beat its cutoff
+		final List<Double> rejectedCosts = Lists.newArrayList();
+
+		LineFit(int rows) {
+			xs = new double[rows];
+			ys = new double[rows];
+			HyperspaceRandom rng = new HyperspaceRandom(3);
+			for (int i = 0; i < rows; i++) {
+				xs[i] = (double) i / rows;
+				ys[i] = 2 * xs[i] + 1 + rng.nextDouble(-0.01, 0.01);
+			}
+		}
+
+		@Override
+		public int rowCount() {
+			return xs.length;
+		}
+
+		@Override
+		public double evaluate(double[] x, double cutoff) {
+			long before = residuals;
+			double error = super.evaluate(x, cutoff);
+			if (error >= cutoff) {
+				rejectedCosts.add((double) (residuals - before) / xs.length);
+			}
+			return error;
+		}
+
+		@Override
+		protected double residual(double[] x, int row) {
+			residuals += 1;
+			return x[0] * xs[row] + x[1] - ys[row];
+		}
+
+		@Override
+		public int getDimensions() {
+			return 2;
+		}
+
+		@Override
+		public EuclidianVector getMinBounds() {
+			return new EuclidianVector(-10, -10);
+		}
+
+		@Override
+		public EuclidianVector getMaxBounds() {
+			return new EuclidianVector(10, 10);
+		}
+
+		@Override
+		public EuclidianVector getInitialGuess() {
+			return null;
+		}
+	}
+
+	@Test
+	public void exactBelowCutoffTest() {
+		LineFit target = new LineFit(1000);
+		double[] guess = {1.5, 0.5};
+		double full = target.evaluate(guess);
+
+		assertEquals(1000, target.residuals);
+		assertEquals(full, target.evaluate(guess, full * 1.0001), 0);
+		assertEquals(full, target.evaluate(new EuclidianVector(guess), full * 1.0001), 0);
+		assertEquals(3000, target.residuals);
+	}
+
+	@Test
+	public void abortsAboveCutoffTest() {
+		LineFit target = new LineFit(100000);
+		double[] good = {2, 1};
+		double[] bad = {-5, 5};
+		double cutoff = target.evaluate(good);
+		target.residuals = 0;
+
+		double aborted = target.evaluate(bad, cutoff);
+		assertTrue(aborted >= cutoff);
+		assertTrue(aborted < target.evaluate(bad));
+		assertEquals(SumOfSquaresObjective.CheckInterval, target.residuals - 100000);
+	}
+
+	@Test
+	public void rejectedMovesAreCheapTest() {
+		LineFit target = new LineFit(100000);
+		SearchSpace<?> space = SearchSpaceFactories.singleThreadedGaussian().create(target, 1);
+		for (int n = 0; n < 30; n++) {
+			space.moveThenAdapt();
+		}
+
+		List<Double> costs = target.rejectedCosts;
+		assertTrue(costs.size() > 50);
+		Collections.sort(costs);
+		//seed 1 gives a median of 0.12 and seeds 1-20 all fall between 0.11 and 0.24
+		double median = costs.get(costs.size() / 2);
+		assertTrue("the median rejected guess summed " + median + " of the rows", median < 0.3);
+	}
+}
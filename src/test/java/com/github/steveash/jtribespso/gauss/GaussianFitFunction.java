@@ -3,11 +3,11 @@ package com.github.steveash.jtribespso.gauss;
 import java.util.List;
 
 import com.github.steveash.jtribespso.EuclidianVector;
-import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.fit.SumOfSquaresObjective;
 import com.github.steveash.jtribespso.test.ImmutableGaussianCurve;
 import com.google.common.collect.Lists;
 
-public class GaussianFitFunction implements IObjectiveFunction {
+public class GaussianFitFunction extends SumOfSquaresObjective {
     int evaluations = 0;
 
     private List<double[]> data;
@@ -20,8 +20,8 @@ public class GaussianFitFunction implements IObjectiveFunction {
         data = Lists.newArrayList(input);
         dimensions = 3 * numberOfCurves;
 
-        maxBounds = computeMinBounds(dimensions, data);
-        minBounds = computeMaxBounds(dimensions, data);
+        minBounds = computeMinBounds(dimensions, data);
+        maxBounds = computeMaxBounds(dimensions, data);
     }
 
     @Override
@@ -44,21 +44,36 @@ public class GaussianFitFunction implements IObjectiveFunction {
         return null;
     }
 
+    @Override
+    public int rowCount() {
+        return data.size();
+    }
+
+    @Override
+    public double evaluate(double[] position, double cutoff) {
+        evaluations += 1;
+        return super.evaluate(position, cutoff);
+    }
+
     /**
-     * Evaluates the performance of a point at the normalized Euclidian Vector
+     * The difference between the curves at the normalized position and the data.  Each consecutive
+     * (mean, variance, height) triple of the position is one curve; they are summed in place rather than built into
+     * a MultiGaussianCurve
      * @param position
+     * @param row
      * @return
      */
-    public double evaluate(EuclidianVector position) {
-        evaluations += 1;
-        MultiGaussianCurve candidateFunction = getSolution(position);
-        double sqrerr = 0;
-        for (double[] doubles : data) {
-
-            double delta = candidateFunction.evaluate(doubles[0]) - doubles[1];
-            sqrerr += (delta * delta);
+    @Override
+    protected double residual(double[] position, int row) {
+        double[] doubles = data.get(row);
+        double x = doubles[0];
+        double density = 0;
+        for (int baseIndex = 0; baseIndex + 2 < position.length; baseIndex += 3) {
+            double difference = x - position[baseIndex];
+            double exponent = (-1 * difference * difference / (2 * position[baseIndex + 1]));
+            density += position[baseIndex + 2] * Math.pow(Math.E, exponent);
         }
-        return sqrerr;
+        return density - doubles[1];
     }
 
     /**
@@ -15,15 +15,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.ISearchSpace;
 import com.github.steveash.jtribespso.SearchSpace;
 import com.github.steveash.jtribespso.impl.MultithreadedGaussianSearchSpace;
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
 import com.github.steveash.jtribespso.impl.SingleThreadedGaussianSearchSpace;
+import com.github.steveash.jtribespso.optimizer.IStopCriterion;
+import com.github.steveash.jtribespso.optimizer.Optimizer;
+import com.github.steveash.jtribespso.optimizer.OptimizerResult;
+import com.github.steveash.jtribespso.optimizer.StopCriteria;
+import com.github.steveash.jtribespso.polish.ShamanPolisher;
 import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+import com.github.steveash.jtribespso.restart.RestartPolicy;
+import com.github.steveash.jtribespso.restart.RestartingSearchSpace;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
-import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -46,6 +54,17 @@ public class GaussianIT {
         log.info(gaussianResults);
         log.info("");
 
+        log.info("********** Single Threaded Indepedent Gaussian, Polished Shamans **********");
+        String polishedResults = runTests(10, fitData,
+                new PolishingFactory(ShamanPolisher.nelderMead(3, 200)));
+        log.info(polishedResults);
+        log.info("");
+
+        log.info("********** Single Threaded Indepedent Gaussian, IPOP Restarts **********");
+        String restartResults = runTests(10, fitData, new RestartingFactory(RestartPolicy.ipop()));
+        log.info(restartResults);
+        log.info("");
+
         log.info("********** Multi Threaded Independent Gaussian **********");
         MultithreadedFactory factory = new MultithreadedFactory();
         String multiThreadedGaussianResults = runTests(10, fitData, factory);
@@ -55,7 +74,7 @@ public class GaussianIT {
     }
 
     //Parse a CSV file to use its data
-    private static List<double[]> parseFitData(String filename) throws URISyntaxException, IOException {
+    public static List<double[]> parseFitData(String filename) throws URISyntaxException, IOException {
         File csv = new File(Thread.currentThread().getContextClassLoader().getResource(filename).toURI());
 
         List<String> lines = Files.readLines(csv, Charsets.UTF_8);
@@ -72,7 +91,7 @@ public class GaussianIT {
     }
 
     private interface SpaceFactory {
-        SearchSpace<?> create(IObjectiveFunction func);
+        ISearchSpace create(IObjectiveFunction func);
     }
 
     private static class MultithreadedFactory implements SpaceFactory {
@@ -89,7 +108,7 @@ public class GaussianIT {
         }
 
         @Override
-        public SearchSpace<?> create(IObjectiveFunction func) {
+        public ISearchSpace create(IObjectiveFunction func) {
             Preconditions.checkState(innerPool.getActiveCount() == 0);
             return new MultithreadedGaussianSearchSpace(pool, func, 4);
         }
@@ -102,33 +121,57 @@ public class GaussianIT {
 
     private static class SingleThreadedFactory implements SpaceFactory {
         @Override
-        public SearchSpace<?> create(IObjectiveFunction func) {
+        public ISearchSpace create(IObjectiveFunction func) {
             return new SingleThreadedGaussianSearchSpace(
                     func, new HyperspaceRandom());
         }
     }
 
+    private static class PolishingFactory implements SpaceFactory {
+        private final ShamanPolisher polisher;
+
+        private PolishingFactory(ShamanPolisher polisher) {
+            this.polisher = polisher;
+        }
+
+        @Override
+        public ISearchSpace create(IObjectiveFunction func) {
+            SearchSpace<?> space = new SingleThreadedGaussianSearchSpace(func, new HyperspaceRandom());
+            space.setPolisher(polisher);
+            return space;
+        }
+    }
+
+    private static class RestartingFactory implements SpaceFactory {
+        private final RestartPolicy policy;
+
+        private RestartingFactory(RestartPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public ISearchSpace create(IObjectiveFunction func) {
+            return new RestartingSearchSpace(func, SearchSpaceFactories.singleThreadedGaussian(), policy);
+        }
+    }
+
     static String runTests(int loops, List<double[]> fitData, SpaceFactory factory) {
         int successCount = 0;
-        int evalCount = 0;
+        long evalCount = 0;
         long totalMillis = 0;
 
         for (int n = 0; n < loops; n++) {
             GaussianFitFunction objectiveFunction = new GaussianFitFunction(2, fitData);
-            SearchSpace<?> space = factory.create(objectiveFunction);
-
-            Stopwatch watch = Stopwatch.createStarted();
-            for (int moves = 0; moves < 5000; moves++) {
-                space.moveThenAdapt();
-                if (space.bestSolution().getError() < 0.5) {
-                    successCount += 1;
-                    break;
-                }
+            ISearchSpace space = factory.create(objectiveFunction);
+
+            IStopCriterion target = StopCriteria.targetError(0.5);
+            OptimizerResult result = new Optimizer(space, target, StopCriteria.maxIterations(5000)).run();
+            if (result.getStopReason() == target) {
+                successCount += 1;
             }
-            watch.stop();
 
-            evalCount += objectiveFunction.evaluations;
-            totalMillis += watch.elapsed(TimeUnit.MILLISECONDS);
+            evalCount += result.getEvaluations();
+            totalMillis += result.getElapsed(TimeUnit.MILLISECONDS);
         }
 
         double avgEvals = ((double) evalCount) / loops;
@@ -0,0 +1,78 @@
+package com.github.steveash.jtribespso.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+
+/**
+This is a test class for SwarmMetrics and is intended
+to contain all SwarmMetrics Unit Tests
+*/
+public class SwarmMetricsTest {
+
+	@Test
+	public void countersMatchSearchSpaceTest() {
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		SwarmMetrics target = new SwarmMetrics();
+		space.setMetrics(target);
+
+		for (int n = 0; n < 51; n++) {
+			space.moveThenAdapt();
+		}
+		SwarmMetricsSnapshot snapshot = target.snapshot();
+
+		assertEquals(1, snapshot.getRuns(SwarmPhase.Seed));
+		assertEquals(50, snapshot.getCount(SwarmCounter.Iterations));
+		assertEquals(50, snapshot.getRuns(SwarmPhase.Move));
+		assertEquals(50, snapshot.getRuns(SwarmPhase.UpdateShamans));
+		assertEquals(space.adaptationCount(), snapshot.getRuns(SwarmPhase.Adapt));
+		assertEquals(space.evaluationCount(), snapshot.getCount(SwarmCounter.Evaluations));
+
+		//Every evaluation either placed a new particle or moved one
+		long moves = snapshot.getRuns(SwarmPhase.Evaluate);
+		assertEquals(snapshot.getCount(SwarmCounter.Evaluations),
+				moves + snapshot.getCount(SwarmCounter.ParticlesCreated));
+		assertEquals(moves, snapshot.getRuns(SwarmPhase.CalculatePosition));
+		assertEquals(moves, snapshot.getRuns(SwarmPhase.CorrectBounds));
+		assertTrue(snapshot.getRuns(SwarmPhase.SelectInformer) >= moves);
+		assertTrue(snapshot.getCount(SwarmCounter.Improvements) <= moves);
+
+		assertEquals(space.tribeCount(),
+				snapshot.getCount(SwarmCounter.TribesCreated) - snapshot.getCount(SwarmCounter.TribesRemoved));
+		assertEquals(space.swarmSize(),
+				snapshot.getCount(SwarmCounter.ParticlesCreated) - snapshot.getCount(SwarmCounter.ParticlesRemoved));
+		assertTrue(snapshot.getNanos(SwarmPhase.Move) > 0);
+		assertTrue(snapshot.getNanosPerIteration(SwarmPhase.Move) > 0);
+	}
+
+	@Test
+	public void sinceAndDisableTest() {
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		SwarmMetrics target = new SwarmMetrics();
+		space.setMetrics(target);
+		for (int n = 0; n < 20; n++) {
+			space.moveThenAdapt();
+		}
+		SwarmMetricsSnapshot first = target.snapshot();
+		long evaluations = space.evaluationCount();
+
+		for (int n = 0; n < 10; n++) {
+			space.moveThenAdapt();
+		}
+		SwarmMetricsSnapshot interval = target.snapshot().since(first);
+		assertEquals(10, interval.getCount(SwarmCounter.Iterations));
+		assertEquals(space.evaluationCount() - evaluations, interval.getCount(SwarmCounter.Evaluations));
+
+		space.setMetrics(null);
+		SwarmMetricsSnapshot disabled = target.snapshot();
+		for (int n = 0; n < 10; n++) {
+			space.moveThenAdapt();
+		}
+		assertEquals(disabled.toString(), target.snapshot().toString());
+	}
+}
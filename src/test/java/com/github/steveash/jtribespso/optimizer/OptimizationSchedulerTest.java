@@ -0,0 +1,190 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+This is a test class for OptimizationScheduler and is intended
+to contain all OptimizationScheduler Unit Tests
+*/
+public class OptimizationSchedulerTest {
+
+	private ExecutorService pool;
+
+	@Before
+	public void setUp() {
+		pool = Executors.newFixedThreadPool(3);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		pool.shutdownNow();
+		pool.awaitTermination(1, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * Fails evaluations that overlap, since a single threaded search space must only be moved by one thread at a time
+	 */
+	private static class ExclusiveRosenbrock extends Rosenbrock {
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		@Override
+		public double evaluate(EuclidianVector position) {
+			assertEquals(1, inFlight.incrementAndGet());
+			try {
+				return super.evaluate(position);
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+	}
+
+	@Test
+	public void runsManyJobsTest() throws Exception {
+		OptimizationScheduler target = new OptimizationScheduler(pool, 3);
+		List<ListenableFuture<OptimizerResult>> results = Lists.newArrayList();
+		for (int i = 0; i < 40; i++) {
+			SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new ExclusiveRosenbrock());
+			results.add(target.submit(space, OptimizationScheduler.DefaultPriority, 100000,
+					StopCriteria.targetError(1e-3)));
+		}
+		for (ListenableFuture<OptimizerResult> result : results) {
+			assertTrue(result.get(1, TimeUnit.MINUTES).getBestSolution().getError() < 1e-3);
+		}
+		assertEquals(0, target.getQueuedJobCount());
+		assertEquals(0, target.getRunningJobCount());
+	}
+
+	@Test
+	public void evaluationBudgetTest() throws Exception {
+		OptimizationScheduler target = new OptimizationScheduler(pool, 2);
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		OptimizerResult result = target.submit(space, 0, 300, StopCriteria.targetError(-1)).get();
+
+		assertNotNull(result.getStopReason());
+		assertTrue(result.getEvaluations() >= 300);
+		assertTrue(result.getEvaluations() < 300 + 2 * space.swarmSize() + 1);
+	}
+
+	@Test
+	public void priorityAndFairnessTest() throws Exception {
+		OptimizationScheduler target = new OptimizationScheduler(pool, 1);
+		Optimizer blocker = new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()),
+				StopCriteria.maxIterations(1));
+		Optimizer low = new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()),
+				StopCriteria.maxIterations(30));
+		Optimizer high = new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()),
+				StopCriteria.maxIterations(30));
+		Optimizer high2 = new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()),
+				StopCriteria.maxIterations(30));
+
+		// everything is queued while the blocker makes its only move
+		final AtomicLong lowIterationsWhenHighFinished = new AtomicLong(-1);
+		final AtomicLong high2IterationsWhenHighFinished = new AtomicLong(-1);
+		ListenableFuture<OptimizerResult> lowResult;
+		synchronized (target) {
+			target.submit(blocker);
+			lowResult = target.submit(low, 0);
+			final Optimizer lowJob = low;
+			final Optimizer high2Job = high2;
+			target.submit(high, 5).addListener(new Runnable() {
+				@Override
+				public void run() {
+					lowIterationsWhenHighFinished.set(lowJob.progress().getIterations());
+					high2IterationsWhenHighFinished.set(high2Job.progress().getIterations());
+				}
+			}, pool);
+			target.submit(high2, 5);
+		}
+		assertEquals(30, lowResult.get().getIterations());
+
+		assertEquals(0, lowIterationsWhenHighFinished.get());
+		// jobs of the same priority take turns
+		assertTrue(high2IterationsWhenHighFinished.get() >= 29);
+	}
+
+	@Test
+	public void cancelTest() throws Exception {
+		OptimizationScheduler target = new OptimizationScheduler(pool, 2);
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		ListenableFuture<OptimizerResult> result = target.submit(space, 0, Long.MAX_VALUE,
+				StopCriteria.targetError(-1));
+		while (space.iterationCount() < 10) {
+			Thread.sleep(1);
+		}
+		assertTrue(result.cancel(false));
+
+		Thread.sleep(50);
+		long iterations = space.iterationCount();
+		Thread.sleep(50);
+		assertEquals(iterations, space.iterationCount());
+		assertEquals(0, target.getRunningJobCount() + target.getQueuedJobCount());
+		try {
+			result.get();
+		} catch (CancellationException e) {
+			return;
+		}
+		throw new AssertionError("expected a cancelled result");
+	}
+
+	@Test
+	public void cancelCompletesPublisherTest() throws Exception {
+		OptimizationScheduler target = new OptimizationScheduler(pool, 2);
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		Optimizer optimizer = new Optimizer(space, StopCriteria.targetError(-1));
+		ProgressPublisher publisher = new ProgressPublisher(MoreExecutors.sameThreadExecutor());
+		final CountDownLatch completed = new CountDownLatch(1);
+		publisher.subscribe(new IProgressSubscriber() {
+			@Override
+			public void onSubscribe(IProgressSubscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(OptimizerProgress progress) {
+			}
+
+			@Override
+			public void onError(Throwable error) {
+			}
+
+			@Override
+			public void onComplete() {
+				completed.countDown();
+			}
+		});
+		optimizer.setProgressPublisher(publisher);
+
+		ListenableFuture<OptimizerResult> result = target.submit(optimizer);
+		while (space.iterationCount() < 10) {
+			Thread.sleep(1);
+		}
+		assertTrue(result.cancel(false));
+
+		assertTrue(completed.await(10, TimeUnit.SECONDS));
+		assertTrue(optimizer.isFinished());
+		assertEquals(0, target.getRunningJobCount() + target.getQueuedJobCount());
+	}
+}
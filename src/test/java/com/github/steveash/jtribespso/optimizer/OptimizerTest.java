@@ -0,0 +1,121 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+
+/**
+This is a test class for Optimizer and is intended
+to contain all Optimizer and StopCriteria Unit Tests
+*/
+public class OptimizerTest {
+
+	@Test
+	public void targetErrorTest() {
+		Rosenbrock function = new Rosenbrock();
+		IStopCriterion target = StopCriteria.targetError(1e-4);
+		Optimizer optimizer = new Optimizer(new SingleThreadedHypersphereSearchSpace(function),
+				target, StopCriteria.maxIterations(100000));
+
+		OptimizerResult result = optimizer.run();
+
+		assertSame(target, result.getStopReason());
+		assertTrue(result.getBestSolution().getError() < 1e-4);
+		assertEquals(function.getEvaluations(), result.getEvaluations());
+		assertEquals(result.getEvaluations(), result.getEvaluationsToBest());
+		assertTrue(optimizer.isFinished());
+		assertFalse(optimizer.step());
+	}
+
+	@Test
+	public void maxEvaluationsTest() {
+		Rosenbrock function = new Rosenbrock();
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(function);
+		IStopCriterion budget = StopCriteria.maxEvaluations(500);
+
+		OptimizerResult result = new Optimizer(space, StopCriteria.targetError(-1), budget).run();
+
+		assertSame(budget, result.getStopReason());
+		assertTrue(result.getEvaluations() >= 500);
+		//We can only overshoot by one move of the swarm (plus an adaptation)
+		assertTrue(result.getEvaluations() < 500 + 2 * space.swarmSize() + 1);
+		assertEquals(function.getEvaluations(), space.evaluationCount());
+	}
+
+	@Test
+	public void countsAreRelativeToStartTest() {
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		for (int n = 0; n < 20; n++) {
+			space.moveThenAdapt();
+		}
+		IStopCriterion iterations = StopCriteria.maxIterations(10);
+		OptimizerResult result = new Optimizer(space, iterations).run();
+
+		assertSame(iterations, result.getStopReason());
+		assertEquals(10, result.getIterations());
+		assertEquals(29, space.iterationCount());
+	}
+
+	@Test
+	public void deadlineTest() {
+		IStopCriterion deadline = StopCriteria.deadline(50, TimeUnit.MILLISECONDS);
+		OptimizerResult result = new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()),
+				StopCriteria.targetError(-1), deadline).run();
+
+		assertSame(deadline, result.getStopReason());
+		assertTrue(result.getElapsed(TimeUnit.MILLISECONDS) >= 50);
+	}
+
+	@Test
+	public void noImprovementTest() {
+		IStopCriterion stall = StopCriteria.noImprovement(5);
+		OptimizerResult result = new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()),
+				StopCriteria.targetError(-1), stall).run();
+
+		assertSame(stall, result.getStopReason());
+		assertEquals(5, result.getFinalProgress().getAdaptationsSinceImprovement());
+		assertTrue(result.getEvaluationsToBest() < result.getEvaluations());
+	}
+
+	@Test
+	public void diversityTest() {
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(new Rosenbrock());
+		IStopCriterion diversity = StopCriteria.diversityBelow(1e-3);
+		OptimizerResult result = new Optimizer(space, StopCriteria.targetError(-1), diversity,
+				StopCriteria.maxIterations(100000)).run();
+
+		assertSame(diversity, result.getStopReason());
+		assertTrue(space.swarmRadius() < 1e-3);
+	}
+
+	@Test
+	public void allOfTest() {
+		IStopCriterion both = StopCriteria.allOf(StopCriteria.maxIterations(10), StopCriteria.maxIterations(20));
+		OptimizerResult result = new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()), both).run();
+
+		assertSame(both, result.getStopReason());
+		assertEquals(20, result.getIterations());
+	}
+
+	@Test
+	public void stopTest() {
+		Optimizer optimizer = new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()),
+				StopCriteria.targetError(-1));
+		assertTrue(optimizer.step());
+		optimizer.stop();
+
+		OptimizerResult result = optimizer.run();
+		assertNull(result.getStopReason());
+		assertEquals(0, result.getIterations());
+	}
+}
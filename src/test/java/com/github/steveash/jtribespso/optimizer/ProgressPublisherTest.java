@@ -0,0 +1,202 @@
+package com.github.steveash.jtribespso.optimizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.ISearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+This is a test class for ProgressPublisher and is intended
+to contain all ProgressPublisher and Optimizer.optimizeAsync() Unit Tests
+*/
+public class ProgressPublisherTest {
+
+	private ExecutorService runner;
+	private ExecutorService delivery;
+
+	@Before
+	public void setUp() {
+		runner = Executors.newSingleThreadExecutor();
+		delivery = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		runner.shutdownNow();
+		delivery.shutdownNow();
+		runner.awaitTermination(1, TimeUnit.MINUTES);
+		delivery.awaitTermination(1, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * Requests one progress update at a time and optionally takes its time with each
+	 */
+	private static class RecordingSubscriber implements IProgressSubscriber {
+		final List<OptimizerProgress> received = Lists.newCopyOnWriteArrayList();
+		final CountDownLatch done = new CountDownLatch(1);
+		final long initialRequest;
+		final long delayMillis;
+		volatile IProgressSubscription subscription;
+		volatile Throwable error;
+		volatile boolean completed = false;
+
+		RecordingSubscriber(long initialRequest, long delayMillis) {
+			this.initialRequest = initialRequest;
+			this.delayMillis = delayMillis;
+		}
+
+		@Override
+		public void onSubscribe(IProgressSubscription subscription) {
+			this.subscription = subscription;
+			if (initialRequest != 0) {
+				subscription.request(initialRequest);
+			}
+		}
+
+		@Override
+		public void onNext(OptimizerProgress progress) {
+			received.add(progress);
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			if (initialRequest != Long.MAX_VALUE) {
+				subscription.request(1);
+			}
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			this.error = error;
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+			done.countDown();
+		}
+	}
+
+	private static Optimizer newOptimizer(long iterations) {
+		return new Optimizer(new SingleThreadedHypersphereSearchSpace(new Rosenbrock()),
+				StopCriteria.targetError(-1), StopCriteria.maxIterations(iterations));
+	}
+
+	@Test
+	public void streamsEveryMoveTest() throws Exception {
+		Optimizer optimizer = newOptimizer(100);
+		ProgressPublisher publisher = new ProgressPublisher(delivery);
+		optimizer.setProgressPublisher(publisher);
+		RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE, 0);
+		publisher.subscribe(subscriber);
+
+		OptimizerResult result = optimizer.optimizeAsync(runner).get();
+
+		assertTrue(subscriber.done.await(1, TimeUnit.MINUTES));
+		assertTrue(subscriber.completed);
+		OptimizerProgress last = subscriber.received.get(subscriber.received.size() - 1);
+		assertEquals(result.getIterations(), last.getIterations());
+		assertEquals(result.getEvaluations(), last.getEvaluations());
+		for (int i = 1; i < subscriber.received.size(); i++) {
+			assertTrue(subscriber.received.get(i).getIterations() > subscriber.received.get(i - 1).getIterations());
+		}
+		assertEquals(0, publisher.getSubscriberCount());
+	}
+
+	@Test
+	public void slowSubscriberDoesNotThrottleTest() throws Exception {
+		Optimizer optimizer = newOptimizer(300);
+		ProgressPublisher publisher = new ProgressPublisher(delivery);
+		optimizer.setProgressPublisher(publisher);
+		RecordingSubscriber slow = new RecordingSubscriber(1, 20);
+		publisher.subscribe(slow);
+
+		long start = System.nanoTime();
+		OptimizerResult result = optimizer.optimizeAsync(runner).get();
+		long runMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertTrue(slow.done.await(1, TimeUnit.MINUTES));
+		// every update would have taken the subscriber 300 * 20ms
+		assertTrue(runMillis < 3000);
+		assertTrue(slow.received.size() < 300);
+		assertEquals(result.getIterations(), slow.received.get(slow.received.size() - 1).getIterations());
+		assertTrue(slow.completed);
+	}
+
+	@Test
+	public void respectsDemandTest() throws Exception {
+		Optimizer optimizer = newOptimizer(20);
+		ProgressPublisher publisher = new ProgressPublisher(delivery);
+		optimizer.setProgressPublisher(publisher);
+		RecordingSubscriber idle = new RecordingSubscriber(0, 0);
+		publisher.subscribe(idle);
+
+		OptimizerResult result = optimizer.optimizeAsync(runner).get();
+		delivery.submit(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}).get();
+		assertEquals(0, idle.received.size());
+		assertEquals(1, idle.done.getCount());
+
+		// the final progress is still waiting, and the publisher completes once it is taken
+		idle.subscription.request(5);
+		assertTrue(idle.done.await(1, TimeUnit.MINUTES));
+		assertEquals(1, idle.received.size());
+		assertEquals(result.getIterations(), idle.received.get(0).getIterations());
+
+		RecordingSubscriber late = new RecordingSubscriber(1, 0);
+		publisher.subscribe(late);
+		assertTrue(late.done.await(1, TimeUnit.MINUTES));
+		assertEquals(result.getIterations(), late.received.get(0).getIterations());
+	}
+
+	@Test
+	public void invalidRequestTest() throws Exception {
+		ProgressPublisher publisher = new ProgressPublisher(delivery);
+		RecordingSubscriber subscriber = new RecordingSubscriber(-1, 0);
+		publisher.subscribe(subscriber);
+
+		assertTrue(subscriber.done.await(1, TimeUnit.MINUTES));
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+		assertEquals(0, publisher.getSubscriberCount());
+	}
+
+	@Test
+	public void cancelStopsOptimizerTest() throws Exception {
+		Optimizer optimizer = newOptimizer(Long.MAX_VALUE);
+		ISearchSpace space = optimizer.searchSpace();
+		ListenableFuture<OptimizerResult> result = optimizer.optimizeAsync(runner);
+		while (space.iterationCount() < 5) {
+			Thread.sleep(1);
+		}
+		assertTrue(result.cancel(false));
+
+		// the runner finishes the move it is in and then becomes free again
+		runner.submit(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}).get(1, TimeUnit.MINUTES);
+		assertTrue(optimizer.isFinished());
+		assertNull(optimizer.result().getStopReason());
+	}
+}
@@ -0,0 +1,85 @@
+package com.github.steveash.jtribespso.polish;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.Solution;
+import com.github.steveash.jtribespso.benchmark.Sphere;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+
+/**
+This is a test class for NelderMead and PatternSearch and is intended
+to contain all ILocalSearch Unit Tests
+*/
+public class LocalSearchTest {
+
+	private static Solution evaluated(Rosenbrock function, double... position) {
+		EuclidianVector vector = new EuclidianVector(position);
+		return new Solution(vector, function.evaluate(vector));
+	}
+
+	@Test
+	public void nelderMeadRosenbrockTest() {
+		Rosenbrock function = new Rosenbrock();
+		Solution start = evaluated(function, -1.2, 1);
+		int before = function.getEvaluations();
+
+		Solution result = new NelderMead().search(function, start, new double[] { 0.5, 0.5 }, 1000);
+		assertTrue(function.getEvaluations() - before <= 1000);
+		assertTrue("got " + result.getError(), result.getError() < 1e-8);
+		assertEquals(1, result.getPosition().get(0), 1e-3);
+		assertEquals(1, result.getPosition().get(1), 1e-3);
+		assertEquals(function.evaluate(result.getPosition()), result.getError(), 0.0);
+	}
+
+	@Test
+	public void patternSearchSphereTest() {
+		Sphere function = new Sphere(20);
+		double[] position = new double[20];
+		Arrays.fill(position, 3);
+		EuclidianVector vector = new EuclidianVector(position);
+		Solution start = new Solution(vector, function.evaluate(vector));
+		double[] steps = new double[20];
+		Arrays.fill(steps, 1);
+
+		Solution result = new PatternSearch().search(function, start, steps, 5000);
+		assertTrue("got " + result.getError(), result.getError() < 1e-12);
+	}
+
+	/**
+	 * Steps bigger than the bounds are clamped to them and the budget is never exceeded
+	 */
+	@Test
+	public void boundsAndBudgetTest() {
+		for (ILocalSearch search : Arrays.asList(new NelderMead(), new PatternSearch())) {
+			Rosenbrock function = new Rosenbrock();
+			Solution start = evaluated(function, 4.9, -4.9);
+			int before = function.getEvaluations();
+
+			Solution result = search.search(function, start, new double[] { 100, 100 }, 25);
+			assertTrue(function.getEvaluations() - before <= 25);
+			assertTrue(result.getError() < start.getError());
+			for (int n = 0; n < 2; n++) {
+				assertTrue(Math.abs(result.getPosition().get(n)) <= 5);
+			}
+		}
+	}
+
+	@Test
+	public void startIsKeptTest() {
+		Rosenbrock function = new Rosenbrock();
+		Solution minimum = evaluated(function, 1, 1);
+		assertSame(minimum, new NelderMead().search(function, minimum, new double[] { 0.1, 0.1 }, 100));
+		assertSame(minimum, new PatternSearch().search(function, minimum, new double[] { 0.1, 0.1 }, 100));
+
+		// too small a budget to build the simplex
+		Solution start = evaluated(function, -1.2, 1);
+		assertSame(start, new NelderMead().search(function, start, new double[] { 0.5, 0.5 }, 2));
+	}
+}
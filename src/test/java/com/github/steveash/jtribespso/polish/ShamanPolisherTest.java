@@ -0,0 +1,75 @@
+package com.github.steveash.jtribespso.polish;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.impl.HypersphereParticle;
+import com.github.steveash.jtribespso.impl.MultithreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.metrics.SwarmCounter;
+import com.github.steveash.jtribespso.metrics.SwarmMetrics;
+import com.github.steveash.jtribespso.metrics.SwarmMetricsSnapshot;
+import com.github.steveash.jtribespso.metrics.SwarmPhase;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+This is a test class for ShamanPolisher and is intended
+to contain all ShamanPolisher Unit Tests
+*/
+public class ShamanPolisherTest {
+
+	/**
+	 * Polishing after every adaptation drives the swarm to the minimum and its evaluations are counted
+	 */
+	@Test
+	public void polishedSearchSpaceTest() {
+		Rosenbrock function = new Rosenbrock();
+		SearchSpace<HypersphereParticle> space = new SingleThreadedHypersphereSearchSpace(function);
+		SwarmMetrics metrics = new SwarmMetrics();
+		space.setMetrics(metrics);
+		space.setPolisher(ShamanPolisher.nelderMead(2, 100));
+		for (int i = 0; i < 100; i++) {
+			space.moveThenAdapt();
+		}
+
+		SwarmMetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(function.getEvaluations(), space.evaluationCount());
+		assertEquals(space.evaluationCount(), snapshot.getCount(SwarmCounter.Evaluations));
+		assertEquals(space.adaptationCount(), snapshot.getRuns(SwarmPhase.Polish));
+		assertTrue(snapshot.getCount(SwarmCounter.PolishImprovements) > 0);
+		assertTrue("got " + space.bestSolution().getError(), space.bestSolution().getError() < 1e-8);
+	}
+
+	/**
+	 * The local searches run on the pool of a multithreaded search space
+	 */
+	@Test
+	public void multithreadedTest() {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			Rosenbrock function = new Rosenbrock();
+			SearchSpace<HypersphereParticle> space =
+					new MultithreadedHypersphereSearchSpace(MoreExecutors.listeningDecorator(pool), function, 4);
+			space.setPolisher(ShamanPolisher.nelderMead(4, 100));
+			for (int i = 0; i < 100; i++) {
+				space.moveThenAdapt();
+			}
+			assertEquals(function.getEvaluations(), space.evaluationCount());
+			assertTrue("got " + space.bestSolution().getError(), space.bestSolution().getError() < 1e-6);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void noShamansTest() {
+		ShamanPolisher.nelderMead(0, 100);
+	}
+}
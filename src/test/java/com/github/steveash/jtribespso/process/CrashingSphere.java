@@ -0,0 +1,62 @@
+package com.github.steveash.jtribespso.process;
+
+import java.util.Arrays;
+
+import com.github.steveash.jtribespso.DoubleObjectiveFunction;
+import com.github.steveash.jtribespso.EuclidianVector;
+
+/**
+ * A sphere function for worker processes that kills its process when the first coordinate is CrashAt and hangs
+ * when it is HangAt
+ */
+public class CrashingSphere extends DoubleObjectiveFunction {
+
+	public static final int Dimensions = 3;
+	public static final double CrashAt = 7;
+	public static final double HangAt = -7;
+
+	@Override
+	public double evaluate(double[] x) {
+		if (x[0] == CrashAt) {
+			Runtime.getRuntime().halt(3);
+		}
+		if (x[0] == HangAt) {
+			try {
+				Thread.sleep(Long.MAX_VALUE);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		double sum = 0;
+		for (double xi : x) {
+			sum += xi * xi;
+		}
+		return sum;
+	}
+
+	@Override
+	public int getDimensions() {
+		return Dimensions;
+	}
+
+	@Override
+	public EuclidianVector getMinBounds() {
+		return fill(-10);
+	}
+
+	@Override
+	public EuclidianVector getMaxBounds() {
+		return fill(10);
+	}
+
+	@Override
+	public EuclidianVector getInitialGuess() {
+		return null;
+	}
+
+	private static EuclidianVector fill(double value) {
+		double[] position = new double[Dimensions];
+		Arrays.fill(position, value);
+		return new EuclidianVector(position);
+	}
+}
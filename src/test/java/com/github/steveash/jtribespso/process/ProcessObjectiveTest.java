@@ -0,0 +1,156 @@
+package com.github.steveash.jtribespso.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.impl.MultithreadedHypersphereSearchSpace;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+This is a test class for ProcessObjective and is intended
+to contain all ProcessObjective Unit Tests
+*/
+public class ProcessObjectiveTest {
+
+	private static final CrashingSphere Sphere = new CrashingSphere();
+
+	private static ProcessObjective startPool(int workers, int batchSize) {
+		List<String> command = ImmutableList.of(
+				System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+				"-cp", System.getProperty("java.class.path"), ProcessWorker.class.getName(),
+				CrashingSphere.class.getName());
+		return new ProcessObjective(command, Sphere.getMinBounds(), Sphere.getMaxBounds(), workers, batchSize,
+				5, TimeUnit.SECONDS, Double.POSITIVE_INFINITY);
+	}
+
+	private static EuclidianVector guess(double x0) {
+		return new EuclidianVector(new double[] {x0, 1, 2});
+	}
+
+	@Test
+	public void protocolRoundTripTest() throws Exception {
+		ByteArrayOutputStream requests = new ByteArrayOutputStream();
+		WorkerProtocol.writeRequest(new DataOutputStream(requests), ImmutableList.of(guess(1), guess(3)), 3);
+		WorkerProtocol.writeRequest(new DataOutputStream(requests), ImmutableList.of(guess(0)), 3);
+
+		ByteArrayOutputStream responses = new ByteArrayOutputStream();
+		ProcessWorker.serve(Sphere, new ByteArrayInputStream(requests.toByteArray()), responses);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(responses.toByteArray()));
+		double[] first = WorkerProtocol.readResponse(in, 2);
+		assertEquals(6, first[0], 0);
+		assertEquals(14, first[1], 0);
+		assertEquals(5, WorkerProtocol.readResponse(in, 1)[0], 0);
+		assertEquals(0, in.available());
+	}
+
+	@Test
+	public void batchesConcurrentEvaluationsTest() throws Exception {
+		ListeningExecutorService callers = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+		try (ProcessObjective target = startPool(1, 8)) {
+			List<Future<Double>> errors = Lists.newArrayList();
+			for (int i = 0; i < 64; i++) {
+				final double x0 = i / 10.0;
+				errors.add(callers.submit(new Callable<Double>() {
+					@Override
+					public Double call() {
+						return target.evaluate(guess(x0));
+					}
+				}));
+			}
+			for (int i = 0; i < errors.size(); i++) {
+				assertEquals(Sphere.evaluate(guess(i / 10.0)), errors.get(i).get(), 0);
+			}
+			assertTrue(target.getRoundTripCount() < 64);
+			assertEquals(0, target.getRestartCount());
+		} finally {
+			callers.shutdown();
+		}
+	}
+
+	@Test
+	public void restartsCrashedWorkerTest() throws Exception {
+		ListeningExecutorService callers = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+		try (ProcessObjective target = startPool(1, 4)) {
+			assertEquals(5, target.evaluate(guess(0)), 0);
+
+			List<Future<Double>> errors = Lists.newArrayList();
+			for (final double x0 : new double[] {1, CrashingSphere.CrashAt, 2, 3}) {
+				errors.add(callers.submit(new Callable<Double>() {
+					@Override
+					public Double call() {
+						return target.evaluate(guess(x0));
+					}
+				}));
+			}
+			assertEquals(6, errors.get(0).get(), 0);
+			assertEquals(Double.POSITIVE_INFINITY, errors.get(1).get(), 0);
+			assertEquals(9, errors.get(2).get(), 0);
+			assertEquals(14, errors.get(3).get(), 0);
+			assertEquals(1, target.getFailureCount());
+
+			// a worker is only replaced when it is next handed a batch, which may be this one
+			assertEquals(5, target.evaluate(guess(0)), 0);
+			assertTrue(target.getRestartCount() >= 1);
+		} finally {
+			callers.shutdown();
+		}
+	}
+
+	@Test
+	public void timeoutTest() throws Exception {
+		List<String> command = ImmutableList.of(
+				System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+				"-cp", System.getProperty("java.class.path"), ProcessWorker.class.getName(),
+				CrashingSphere.class.getName());
+		try (ProcessObjective target = new ProcessObjective(command, Sphere.getMinBounds(), Sphere.getMaxBounds(), 1,
+				3, TimeUnit.SECONDS)) {
+			// the first evaluation also waits for the worker's JVM to start
+			assertEquals(5, target.evaluate(guess(0)), 0);
+			assertEquals(Double.POSITIVE_INFINITY, target.evaluate(guess(CrashingSphere.HangAt)), 0);
+			assertEquals(1, target.getTimeoutCount());
+			assertEquals(5, target.evaluate(guess(0)), 0);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void closedTest() {
+		ProcessObjective target = startPool(1, 1);
+		target.close();
+		target.evaluate(guess(0));
+	}
+
+	@Test
+	public void searchSpaceTest() throws Exception {
+		ListeningExecutorService pool = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+		try (ProcessObjective target = startPool(2, 4)) {
+			MultithreadedHypersphereSearchSpace space = new MultithreadedHypersphereSearchSpace(pool, target, 4);
+			space.moveThenAdapt();
+			double initial = space.bestSolution().getError();
+			for (int i = 0; i < 20; i++) {
+				space.moveThenAdapt();
+			}
+			assertTrue(space.bestSolution().getError() <= initial);
+			assertEquals(0, target.getFailureCount());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.github.steveash.jtribespso.rand;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+This is a test class for JdkRandom and is intended
+to contain all JdkRandom Unit Tests
+*/
+public class JdkRandomTest {
+
+	@Test
+	public void matchesJavaUtilRandomTest() {
+		JdkRandom target = new JdkRandom(42);
+		Random expected = new Random(42);
+
+		for (int n = 0; n < 1000; n++) {
+			assertEquals(expected.nextInt(), target.nextInt());
+			assertEquals(expected.nextDouble(), target.nextDouble(), 0);
+			assertEquals(expected.nextInt(17), target.nextInt(17));
+			assertEquals(expected.nextInt(64), target.nextInt(64));
+			assertEquals(expected.nextInt(Integer.MAX_VALUE), target.nextInt(Integer.MAX_VALUE));
+		}
+	}
+
+	@Test
+	public void restoreStateTest() {
+		JdkRandom target = new JdkRandom();
+		for (int n = 0; n < 10; n++) {
+			target.nextDouble();
+		}
+		long state = target.getState();
+
+		double[] expected = new double[100];
+		for (int n = 0; n < expected.length; n++) {
+			expected[n] = target.nextDouble();
+		}
+
+		JdkRandom restored = new JdkRandom();
+		restored.setState(state);
+		for (int n = 0; n < expected.length; n++) {
+			assertEquals(expected[n], restored.nextDouble(), 0);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.github.steveash.jtribespso.restart;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.ISearchSpaceFactory;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.Solution;
+import com.github.steveash.jtribespso.benchmark.Rastrigin;
+import com.github.steveash.jtribespso.benchmark.Sphere;
+import com.github.steveash.jtribespso.impl.SearchSpaceFactories;
+import com.github.steveash.jtribespso.metrics.SwarmCounter;
+import com.github.steveash.jtribespso.metrics.SwarmMetrics;
+import com.github.steveash.jtribespso.metrics.SwarmMetricsSnapshot;
+import com.github.steveash.jtribespso.optimizer.Optimizer;
+import com.github.steveash.jtribespso.optimizer.OptimizerResult;
+import com.github.steveash.jtribespso.optimizer.StopCriteria;
+
+/**
+This is a test class for RestartingSearchSpace and is intended
+to contain all RestartingSearchSpace, RestartPolicy and EliteArchive Unit Tests
+*/
+public class RestartingSearchSpaceTest {
+
+	private static Solution solution(double error) {
+		return new Solution(new EuclidianVector(error), error);
+	}
+
+	@Test
+	public void eliteArchiveTest() {
+		EliteArchive archive = new EliteArchive(3);
+		assertNull(archive.best());
+		Solution two = solution(2);
+		assertTrue(archive.offer(two));
+		assertFalse(archive.offer(two));
+		assertTrue(archive.offer(solution(5)));
+		assertTrue(archive.offer(solution(1)));
+		assertTrue(archive.offer(solution(3)));
+		assertFalse(archive.offer(solution(4)));
+
+		List<Solution> solutions = archive.getSolutions();
+		assertEquals(3, solutions.size());
+		assertEquals(1, solutions.get(0).getError(), 0.0);
+		assertSame(two, solutions.get(1));
+		assertEquals(3, solutions.get(2).getError(), 0.0);
+		assertSame(solutions.get(0), archive.best());
+	}
+
+	@Test
+	public void nextTribeCountTest() {
+		RestartPolicy policy = new RestartPolicy(10, 0, 0, 1.5, 5, 1);
+		assertEquals(2, policy.nextTribeCount(1));
+		assertEquals(3, policy.nextTribeCount(2));
+		assertEquals(5, policy.nextTribeCount(4));
+		assertEquals(5, policy.nextTribeCount(5));
+	}
+
+	/**
+	 * A swarm stuck in a local minimum of Rastrigin is restarted with twice the tribes, the best solution never gets
+	 * worse across restarts and the counts add up over all the swarms
+	 */
+	@Test
+	public void restartsOnPlateauTest() {
+		RestartingSearchSpace space = new RestartingSearchSpace(new Rastrigin(10),
+				SearchSpaceFactories.singleThreadedHypersphere(), new RestartPolicy(30, 1e-4, 0, 2, 16, 4));
+		space.moveThenAdapt();
+		assertEquals(0, space.iterationCount());
+		assertEquals(1, space.getCurrentSwarm().swarmSize());
+
+		double best = space.bestSolution().getError();
+		long evaluations = space.evaluationCount();
+		for (int i = 0; i < 1000; i++) {
+			space.moveThenAdapt();
+			assertTrue(space.bestSolution().getError() <= best);
+			best = space.bestSolution().getError();
+			assertTrue(space.evaluationCount() > evaluations);
+			evaluations = space.evaluationCount();
+		}
+		assertEquals(1000, space.iterationCount());
+		assertTrue(space.getRestartCount() > 1);
+		assertEquals(Math.min(16, 1 << space.getRestartCount()), space.getCurrentTribeCount());
+
+		List<Solution> archive = space.getEliteArchive();
+		assertEquals(Math.min(4, space.getRestartCount()), archive.size());
+		for (int i = 1; i < archive.size(); i++) {
+			assertTrue(archive.get(i - 1).getError() <= archive.get(i).getError());
+		}
+		assertTrue(space.bestSolution().getError() <= archive.get(0).getError());
+
+		SearchSpace<?> current = space.getCurrentSwarm();
+		assertTrue(space.evaluationCount() > current.evaluationCount());
+		assertEquals(current.swarmSize(), space.swarmSize());
+	}
+
+	/**
+	 * A swarm that has converged is restarted for being collapsed long before its plateau is over
+	 */
+	@Test
+	public void restartsWhenCollapsedTest() {
+		RestartingSearchSpace space = new RestartingSearchSpace(new Sphere(2),
+				SearchSpaceFactories.singleThreadedHypersphere(), new RestartPolicy(1000000, 1e-4, 1e-3, 2, 64, 10));
+		for (int i = 0; i < 1000 && space.getRestartCount() == 0; i++) {
+			space.moveThenAdapt();
+		}
+		assertTrue(space.getRestartCount() > 0);
+		assertEquals(2, space.getCurrentTribeCount());
+	}
+
+	/**
+	 * Metrics are set on every new swarm by the factory, so they cover all of the swarms
+	 */
+	@Test
+	public void factoryConfiguresSwarmsTest() {
+		final SwarmMetrics metrics = new SwarmMetrics();
+		ISearchSpaceFactory factory = new ISearchSpaceFactory() {
+			@Override
+			public String getName() {
+				return "measured";
+			}
+
+			@Override
+			public SearchSpace<?> create(IObjectiveFunction function, long seed) {
+				SearchSpace<?> swarm = SearchSpaceFactories.singleThreadedHypersphere().create(function, seed);
+				swarm.setMetrics(metrics);
+				return swarm;
+			}
+		};
+		RestartingSearchSpace space = new RestartingSearchSpace(new Rastrigin(5), factory,
+				new RestartPolicy(30, 1e-4, 0, 2, 16, 4));
+		for (int i = 0; i < 300; i++) {
+			space.moveThenAdapt();
+		}
+		assertTrue(space.getRestartCount() > 0);
+		SwarmMetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(space.evaluationCount(), snapshot.getCount(SwarmCounter.Evaluations));
+		assertEquals(space.iterationCount(), snapshot.getCount(SwarmCounter.Iterations));
+	}
+
+	@Test
+	public void optimizerTest() {
+		RestartingSearchSpace space = new RestartingSearchSpace(new Rastrigin(5),
+				SearchSpaceFactories.singleThreadedHypersphere(), RestartPolicy.ipop());
+		OptimizerResult result = new Optimizer(space, StopCriteria.maxEvaluations(20000)).run();
+
+		assertEquals(space.bestSolution().getError(), result.getBestSolution().getError(), 0.0);
+		assertTrue(result.getEvaluations() >= 20000);
+		assertEquals(space.iterationCount(), result.getIterations());
+	}
+}
@@ -0,0 +1,101 @@
+package com.github.steveash.jtribespso.seed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.rand.JdkRandom;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+
+/**
+This is a test class for the InitialPositionStrategy implementations and is intended
+to contain all LatinHypercubeStrategy, SobolStrategy and HaltonStrategy Unit Tests
+*/
+public class InitialPositionStrategyTest {
+
+	@Test
+	public void latinHypercubeStratifiesEveryDimensionTest() {
+		double[][] points = new LatinHypercubeStrategy().generateUnitPoints(7, 50, new JdkRandom(42));
+		assertStratified(points, 50);
+	}
+
+	@Test
+	public void sobolStratifiesEveryDimensionTest() {
+		double[][] points = new SobolStrategy(false).generateUnitPoints(SobolStrategy.MaxDimensions, 64, new JdkRandom(42));
+		assertStratified(points, 64);
+
+		//The digital shift moves the points around but keeps the stratification
+		double[][] shifted = new SobolStrategy().generateUnitPoints(SobolStrategy.MaxDimensions, 64, new JdkRandom(42));
+		assertStratified(shifted, 64);
+	}
+
+	@Test
+	public void sobolFirstPointsTest() {
+		double[][] points = new SobolStrategy(false).generateUnitPoints(3, 4, new JdkRandom(42));
+		assertEquals(0.0, points[0][0], 0.0);
+		assertEquals(0.5, points[1][0], 0.0);
+		assertEquals(0.5, points[1][1], 0.0);
+		assertEquals(0.75, points[2][0], 0.0);
+		assertEquals(0.25, points[2][1], 0.0);
+		assertEquals(0.25, points[3][0], 0.0);
+		assertEquals(0.75, points[3][1], 0.0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void sobolTooManyDimensionsTest() {
+		new SobolStrategy().generateUnitPoints(SobolStrategy.MaxDimensions + 1, 4, new JdkRandom(42));
+	}
+
+	@Test
+	public void haltonFirstPointsTest() {
+		double[][] points = new HaltonStrategy(false).generateUnitPoints(2, 3, new JdkRandom(42));
+		assertEquals(0.5, points[0][0], 1e-12);
+		assertEquals(1.0 / 3, points[0][1], 1e-12);
+		assertEquals(0.25, points[1][0], 1e-12);
+		assertEquals(2.0 / 3, points[1][1], 1e-12);
+		assertEquals(0.75, points[2][0], 1e-12);
+		assertEquals(1.0 / 9, points[2][1], 1e-12);
+	}
+
+	@Test
+	public void haltonPrimeBasesTest() {
+		int[] primes = HaltonStrategy.firstPrimes(10);
+		assertEquals(2, primes[0]);
+		assertEquals(29, primes[9]);
+	}
+
+	@Test
+	public void positionsAreScaledToBoundsTest() {
+		Rosenbrock function = new Rosenbrock();
+		InitialPositionStrategy[] strategies = {
+				new UniformStrategy(), new LatinHypercubeStrategy(), new SobolStrategy(), new HaltonStrategy()
+		};
+		for (InitialPositionStrategy strategy : strategies) {
+			List<EuclidianVector> positions = strategy.generatePositions(function, 33, new JdkRandom());
+			assertEquals(33, positions.size());
+			for (EuclidianVector position : positions) {
+				assertEquals(2, position.getDimensions());
+				for (int n = 0; n < 2; n++) {
+					assertTrue(position.get(n) >= -5 && position.get(n) < 5);
+				}
+			}
+		}
+	}
+
+	private static void assertStratified(double[][] points, int strata) {
+		int dimensions = points[0].length;
+		for (int n = 0; n < dimensions; n++) {
+			boolean[] hit = new boolean[strata];
+			for (double[] point : points) {
+				assertTrue(point[n] >= 0 && point[n] < 1);
+				int stratum = (int) (point[n] * strata);
+				assertTrue("dimension " + n + " has two points in stratum " + stratum, !hit[stratum]);
+				hit[stratum] = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.github.steveash.jtribespso.seed;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.gauss.GaussianFitFunction;
+import com.github.steveash.jtribespso.gauss.GaussianIT;
+import com.github.steveash.jtribespso.impl.SingleThreadedGaussianSearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.optimizer.IStopCriterion;
+import com.github.steveash.jtribespso.optimizer.Optimizer;
+import com.github.steveash.jtribespso.optimizer.OptimizerResult;
+import com.github.steveash.jtribespso.optimizer.StopCriteria;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+
+/**
+ * Compares the number of objective function evaluations needed to reach a target error when the swarm is seeded
+ * with a single particle (the default) against seeding a batch of tribes with each InitialPositionStrategy
+ */
+public class SeedingIT {
+    private static final Logger log = LoggerFactory.getLogger(SeedingIT.class);
+
+    private static final int MaxMoves = 5000;
+
+    @Test
+    public void shouldReportEvaluationsToTarget() throws Exception {
+        final List<double[]> fitData = GaussianIT.parseFitData("gauss-data.txt");
+
+        log.info("********** Rosenbrock, hypersphere particles, target 1e-6 **********");
+        compareStrategies(new ProblemFactory() {
+            @Override
+            public IObjectiveFunction create() {
+                return new Rosenbrock();
+            }
+
+            @Override
+            public SearchSpace<?> createSpace(IObjectiveFunction function) {
+                return new SingleThreadedHypersphereSearchSpace(function);
+            }
+        }, 1e-6, 10, 20);
+
+        log.info("********** Gaussian fit, independent gaussian particles, target 0.5 **********");
+        compareStrategies(new ProblemFactory() {
+            @Override
+            public IObjectiveFunction create() {
+                return new GaussianFitFunction(2, fitData);
+            }
+
+            @Override
+            public SearchSpace<?> createSpace(IObjectiveFunction function) {
+                return new SingleThreadedGaussianSearchSpace(function);
+            }
+        }, 0.5, 20, 5);
+    }
+
+    private interface ProblemFactory {
+        IObjectiveFunction create();
+
+        SearchSpace<?> createSpace(IObjectiveFunction function);
+    }
+
+    private static void compareStrategies(ProblemFactory factory, double target, int tribes, int loops) {
+        log.info(runTests("single particle (default)", factory, null, 1, target, loops));
+        log.info(runTests("uniform x " + tribes, factory, new UniformStrategy(), tribes, target, loops));
+        log.info(runTests("latin hypercube x " + tribes, factory, new LatinHypercubeStrategy(), tribes, target, loops));
+        log.info(runTests("sobol x " + tribes, factory, new SobolStrategy(), tribes, target, loops));
+        log.info(runTests("halton x " + tribes, factory, new HaltonStrategy(), tribes, target, loops));
+    }
+
+    private static String runTests(String name, ProblemFactory factory, InitialPositionStrategy strategy,
+            int tribes, double target, int loops) {
+
+        int successCount = 0;
+        long evalCount = 0;
+        for (int n = 0; n < loops; n++) {
+            SearchSpace<?> space = factory.createSpace(factory.create());
+            if (strategy != null) {
+                space.setInitialPositionStrategy(strategy, tribes);
+            }
+
+            IStopCriterion targetError = StopCriteria.targetError(target);
+            OptimizerResult result = new Optimizer(space, targetError, StopCriteria.maxIterations(MaxMoves)).run();
+            if (result.getStopReason() == targetError) {
+                successCount += 1;
+            }
+            evalCount += result.getEvaluations();
+        }
+        return String.format("%-28s avg evaluations %10.1f   success %.2f",
+                name, ((double) evalCount) / loops, ((double) successCount) / loops);
+    }
+}
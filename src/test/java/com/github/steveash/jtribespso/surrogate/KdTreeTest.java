@@ -0,0 +1,68 @@
+package com.github.steveash.jtribespso.surrogate;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+
+/**
+This is a test class for KdTree and is intended
+to contain all KdTree Unit Tests
+*/
+public class KdTreeTest {
+
+	private static double squaredDistance(double[] a, double[] b) {
+		double sum = 0;
+		for (int n = 0; n < a.length; n++) {
+			sum += (a[n] - b[n]) * (a[n] - b[n]);
+		}
+		return sum;
+	}
+
+	@Test
+	public void emptyTreeTest() {
+		KdTree target = new KdTree(2);
+		assertEquals(0, target.nearest(new double[] {0, 0}, 3, new int[3], new double[3]));
+	}
+
+	@Test
+	public void matchesBruteForceTest() {
+		HyperspaceRandom rng = new HyperspaceRandom(5);
+		int dimensions = 3;
+		int k = 5;
+		KdTree target = new KdTree(dimensions);
+		double[][] points = new double[1000][];
+
+		for (int i = 0; i < points.length; i++) {
+			// points that arrive sorted along a diagonal are the worst case for an unbalanced tree
+			double t = i / (double) points.length;
+			points[i] = new double[] {t + rng.nextDouble(0, 0.05), t, rng.nextDouble(0, 1)};
+			target.add(points[i], i);
+
+			if (i % 97 == 0 || i == points.length - 1) {
+				for (int q = 0; q < 20; q++) {
+					double[] query = {rng.nextDouble(-0.1, 1.1), rng.nextDouble(-0.1, 1.1), rng.nextDouble(-0.1, 1.1)};
+					double[] expected = new double[i + 1];
+					for (int p = 0; p <= i; p++) {
+						expected[p] = squaredDistance(points[p], query);
+					}
+					Arrays.sort(expected);
+
+					int[] nearest = new int[k];
+					double[] distances = new double[k];
+					int found = target.nearest(query, k, nearest, distances);
+					assertEquals(Math.min(k, i + 1), found);
+					for (int n = 0; n < found; n++) {
+						assertEquals(expected[n], distances[n], 0);
+						assertEquals(distances[n], squaredDistance(points[(int) target.value(nearest[n])], query), 0);
+					}
+				}
+			}
+		}
+		assertEquals(points.length, target.size());
+		assertEquals(points[123][0], target.coordinate(123, 0), 0);
+	}
+}
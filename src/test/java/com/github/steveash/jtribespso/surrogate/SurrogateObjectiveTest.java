@@ -0,0 +1,86 @@
+package com.github.steveash.jtribespso.surrogate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.IObjectiveFunction;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.benchmark.Rastrigin;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
+
+/**
+This is a test class for SurrogateObjective and is intended
+to contain all SurrogateObjective Unit Tests
+*/
+public class SurrogateObjectiveTest {
+
+	private static final int Dimensions = 4;
+
+	/**
+	 * Counts its evaluations
+	 */
+	private static class CountingRastrigin extends Rastrigin {
+		long evaluations = 0;
+
+		CountingRastrigin() {
+			super(Dimensions);
+		}
+
+		@Override
+		public double evaluate(double[] x) {
+			evaluations += 1;
+			return super.evaluate(x);
+		}
+	}
+
+	private static SearchSpace<?> optimize(IObjectiveFunction function, int iterations) {
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(function, new HyperspaceRandom(1));
+		for (int n = 0; n < iterations; n++) {
+			space.moveThenAdapt();
+		}
+		return space;
+	}
+
+	@Test
+	public void warmUpTest() {
+		CountingRastrigin function = new CountingRastrigin();
+		SurrogateObjective target = new SurrogateObjective(function, 2, 0, 3);
+		EuclidianVector origin = new EuclidianVector(new double[Dimensions]);
+		EuclidianVector far = new EuclidianVector(new double[] {4.5, 4.5, 4.5, 4.5});
+
+		EuclidianVector nearFar = new EuclidianVector(new double[] {4.4, 4.5, 4.5, 4.5});
+		target.evaluate(far);
+		target.evaluate(nearFar);
+		assertEquals(function.evaluate(nearFar),
+				target.evaluate(new EuclidianVector(new double[] {4.5, 4.4, 4.5, 4.5}), 1), 1e-9);
+		assertEquals(0, target.getSkippedCount());
+
+		// the archive is warm now, and the point next to two bad ones is skipped
+		double predicted = target.evaluate(new EuclidianVector(new double[] {4.45, 4.5, 4.5, 4.5}), 1);
+		assertTrue(predicted >= 1);
+		assertEquals(1, target.getSkippedCount());
+		assertEquals(3, target.getArchiveSize());
+		assertEquals(3, target.getEvaluatedCount());
+
+		// unless the cutoff is above the neighbours
+		assertEquals(function.evaluate(origin), target.evaluate(origin, 1e6), 0);
+		assertEquals(1, target.getSkippedCount());
+	}
+
+	@Test
+	public void fewerEvaluationsTest() {
+		CountingRastrigin function = new CountingRastrigin();
+		SurrogateObjective target = new SurrogateObjective(function);
+		SearchSpace<?> space = optimize(target, 150);
+
+		assertEquals(function.evaluations, target.getEvaluatedCount());
+		assertEquals(space.evaluationCount(), target.getEvaluatedCount() + target.getSkippedCount());
+		assertTrue(target.getSkippedCount() * 5 > space.evaluationCount());
+		double bestError = space.bestSolution().getError();
+		assertEquals(bestError, function.evaluate(space.bestSolution().getPosition()), 0);
+	}
+}
@@ -0,0 +1,61 @@
+package com.github.steveash.jtribespso.test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the current thread with the HotSpot specific
+ * com.sun.management.ThreadMXBean.  Check isSupported() first; other JVMs don't have it
+ */
+public class AllocationMeter {
+
+	private static final com.sun.management.ThreadMXBean threads = findThreadBean();
+
+	private static com.sun.management.ThreadMXBean findThreadBean() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return null;
+		}
+		com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+		if (!hotspot.isThreadAllocatedMemorySupported()) {
+			return null;
+		}
+		hotspot.setThreadAllocatedMemoryEnabled(true);
+		return hotspot;
+	}
+
+	public static boolean isSupported() {
+		return threads != null;
+	}
+
+	/**
+	 * @return the total bytes the current thread has allocated so far
+	 */
+	public static long allocatedBytes() {
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Runs the task repeatedly so the JIT compiles it, then measures it
+	 * @param task
+	 * @param warmups
+	 * @param runs
+	 * @return the bytes allocated per run
+	 */
+	public static double bytesPerRun(Runnable task, int warmups, int runs) {
+		for (int n = 0; n < warmups; n++) {
+			task.run();
+		}
+		//measuring itself allocates a little, so subtract the cost of an empty measurement
+		long overhead = allocatedBytes();
+		overhead = allocatedBytes() - overhead;
+
+		long start = allocatedBytes();
+		for (int n = 0; n < runs; n++) {
+			task.run();
+		}
+		return (double) (allocatedBytes() - start - overhead) / runs;
+	}
+
+	private AllocationMeter() {
+	}
+}
@@ -4,7 +4,9 @@ import com.github.steveash.jtribespso.EuclidianVector;
 import com.github.steveash.jtribespso.IObjectiveFunction;
 import com.github.steveash.jtribespso.Particle;
 import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.Solution;
 import com.github.steveash.jtribespso.impl.IndependentGaussianParticle;
+import com.github.steveash.jtribespso.rand.HyperspaceRandom;
 
 /**
  * @author Steve Ash
@@ -26,4 +28,9 @@ public class BaseSearchSpace extends SearchSpace<IndependentGaussianParticle> {
     protected IndependentGaussianParticle generateParticleAtPosition(EuclidianVector position) {
         return new IndependentGaussianParticle(this.goodnessFunction(), position);
     }
+
+    @Override
+    protected IndependentGaussianParticle generateParticleAtSolution(Solution solution) {
+        return new IndependentGaussianParticle(this.goodnessFunction(), solution, new HyperspaceRandom());
+    }
 }
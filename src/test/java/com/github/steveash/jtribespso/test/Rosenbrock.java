@@ -1,14 +1,16 @@
 package com.github.steveash.jtribespso.test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.github.steveash.jtribespso.EuclidianVector;
 import com.github.steveash.jtribespso.IObjectiveFunction;
 
 public class Rosenbrock implements IObjectiveFunction {
 
-	private int evaluations;
+	private final AtomicInteger evaluations = new AtomicInteger();
 
 	public int getEvaluations() {
-		return evaluations;
+		return evaluations.get();
 	}
 
     @Override
@@ -33,7 +35,7 @@ public class Rosenbrock implements IObjectiveFunction {
 
     @Override
 	public double evaluate(EuclidianVector position) {
-		evaluations++;
+		evaluations.incrementAndGet();
 		return Math.pow(1 - position.get(0), 2) + 100 * Math.pow(position.get(1) - (position.get(0) * position.get(0)), 2);
 	}
 
@@ -44,6 +46,5 @@ public class Rosenbrock implements IObjectiveFunction {
 //	}
 
 	public Rosenbrock() {
-		evaluations = 0;
 	}
 }
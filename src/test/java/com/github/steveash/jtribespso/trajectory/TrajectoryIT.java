@@ -0,0 +1,74 @@
+package com.github.steveash.jtribespso.trajectory;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.seed.UniformStrategy;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Measures what recording a trajectory costs the move loop.  Rosenbrock is about the cheapest objective function
+ * there is, so this is close to the worst case relative overhead
+ */
+public class TrajectoryIT {
+    private static final Logger log = LoggerFactory.getLogger(TrajectoryIT.class);
+
+    private static final int Tribes = 2000;
+    private static final int Iterations = 300;
+    private static final int Rounds = 5;
+
+    @Test
+    public void shouldMeasureRecordingOverhead() throws Exception {
+        Path directory = Files.createTempDirectory("trajectory");
+        try {
+            for (int round = 0; round < Rounds; round++) {
+                double plain = nanosPerEvaluation(null);
+                TrajectoryRecorder recorder = new TrajectoryRecorder(directory, 2);
+                double recorded = nanosPerEvaluation(recorder);
+                recorder.close();
+                log.info(String.format("round %d: %.1f ns per move without recording, %.1f ns with %,d records " +
+                        "(%+.1f%%)", round, plain, recorded, recorder.recordCount(), 100 * (recorded / plain - 1)));
+            }
+
+            long replayed = 0;
+            Stopwatch watch = Stopwatch.createStarted();
+            try (TrajectoryReader reader = new TrajectoryReader(directory)) {
+                while (reader.next()) {
+                    replayed += 1;
+                }
+            }
+            log.info("replayed {} records in {} ms", replayed, watch.elapsed(TimeUnit.MILLISECONDS));
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static double nanosPerEvaluation(TrajectoryRecorder recorder) {
+        Rosenbrock function = new Rosenbrock();
+        SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(function);
+        space.setInitialPositionStrategy(new UniformStrategy(), Tribes);
+        space.moveThenAdapt();
+        space.setTrajectoryRecorder(recorder);
+
+        long start = space.evaluationCount();
+        Stopwatch watch = Stopwatch.createStarted();
+        for (int n = 0; n < Iterations; n++) {
+            space.moveThenAdapt();
+        }
+        return (double) watch.elapsed(TimeUnit.NANOSECONDS) / (space.evaluationCount() - start);
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.steveash.jtribespso.trajectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.steveash.jtribespso.EuclidianVector;
+import com.github.steveash.jtribespso.Particle;
+import com.github.steveash.jtribespso.SearchSpace;
+import com.github.steveash.jtribespso.impl.SingleThreadedHypersphereSearchSpace;
+import com.github.steveash.jtribespso.seed.UniformStrategy;
+import com.github.steveash.jtribespso.test.Rosenbrock;
+import com.google.common.collect.Maps;
+
+/**
+This is a test class for TrajectoryRecorder and TrajectoryReader and is intended
+to contain all trajectory Unit Tests
+*/
+public class TrajectoryRecorderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void recordAndReplayTest() throws IOException {
+		Path directory = folder.newFolder().toPath();
+		//Ten records per segment
+		long segmentBytes = TrajectoryRecorder.HeaderSize + 10 * TrajectoryRecorder.recordSize(3);
+		TrajectoryRecorder target = new TrajectoryRecorder(directory, 3, segmentBytes);
+		for (int n = 0; n < 35; n++) {
+			target.record(n + 1, n % 4, new EuclidianVector(n, -n, n * 0.5), n * 0.25);
+		}
+		target.close();
+		assertEquals(35, target.recordCount());
+		assertEquals(4, countSegments(directory));
+
+		TrajectoryReader reader = new TrajectoryReader(directory);
+		assertEquals(3, reader.getDimensions());
+		for (int n = 0; n < 35; n++) {
+			assertTrue(reader.next());
+			assertEquals(n + 1, reader.getIteration());
+			assertEquals(n % 4, reader.getParticleId());
+			assertEquals(n * 0.25, reader.getError(), 0);
+			assertEquals(new EuclidianVector(n, -n, n * 0.5), reader.getPosition());
+		}
+		assertFalse(reader.next());
+		reader.close();
+	}
+
+	@Test
+	public void maxSegmentsTest() throws IOException {
+		Path directory = folder.newFolder().toPath();
+		long segmentBytes = TrajectoryRecorder.HeaderSize + 10 * TrajectoryRecorder.recordSize(2);
+		TrajectoryRecorder target = new TrajectoryRecorder(directory, 2, segmentBytes, 2);
+		for (int n = 0; n < 55; n++) {
+			target.record(n + 1, 0, new EuclidianVector(n, n), n);
+			assertTrue(countSegments(directory) <= 2);
+		}
+		target.close();
+		assertEquals(55, target.recordCount());
+		assertFalse(Files.exists(TrajectoryRecorder.segmentPath(directory, 3)));
+		assertTrue(Files.exists(TrajectoryRecorder.segmentPath(directory, 4)));
+
+		//Only the last two segments are left: records 41 to 55
+		TrajectoryReader reader = new TrajectoryReader(directory);
+		for (int n = 40; n < 55; n++) {
+			assertTrue(reader.next());
+			assertEquals(n + 1, reader.getIteration());
+		}
+		assertFalse(reader.next());
+		reader.close();
+	}
+
+	@Test
+	public void unfinishedSegmentTest() throws IOException {
+		Path directory = folder.newFolder().toPath();
+		TrajectoryRecorder target = new TrajectoryRecorder(directory, 2, 4096);
+		for (int n = 0; n < 5; n++) {
+			target.record(1, n, new EuclidianVector(n, n), n);
+		}
+
+		//The recorder hasn't been closed, so the segment doesn't know how many records it holds
+		TrajectoryReader reader = new TrajectoryReader(directory);
+		int count = 0;
+		while (reader.next()) {
+			assertEquals(count, reader.getParticleId());
+			count += 1;
+		}
+		assertEquals(5, count);
+		target.close();
+	}
+
+	@Test
+	public void recordSearchSpaceTest() throws IOException {
+		Path directory = folder.newFolder().toPath();
+		Rosenbrock function = new Rosenbrock();
+		SearchSpace<?> space = new SingleThreadedHypersphereSearchSpace(function);
+		space.setInitialPositionStrategy(new UniformStrategy(), 20);
+		space.moveThenAdapt();
+
+		TrajectoryRecorder recorder = new TrajectoryRecorder(directory, 2, 8192);
+		space.setTrajectoryRecorder(recorder);
+		int seedingEvaluations = function.getEvaluations();
+		for (int n = 0; n < 30; n++) {
+			space.moveThenAdapt();
+		}
+		recorder.close();
+
+		//Every move is recorded.  The other evaluations were made by particles created during adaptation
+		assertTrue(recorder.recordCount() > 0);
+		assertTrue(recorder.recordCount() <= function.getEvaluations() - seedingEvaluations);
+
+		Map<Integer, EuclidianVector> lastPositions = Maps.newHashMap();
+		TrajectoryReader reader = new TrajectoryReader(directory);
+		long records = 0;
+		while (reader.next()) {
+			assertTrue(reader.getIteration() >= 1 && reader.getIteration() <= 30);
+			if (reader.getIteration() == 30) {
+				lastPositions.put(reader.getParticleId(), reader.getPosition());
+			}
+			records += 1;
+		}
+		assertEquals(recorder.recordCount(), records);
+
+		assertFalse(lastPositions.isEmpty());
+		for (Particle particle : space.tribeMembers()) {
+			if (lastPositions.containsKey(particle.getId())) {
+				assertEquals(particle.getPosition(), lastPositions.get(particle.getId()));
+			}
+		}
+	}
+
+	private static int countSegments(Path directory) throws IOException {
+		int count = 0;
+		try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, TrajectoryRecorder.SegmentGlob)) {
+			for (Path ignored : segments) {
+				count += 1;
+			}
+		}
+		return count;
+	}
+}